@@ -1,128 +1,227 @@
 package com.graphvizfx.algorithms;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
 import java.util.*;
 
 /**
  * A* search visualizer that tracks open/closed sets and highlights the final path.
  */
 public class AStarAlgorithm implements GraphAlgorithm {
+
+    /**
+     * Lower bound A* steers by.
+     */
+    public enum Heuristic {
+        /** Straight-line distance between canvas positions; only admissible for geometric weights. */
+        STRAIGHT_LINE,
+        /**
+         * Triangle-inequality bound from a cached {@link LandmarkTable}, admissible for any
+         * non-negative weights; graphs with a negative weight fall back to the straight line.
+         * The table costs two full searches per landmark whenever the graph version changes, so
+         * it pays off over many queries on one graph rather than for single interactive runs.
+         */
+        LANDMARKS
+    }
+
+    private final IndexedHeap.Kind heapKind;
+    private final Heuristic heuristic;
+
+    public AStarAlgorithm() {
+        this(IndexedHeap.Kind.BINARY);
+    }
+
+    /**
+     * @param heapKind comparison heap to keep the open set in
+     * @throws IllegalArgumentException if the kind is monotone
+     */
+    public AStarAlgorithm(IndexedHeap.Kind heapKind) {
+        this(heapKind, Heuristic.STRAIGHT_LINE);
+    }
+
+    /**
+     * @param heapKind  comparison heap to keep the open set in
+     * @param heuristic lower bound on the remaining distance
+     * @throws IllegalArgumentException if the kind is monotone or an argument is null
+     */
+    public AStarAlgorithm(IndexedHeap.Kind heapKind, Heuristic heuristic) {
+        if (heapKind == null) {
+            throw new IllegalArgumentException("Heap kind cannot be null");
+        }
+        if (heapKind.isMonotone()) {
+            throw new IllegalArgumentException("A* priorities are not monotone: " + heapKind);
+        }
+        if (heuristic == null) {
+            throw new IllegalArgumentException("Heuristic cannot be null");
+        }
+        this.heapKind = heapKind;
+        this.heuristic = heuristic;
+    }
     
     @Override
     public String getName() {
-        return "A*";
+        return heuristic == Heuristic.LANDMARKS ? "A* (Landmarks)" : "A*";
     }
     
     @Override
-    public List<VisualState> execute(GraphModel graph, GNode start, GNode goal) {
-        List<VisualState> history = AlgorithmEngine.prepareTrace();
-        if (start == null || goal == null) {
-            history.get(0).setLogLine("[A*] Start and goal nodes are required." + System.lineSeparator());
-            return history;
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0 || goal < 0) {
+            trace.setInitialLog("[A*] Start and goal nodes are required." + System.lineSeparator());
+            return;
         }
 
-        VisualState state = history.get(0);
         int step = 1;
 
-        if (start.getId().equals(goal.getId())) {
-            state.getNodeColors().put(start.getId(), AlgorithmEngine.GOAL_COLOR);
-            AlgorithmEngine.log(history, state, "A*", step, "Start and goal are the same node " + start.getId());
-            return history;
+        if (start == goal) {
+            trace.setNodeColor(start, AlgorithmEngine.GOAL_COLOR);
+            AlgorithmEngine.log(trace, StepKind.MILESTONE, "A*", step,
+                    () -> "Start and goal are the same node " + graph.nodeId(start));
+            return;
         }
 
-        state.getNodeColors().put(start.getId(), AlgorithmEngine.FRONTIER_COLOR);
-        state.getNodeColors().put(goal.getId(), AlgorithmEngine.GOAL_COLOR);
-        AlgorithmEngine.log(history, state, "A*", step++,
-                String.format("Searching path from %s to %s", start.getId(), goal.getId()));
-
-        final Map<String, Double> gScore = new HashMap<>();
-        for (GNode node : graph.getNodes()) {
-            gScore.put(node.getId(), Double.MAX_VALUE);
+        trace.setNodeColor(start, AlgorithmEngine.FRONTIER_COLOR);
+        trace.setNodeColor(goal, AlgorithmEngine.GOAL_COLOR);
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "A*", step++,
+                () -> String.format("Searching path from %s to %s", graph.nodeId(start), graph.nodeId(goal)));
+
+        int n = graph.nodeCount();
+        double[] gScore = new double[n];
+        Arrays.fill(gScore, Double.MAX_VALUE);
+        gScore[start] = 0.0;
+        for (int i = 0; i < n; i++) {
+            trace.setDistance(i, gScore[i]);
         }
-        gScore.put(start.getId(), 0.0);
-        state.getDistances().putAll(gScore);
 
-        Map<String, String> parentNode = new HashMap<>();
-        Map<String, String> parentEdge = new HashMap<>();
+        int[] parentArc = new int[n];
+        Arrays.fill(parentArc, -1);
 
-        PriorityQueue<GNode> openSet = new PriorityQueue<>(Comparator.comparingDouble(
-                node -> gScore.get(node.getId()) + heuristic(node, goal)));
-        openSet.add(start);
-        Set<String> closed = new HashSet<>();
+        LandmarkTable landmarks = landmarks(graph);
+        IndexedHeap openSet = heapKind.create(n);
+        double startBound = heuristic(graph, landmarks, start, goal);
+        if (startBound != Double.POSITIVE_INFINITY) {
+            openSet.offer(start, startBound);
+        }
+        boolean[] closed = new boolean[n];
 
         while (!openSet.isEmpty()) {
-            state = history.get(history.size() - 1);
-            GNode current = openSet.poll();
-
-            if (current.getId().equals(goal.getId())) {
-                state.getNodeColors().put(current.getId(), AlgorithmEngine.GOAL_COLOR);
-                highlightPath(state, parentNode, parentEdge, start, goal);
-                AlgorithmEngine.log(history, state, "A*", step++, "Goal reached. Path highlighted.");
-                return history;
+            int current = openSet.poll();
+
+            if (current == goal) {
+                trace.setNodeColor(current, AlgorithmEngine.GOAL_COLOR);
+                highlightPath(graph, trace, parentArc, start, goal);
+                AlgorithmEngine.log(trace, StepKind.MILESTONE, "A*", step++, () -> "Goal reached. Path highlighted.");
+                return;
             }
 
-            if (!closed.add(current.getId())) {
-                continue;
+            closed[current] = true;
+
+            trace.setNodeColor(current, AlgorithmEngine.VISITED_COLOR);
+            AlgorithmEngine.log(trace, StepKind.EXPANSION, "A*", step++,
+                    () -> String.format("Expanded %s (g = %.2f)", graph.nodeId(current), gScore[current]));
+
+            for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                int neighbor = graph.arcTarget(arc);
+
+                if (!closed[neighbor]) {
+                    double tentative = gScore[current] + graph.arcCost(arc);
+                    if (tentative < gScore[neighbor]) {
+                        double bound = heuristic(graph, landmarks, neighbor, goal);
+                        if (bound == Double.POSITIVE_INFINITY) {
+                            // A landmark shows the goal cannot be reached from here
+                            continue;
+                        }
+                        gScore[neighbor] = tentative;
+                        trace.setDistance(neighbor, tentative);
+                        trace.setNodeColor(neighbor, AlgorithmEngine.FRONTIER_COLOR);
+                        trace.setEdgeColor(graph.arcEdge(arc), AlgorithmEngine.ACTIVE_EDGE_COLOR);
+
+                        parentArc[neighbor] = arc;
+
+                        openSet.offer(neighbor, tentative + bound);
+                        AlgorithmEngine.log(trace, StepKind.DETAIL, "A*", step++,
+                                () -> String.format("Updated %s via %s (g = %.2f)", graph.nodeId(neighbor), graph.nodeId(current), tentative));
+                    }
+                }
             }
+        }
 
-            state.getNodeColors().put(current.getId(), AlgorithmEngine.VISITED_COLOR);
-            AlgorithmEngine.log(history, state, "A*", step++,
-                    String.format("Expanded %s (g = %.2f)", current.getId(), gScore.get(current.getId())));
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "A*", step, () -> "Goal unreachable.");
+    }
 
-            for (GEdge edge : graph.getEdges()) {
-                GNode neighbor = null;
-                if (edge.getSource() == current) {
-                    neighbor = edge.getTarget();
-                } else if (!graph.isDirected() && edge.getTarget() == current) {
-                    neighbor = edge.getSource();
-                }
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        AlgorithmEngine.requireNode(graph, goal, "Goal");
+        int n = graph.nodeCount();
+        double[] gScore = new double[n];
+        Arrays.fill(gScore, Double.POSITIVE_INFINITY);
+        gScore[start] = 0.0;
+        int[] parent = AlgorithmEngine.unset(n);
+        int[] parentEdge = AlgorithmEngine.unset(n);
+        int[] order = new int[n];
+        int expanded = 0;
+
+        LandmarkTable landmarks = landmarks(graph);
+        IndexedHeap openSet = heapKind.create(n);
+        double startBound = heuristic(graph, landmarks, start, goal);
+        if (startBound != Double.POSITIVE_INFINITY) {
+            openSet.offer(start, startBound);
+        }
+        boolean[] closed = new boolean[n];
 
-                if (neighbor != null && !closed.contains(neighbor.getId())) {
-                    double tentative = gScore.get(current.getId()) + (graph.isWeighted() ? edge.getWeight() : 1);
-                    if (tentative < gScore.get(neighbor.getId())) {
-                        gScore.put(neighbor.getId(), tentative);
-                        state = history.get(history.size() - 1);
-                        state.getDistances().put(neighbor.getId(), tentative);
-                        state.getNodeColors().put(neighbor.getId(), AlgorithmEngine.FRONTIER_COLOR);
-                        state.getEdgeColors().put(edge.getId(), AlgorithmEngine.ACTIVE_EDGE_COLOR);
-
-                        parentNode.put(neighbor.getId(), current.getId());
-                        parentEdge.put(neighbor.getId(), edge.getId());
-
-                        openSet.add(neighbor);
-                        AlgorithmEngine.log(history, state, "A*", step++,
-                                String.format("Updated %s via %s (g = %.2f)", neighbor.getId(), current.getId(), tentative));
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            closed[current] = true;
+            order[expanded++] = current;
+            if (current == goal) {
+                break;
+            }
+
+            for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                int neighbor = graph.arcTarget(arc);
+                double tentative = gScore[current] + graph.arcCost(arc);
+                if (!closed[neighbor] && tentative < gScore[neighbor]) {
+                    double bound = heuristic(graph, landmarks, neighbor, goal);
+                    if (bound == Double.POSITIVE_INFINITY) {
+                        continue;
                     }
+                    gScore[neighbor] = tentative;
+                    parent[neighbor] = current;
+                    parentEdge[neighbor] = graph.arcEdge(arc);
+                    openSet.offer(neighbor, tentative + bound);
                 }
             }
         }
+        return new AlgorithmResult(getName(), Arrays.copyOf(order, expanded), gScore, parent, parentEdge, null);
+    }
 
-        AlgorithmEngine.log(history, history.get(history.size() - 1), "A*", step, "Goal unreachable.");
-        return history;
+    private LandmarkTable landmarks(CsrGraph graph) {
+        return heuristic == Heuristic.LANDMARKS ? LandmarkTable.ofNonNegative(graph) : null;
     }
 
-    private double heuristic(GNode node, GNode goal) {
-        return Math.hypot(node.getX() - goal.getX(), node.getY() - goal.getY());
+    /**
+     * @return lower bound on the distance from {@code node} to {@code goal}; infinite when the
+     *         landmarks show the goal is unreachable from the node, which is then never queued
+     */
+    private double heuristic(CsrGraph graph, LandmarkTable landmarks, int node, int goal) {
+        if (landmarks != null) {
+            return landmarks.lowerBound(node, goal);
+        }
+        return Math.hypot(graph.nodeX(node) - graph.nodeX(goal), graph.nodeY(node) - graph.nodeY(goal));
     }
 
-    private void highlightPath(VisualState state, Map<String, String> parentNode, Map<String, String> parentEdge,
-                               GNode start, GNode goal) {
-        String cursor = goal.getId();
-        state.getNodeColors().put(cursor, AlgorithmEngine.GOAL_COLOR);
-        while (parentNode.containsKey(cursor)) {
-            String edgeId = parentEdge.get(cursor);
-            if (edgeId != null) {
-                state.getEdgeColors().put(edgeId, AlgorithmEngine.PATH_COLOR);
-            }
-            cursor = parentNode.get(cursor);
-                state.getNodeColors().put(cursor, AlgorithmEngine.PATH_COLOR);
-            if (cursor.equals(start.getId())) {
+    private void highlightPath(CsrGraph graph, AlgorithmTrace trace, int[] parentArc, int start, int goal) {
+        int cursor = goal;
+        trace.setNodeColor(cursor, AlgorithmEngine.GOAL_COLOR);
+        while (parentArc[cursor] >= 0) {
+            int edge = graph.arcEdge(parentArc[cursor]);
+            trace.setEdgeColor(edge, AlgorithmEngine.PATH_COLOR);
+            cursor = graph.edgeSource(edge) == cursor ? graph.edgeTarget(edge) : graph.edgeSource(edge);
+            trace.setNodeColor(cursor, AlgorithmEngine.PATH_COLOR);
+            if (cursor == start) {
                 break;
             }
         }
     }
 }
-
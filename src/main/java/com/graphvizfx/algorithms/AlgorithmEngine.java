@@ -1,12 +1,18 @@
 package com.graphvizfx.algorithms;
 
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.Level;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
 import com.graphvizfx.model.GNode;
 import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.GraphSnapshot;
 import javafx.scene.paint.Color;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 /**
  * Factory class for executing graph algorithms and providing shared visualization helpers.
@@ -17,6 +23,8 @@ public final class AlgorithmEngine {
     public static final Color FRONTIER_COLOR = Color.web("#ffbe0b");
     /** Color for nodes that have been processed/closed. */
     public static final Color VISITED_COLOR = Color.web("#3a86ff");
+    /** Color for nodes closed by the backward half of a bidirectional search. */
+    public static final Color BACKWARD_VISITED_COLOR = Color.web("#8338ec");
     /** Color for final paths or accepted tree edges. */
     public static final Color PATH_COLOR = Color.web("#06d6a0");
     /** Color used when highlighting candidate edges (e.g., MST checks). */
@@ -35,22 +43,107 @@ public final class AlgorithmEngine {
     /**
      * Executes the specified algorithm on the given graph.
      *
-     * @param algo  The algorithm name (BFS, DFS, Dijkstra, A*, Prim, Kruskal)
+     * @param algo  The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *              Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *              Delta-Stepping, Prim, Kruskal)
      * @param graph The graph model to execute the algorithm on
      * @param start The starting node (may be null for Kruskal)
      * @param goal  Optional goal node (only used by A*)
-     * @return List of visual states representing algorithm execution steps
+     * @return Trace of the visual state after every algorithm step
      * @throws IllegalArgumentException if algorithm name is invalid or graph is invalid
      */
-    public static List<VisualState> execute(String algo, GraphModel graph, GNode start, GNode goal) {
+    public static AlgorithmTrace execute(String algo, GraphModel graph, GNode start, GNode goal) {
         if (graph == null) {
             throw new IllegalArgumentException("Graph cannot be null");
         }
 
-        if (graph.getNodes().isEmpty()) {
-            List<VisualState> empty = prepareTrace();
-            empty.get(0).setLogLine("Error: Graph is empty." + System.lineSeparator());
-            return empty;
+        CsrGraph snapshot = CsrGraph.of(graph);
+        return execute(algo, snapshot, snapshot.indexOf(start), snapshot.indexOf(goal));
+    }
+
+    /**
+     * Executes the specified algorithm on a versioned snapshot. The CSR form is built here, so
+     * this can run on a worker thread while the live graph keeps changing.
+     *
+     * @param algo     The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *                 Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *                 Delta-Stepping, Prim, Kruskal)
+     * @param snapshot The snapshot to execute the algorithm on
+     * @param start    Dense index of the starting node, or -1 when not provided
+     * @param goal     Dense index of the goal node, or -1 when not provided
+     * @return Trace of the visual state after every algorithm step
+     * @throws IllegalArgumentException if algorithm name is invalid
+     */
+    public static AlgorithmTrace execute(String algo, GraphSnapshot snapshot, int start, int goal) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        return execute(algo, CsrGraph.of(snapshot), start, goal);
+    }
+
+    /**
+     * Executes the specified algorithm on a versioned snapshot, with Dijkstra, A*, Prim and
+     * Kruskal reading the named weight column.
+     *
+     * @param algo         The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *                     Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *                     Delta-Stepping, Prim, Kruskal)
+     * @param snapshot     The snapshot to execute the algorithm on
+     * @param weightColumn Name of the weight column to use as edge cost
+     * @param start        Dense index of the starting node, or -1 when not provided
+     * @param goal         Dense index of the goal node, or -1 when not provided
+     * @return Trace of the visual state after every algorithm step
+     * @throws IllegalArgumentException if algorithm name or weight column is invalid
+     */
+    public static AlgorithmTrace execute(String algo, GraphSnapshot snapshot, String weightColumn, int start, int goal) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        int column = snapshot.weightColumn(weightColumn);
+        if (column < 0) {
+            throw new IllegalArgumentException("Unknown weight column: " + weightColumn);
+        }
+        return execute(algo, CsrGraph.of(snapshot).withWeights(column), start, goal);
+    }
+
+    /**
+     * Executes the specified algorithm on a frozen CSR snapshot.
+     *
+     * @param algo  The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *              Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *              Delta-Stepping, Prim, Kruskal)
+     * @param graph The snapshot to execute the algorithm on
+     * @param start Dense index of the starting node, or -1 when not provided
+     * @param goal  Dense index of the goal node, or -1 when not provided
+     * @return Trace of the visual state after every algorithm step
+     * @throws IllegalArgumentException if algorithm name is invalid
+     */
+    public static AlgorithmTrace execute(String algo, CsrGraph graph, int start, int goal) {
+        return execute(algo, graph, start, goal, Level.FULL, 1);
+    }
+
+    /**
+     * Executes the specified algorithm on a frozen CSR snapshot, keeping only the steps the
+     * recording level asks for. Dropped steps cost neither a log line nor a trace step.
+     *
+     * @param algo           The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *                       Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *                       Delta-Stepping, Prim, Kruskal)
+     * @param graph          The snapshot to execute the algorithm on
+     * @param start          Dense index of the starting node, or -1 when not provided
+     * @param goal           Dense index of the goal node, or -1 when not provided
+     * @param level          Which kinds of steps to keep
+     * @param sampleInterval Keep every n-th of the steps the level keeps; milestones are always kept
+     * @return Trace of the visual state after every kept step
+     * @throws IllegalArgumentException if algorithm name, level or interval is invalid
+     */
+    public static AlgorithmTrace execute(String algo, CsrGraph graph, int start, int goal, Level level,
+                                         int sampleInterval) {
+        AlgorithmTrace trace = prepareTrace(level, sampleInterval);
+        if (graph.nodeCount() == 0) {
+            trace.setInitialLog("Error: Graph is empty." + System.lineSeparator());
+            trace.finish();
+            return trace;
         }
 
         GraphAlgorithm algorithm = createAlgorithm(algo);
@@ -58,32 +151,196 @@ public final class AlgorithmEngine {
             throw new IllegalArgumentException("Unknown algorithm: " + algo);
         }
 
-        return algorithm.execute(graph, start, goal);
+        trace.bind(graph);
+        algorithm.record(graph, start, goal, trace);
+        trace.finish();
+        return trace;
+    }
+
+    /**
+     * Runs the specified algorithm headless on a versioned snapshot: no visual state, colors or
+     * log lines are produced, only the answer.
+     *
+     * @param algo         The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *                     Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *                     Delta-Stepping, Prim, Kruskal)
+     * @param snapshot     The snapshot to run the algorithm on
+     * @param weightColumn Name of the weight column to use as edge cost
+     * @param start        Dense index of the starting node, or -1 when not provided
+     * @param goal         Dense index of the goal node, or -1 when not provided
+     * @return Result indexed by the snapshot's dense node and edge indices
+     * @throws IllegalArgumentException if algorithm name or weight column is invalid, or a
+     *                                  required node is missing
+     */
+    public static AlgorithmResult solve(String algo, GraphSnapshot snapshot, String weightColumn, int start, int goal) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        int column = snapshot.weightColumn(weightColumn);
+        if (column < 0) {
+            throw new IllegalArgumentException("Unknown weight column: " + weightColumn);
+        }
+        return solve(algo, CsrGraph.of(snapshot).withWeights(column), start, goal);
+    }
+
+    /**
+     * Runs the specified algorithm headless on a frozen CSR snapshot, e.g. from tests or batch
+     * jobs over a {@link com.graphvizfx.io.MappedGraphStore}.
+     *
+     * @param algo  The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *              Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *              Delta-Stepping, Prim, Kruskal)
+     * @param graph The snapshot to run the algorithm on
+     * @param start Dense index of the starting node, or -1 when not provided
+     * @param goal  Dense index of the goal node, or -1 when not provided
+     * @return Result indexed by the graph's dense node and edge indices
+     * @throws IllegalArgumentException if algorithm name is invalid or a required node is missing
+     */
+    public static AlgorithmResult solve(String algo, CsrGraph graph, int start, int goal) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        GraphAlgorithm algorithm = createAlgorithm(algo);
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algo);
+        }
+        return algorithm.solve(graph, start, goal);
+    }
+
+    /**
+     * Runs the specified algorithm headless on a frozen CSR snapshot, with Dijkstra, A* and Prim
+     * keeping their queue in the given kind of heap.
+     *
+     * @param algo  The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *              Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *              Delta-Stepping, Prim, Kruskal)
+     * @param graph The snapshot to run the algorithm on
+     * @param start Dense index of the starting node, or -1 when not provided
+     * @param goal  Dense index of the goal node, or -1 when not provided
+     * @param heap  Heap implementation for the priority queue; A* and Prim reject monotone ones
+     * @return Result indexed by the graph's dense node and edge indices
+     * @throws IllegalArgumentException if algorithm name or heap is invalid or a required node is missing
+     */
+    public static AlgorithmResult solve(String algo, CsrGraph graph, int start, int goal, IndexedHeap.Kind heap) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (heap == null) {
+            throw new IllegalArgumentException("Heap kind cannot be null");
+        }
+        GraphAlgorithm algorithm = createAlgorithm(algo, heap);
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algo);
+        }
+        return algorithm.solve(graph, start, goal);
+    }
+
+    /**
+     * Starts the algorithm on {@code executor} and returns its trace right away, while steps are
+     * still being recorded. The run pauses once it is {@code lookahead} steps ahead of what
+     * playback has requested through {@link AlgorithmTrace#awaitStep(int)}, and stops when the
+     * trace is cancelled. The CSR form is built on the worker as well.
+     *
+     * @param algo           The algorithm name (BFS, DFS, Dijkstra, A*, A* (Landmarks),
+     *                       Bidirectional Dijkstra, Bidirectional A*, Contraction Hierarchy,
+     *                       Delta-Stepping, Prim, Kruskal)
+     * @param snapshot       The snapshot to execute the algorithm on
+     * @param weightColumn   Name of the weight column to use as edge cost
+     * @param start          Dense index of the starting node, or -1 when not provided
+     * @param goal           Dense index of the goal node, or -1 when not provided
+     * @param level          Which kinds of steps to keep
+     * @param sampleInterval Keep every n-th of the steps the level keeps; milestones are always kept
+     * @param lookahead      Most steps to record past the furthest requested one
+     * @param executor       Executor to run on; the run occupies one of its threads while paused
+     * @return Trace that fills as the run proceeds; {@link AlgorithmTrace#completion()} reports
+     *         the end of the run or its failure
+     * @throws IllegalArgumentException if algorithm name, weight column, level or interval is invalid
+     */
+    public static AlgorithmTrace stream(String algo, GraphSnapshot snapshot, String weightColumn, int start, int goal,
+                                        Level level, int sampleInterval, int lookahead, Executor executor) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        int column = snapshot.weightColumn(weightColumn);
+        if (column < 0) {
+            throw new IllegalArgumentException("Unknown weight column: " + weightColumn);
+        }
+        GraphAlgorithm algorithm = createAlgorithm(algo);
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Unknown algorithm: " + algo);
+        }
+
+        AlgorithmTrace trace = prepareTrace(level, sampleInterval);
+        trace.setLookahead(lookahead);
+        executor.execute(() -> {
+            try {
+                if (snapshot.nodeCount() == 0) {
+                    trace.setInitialLog("Error: Graph is empty." + System.lineSeparator());
+                } else {
+                    CsrGraph graph = CsrGraph.of(snapshot).withWeights(column);
+                    trace.bind(graph);
+                    algorithm.record(graph, start, goal, trace);
+                }
+                trace.finish();
+            } catch (CancellationException e) {
+                // Playback moved on to another run
+            } catch (RuntimeException e) {
+                trace.fail(e);
+            } catch (Error e) {
+                trace.fail(e);
+                throw e;
+            }
+        });
+        return trace;
     }
 
     /**
      * Creates the shared trace structure (initial empty visual state).
      */
-    public static List<VisualState> prepareTrace() {
-        List<VisualState> history = new ArrayList<>();
-        VisualState seed = new VisualState();
-        seed.setLogLine("");
-        history.add(seed);
-        return history;
+    public static AlgorithmTrace prepareTrace() {
+        return new AlgorithmTrace();
+    }
+
+    /**
+     * Creates a trace that keeps only the steps {@code level} and {@code sampleInterval} select.
+     */
+    public static AlgorithmTrace prepareTrace(Level level, int sampleInterval) {
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.setLevel(level);
+        trace.setSampleInterval(sampleInterval);
+        return trace;
     }
 
     private static GraphAlgorithm createAlgorithm(String algo) {
+        return createAlgorithm(algo, null);
+    }
+
+    /**
+     * @param heap heap for the algorithms with a priority queue, or null for their default
+     */
+    private static GraphAlgorithm createAlgorithm(String algo, IndexedHeap.Kind heap) {
         switch (algo) {
             case "BFS":
                 return new BFSAlgorithm();
             case "DFS":
                 return new DFSAlgorithm();
             case "Dijkstra":
-                return new DijkstraAlgorithm();
+                return heap == null ? new DijkstraAlgorithm() : new DijkstraAlgorithm(heap);
             case "A*":
-                return new AStarAlgorithm();
+                return heap == null ? new AStarAlgorithm() : new AStarAlgorithm(heap);
+            case "A* (Landmarks)":
+                return new AStarAlgorithm(heap == null ? IndexedHeap.Kind.BINARY : heap,
+                        AStarAlgorithm.Heuristic.LANDMARKS);
+            case "Bidirectional Dijkstra":
+                return new BidirectionalDijkstraAlgorithm();
+            case "Bidirectional A*":
+                return new BidirectionalAStarAlgorithm();
+            case "Contraction Hierarchy":
+                return new ContractionHierarchyAlgorithm();
+            case "Delta-Stepping":
+                return new DeltaSteppingAlgorithm();
             case "Prim":
-                return new PrimAlgorithm();
+                return heap == null ? new PrimAlgorithm() : new PrimAlgorithm(heap);
             case "Kruskal":
                 return new KruskalAlgorithm();
             default:
@@ -92,13 +349,29 @@ public final class AlgorithmEngine {
     }
 
     /**
-     * Appends a new visual state snapshot with an updated log line.
+     * @throws IllegalArgumentException unless {@code node} is a node of {@code graph}
+     */
+    static void requireNode(CsrGraph graph, int node, String role) {
+        if (node < 0 || node >= graph.nodeCount()) {
+            throw new IllegalArgumentException(role + " node not provided");
+        }
+    }
+
+    /**
+     * @return array of {@code n} entries set to -1, for parent links not found yet
+     */
+    static int[] unset(int n) {
+        int[] array = new int[n];
+        Arrays.fill(array, -1);
+        return array;
+    }
+
+    /**
+     * Closes a trace step of the given kind; the step keeps only what changed since the last one.
+     * The log line, and the message with it, is only built when the trace's level keeps the step.
      */
-    static void log(List<VisualState> trace, VisualState current, String algo, int step, String msg) {
-        VisualState snapshot = current.copy();
-        String existing = snapshot.getLogLine() == null ? "" : snapshot.getLogLine();
-        snapshot.setLogLine(existing + String.format("[%s] Step %d: %s%s", algo, step, msg, System.lineSeparator()));
-        trace.add(snapshot);
+    static void log(AlgorithmTrace trace, StepKind kind, String algo, int step, Supplier<String> msg) {
+        trace.log(kind, () -> "[" + algo + "] Step " + step + ": " + msg.get() + System.lineSeparator());
     }
 }
 
@@ -0,0 +1,105 @@
+package com.graphvizfx.algorithms;
+
+/**
+ * Answer of a headless algorithm run, as flat arrays indexed by the dense node and edge indices
+ * of the {@link com.graphvizfx.model.CsrGraph} it ran on.
+ * <p>
+ * Arrays are returned as stored, without copying. Fields an algorithm does not produce are null:
+ * traversals and shortest paths fill the visit order and the parent tree, shortest paths and BFS
+ * the distances, and spanning trees the tree edges.
+ */
+public final class AlgorithmResult {
+    private final String algorithm;
+    private final int[] order;
+    private final double[] distances;
+    private final int[] parent;
+    private final int[] parentEdge;
+    private final int[] treeEdges;
+
+    AlgorithmResult(String algorithm, int[] order, double[] distances, int[] parent, int[] parentEdge,
+                    int[] treeEdges) {
+        this.algorithm = algorithm;
+        this.order = order;
+        this.distances = distances;
+        this.parent = parent;
+        this.parentEdge = parentEdge;
+        this.treeEdges = treeEdges;
+    }
+
+    public String algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return nodes in the order they were visited, settled or joined to the tree
+     */
+    public int[] order() {
+        return order;
+    }
+
+    /**
+     * @return distance of every node from the start, in hops for BFS; unreached nodes hold
+     *         {@link Double#POSITIVE_INFINITY}
+     */
+    public double[] distances() {
+        return distances;
+    }
+
+    /**
+     * @return node each node was reached from, or -1 for the start and unreached nodes
+     */
+    public int[] parent() {
+        return parent;
+    }
+
+    /**
+     * @return edge each node was reached through, or -1 for the start and unreached nodes
+     */
+    public int[] parentEdge() {
+        return parentEdge;
+    }
+
+    /**
+     * @return edges of the spanning tree or forest, in the order they were accepted
+     */
+    public int[] treeEdges() {
+        return treeEdges;
+    }
+
+    /**
+     * @return whether {@code node} was reached from the start
+     */
+    public boolean reached(int node) {
+        return parent != null && (parent[node] >= 0 || order.length > 0 && order[0] == node);
+    }
+
+    /**
+     * Walks the parent tree back from {@code node}.
+     *
+     * @return nodes from the start to {@code node}, or an empty array when it was not reached
+     * @throws IllegalStateException if the algorithm does not build a parent tree
+     */
+    public int[] pathTo(int node) {
+        if (parent == null) {
+            throw new IllegalStateException(algorithm + " does not build a parent tree");
+        }
+        if (!reached(node)) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int cursor = node; parent[cursor] >= 0; cursor = parent[cursor]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int cursor = node, i = length - 1; i >= 0; cursor = parent[cursor], i--) {
+            path[i] = cursor;
+        }
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + " result: " + (order == null ? 0 : order.length) + " nodes ordered"
+                + (treeEdges == null ? "" : ", " + treeEdges.length + " tree edges");
+    }
+}
@@ -1,9 +1,9 @@
 package com.graphvizfx.algorithms;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.BitMatrix;
+import com.graphvizfx.model.CsrGraph;
 import java.util.*;
 
 /**
@@ -17,52 +17,120 @@ public class BFSAlgorithm implements GraphAlgorithm {
     }
     
     @Override
-    public List<VisualState> execute(GraphModel graph, GNode start, GNode goal) {
-        List<VisualState> history = AlgorithmEngine.prepareTrace();
-        if (start == null) {
-            history.get(0).setLogLine("[BFS] Start node not provided." + System.lineSeparator());
-            return history;
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0) {
+            trace.setInitialLog("[BFS] Start node not provided." + System.lineSeparator());
+            return;
         }
 
-        VisualState state = history.get(0);
         int step = 1;
 
-        Queue<GNode> queue = new ArrayDeque<>();
-        Set<String> visited = new HashSet<>();
+        // Every node is enqueued at most once, so a flat array serves as the queue.
+        int[] queue = new int[graph.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        boolean[] visited = new boolean[graph.nodeCount()];
+        // Dense graphs expand a node by intersecting its matrix row with the unvisited set
+        BitMatrix matrix = graph.neighborMatrix();
+        long[] unvisited = matrix == null ? null : unvisitedExcept(graph.nodeCount(), start);
 
-        queue.add(start);
-        visited.add(start.getId());
-        state.getNodeColors().put(start.getId(), AlgorithmEngine.FRONTIER_COLOR);
-        AlgorithmEngine.log(history, state, "BFS", step++, "Enqueued start node " + start.getId());
+        queue[tail++] = start;
+        visited[start] = true;
+        trace.setNodeColor(start, AlgorithmEngine.FRONTIER_COLOR);
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "BFS", step++,
+                () -> "Enqueued start node " + graph.nodeId(start));
 
-        while (!queue.isEmpty()) {
-            state = history.get(history.size() - 1);
-            GNode current = queue.poll();
-            state.getNodeColors().put(current.getId(), AlgorithmEngine.VISITED_COLOR);
-            AlgorithmEngine.log(history, state, "BFS", step++, "Visiting " + current.getId() + " and scanning neighbors");
+        while (head < tail) {
+            int current = queue[head++];
+            trace.setNodeColor(current, AlgorithmEngine.VISITED_COLOR);
+            AlgorithmEngine.log(trace, StepKind.EXPANSION, "BFS", step++,
+                    () -> "Visiting " + graph.nodeId(current) + " and scanning neighbors");
 
-            for (GEdge edge : graph.getEdges()) {
-                GNode neighbor = null;
-                if (edge.getSource() == current) {
-                    neighbor = edge.getTarget();
-                } else if (!graph.isDirected() && edge.getTarget() == current) {
-                    neighbor = edge.getSource();
+            if (matrix != null) {
+                for (int w = 0; w < unvisited.length; w++) {
+                    long fresh = matrix.word(current, w) & unvisited[w];
+                    unvisited[w] &= ~fresh;
+                    while (fresh != 0) {
+                        int neighbor = (w << 6) + Long.numberOfTrailingZeros(fresh);
+                        fresh &= fresh - 1;
+                        queue[tail++] = neighbor;
+                        discover(trace, graph, current, neighbor, edgeBetween(graph, current, neighbor), step++);
+                    }
                 }
+                continue;
+            }
+
+            for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                int neighbor = graph.arcTarget(arc);
 
-                if (neighbor != null && !visited.contains(neighbor.getId())) {
-                    state = history.get(history.size() - 1);
-                    visited.add(neighbor.getId());
-                    queue.add(neighbor);
-                    state.getNodeColors().put(neighbor.getId(), AlgorithmEngine.FRONTIER_COLOR);
-                    state.getEdgeColors().put(edge.getId(), AlgorithmEngine.ACTIVE_EDGE_COLOR);
-                    AlgorithmEngine.log(history, state, "BFS", step++,
-                            String.format("Discovered %s from %s", neighbor.getId(), current.getId()));
+                if (!visited[neighbor]) {
+                    visited[neighbor] = true;
+                    queue[tail++] = neighbor;
+                    discover(trace, graph, current, neighbor, graph.arcEdge(arc), step++);
                 }
             }
         }
 
-        AlgorithmEngine.log(history, history.get(history.size() - 1), "BFS", step, "Traversal complete.");
-        return history;
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "BFS", step, () -> "Traversal complete.");
+    }
+
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        int n = graph.nodeCount();
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        double[] hops = new double[n];
+        Arrays.fill(hops, Double.POSITIVE_INFINITY);
+        int[] parent = AlgorithmEngine.unset(n);
+        int[] parentEdge = AlgorithmEngine.unset(n);
+
+        queue[tail++] = start;
+        hops[start] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                int neighbor = graph.arcTarget(arc);
+                if (hops[neighbor] == Double.POSITIVE_INFINITY) {
+                    hops[neighbor] = hops[current] + 1;
+                    parent[neighbor] = current;
+                    parentEdge[neighbor] = graph.arcEdge(arc);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        // The queue holds every reached node once, in visiting order
+        return new AlgorithmResult(getName(), Arrays.copyOf(queue, tail), hops, parent, parentEdge, null);
     }
-}
 
+    private static void discover(AlgorithmTrace trace, CsrGraph graph, int current, int neighbor,
+                                 int edge, int step) {
+        trace.setNodeColor(neighbor, AlgorithmEngine.FRONTIER_COLOR);
+        trace.setEdgeColor(edge, AlgorithmEngine.ACTIVE_EDGE_COLOR);
+        AlgorithmEngine.log(trace, StepKind.DETAIL, "BFS", step,
+                () -> String.format("Discovered %s from %s", graph.nodeId(neighbor), graph.nodeId(current)));
+    }
+
+    private static long[] unvisitedExcept(int nodeCount, int start) {
+        long[] unvisited = new long[(nodeCount + 63) >>> 6];
+        Arrays.fill(unvisited, -1L);
+        if ((nodeCount & 63) != 0) {
+            unvisited[unvisited.length - 1] = (1L << nodeCount) - 1;
+        }
+        unvisited[start >>> 6] &= ~(1L << start);
+        return unvisited;
+    }
+
+    /**
+     * The matrix carries no edge indices, so the edge is found among the arcs of {@code from}.
+     */
+    private static int edgeBetween(CsrGraph graph, int from, int to) {
+        for (int arc = graph.arcStart(from); arc < graph.arcEnd(from); arc++) {
+            if (graph.arcTarget(arc) == to) {
+                return graph.arcEdge(arc);
+            }
+        }
+        throw new IllegalStateException("No arc " + graph.nodeId(from) + " -> " + graph.nodeId(to));
+    }
+}
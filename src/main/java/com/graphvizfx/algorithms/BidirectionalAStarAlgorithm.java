@@ -0,0 +1,54 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.model.CsrGraph;
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Bidirectional search steered by {@link LandmarkTable} bounds. Both sides share the average
+ * potential {@code (lb(v, goal) - lb(start, v)) / 2}, which stays consistent in either direction,
+ * so the stopping rule of {@link BidirectionalDijkstraAlgorithm} still finds shortest paths. Nodes
+ * the landmarks prove unreachable from the start or unable to reach the goal are never queued.
+ * Graphs with a negative weight have no landmark table and get plain bidirectional Dijkstra.
+ */
+public class BidirectionalAStarAlgorithm extends BidirectionalDijkstraAlgorithm {
+
+    @Override
+    public String getName() {
+        return "Bidirectional A*";
+    }
+
+    /**
+     * @return average landmark potential, computed once per node and query, or null when some
+     *         weight is negative
+     */
+    @Override
+    IntToDoubleFunction potential(CsrGraph graph, int start, int goal) {
+        LandmarkTable landmarks = LandmarkTable.ofNonNegative(graph);
+        if (landmarks == null) {
+            return null;
+        }
+        double[] cache = new double[graph.nodeCount()];
+        Arrays.fill(cache, Double.NaN);
+        return node -> {
+            double p = cache[node];
+            if (Double.isNaN(p)) {
+                double ahead = landmarks.lowerBound(node, goal);
+                double behind = landmarks.lowerBound(start, node);
+                p = Double.isInfinite(ahead) || Double.isInfinite(behind)
+                        ? Double.POSITIVE_INFINITY
+                        : (ahead - behind) / 2;
+                cache[node] = p;
+            }
+            return p;
+        };
+    }
+
+    /**
+     * Halved bounds make keys fractional, which monotone integer queues do not take.
+     */
+    @Override
+    IndexedHeap.Kind heapKind(CsrGraph graph) {
+        return IndexedHeap.Kind.BINARY;
+    }
+}
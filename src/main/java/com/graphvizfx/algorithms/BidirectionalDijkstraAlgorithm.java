@@ -0,0 +1,238 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Point-to-point Dijkstra run from both ends at once: a forward search from the start and a
+ * backward one from the goal over the {@link CsrGraph#reverse() reverse} graph, always advancing
+ * the side with the smaller queue. Every arc that reaches a node the other side has labelled
+ * offers a path; once the two smallest queued keys add up to at least the best such path, no
+ * shorter one can exist and the search stops, typically after settling about half the nodes a
+ * one-sided search needs.
+ * <p>
+ * Subclasses may steer both sides with a potential {@code p}: the forward side keys nodes by
+ * {@code d + p} and the backward side by {@code d - p}, which with a consistent {@code p} keeps
+ * the same stopping rule exact.
+ */
+public class BidirectionalDijkstraAlgorithm implements GraphAlgorithm {
+
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    @Override
+    public String getName() {
+        return "Bidirectional Dijkstra";
+    }
+
+    @Override
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0 || goal < 0) {
+            trace.setInitialLog("[" + getName() + "] Start and goal nodes are required." + System.lineSeparator());
+            return;
+        }
+        trace.setNodeColor(start, AlgorithmEngine.FRONTIER_COLOR);
+        trace.setNodeColor(goal, AlgorithmEngine.GOAL_COLOR);
+        trace.setDistance(start, 0);
+        Meeting meeting = search(graph, start, goal, trace);
+
+        int step = meeting.step;
+        if (meeting.node < 0) {
+            AlgorithmEngine.log(trace, StepKind.MILESTONE, getName(), step, () -> "Goal unreachable.");
+            return;
+        }
+        for (int node = goal; node != start; node = meeting.parent[node]) {
+            trace.setEdgeColor(meeting.parentEdge[node], AlgorithmEngine.PATH_COLOR);
+            trace.setNodeColor(node, AlgorithmEngine.PATH_COLOR);
+        }
+        trace.setNodeColor(start, AlgorithmEngine.PATH_COLOR);
+        trace.setNodeColor(goal, AlgorithmEngine.GOAL_COLOR);
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, getName(), step,
+                () -> String.format("Frontiers met at %s. Path of length %.2f highlighted.",
+                        graph.nodeId(meeting.node), meeting.length));
+    }
+
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        AlgorithmEngine.requireNode(graph, goal, "Goal");
+        Meeting meeting = search(graph, start, goal, null);
+        return new AlgorithmResult(getName(), Arrays.copyOf(meeting.order, meeting.settled), meeting.distances,
+                meeting.parent, meeting.parentEdge, null);
+    }
+
+    /**
+     * @return potential to key both searches by for this query, or null for plain Dijkstra; an
+     *         infinite potential marks a node that lies on no path from start to goal
+     */
+    IntToDoubleFunction potential(CsrGraph graph, int start, int goal) {
+        return null;
+    }
+
+    /**
+     * @return heap kind for both sides; monotone kinds only fit searches without a potential
+     */
+    IndexedHeap.Kind heapKind(CsrGraph graph) {
+        return DijkstraAlgorithm.chooseHeap(graph);
+    }
+
+    /**
+     * Runs both searches until they can no longer improve on the best meeting, recording each
+     * settle and relaxation when {@code trace} is not null.
+     */
+    private Meeting search(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        int n = graph.nodeCount();
+        IntToDoubleFunction potential = potential(graph, start, goal);
+        IndexedHeap.Kind kind = heapKind(graph);
+        Side forward = new Side(graph, start, 1, kind.create(n));
+        Side backward = new Side(graph.reverse(), goal, -1, kind.create(n));
+        Meeting meeting = new Meeting(n);
+        String name = getName();
+        int step = 1;
+        if (start == goal) {
+            meeting.node = start;
+            meeting.length = 0;
+        }
+
+        double rootPotential = potential == null ? 0 : potential.applyAsDouble(start);
+        if (rootPotential != INFINITY) {
+            forward.queue.offer(start, rootPotential);
+            backward.queue.offer(goal, potential == null ? 0 : -potential.applyAsDouble(goal));
+        }
+        if (trace != null) {
+            AlgorithmEngine.log(trace, StepKind.MILESTONE, name, step++,
+                    () -> String.format("Searching from %s and back from %s", graph.nodeId(start), graph.nodeId(goal)));
+        }
+
+        while (!forward.queue.isEmpty() && !backward.queue.isEmpty()) {
+            if (forward.topKey() + backward.topKey() >= meeting.length) {
+                break;
+            }
+            Side side = forward.queue.size() <= backward.queue.size() ? forward : backward;
+            Side other = side == forward ? backward : forward;
+            int current = side.queue.poll();
+            side.settled[current] = true;
+            if (!other.settled[current]) {
+                meeting.order[meeting.settled++] = current;
+            }
+            if (trace != null) {
+                boolean ahead = side == forward;
+                trace.setNodeColor(current, ahead ? AlgorithmEngine.VISITED_COLOR : AlgorithmEngine.BACKWARD_VISITED_COLOR);
+                AlgorithmEngine.log(trace, StepKind.EXPANSION, name, step++,
+                        () -> String.format("%s settled %s (%s = %.2f)", ahead ? "Forward search" : "Backward search",
+                                graph.nodeId(current), ahead ? "dist" : "dist to goal", side.dist[current]));
+            }
+
+            CsrGraph arcs = side.graph;
+            for (int arc = arcs.arcStart(current); arc < arcs.arcEnd(current); arc++) {
+                int neighbor = arcs.arcTarget(arc);
+                double candidate = side.dist[current] + arcs.arcCost(arc);
+                if (candidate >= side.dist[neighbor]) {
+                    continue;
+                }
+                double p = potential == null ? 0 : potential.applyAsDouble(neighbor);
+                if (p == INFINITY) {
+                    continue;
+                }
+                side.dist[neighbor] = candidate;
+                side.parent[neighbor] = current;
+                side.parentEdge[neighbor] = arcs.arcEdge(arc);
+                side.queue.offer(neighbor, candidate + side.sign * p);
+
+                boolean met = other.dist[neighbor] != INFINITY && candidate + other.dist[neighbor] < meeting.length;
+                if (met) {
+                    meeting.node = neighbor;
+                    meeting.length = candidate + other.dist[neighbor];
+                }
+                if (trace != null) {
+                    boolean ahead = side == forward;
+                    if (ahead) {
+                        trace.setDistance(neighbor, candidate);
+                    }
+                    if (!other.settled[neighbor]) {
+                        trace.setNodeColor(neighbor, AlgorithmEngine.FRONTIER_COLOR);
+                    }
+                    trace.setEdgeColor(arcs.arcEdge(arc),
+                            ahead ? AlgorithmEngine.ACTIVE_EDGE_COLOR : AlgorithmEngine.EDGE_HIGHLIGHT_COLOR);
+                    double length = meeting.length;
+                    AlgorithmEngine.log(trace, StepKind.DETAIL, name, step++, () -> met
+                            ? String.format("Frontiers met at %s: path of length %.2f", graph.nodeId(neighbor), length)
+                            : String.format("%s %s→%s (%.2f)", ahead ? "Relaxed" : "Relaxed back",
+                                    graph.nodeId(current), graph.nodeId(neighbor), candidate));
+                }
+            }
+        }
+        meeting.step = step;
+        meeting.join(forward, backward, start, goal);
+        return meeting;
+    }
+
+    /**
+     * One direction of the search: labels, parent links and queue over the arcs it walks.
+     */
+    private static final class Side {
+        final CsrGraph graph;
+        final double sign;
+        final double[] dist;
+        final int[] parent;
+        final int[] parentEdge;
+        final boolean[] settled;
+        final IndexedHeap queue;
+
+        Side(CsrGraph graph, int root, double sign, IndexedHeap queue) {
+            int n = graph.nodeCount();
+            this.graph = graph;
+            this.sign = sign;
+            this.queue = queue;
+            dist = new double[n];
+            Arrays.fill(dist, INFINITY);
+            dist[root] = 0;
+            parent = AlgorithmEngine.unset(n);
+            parentEdge = AlgorithmEngine.unset(n);
+            settled = new boolean[n];
+        }
+
+        double topKey() {
+            return queue.priority(queue.peek());
+        }
+    }
+
+    /**
+     * Best meeting found so far and, once joined, the forward tree extended along the backward
+     * half of the path so that it leads to the goal.
+     */
+    private static final class Meeting {
+        final int[] order;
+        int settled;
+        int node = -1;
+        double length = INFINITY;
+        int step;
+        double[] distances;
+        int[] parent;
+        int[] parentEdge;
+
+        Meeting(int n) {
+            order = new int[n];
+        }
+
+        void join(Side forward, Side backward, int start, int goal) {
+            distances = forward.dist;
+            parent = forward.parent;
+            parentEdge = forward.parentEdge;
+            if (node < 0) {
+                return;
+            }
+            for (int at = node; at != goal; ) {
+                int next = backward.parent[at];
+                parent[next] = at;
+                parentEdge[next] = backward.parentEdge[at];
+                distances[next] = length - backward.dist[next];
+                at = next;
+            }
+            parent[start] = -1;
+            parentEdge[start] = -1;
+        }
+    }
+}
@@ -0,0 +1,778 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.model.CsrGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction hierarchy over a {@link CsrGraph}, for fast point-to-point queries on static graphs
+ * such as imported road networks.
+ * <p>
+ * Preprocessing contracts the nodes one rank at a time: a node is removed from an overlay of the
+ * remaining graph, and every path {@code u -> v -> w} through it is replaced by a shortcut arc
+ * {@code u -> w} unless a witness search finds a path from {@code u} to {@code w} around it that
+ * is no longer. A node's priority is the number of shortcuts contracting it would add per arc it
+ * removes, plus its level, one more than the highest level among its contracted neighbours, so
+ * that contraction spreads evenly and the hierarchy stays shallow. Each round takes every node
+ * whose priority is lower than that of all its remaining neighbours and contracts them one after
+ * another, each against the overlay left by the previous one, so no shortcut is missed that a
+ * sequential contraction would add. Contracting a node makes its neighbours' priorities stale;
+ * they are recomputed lazily, in parallel, for the stale nodes that come up as local minima,
+ * which wait for the next round.
+ * <p>
+ * Every node keeps the overlay arcs it had when contracted, all of which lead to higher ranks:
+ * its outgoing ones form the upward graph a query searches from the start, its incoming ones the
+ * graph it searches backward from the goal. Shortcuts are kept here, apart from the graph's edges;
+ * an arc refers either to the edge it stands for or to a shortcut, which names its middle node and
+ * the two arcs it spans, so unpacking one recurses down to edges.
+ * <p>
+ * {@link #write(File)} saves the hierarchy and {@link #read(File, CsrGraph)} loads it for the same
+ * graph, so an import pays for the preprocessing once.
+ */
+public final class ContractionHierarchy {
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    private static final int MAGIC = 0x47565848; // "GVXH"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 48;
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FLAG_WEIGHTED = 2;
+    /** Nodes a witness search settles before giving up and letting the shortcut in. */
+    private static final int WITNESS_SETTLE_LIMIT = 300;
+    /**
+     * Nodes a witness search settles when it only estimates a priority. A witness it misses makes
+     * the estimate a little high but adds no shortcut.
+     */
+    private static final int PRIORITY_SETTLE_LIMIT = 30;
+    /** Priority per shortcut a node would add for every overlay arc its contraction removes. */
+    private static final int QUOTIENT_WEIGHT = 1000;
+    /** Priority per level of contracted nodes below a node, which keeps the hierarchy shallow. */
+    private static final int LEVEL_WEIGHT = 100;
+    // Keyed by the live graph, or the snapshot itself when it has none, then by weight column
+    private static final Map<Object, Map<Integer, ContractionHierarchy>> CACHE = new WeakHashMap<>();
+
+    private final long version;
+    private final int column;
+    private final int flags;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final long fingerprint;
+    private final int[] rank;
+    private final int[] upStart;
+    private final int[] upTarget;
+    private final int[] upCost;
+    private final int[] upRef;
+    private final int[] downStart;
+    private final int[] downSource;
+    private final int[] downCost;
+    private final int[] downRef;
+    private final int[] shortcutMiddle;
+    private final int[] shortcutFirst;
+    private final int[] shortcutSecond;
+
+    private ContractionHierarchy(CsrGraph graph, long fingerprint, int[][] arrays) {
+        this.version = graph.getVersion();
+        this.column = graph.weightColumn();
+        this.flags = flags(graph);
+        this.nodeCount = graph.nodeCount();
+        this.edgeCount = graph.edgeCount();
+        this.fingerprint = fingerprint;
+        rank = arrays[0];
+        upStart = arrays[1];
+        upTarget = arrays[2];
+        upCost = arrays[3];
+        upRef = arrays[4];
+        downStart = arrays[5];
+        downSource = arrays[6];
+        downCost = arrays[7];
+        downRef = arrays[8];
+        shortcutMiddle = arrays[9];
+        shortcutFirst = arrays[10];
+        shortcutSecond = arrays[11];
+    }
+
+    /**
+     * Returns the hierarchy of {@code graph}, building it on first use. Hierarchies are kept per
+     * live graph and weight column and reused by every snapshot of the same version.
+     *
+     * @throws IllegalArgumentException if the graph has negative weights
+     */
+    public static ContractionHierarchy of(CsrGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        synchronized (CACHE) {
+            ContractionHierarchy cached = CACHE.getOrDefault(cacheKey(graph), Map.of()).get(graph.weightColumn());
+            if (cached != null && cached.matches(graph)) {
+                return cached;
+            }
+        }
+        return cache(graph, build(graph));
+    }
+
+    /**
+     * Contracts every node of {@code graph}, running witness searches on the common fork-join
+     * pool, without caching.
+     *
+     * @throws IllegalArgumentException if the graph has negative weights
+     */
+    public static ContractionHierarchy build(CsrGraph graph) {
+        return new ContractionHierarchy(graph, fingerprint(graph), new Contractor(graph).contract());
+    }
+
+    /**
+     * Loads a hierarchy {@link #write(File) written} for {@code graph} and caches it as
+     * {@link #of(CsrGraph)} would have built it.
+     *
+     * @throws IOException if the file is unreadable or was written for another graph or weight column
+     */
+    public static ContractionHierarchy read(File file, CsrGraph graph) throws IOException {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (file == null || !file.exists() || !file.canRead()) {
+            throw new IOException("File does not exist or cannot be read: " + file);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (!fill(channel, header, HEADER_BYTES) || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a contraction hierarchy: " + file);
+            }
+            if (header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported contraction hierarchy version " + header.getInt(4));
+            }
+            long fingerprint = fingerprint(graph);
+            if (header.getInt(8) != flags(graph) || header.getInt(12) != graph.nodeCount()
+                    || header.getInt(16) != graph.edgeCount() || header.getInt(20) != graph.weightColumn()
+                    || header.getLong(40) != fingerprint) {
+                throw new IOException("Contraction hierarchy was built for another graph: " + file);
+            }
+            int n = graph.nodeCount();
+            int up = header.getInt(24);
+            int down = header.getInt(28);
+            int shortcuts = header.getInt(32);
+            int[] lengths = {n, n + 1, up, up, up, n + 1, down, down, down, shortcuts, shortcuts, shortcuts};
+            int[][] arrays = new int[lengths.length][];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            for (int i = 0; i < arrays.length; i++) {
+                arrays[i] = new int[lengths[i]];
+                for (int j = 0; j < lengths[i]; j++) {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        buffer.compact();
+                        boolean complete = fill(channel, buffer, Integer.BYTES);
+                        buffer.flip();
+                        if (!complete) {
+                            throw new IOException("Truncated contraction hierarchy: " + file);
+                        }
+                    }
+                    arrays[i][j] = buffer.getInt();
+                }
+            }
+            return cache(graph, new ContractionHierarchy(graph, fingerprint, arrays));
+        }
+    }
+
+    /**
+     * Saves the hierarchy, replacing {@code file}. The graph's node and edge counts, weight column
+     * and a fingerprint of its arcs are stored with it so that {@link #read(File, CsrGraph)} can
+     * refuse a different graph.
+     */
+    public void write(File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(flags).putInt(nodeCount).putInt(edgeCount)
+                    .putInt(column).putInt(upTarget.length).putInt(downSource.length)
+                    .putInt(shortcutMiddle.length).putInt(0).putLong(fingerprint);
+            int[][] arrays = {rank, upStart, upTarget, upCost, upRef, downStart, downSource, downCost, downRef,
+                    shortcutMiddle, shortcutFirst, shortcutSecond};
+            for (int[] array : arrays) {
+                for (int value : array) {
+                    if (!buffer.hasRemaining()) {
+                        drain(channel, buffer);
+                    }
+                    buffer.putInt(value);
+                }
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    /**
+     * @return number of shortcut arcs preprocessing added
+     */
+    public int shortcutCount() {
+        return shortcutMiddle.length;
+    }
+
+    /**
+     * @return position of {@code node} in the contraction order, 0 for the first contracted
+     */
+    public int rank(int node) {
+        return rank[node];
+    }
+
+    int upStart(int node) {
+        return upStart[node];
+    }
+
+    int upEnd(int node) {
+        return upStart[node + 1];
+    }
+
+    int upTarget(int arc) {
+        return upTarget[arc];
+    }
+
+    int upCost(int arc) {
+        return upCost[arc];
+    }
+
+    int upRef(int arc) {
+        return upRef[arc];
+    }
+
+    int downStart(int node) {
+        return downStart[node];
+    }
+
+    int downEnd(int node) {
+        return downStart[node + 1];
+    }
+
+    /**
+     * @return the higher-ranked node a downward arc of {@code downStart(node)..downEnd(node)}
+     *         comes from, which the backward search moves on to
+     */
+    int downSource(int arc) {
+        return downSource[arc];
+    }
+
+    int downCost(int arc) {
+        return downCost[arc];
+    }
+
+    int downRef(int arc) {
+        return downRef[arc];
+    }
+
+    /**
+     * @return whether an arc reference names a shortcut rather than an edge
+     */
+    static boolean isShortcut(int ref) {
+        return ref < 0;
+    }
+
+    int shortcutMiddle(int ref) {
+        return shortcutMiddle[~ref];
+    }
+
+    int shortcutFirst(int ref) {
+        return shortcutFirst[~ref];
+    }
+
+    int shortcutSecond(int ref) {
+        return shortcutSecond[~ref];
+    }
+
+    private boolean matches(CsrGraph graph) {
+        return version == graph.getVersion() && column == graph.weightColumn() && flags == flags(graph)
+                && nodeCount == graph.nodeCount();
+    }
+
+    private static Object cacheKey(CsrGraph graph) {
+        return graph.origin() != null ? graph.origin() : graph;
+    }
+
+    private static ContractionHierarchy cache(CsrGraph graph, ContractionHierarchy hierarchy) {
+        synchronized (CACHE) {
+            CACHE.computeIfAbsent(cacheKey(graph), key -> new HashMap<>()).put(hierarchy.column, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    private static int flags(CsrGraph graph) {
+        return (graph.isDirected() ? FLAG_DIRECTED : 0) | (graph.isWeighted() ? FLAG_WEIGHTED : 0);
+    }
+
+    /**
+     * @return FNV-1a hash over the arc layout and costs, which any edit to the topology or the
+     *         weights changes
+     */
+    private static long fingerprint(CsrGraph graph) {
+        long hash = 0xcbf29ce484222325L;
+        int n = graph.nodeCount();
+        for (int node = 0; node < n; node++) {
+            hash = (hash ^ graph.arcEnd(node)) * 0x100000001b3L;
+        }
+        int arcs = n == 0 ? 0 : graph.arcEnd(n - 1);
+        for (int arc = 0; arc < arcs; arc++) {
+            hash = (hash ^ graph.arcTarget(arc)) * 0x100000001b3L;
+            hash = (hash ^ graph.arcCost(arc)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Reads until {@code buffer} holds at least {@code bytes} bytes.
+     *
+     * @return false if the file ended first
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Contraction state: the overlay of uncontracted nodes as growable per-node arc lists, the
+     * arcs each contracted node left behind, and the shortcuts added so far.
+     */
+    private static final class Contractor {
+        private final int n;
+        private final boolean directed;
+        private final int[][] outTarget;
+        private final int[][] outCost;
+        private final int[][] outRef;
+        private final int[] outSize;
+        private final int[][] inTarget;
+        private final int[][] inCost;
+        private final int[][] inRef;
+        private final int[] inSize;
+        private final int[] priority;
+        private final int[] level;
+        private final boolean[] stale;
+        private final boolean[] removed;
+        private final int[] rank;
+        private final int[][] upArcs;
+        private final int[][] downArcs;
+        private final IntList shortcutMiddle = new IntList();
+        private final IntList shortcutFirst = new IntList();
+        private final IntList shortcutSecond = new IntList();
+        private final ConcurrentLinkedQueue<WitnessSearch> searches = new ConcurrentLinkedQueue<>();
+
+        Contractor(CsrGraph graph) {
+            n = graph.nodeCount();
+            directed = graph.isDirected();
+            outTarget = new int[n][];
+            outCost = new int[n][];
+            outRef = new int[n][];
+            outSize = new int[n];
+            inTarget = new int[n][];
+            inCost = new int[n][];
+            inRef = new int[n][];
+            inSize = new int[n];
+            priority = new int[n];
+            level = new int[n];
+            stale = new boolean[n];
+            removed = new boolean[n];
+            rank = new int[n];
+            upArcs = new int[n][];
+            downArcs = new int[n][];
+            for (int node = 0; node < n; node++) {
+                int degree = graph.arcEnd(node) - graph.arcStart(node);
+                outTarget[node] = new int[Math.max(degree, 2)];
+                outCost[node] = new int[outTarget[node].length];
+                outRef[node] = new int[outTarget[node].length];
+                inTarget[node] = new int[Math.max(degree, 2)];
+                inCost[node] = new int[inTarget[node].length];
+                inRef[node] = new int[inTarget[node].length];
+            }
+            for (int node = 0; node < n; node++) {
+                for (int arc = graph.arcStart(node); arc < graph.arcEnd(node); arc++) {
+                    int target = graph.arcTarget(arc);
+                    int cost = graph.arcCost(arc);
+                    if (cost < 0) {
+                        throw new IllegalArgumentException("Contraction hierarchies need non-negative weights: " + cost);
+                    }
+                    if (target != node) {
+                        addArc(node, target, cost, graph.arcEdge(arc));
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the hierarchy arrays in constructor order
+         */
+        int[][] contract() {
+            int[] remaining = IntStream.range(0, n).toArray();
+            parallel(remaining, (node, search) -> priority[node] = priorityOf(node, search));
+            WitnessSearch search = new WitnessSearch(n);
+            int next = 0;
+            while (remaining.length > 0) {
+                // Minima are never adjacent, so each one's arcs are as its priority saw them
+                int[] minima = IntStream.of(remaining).parallel().filter(this::isLocalMinimum).toArray();
+                int[] round = IntStream.of(minima).filter(node -> !stale[node]).toArray();
+                int[] recheck = IntStream.of(minima).filter(node -> stale[node]).toArray();
+                for (int node : round) {
+                    contract(node, search, next++);
+                }
+                parallel(recheck, (node, witness) -> {
+                    priority[node] = priorityOf(node, witness);
+                    stale[node] = false;
+                });
+                remaining = IntStream.of(remaining).filter(node -> !removed[node]).toArray();
+            }
+            return assemble();
+        }
+
+        /**
+         * Removes {@code node} from the overlay, keeping its arcs as its upward and downward ones,
+         * and adds the shortcuts it needs. Its neighbours' priorities go stale.
+         */
+        private void contract(int node, WitnessSearch search, int position) {
+            int[][] shortcuts = shortcuts(node, search, WITNESS_SETTLE_LIMIT);
+            removed[node] = true;
+            rank[node] = position;
+            upArcs[node] = pack(outTarget[node], outCost[node], outRef[node], outSize[node]);
+            downArcs[node] = pack(inTarget[node], inCost[node], inRef[node], inSize[node]);
+            for (int j = 0; j < outSize[node]; j++) {
+                touch(outTarget[node][j], node);
+                removeArc(inTarget, inCost, inRef, inSize, outTarget[node][j], node);
+            }
+            for (int j = 0; j < inSize[node]; j++) {
+                touch(inTarget[node][j], node);
+                removeArc(outTarget, outCost, outRef, outSize, inTarget[node][j], node);
+            }
+            outTarget[node] = outCost[node] = outRef[node] = null;
+            inTarget[node] = inCost[node] = inRef[node] = null;
+            for (int[] shortcut : shortcuts) {
+                int ref = ~shortcutMiddle.size();
+                if (addArc(shortcut[0], shortcut[1], shortcut[2], ref)) {
+                    shortcutMiddle.add(node);
+                    shortcutFirst.add(shortcut[3]);
+                    shortcutSecond.add(shortcut[4]);
+                }
+            }
+        }
+
+        private void touch(int neighbor, int contracted) {
+            level[neighbor] = Math.max(level[neighbor], level[contracted] + 1);
+            stale[neighbor] = true;
+        }
+
+        /**
+         * Runs {@code task} for every element of {@code items} on the common pool, in batches that
+         * each borrow one witness search.
+         */
+        private void parallel(int[] items, Task task) {
+            int batch = 64;
+            IntStream.range(0, (items.length + batch - 1) / batch).parallel().forEach(b -> {
+                WitnessSearch search = searches.poll();
+                if (search == null) {
+                    search = new WitnessSearch(n);
+                }
+                for (int i = b * batch; i < Math.min(items.length, (b + 1) * batch); i++) {
+                    task.run(items[i], search);
+                }
+                searches.add(search);
+            });
+        }
+
+        /**
+         * @return whether no remaining neighbour of {@code node} comes before it by priority,
+         *         then index
+         */
+        private boolean isLocalMinimum(int node) {
+            for (int j = 0; j < outSize[node]; j++) {
+                if (before(outTarget[node][j], node)) {
+                    return false;
+                }
+            }
+            for (int j = 0; j < inSize[node]; j++) {
+                if (before(inTarget[node][j], node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int scramble(int node) {
+            int h = node * 0x9E3779B1;
+            return h ^ (h >>> 16);
+        }
+
+        private boolean before(int a, int b) {
+            if (priority[a] != priority[b]) {
+                return priority[a] < priority[b];
+            }
+            int ha = scramble(a);
+            int hb = scramble(b);
+            return ha < hb || (ha == hb && a < b);
+        }
+
+        private int priorityOf(int node, WitnessSearch search) {
+            int added = shortcuts(node, search, PRIORITY_SETTLE_LIMIT).length;
+            int removedArcs = Math.max(1, outSize[node] + inSize[node]);
+            return (int) ((long) QUOTIENT_WEIGHT * added / removedArcs) + LEVEL_WEIGHT * level[node];
+        }
+
+        /**
+         * @return shortcuts contracting {@code node} needs, each as source, target, cost and the
+         *         references of its two halves; witness paths avoid the node and every contracted one.
+         *         The overlay of an undirected graph is symmetric, so only one search is run per pair
+         *         of neighbours and a shortcut found is added both ways.
+         */
+        private int[][] shortcuts(int node, WitnessSearch search, int settleLimit) {
+            List<int[]> shortcuts = new ArrayList<>();
+            for (int i = 0; i < inSize[node]; i++) {
+                int source = inTarget[node][i];
+                long inCost = this.inCost[node][i];
+                int targetCount = 0;
+                int maxOut = 0;
+                for (int j = 0; j < outSize[node]; j++) {
+                    if (wanted(source, outTarget[node][j])) {
+                        maxOut = Math.max(maxOut, outCost[node][j]);
+                        search.target(outTarget[node][j], true);
+                        targetCount++;
+                    }
+                }
+                if (targetCount == 0) {
+                    continue;
+                }
+                search.run(this, source, node, inCost + maxOut, targetCount, settleLimit);
+                for (int j = 0; j < outSize[node]; j++) {
+                    int target = outTarget[node][j];
+                    if (!wanted(source, target)) {
+                        continue;
+                    }
+                    search.target(target, false);
+                    if (search.distance(target) > inCost + outCost[node][j]) {
+                        shortcuts.add(shortcut(source, target, inCost + outCost[node][j], inRef[node][i],
+                                outRef[node][j]));
+                        if (!directed) {
+                            int back = indexOf(inTarget[node], inSize[node], target);
+                            int forth = indexOf(outTarget[node], outSize[node], source);
+                            shortcuts.add(shortcut(target, source, (long) this.inCost[node][back]
+                                    + outCost[node][forth], inRef[node][back], outRef[node][forth]));
+                        }
+                    }
+                }
+                search.reset();
+            }
+            return shortcuts.toArray(new int[0][]);
+        }
+
+        /**
+         * @return whether a shortcut {@code source -> target} has to be searched for: the mirror
+         *         image of a pair already searched in an undirected graph does not
+         */
+        private boolean wanted(int source, int target) {
+            return target != source && (directed || source < target);
+        }
+
+        private static int[] shortcut(int source, int target, long cost, int first, int second) {
+            if (cost > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Shortcut cost exceeds the int range: " + cost);
+            }
+            return new int[]{source, target, (int) cost, first, second};
+        }
+
+        private static int indexOf(int[] targets, int size, int target) {
+            for (int j = 0; j < size; j++) {
+                if (targets[j] == target) {
+                    return j;
+                }
+            }
+            throw new IllegalStateException("Overlay arc missing: " + target);
+        }
+
+        /**
+         * Adds {@code source -> target} to the overlay, or lowers the cost of the arc already there.
+         *
+         * @return false if an arc at least as cheap already joins the two nodes
+         */
+        private boolean addArc(int source, int target, int cost, int ref) {
+            for (int j = 0; j < outSize[source]; j++) {
+                if (outTarget[source][j] == target) {
+                    if (outCost[source][j] <= cost) {
+                        return false;
+                    }
+                    outCost[source][j] = cost;
+                    outRef[source][j] = ref;
+                    for (int k = 0; k < inSize[target]; k++) {
+                        if (inTarget[target][k] == source) {
+                            inCost[target][k] = cost;
+                            inRef[target][k] = ref;
+                        }
+                    }
+                    return true;
+                }
+            }
+            append(outTarget, outCost, outRef, outSize, source, target, cost, ref);
+            append(inTarget, inCost, inRef, inSize, target, source, cost, ref);
+            return true;
+        }
+
+        private static void append(int[][] targets, int[][] costs, int[][] refs, int[] sizes,
+                                   int node, int target, int cost, int ref) {
+            int size = sizes[node];
+            if (size == targets[node].length) {
+                targets[node] = Arrays.copyOf(targets[node], size * 2);
+                costs[node] = Arrays.copyOf(costs[node], size * 2);
+                refs[node] = Arrays.copyOf(refs[node], size * 2);
+            }
+            targets[node][size] = target;
+            costs[node][size] = cost;
+            refs[node][size] = ref;
+            sizes[node] = size + 1;
+        }
+
+        private static void removeArc(int[][] targets, int[][] costs, int[][] refs, int[] sizes, int node, int target) {
+            int last = sizes[node] - 1;
+            for (int j = 0; j <= last; j++) {
+                if (targets[node][j] == target) {
+                    targets[node][j] = targets[node][last];
+                    costs[node][j] = costs[node][last];
+                    refs[node][j] = refs[node][last];
+                    sizes[node] = last;
+                    return;
+                }
+            }
+        }
+
+        private static int[] pack(int[] targets, int[] costs, int[] refs, int size) {
+            int[] packed = new int[size * 3];
+            for (int j = 0; j < size; j++) {
+                packed[j * 3] = targets[j];
+                packed[j * 3 + 1] = costs[j];
+                packed[j * 3 + 2] = refs[j];
+            }
+            return packed;
+        }
+
+        private int[][] assemble() {
+            int[][] up = flatten(upArcs);
+            int[][] down = flatten(downArcs);
+            return new int[][]{rank, up[0], up[1], up[2], up[3], down[0], down[1], down[2], down[3],
+                    shortcutMiddle.toArray(), shortcutFirst.toArray(), shortcutSecond.toArray()};
+        }
+
+        /**
+         * @return offsets, targets, costs and references of the packed per-node arcs
+         */
+        private int[][] flatten(int[][] arcs) {
+            int[] start = new int[n + 1];
+            for (int node = 0; node < n; node++) {
+                start[node + 1] = start[node] + arcs[node].length / 3;
+            }
+            int[] targets = new int[start[n]];
+            int[] costs = new int[start[n]];
+            int[] refs = new int[start[n]];
+            for (int node = 0; node < n; node++) {
+                int[] packed = arcs[node];
+                for (int j = 0; j < packed.length / 3; j++) {
+                    targets[start[node] + j] = packed[j * 3];
+                    costs[start[node] + j] = packed[j * 3 + 1];
+                    refs[start[node] + j] = packed[j * 3 + 2];
+                }
+                arcs[node] = null;
+            }
+            return new int[][]{start, targets, costs, refs};
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int item, WitnessSearch search);
+    }
+
+    /**
+     * Bounded Dijkstra over the overlay with its own labels and heap, reset through the list of
+     * nodes it touched so that each search costs only what it explores.
+     */
+    private static final class WitnessSearch {
+        private final double[] dist;
+        private final boolean[] targets;
+        private final IntList touched = new IntList();
+        private final DaryHeap heap;
+
+        WitnessSearch(int n) {
+            dist = new double[n];
+            targets = new boolean[n];
+            Arrays.fill(dist, INFINITY);
+            heap = new DaryHeap(n, 2);
+        }
+
+        /**
+         * Marks or unmarks a node whose distance the searches are after.
+         */
+        void target(int node, boolean target) {
+            targets[node] = target;
+        }
+
+        /**
+         * Labels nodes reachable from {@code source} within {@code limit} without passing through
+         * {@code skipped} or any removed node, until all {@code targetCount} marked nodes or
+         * {@code settleLimit} nodes are settled.
+         */
+        void run(Contractor overlay, int source, int skipped, long limit, int targetCount, int settleLimit) {
+            dist[source] = 0;
+            touched.add(source);
+            heap.offer(source, 0);
+            int pending = targetCount;
+            int settled = 0;
+            while (!heap.isEmpty() && settled++ < settleLimit) {
+                int node = heap.poll();
+                double d = dist[node];
+                if (targets[node] && --pending == 0) {
+                    break;
+                }
+                for (int j = 0; j < overlay.outSize[node]; j++) {
+                    int target = overlay.outTarget[node][j];
+                    if (target == skipped || overlay.removed[target]) {
+                        continue;
+                    }
+                    double candidate = d + overlay.outCost[node][j];
+                    if (candidate <= limit && candidate < dist[target]) {
+                        if (dist[target] == INFINITY) {
+                            touched.add(target);
+                        }
+                        dist[target] = candidate;
+                        heap.offer(target, candidate);
+                    }
+                }
+            }
+        }
+
+        double distance(int node) {
+            return dist[node];
+        }
+
+        void reset() {
+            for (int i = 0; i < touched.size(); i++) {
+                dist[touched.get(i)] = INFINITY;
+            }
+            touched.clear();
+            heap.clear();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
+import java.util.*;
+
+/**
+ * Point-to-point query on the graph's {@link ContractionHierarchy}: a forward search from the
+ * start over upward arcs and a backward one from the goal over downward arcs, each climbing to
+ * higher ranks only. Every shortest path has a highest node both searches settle, so the path is
+ * the best sum of labels over nodes settled by both; a side stops once its smallest key reaches
+ * that sum. A node some higher node reaches more cheaply is stalled rather than expanded. The
+ * hierarchy is built, in parallel, the first time a graph version is queried.
+ * <p>
+ * The path found may run over shortcuts, which are unpacked into the edges they stand for before
+ * it is returned; the trace shows each shortcut being split at its middle node. Only nodes on the
+ * path get exact distances in the result, as the labels elsewhere are upper bounds.
+ */
+public class ContractionHierarchyAlgorithm implements GraphAlgorithm {
+
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    @Override
+    public String getName() {
+        return "Contraction Hierarchy";
+    }
+
+    @Override
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0 || goal < 0) {
+            trace.setInitialLog("[Contraction Hierarchy] Start and goal nodes are required." + System.lineSeparator());
+            return;
+        }
+        trace.setNodeColor(start, AlgorithmEngine.FRONTIER_COLOR);
+        trace.setNodeColor(goal, AlgorithmEngine.GOAL_COLOR);
+        trace.setDistance(start, 0);
+        search(graph, start, goal, trace);
+    }
+
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        AlgorithmEngine.requireNode(graph, goal, "Goal");
+        return search(graph, start, goal, null);
+    }
+
+    /**
+     * Runs both upward searches and unpacks the path through their best meeting node, recording
+     * each step when {@code trace} is not null.
+     */
+    private AlgorithmResult search(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        ContractionHierarchy hierarchy = ContractionHierarchy.of(graph);
+        int n = graph.nodeCount();
+        Side forward = new Side(n, start);
+        Side backward = new Side(n, goal);
+        int[] order = new int[n];
+        int settledCount = 0;
+        int meet = -1;
+        double best = INFINITY;
+        int step = 1;
+        if (trace != null) {
+            AlgorithmEngine.log(trace, StepKind.MILESTONE, "Contraction Hierarchy", step++,
+                    () -> String.format("Climbing the hierarchy from %s and from %s (%d shortcuts)",
+                            graph.nodeId(start), graph.nodeId(goal), hierarchy.shortcutCount()));
+        }
+
+        while (!forward.queue.isEmpty() || !backward.queue.isEmpty()) {
+            boolean ahead = backward.queue.isEmpty()
+                    || (!forward.queue.isEmpty() && forward.topKey() <= backward.topKey());
+            Side side = ahead ? forward : backward;
+            Side other = ahead ? backward : forward;
+            if (side.topKey() >= best) {
+                side.queue.clear();
+                continue;
+            }
+            int current = side.queue.poll();
+            side.settled[current] = true;
+            if (!other.settled[current]) {
+                order[settledCount++] = current;
+            }
+            double through = side.dist[current] + other.dist[current];
+            boolean met = through < best;
+            if (met) {
+                best = through;
+                meet = current;
+            }
+            boolean stalled = stalled(hierarchy, side, current, ahead);
+            if (trace != null) {
+                double length = best;
+                trace.setNodeColor(current, ahead ? AlgorithmEngine.VISITED_COLOR : AlgorithmEngine.BACKWARD_VISITED_COLOR);
+                AlgorithmEngine.log(trace, StepKind.EXPANSION, "Contraction Hierarchy", step++, () -> met
+                        ? String.format("Searches meet at %s: path of length %.2f", graph.nodeId(current), length)
+                        : String.format("%s search settled %s (rank %d, %.2f)%s", ahead ? "Forward" : "Backward",
+                                graph.nodeId(current), hierarchy.rank(current), side.dist[current],
+                                stalled ? ", stalled by a higher node" : ""));
+            }
+            if (stalled) {
+                continue;
+            }
+
+            int end = ahead ? hierarchy.upEnd(current) : hierarchy.downEnd(current);
+            for (int arc = ahead ? hierarchy.upStart(current) : hierarchy.downStart(current); arc < end; arc++) {
+                int neighbor = ahead ? hierarchy.upTarget(arc) : hierarchy.downSource(arc);
+                double candidate = side.dist[current] + (ahead ? hierarchy.upCost(arc) : hierarchy.downCost(arc));
+                if (candidate >= side.dist[neighbor]) {
+                    continue;
+                }
+                side.dist[neighbor] = candidate;
+                side.parent[neighbor] = current;
+                side.parentRef[neighbor] = ahead ? hierarchy.upRef(arc) : hierarchy.downRef(arc);
+                side.queue.offer(neighbor, candidate);
+                if (trace != null) {
+                    int ref = side.parentRef[neighbor];
+                    int from = ahead ? current : neighbor;
+                    int to = ahead ? neighbor : current;
+                    if (!ContractionHierarchy.isShortcut(ref)) {
+                        trace.setEdgeColor(ref, ahead ? AlgorithmEngine.ACTIVE_EDGE_COLOR : AlgorithmEngine.EDGE_HIGHLIGHT_COLOR);
+                    }
+                    if (!other.settled[neighbor]) {
+                        trace.setNodeColor(neighbor, AlgorithmEngine.FRONTIER_COLOR);
+                    }
+                    AlgorithmEngine.log(trace, StepKind.DETAIL, "Contraction Hierarchy", step++,
+                            () -> String.format("Relaxed %s %s%s%s (%.2f)",
+                                    ContractionHierarchy.isShortcut(ref) ? "shortcut" : "edge", graph.nodeId(from),
+                                    ContractionHierarchy.isShortcut(ref) ? "⇢" : "→", graph.nodeId(to), candidate));
+                }
+            }
+        }
+
+        double[] distances = new double[n];
+        Arrays.fill(distances, INFINITY);
+        int[] parent = AlgorithmEngine.unset(n);
+        int[] parentEdge = AlgorithmEngine.unset(n);
+        AlgorithmResult result = new AlgorithmResult(getName(), Arrays.copyOf(order, settledCount), distances,
+                parent, parentEdge, null);
+        if (meet < 0) {
+            if (trace != null) {
+                AlgorithmEngine.log(trace, StepKind.MILESTONE, "Contraction Hierarchy", step, () -> "Goal unreachable.");
+            }
+            return result;
+        }
+
+        // Hierarchy arcs of the path in order, as (reference, from, to) triples
+        List<int[]> arcs = new ArrayList<>();
+        for (int node = meet; node != start; node = forward.parent[node]) {
+            arcs.add(new int[]{forward.parentRef[node], forward.parent[node], node});
+        }
+        Collections.reverse(arcs);
+        for (int node = meet; node != goal; node = backward.parent[node]) {
+            arcs.add(new int[]{backward.parentRef[node], node, backward.parent[node]});
+        }
+        if (trace != null) {
+            int through = meet;
+            double length = best;
+            AlgorithmEngine.log(trace, StepKind.MILESTONE, "Contraction Hierarchy", step++,
+                    () -> String.format("Unpacking the path through %s (length %.2f)", graph.nodeId(through), length));
+        }
+
+        distances[start] = 0;
+        Deque<int[]> pending = new ArrayDeque<>();
+        for (int i = arcs.size() - 1; i >= 0; i--) {
+            pending.push(arcs.get(i));
+        }
+        while (!pending.isEmpty()) {
+            int[] arc = pending.pop();
+            int ref = arc[0];
+            int from = arc[1];
+            int to = arc[2];
+            if (ContractionHierarchy.isShortcut(ref)) {
+                int middle = hierarchy.shortcutMiddle(ref);
+                pending.push(new int[]{hierarchy.shortcutSecond(ref), middle, to});
+                pending.push(new int[]{hierarchy.shortcutFirst(ref), from, middle});
+                if (trace != null) {
+                    trace.setNodeColor(middle, AlgorithmEngine.FRONTIER_COLOR);
+                    AlgorithmEngine.log(trace, StepKind.EXPANSION, "Contraction Hierarchy", step++,
+                            () -> String.format("Unpacked shortcut %s⇢%s via %s", graph.nodeId(from),
+                                    graph.nodeId(to), graph.nodeId(middle)));
+                }
+                continue;
+            }
+            distances[to] = distances[from] + (graph.isWeighted() ? graph.edgeWeight(ref) : 1);
+            parent[to] = from;
+            parentEdge[to] = ref;
+            if (trace != null) {
+                trace.setEdgeColor(ref, AlgorithmEngine.PATH_COLOR);
+                trace.setNodeColor(from, AlgorithmEngine.PATH_COLOR);
+                trace.setNodeColor(to, AlgorithmEngine.PATH_COLOR);
+                trace.setDistance(to, distances[to]);
+                AlgorithmEngine.log(trace, StepKind.DETAIL, "Contraction Hierarchy", step++,
+                        () -> String.format("Path edge %s→%s", graph.nodeId(from), graph.nodeId(to)));
+            }
+        }
+        if (trace != null) {
+            double length = best;
+            trace.setNodeColor(goal, AlgorithmEngine.GOAL_COLOR);
+            AlgorithmEngine.log(trace, StepKind.MILESTONE, "Contraction Hierarchy", step,
+                    () -> String.format("Path of length %.2f highlighted.", length));
+        }
+        return result;
+    }
+
+    /**
+     * Stall-on-demand: a label is not a shortest distance if a higher-ranked node already labelled
+     * by the same search reaches the node more cheaply over an arc pointing down to it, so such a
+     * node need not be expanded.
+     */
+    private static boolean stalled(ContractionHierarchy hierarchy, Side side, int node, boolean ahead) {
+        int end = ahead ? hierarchy.downEnd(node) : hierarchy.upEnd(node);
+        for (int arc = ahead ? hierarchy.downStart(node) : hierarchy.upStart(node); arc < end; arc++) {
+            int higher = ahead ? hierarchy.downSource(arc) : hierarchy.upTarget(arc);
+            double cost = ahead ? hierarchy.downCost(arc) : hierarchy.upCost(arc);
+            if (side.dist[higher] + cost < side.dist[node]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One upward search: labels, the hierarchy arc each label came over, and its queue.
+     */
+    private static final class Side {
+        final double[] dist;
+        final int[] parent;
+        final int[] parentRef;
+        final boolean[] settled;
+        final IndexedHeap queue;
+
+        Side(int n, int root) {
+            dist = new double[n];
+            Arrays.fill(dist, INFINITY);
+            dist[root] = 0;
+            parent = AlgorithmEngine.unset(n);
+            parentRef = new int[n];
+            settled = new boolean[n];
+            queue = IndexedHeap.Kind.BINARY.create(n);
+            queue.offer(root, 0);
+        }
+
+        double topKey() {
+            return queue.priority(queue.peek());
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package com.graphvizfx.algorithms;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
 import java.util.*;
 
 /**
@@ -17,62 +16,94 @@ public class DFSAlgorithm implements GraphAlgorithm {
     }
     
     @Override
-    public List<VisualState> execute(GraphModel graph, GNode start, GNode goal) {
-        List<VisualState> history = AlgorithmEngine.prepareTrace();
-        if (start == null) {
-            history.get(0).setLogLine("[DFS] Start node not provided." + System.lineSeparator());
-            return history;
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0) {
+            trace.setInitialLog("[DFS] Start node not provided." + System.lineSeparator());
+            return;
         }
 
-        VisualState state = history.get(0);
         int step = 1;
 
-        Deque<GNode> stack = new ArrayDeque<>();
-        Set<String> visited = new HashSet<>();
-        stack.push(start);
-        state.getNodeColors().put(start.getId(), AlgorithmEngine.FRONTIER_COLOR);
-        AlgorithmEngine.log(history, state, "DFS", step++, "Pushed start node " + start.getId() + " onto stack");
+        // A node can be pushed once per incoming arc, so the stack grows on demand.
+        int[] stack = new int[Math.max(16, graph.nodeCount())];
+        int top = 0;
+        boolean[] visited = new boolean[graph.nodeCount()];
+        stack[top++] = start;
+        trace.setNodeColor(start, AlgorithmEngine.FRONTIER_COLOR);
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "DFS", step++,
+                () -> "Pushed start node " + graph.nodeId(start) + " onto stack");
 
-        while (!stack.isEmpty()) {
-            state = history.get(history.size() - 1);
-            GNode current = stack.pop();
+        while (top > 0) {
+            int current = stack[--top];
 
-            if (visited.contains(current.getId())) {
-                AlgorithmEngine.log(history, state, "DFS", step++,
-                        "Skipped " + current.getId() + " because it was already visited");
+            if (visited[current]) {
+                AlgorithmEngine.log(trace, StepKind.DETAIL, "DFS", step++,
+                        () -> "Skipped " + graph.nodeId(current) + " because it was already visited");
                 continue;
             }
 
-            visited.add(current.getId());
-            state.getNodeColors().put(current.getId(), AlgorithmEngine.VISITED_COLOR);
-            AlgorithmEngine.log(history, state, "DFS", step++, "Visited " + current.getId());
+            visited[current] = true;
+            trace.setNodeColor(current, AlgorithmEngine.VISITED_COLOR);
+            AlgorithmEngine.log(trace, StepKind.EXPANSION, "DFS", step++, () -> "Visited " + graph.nodeId(current));
 
-            List<GEdge> neighborEdges = new ArrayList<>();
-            for (GEdge edge : graph.getEdges()) {
-                if (edge.getSource() == current) {
-                    neighborEdges.add(edge);
-                } else if (!graph.isDirected() && edge.getTarget() == current) {
-                    neighborEdges.add(edge);
+            // Walk arcs backwards so the first neighbor ends up on top of the stack.
+            for (int arc = graph.arcEnd(current) - 1; arc >= graph.arcStart(current); arc--) {
+                int neighbor = graph.arcTarget(arc);
+                if (!visited[neighbor]) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = neighbor;
+                    int edge = graph.arcEdge(arc);
+                    trace.setNodeColor(neighbor, AlgorithmEngine.FRONTIER_COLOR);
+                    trace.setEdgeColor(edge, AlgorithmEngine.ACTIVE_EDGE_COLOR);
+                    AlgorithmEngine.log(trace, StepKind.DETAIL, "DFS", step++,
+                            () -> String.format("Added %s via edge %s-%s", graph.nodeId(neighbor),
+                                          graph.nodeId(graph.edgeSource(edge)), graph.nodeId(graph.edgeTarget(edge))));
                 }
             }
-            Collections.reverse(neighborEdges);
+        }
+
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "DFS", step, () -> "Traversal complete.");
+    }
 
-            for (GEdge edge : neighborEdges) {
-                GNode neighbor = edge.getSource() == current ? edge.getTarget() : edge.getSource();
-                if (!visited.contains(neighbor.getId())) {
-                    stack.push(neighbor);
-                    state = history.get(history.size() - 1);
-                    state.getNodeColors().put(neighbor.getId(), AlgorithmEngine.FRONTIER_COLOR);
-                    state.getEdgeColors().put(edge.getId(), AlgorithmEngine.ACTIVE_EDGE_COLOR);
-                    AlgorithmEngine.log(history, state, "DFS", step++,
-                            String.format("Added %s via edge %s-%s", neighbor.getId(),
-                                    edge.getSource().getId(), edge.getTarget().getId()));
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        int n = graph.nodeCount();
+        // Stack entries are the arcs nodes were pushed through, or -1 - start for the start
+        int[] stack = new int[Math.max(16, n)];
+        int top = 0;
+        boolean[] visited = new boolean[n];
+        int[] order = new int[n];
+        int visits = 0;
+        int[] parent = AlgorithmEngine.unset(n);
+        int[] parentEdge = AlgorithmEngine.unset(n);
+
+        stack[top++] = -1 - start;
+        while (top > 0) {
+            int entry = stack[--top];
+            int current = entry < 0 ? -1 - entry : graph.arcTarget(entry);
+            if (visited[current]) {
+                continue;
+            }
+            visited[current] = true;
+            order[visits++] = current;
+            if (entry >= 0) {
+                int edge = graph.arcEdge(entry);
+                parentEdge[current] = edge;
+                parent[current] = graph.edgeSource(edge) == current ? graph.edgeTarget(edge) : graph.edgeSource(edge);
+            }
+
+            for (int arc = graph.arcEnd(current) - 1; arc >= graph.arcStart(current); arc--) {
+                if (!visited[graph.arcTarget(arc)]) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = arc;
                 }
             }
         }
-
-        AlgorithmEngine.log(history, history.get(history.size() - 1), "DFS", step, "Traversal complete.");
-        return history;
+        return new AlgorithmResult(getName(), Arrays.copyOf(order, visits), null, parent, parentEdge, null);
     }
 }
-
@@ -0,0 +1,140 @@
+package com.graphvizfx.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-backed d-ary {@link IndexedHeap}. The heap array holds nodes and a position array maps
+ * each node back to its slot, so decrease-key sifts the node up from where it is.
+ */
+final class DaryHeap implements IndexedHeap {
+    private final int arity;
+    private final int[] heap;
+    private final int[] position;
+    private final double[] priorities;
+    private int size;
+
+    DaryHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        heap = new int[capacity];
+        position = new int[capacity];
+        priorities = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    @Override
+    public double priority(int node) {
+        return priorities[node];
+    }
+
+    @Override
+    public boolean offer(int node, double priority) {
+        int slot = position[node];
+        if (slot < 0) {
+            slot = size++;
+        } else if (priority >= priorities[node]) {
+            return false;
+        }
+        priorities[node] = priority;
+        siftUp(node, slot);
+        return true;
+    }
+
+    @Override
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = heap[0];
+        position[min] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(last, 0);
+        }
+        return min;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves parents with a higher priority down until {@code node} fits at {@code slot}.
+     */
+    private void siftUp(int node, int slot) {
+        double priority = priorities[node];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / arity;
+            int parent = heap[parentSlot];
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            heap[slot] = parent;
+            position[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = node;
+        position[node] = slot;
+    }
+
+    /**
+     * Moves the smallest child up until {@code node} fits at {@code slot}.
+     */
+    private void siftDown(int node, int slot) {
+        double priority = priorities[node];
+        while (true) {
+            int first = slot * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int end = Math.min(first + arity, size);
+            int best = first;
+            double bestPriority = priorities[heap[first]];
+            for (int child = first + 1; child < end; child++) {
+                double childPriority = priorities[heap[child]];
+                if (childPriority < bestPriority) {
+                    best = child;
+                    bestPriority = childPriority;
+                }
+            }
+            if (bestPriority >= priority) {
+                break;
+            }
+            heap[slot] = heap[best];
+            position[heap[slot]] = slot;
+            slot = best;
+        }
+        heap[slot] = node;
+        position[node] = slot;
+    }
+}
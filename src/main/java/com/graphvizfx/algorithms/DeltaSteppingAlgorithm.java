@@ -0,0 +1,358 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Delta-stepping single-source shortest paths, which spreads the relaxations of a full search
+ * over the common fork-join pool.
+ * <p>
+ * Tentative distances fall into buckets of width delta. The smallest non-empty bucket is emptied
+ * in rounds: all of its nodes relax their light arcs, those costing at most delta, at once, and
+ * the nodes whose distance drops into the same bucket make up the next round. Once no round is
+ * left its nodes are final, and they relax their heavy arcs, which only reach later buckets.
+ * Distances live in a {@code long[]} lowered by compare-and-set, so a round takes no locks. With
+ * unit costs and a delta of 1 every round is one breadth-first level.
+ * <p>
+ * Parents are not tracked during the rounds, where two threads may lower the same node. They are
+ * rebuilt afterwards over the reverse arcs: each node takes a tight arc from a node last expanded
+ * in an earlier round, which keeps zero-cost cycles out of the tree. A recorded trace runs the
+ * same rounds on the calling thread.
+ */
+public class DeltaSteppingAlgorithm implements GraphAlgorithm {
+
+    /** Frontiers smaller than this are relaxed on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 1024;
+    /** Frontier nodes per fork-join task. */
+    private static final int CHUNK = 256;
+    private static final long UNREACHED = Long.MAX_VALUE;
+    private static final VarHandle DIST = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int delta;
+
+    /**
+     * Creates the algorithm with the bucket width picked from the graph's weights on each run.
+     */
+    public DeltaSteppingAlgorithm() {
+        delta = 0;
+    }
+
+    /**
+     * @param delta bucket width; arcs costing more are relaxed once, after their bucket is final
+     */
+    public DeltaSteppingAlgorithm(int delta) {
+        if (delta < 1) {
+            throw new IllegalArgumentException("Delta must be positive: " + delta);
+        }
+        this.delta = delta;
+    }
+
+    @Override
+    public String getName() {
+        return "Delta-Stepping";
+    }
+
+    @Override
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0) {
+            trace.setInitialLog("[Delta-Stepping] Start node not provided." + System.lineSeparator());
+            return;
+        }
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            trace.setDistance(i, i == start ? 0.0 : Double.MAX_VALUE);
+        }
+        new Search(graph, start, trace).run();
+    }
+
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        Search search = new Search(graph, start, null);
+        search.run();
+        return search.result();
+    }
+
+    /**
+     * Picks the largest edge cost over the average out-degree, so that a node relaxes about one
+     * light arc into its own bucket, the width the analysis of delta-stepping suggests.
+     */
+    static int chooseDelta(CsrGraph graph, int maxCost) {
+        int n = graph.nodeCount();
+        int arcs = n == 0 ? 0 : graph.arcEnd(n - 1);
+        return Math.max(1, (int) ((long) maxCost * n / Math.max(arcs, 1)));
+    }
+
+    /**
+     * @throws IllegalArgumentException if some weight is negative
+     */
+    private static int maxCost(CsrGraph graph) {
+        if (!graph.isWeighted()) {
+            return 1;
+        }
+        int maxCost = 0;
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            int cost = graph.edgeWeight(edge);
+            if (cost < 0) {
+                throw new IllegalArgumentException("Delta-stepping needs non-negative weights: " + cost);
+            }
+            maxCost = Math.max(maxCost, cost);
+        }
+        return maxCost;
+    }
+
+    /**
+     * One run: the distance array, the cyclic array of buckets and, per node, the last round that
+     * expanded it.
+     */
+    private final class Search {
+        private final CsrGraph graph;
+        private final int start;
+        private final AlgorithmTrace trace;
+        private final int width;
+        private final long[] dist;
+        private final int[] round;
+        private final boolean[] settled;
+        private final int[] stamp;
+        // Pending distances lie within the largest cost of the current bucket, so a ring covers them
+        private final IntList[] buckets;
+        private final IntList order = new IntList();
+        private int queued;
+        private int stamps;
+        private int rounds;
+        private int step = 1;
+
+        Search(CsrGraph graph, int start, AlgorithmTrace trace) {
+            this.graph = graph;
+            this.start = start;
+            this.trace = trace;
+            int maxCost = maxCost(graph);
+            width = delta > 0 ? delta : chooseDelta(graph, maxCost);
+            int n = graph.nodeCount();
+            dist = new long[n];
+            Arrays.fill(dist, UNREACHED);
+            round = new int[n];
+            settled = new boolean[n];
+            stamp = new int[n];
+            buckets = new IntList[maxCost / width + 2];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new IntList();
+            }
+        }
+
+        void run() {
+            dist[start] = 0;
+            buckets[0].add(start);
+            queued = 1;
+            if (trace != null) {
+                AlgorithmEngine.log(trace, StepKind.MILESTONE, "Delta-Stepping", step++,
+                        () -> String.format("Initialized start node %s; Δ = %d, heavier arcs wait for their bucket",
+                                graph.nodeId(start), width));
+            }
+
+            for (long bucket = 0; queued > 0; bucket++) {
+                int[] frontier = take(bucket);
+                if (frontier.length == 0) {
+                    continue;
+                }
+                if (trace != null) {
+                    long low = bucket * width;
+                    AlgorithmEngine.log(trace, StepKind.MILESTONE, "Delta-Stepping", step++,
+                            () -> String.format("Bucket [%d, %d)", low, low + width));
+                }
+                IntList members = new IntList();
+                while (frontier.length > 0) {
+                    rounds++;
+                    long[] from = new long[frontier.length];
+                    for (int i = 0; i < frontier.length; i++) {
+                        int node = frontier[i];
+                        from[i] = dist[node];
+                        round[node] = rounds;
+                        if (!settled[node]) {
+                            settled[node] = true;
+                            members.add(node);
+                            order.add(node);
+                        }
+                    }
+                    if (trace != null) {
+                        int count = frontier.length;
+                        int current = rounds;
+                        AlgorithmEngine.log(trace, StepKind.EXPANSION, "Delta-Stepping", step++,
+                                () -> String.format("Round %d relaxes the light arcs of %d nodes", current, count));
+                    }
+                    IntList next = new IntList();
+                    enqueue(relax(frontier, from, true), bucket, next);
+                    frontier = next.toArray();
+                }
+
+                int[] done = members.toArray();
+                long[] from = new long[done.length];
+                for (int i = 0; i < done.length; i++) {
+                    from[i] = dist[done[i]];
+                }
+                if (trace != null) {
+                    AlgorithmEngine.log(trace, StepKind.EXPANSION, "Delta-Stepping", step++,
+                            () -> String.format("Bucket settled %d nodes; relaxing their heavy arcs", done.length));
+                }
+                enqueue(relax(done, from, false), bucket, null);
+            }
+
+            if (trace != null) {
+                int total = rounds;
+                AlgorithmEngine.log(trace, StepKind.MILESTONE, "Delta-Stepping", step,
+                        () -> String.format("Finished shortest paths in %d rounds.", total));
+            }
+        }
+
+        /**
+         * Empties the ring slot of {@code bucket}.
+         *
+         * @return its nodes whose distance still falls in {@code bucket}, each once
+         */
+        private int[] take(long bucket) {
+            IntList slot = buckets[(int) (bucket % buckets.length)];
+            queued -= slot.size();
+            stamps++;
+            IntList frontier = new IntList();
+            for (int i = 0; i < slot.size(); i++) {
+                int node = slot.get(i);
+                if (stamp[node] != stamps && dist[node] / width == bucket) {
+                    stamp[node] = stamps;
+                    frontier.add(node);
+                }
+            }
+            slot.clear();
+            return frontier.toArray();
+        }
+
+        /**
+         * Files each lowered node once under its new bucket, or into {@code next} when that is
+         * still {@code bucket}.
+         */
+        private void enqueue(int[] lowered, long bucket, IntList next) {
+            stamps++;
+            for (int node : lowered) {
+                if (stamp[node] == stamps) {
+                    continue;
+                }
+                stamp[node] = stamps;
+                long target = dist[node] / width;
+                if (target == bucket) {
+                    next.add(node);
+                } else {
+                    buckets[(int) (target % buckets.length)].add(node);
+                    queued++;
+                }
+            }
+        }
+
+        /**
+         * Relaxes the light or heavy arcs of {@code nodes} from the distances in {@code from}, in
+         * parallel chunks when there are enough of them and no trace to record into.
+         *
+         * @return the nodes whose distance went down, possibly repeated
+         */
+        private int[] relax(int[] nodes, long[] from, boolean light) {
+            if (trace != null || nodes.length < PARALLEL_THRESHOLD) {
+                IntList lowered = new IntList();
+                relax(nodes, from, 0, nodes.length, light, lowered);
+                return lowered.toArray();
+            }
+            int[][] parts = IntStream.range(0, (nodes.length + CHUNK - 1) / CHUNK).parallel()
+                    .mapToObj(chunk -> {
+                        IntList lowered = new IntList();
+                        relax(nodes, from, chunk * CHUNK, Math.min(nodes.length, (chunk + 1) * CHUNK), light, lowered);
+                        return lowered.toArray();
+                    })
+                    .toArray(int[][]::new);
+            int total = 0;
+            for (int[] part : parts) {
+                total += part.length;
+            }
+            int[] lowered = new int[total];
+            int offset = 0;
+            for (int[] part : parts) {
+                System.arraycopy(part, 0, lowered, offset, part.length);
+                offset += part.length;
+            }
+            return lowered;
+        }
+
+        private void relax(int[] nodes, long[] from, int begin, int end, boolean light, IntList lowered) {
+            for (int i = begin; i < end; i++) {
+                int node = nodes[i];
+                for (int arc = graph.arcStart(node); arc < graph.arcEnd(node); arc++) {
+                    int cost = graph.arcCost(arc);
+                    if ((cost <= width) != light) {
+                        continue;
+                    }
+                    int target = graph.arcTarget(arc);
+                    long candidate = from[i] + cost;
+                    long previous = dist[target];
+                    if (lower(target, candidate)) {
+                        lowered.add(target);
+                        if (trace != null) {
+                            trace.setDistance(target, candidate);
+                            trace.setNodeColor(target, AlgorithmEngine.FRONTIER_COLOR);
+                            trace.setEdgeColor(graph.arcEdge(arc), light ? AlgorithmEngine.ACTIVE_EDGE_COLOR
+                                    : AlgorithmEngine.EDGE_HIGHLIGHT_COLOR);
+                            AlgorithmEngine.log(trace, StepKind.DETAIL, "Delta-Stepping", step++,
+                                    () -> String.format("Relaxed %s arc %s→%s (%s → %d)", light ? "light" : "heavy",
+                                            graph.nodeId(node), graph.nodeId(target),
+                                            previous == UNREACHED ? "∞" : Long.toString(previous), candidate));
+                        }
+                    }
+                }
+                if (trace != null) {
+                    trace.setNodeColor(node, AlgorithmEngine.VISITED_COLOR);
+                }
+            }
+        }
+
+        /**
+         * @return whether {@code candidate} replaced a larger distance of {@code node}
+         */
+        private boolean lower(int node, long candidate) {
+            long current = (long) DIST.getVolatile(dist, node);
+            while (candidate < current) {
+                long witness = (long) DIST.compareAndExchange(dist, node, current, candidate);
+                if (witness == current) {
+                    return true;
+                }
+                current = witness;
+            }
+            return false;
+        }
+
+        /**
+         * @return distances and the parent tree rebuilt over the reverse arcs
+         */
+        AlgorithmResult result() {
+            int n = graph.nodeCount();
+            double[] distances = new double[n];
+            int[] parent = AlgorithmEngine.unset(n);
+            int[] parentEdge = AlgorithmEngine.unset(n);
+            CsrGraph reverse = graph.reverse();
+            IntStream.range(0, n).parallel().forEach(node -> {
+                distances[node] = dist[node] == UNREACHED ? Double.POSITIVE_INFINITY : dist[node];
+                if (node == start || dist[node] == UNREACHED) {
+                    return;
+                }
+                for (int arc = reverse.arcStart(node); arc < reverse.arcEnd(node); arc++) {
+                    int source = reverse.arcTarget(arc);
+                    if (dist[source] != UNREACHED && dist[source] + reverse.arcCost(arc) == dist[node]
+                            && round[source] < round[node]) {
+                        parent[node] = source;
+                        parentEdge[node] = reverse.arcEdge(arc);
+                        return;
+                    }
+                }
+            });
+            return new AlgorithmResult(getName(), order.toArray(), distances, parent, parentEdge, null);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.graphvizfx.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Dial's bucket queue as a monotone {@link IndexedHeap}: one bucket per integer priority, kept in
+ * a ring that starts at the lowest queued priority. Every queued priority lies within the ring, so
+ * a bucket only ever holds one priority and polling just walks forward to the next non-empty one.
+ * <p>
+ * Buckets are intrusive doubly linked lists over per-node link arrays, so decrease-key moves a
+ * node to another bucket in constant time. The ring doubles whenever a priority lands past its
+ * end, which makes it as long as the largest step between the polled and the offered priority,
+ * i.e. the largest edge weight in Dijkstra. With weights 0 and 1 it has two buckets and works as
+ * 0-1 BFS does, with the node moved to the front bucket instead of a duplicate pushed on a deque.
+ */
+final class DialQueue implements IndexedHeap {
+    private static final int NONE = -1;
+
+    private final int[] next;
+    private final int[] previous;
+    private final long[] keys;
+    private final boolean[] queued;
+    private int[] heads = {NONE, NONE};
+    private long cursor;
+    private int size;
+
+    DialQueue(int capacity) {
+        next = new int[capacity];
+        previous = new int[capacity];
+        keys = new long[capacity];
+        queued = new boolean[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int node) {
+        return queued[node];
+    }
+
+    @Override
+    public double priority(int node) {
+        return keys[node];
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code priority} is not an integer or lies below the
+     *                                  last polled one
+     */
+    @Override
+    public boolean offer(int node, double priority) {
+        long key = RadixHeap.key(priority, cursor);
+        if (queued[node]) {
+            if (key >= keys[node]) {
+                return false;
+            }
+            unlink(node);
+        } else {
+            queued[node] = true;
+            size++;
+        }
+        if (key - cursor >= heads.length) {
+            grow(key - cursor);
+        }
+        keys[node] = key;
+        link(node);
+        return true;
+    }
+
+    /**
+     * Advances the ring to the lowest queued priority, which later offers may not go below anyway.
+     */
+    @Override
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int mask = heads.length - 1;
+        while (heads[(int) cursor & mask] == NONE) {
+            cursor++;
+        }
+        return heads[(int) cursor & mask];
+    }
+
+    @Override
+    public int poll() {
+        int node = peek();
+        unlink(node);
+        queued[node] = false;
+        size--;
+        return node;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(queued, false);
+        cursor = 0;
+        size = 0;
+    }
+
+    private void link(int node) {
+        int bucket = (int) keys[node] & (heads.length - 1);
+        int first = heads[bucket];
+        next[node] = first;
+        previous[node] = NONE;
+        if (first != NONE) {
+            previous[first] = node;
+        }
+        heads[bucket] = node;
+    }
+
+    private void unlink(int node) {
+        int before = previous[node];
+        int after = next[node];
+        if (before == NONE) {
+            heads[(int) keys[node] & (heads.length - 1)] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+
+    /**
+     * Widens the ring to a power of two above {@code span} and files every queued node again.
+     */
+    private void grow(long span) {
+        if (span >= 1 << 30) {
+            throw new IllegalArgumentException("Priority step too large for a bucket queue: " + span);
+        }
+        int[] old = heads;
+        heads = new int[Integer.highestOneBit((int) span) << 1];
+        Arrays.fill(heads, NONE);
+        for (int head : old) {
+            for (int node = head; node != NONE; ) {
+                int after = next[node];
+                link(node);
+                node = after;
+            }
+        }
+    }
+}
@@ -1,15 +1,40 @@
 package com.graphvizfx.algorithms;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
 import java.util.*;
 
 /**
  * Dijkstra shortest-path implementation that records relaxation events.
+ * <p>
+ * Edge weights are integers, so unless a heap is requested the queue is picked per graph: Dial's
+ * buckets when every cost is small, which with unit or 0-1 costs amounts to 0-1 BFS, a radix heap
+ * for larger non-negative costs, and a binary heap only when some weight is negative.
  */
 public class DijkstraAlgorithm implements GraphAlgorithm {
+
+    /** Largest edge cost Dial's queue is picked for; its ring holds about this many buckets. */
+    static final int DIAL_MAX_COST = 1 << 10;
+
+    private final IndexedHeap.Kind heapKind;
+
+    /**
+     * Creates the algorithm with the queue picked from the graph's weights on each run.
+     */
+    public DijkstraAlgorithm() {
+        heapKind = null;
+    }
+
+    /**
+     * @param heapKind heap to keep the unsettled nodes in; a monotone kind rejects negative weights
+     */
+    public DijkstraAlgorithm(IndexedHeap.Kind heapKind) {
+        if (heapKind == null) {
+            throw new IllegalArgumentException("Heap kind cannot be null");
+        }
+        this.heapKind = heapKind;
+    }
     
     @Override
     public String getName() {
@@ -17,76 +42,120 @@ public class DijkstraAlgorithm implements GraphAlgorithm {
     }
     
     @Override
-    public List<VisualState> execute(GraphModel graph, GNode start, GNode goal) {
-        List<VisualState> history = AlgorithmEngine.prepareTrace();
-        if (start == null) {
-            history.get(0).setLogLine("[Dijkstra] Start node not provided." + System.lineSeparator());
-            return history;
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0) {
+            trace.setInitialLog("[Dijkstra] Start node not provided." + System.lineSeparator());
+            return;
         }
 
-        VisualState state = history.get(0);
         int step = 1;
 
-        final Map<String, Double> calcDists = new HashMap<>();
-        for (GNode node : graph.getNodes()) {
-            calcDists.put(node.getId(), Double.MAX_VALUE);
+        int n = graph.nodeCount();
+        double[] calcDists = new double[n];
+        Arrays.fill(calcDists, Double.MAX_VALUE);
+        calcDists[start] = 0.0;
+        for (int i = 0; i < n; i++) {
+            trace.setDistance(i, calcDists[i]);
         }
-        calcDists.put(start.getId(), 0.0);
-        state.getDistances().putAll(calcDists);
 
-        PriorityQueue<GNode> queue = new PriorityQueue<>(Comparator.comparingDouble(n -> calcDists.get(n.getId())));
-        queue.add(start);
-        Set<String> settled = new HashSet<>();
+        IndexedHeap queue = createQueue(graph);
+        queue.offer(start, 0.0);
+        boolean[] settled = new boolean[n];
 
-        AlgorithmEngine.log(history, state, "Dijkstra", step++, "Initialized start node " + start.getId());
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "Dijkstra", step++,
+                () -> "Initialized start node " + graph.nodeId(start));
 
         while (!queue.isEmpty()) {
-            state = history.get(history.size() - 1);
-            GNode current = queue.poll();
+            int current = queue.poll();
+            settled[current] = true;
+            trace.setNodeColor(current, AlgorithmEngine.VISITED_COLOR);
+            AlgorithmEngine.log(trace, StepKind.EXPANSION, "Dijkstra", step++,
+                    () -> String.format("Settled %s (dist = %.2f)", graph.nodeId(current), calcDists[current]));
 
-            if (settled.contains(current.getId())) {
-                continue;
-            }
-            settled.add(current.getId());
-            state.getNodeColors().put(current.getId(), AlgorithmEngine.VISITED_COLOR);
-            AlgorithmEngine.log(history, state, "Dijkstra", step++,
-                    String.format("Settled %s (dist = %.2f)", current.getId(), calcDists.get(current.getId())));
-
-            for (GEdge edge : graph.getEdges()) {
-                GNode neighbor = null;
-                if (edge.getSource() == current) {
-                    neighbor = edge.getTarget();
-                } else if (!graph.isDirected() && edge.getTarget() == current) {
-                    neighbor = edge.getSource();
-                }
+            for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                int neighbor = graph.arcTarget(arc);
 
-                if (neighbor != null && !settled.contains(neighbor.getId())) {
-                    double previousDist = calcDists.get(neighbor.getId());
-                    double candidateDist = calcDists.get(current.getId()) + (graph.isWeighted() ? edge.getWeight() : 1);
+                if (!settled[neighbor]) {
+                    double previousDist = calcDists[neighbor];
+                    double candidateDist = calcDists[current] + graph.arcCost(arc);
 
                     if (candidateDist < previousDist) {
-                        calcDists.put(neighbor.getId(), candidateDist);
+                        calcDists[neighbor] = candidateDist;
 
-                        state = history.get(history.size() - 1);
-                        state.getDistances().put(neighbor.getId(), candidateDist);
-                        state.getNodeColors().put(neighbor.getId(), AlgorithmEngine.FRONTIER_COLOR);
-                        state.getEdgeColors().put(edge.getId(), AlgorithmEngine.ACTIVE_EDGE_COLOR);
+                        trace.setDistance(neighbor, candidateDist);
+                        trace.setNodeColor(neighbor, AlgorithmEngine.FRONTIER_COLOR);
+                        trace.setEdgeColor(graph.arcEdge(arc), AlgorithmEngine.ACTIVE_EDGE_COLOR);
 
-                        queue.add(neighbor);
-                        AlgorithmEngine.log(history, state, "Dijkstra", step++,
-                                String.format("Relaxed %s→%s (%s → %.2f)", current.getId(), neighbor.getId(),
-                                        formatDistance(previousDist), candidateDist));
+                        queue.offer(neighbor, candidateDist);
+                        AlgorithmEngine.log(trace, StepKind.DETAIL, "Dijkstra", step++,
+                                () -> String.format("Relaxed %s→%s (%s → %.2f)", graph.nodeId(current), graph.nodeId(neighbor),
+                                              formatDistance(previousDist), candidateDist));
                     }
                 }
             }
         }
 
-        AlgorithmEngine.log(history, history.get(history.size() - 1), "Dijkstra", step, "Finished shortest paths.");
-        return history;
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "Dijkstra", step, () -> "Finished shortest paths.");
+    }
+
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        int n = graph.nodeCount();
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[start] = 0.0;
+        int[] parent = AlgorithmEngine.unset(n);
+        int[] parentEdge = AlgorithmEngine.unset(n);
+        int[] order = new int[n];
+        int settledCount = 0;
+
+        IndexedHeap queue = createQueue(graph);
+        queue.offer(start, 0.0);
+        boolean[] settled = new boolean[n];
+
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            settled[current] = true;
+            order[settledCount++] = current;
+
+            for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                int neighbor = graph.arcTarget(arc);
+                double candidate = dist[current] + graph.arcCost(arc);
+                if (!settled[neighbor] && candidate < dist[neighbor]) {
+                    dist[neighbor] = candidate;
+                    parent[neighbor] = current;
+                    parentEdge[neighbor] = graph.arcEdge(arc);
+                    queue.offer(neighbor, candidate);
+                }
+            }
+        }
+        return new AlgorithmResult(getName(), Arrays.copyOf(order, settledCount), dist, parent, parentEdge, null);
+    }
+
+    private IndexedHeap createQueue(CsrGraph graph) {
+        return (heapKind != null ? heapKind : chooseHeap(graph)).create(graph.nodeCount());
+    }
+
+    /**
+     * Picks the queue from the largest edge cost in one pass over the edges.
+     */
+    static IndexedHeap.Kind chooseHeap(CsrGraph graph) {
+        if (!graph.isWeighted()) {
+            return IndexedHeap.Kind.DIAL;
+        }
+        int maxCost = 0;
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            int cost = graph.edgeWeight(edge);
+            if (cost < 0) {
+                return IndexedHeap.Kind.BINARY;
+            }
+            maxCost = Math.max(maxCost, cost);
+        }
+        return maxCost <= DIAL_MAX_COST ? IndexedHeap.Kind.DIAL : IndexedHeap.Kind.RADIX;
     }
 
     private String formatDistance(double value) {
         return Double.isInfinite(value) || value == Double.MAX_VALUE ? "∞" : String.format("%.2f", value);
     }
 }
-
@@ -1,10 +1,9 @@
 package com.graphvizfx.algorithms;
 
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
 import com.graphvizfx.model.GNode;
 import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
-
-import java.util.List;
 
 /**
  * Contract for algorithm executors that return a step-by-step visual trace.
@@ -17,13 +16,55 @@ public interface GraphAlgorithm {
      * @param graph model to operate on
      * @param start optional starting node (null when not required)
      * @param goal  optional goal/destination node (null when not required)
-     * @return ordered list of {@link VisualState} instances representing each step
+     * @return trace holding the visual state of each step
+     */
+    default AlgorithmTrace execute(GraphModel graph, GNode start, GNode goal) {
+        CsrGraph snapshot = CsrGraph.of(graph);
+        return execute(snapshot, snapshot.indexOf(start), snapshot.indexOf(goal));
+    }
+
+    /**
+     * Executes the graph algorithm against a frozen CSR snapshot.
+     *
+     * @param graph snapshot to operate on
+     * @param start dense index of the starting node, or -1 when not provided
+     * @param goal  dense index of the goal node, or -1 when not provided
+     * @return trace holding the visual state of each step
+     */
+    default AlgorithmTrace execute(CsrGraph graph, int start, int goal) {
+        AlgorithmTrace trace = AlgorithmEngine.prepareTrace();
+        trace.bind(graph);
+        record(graph, start, goal, trace);
+        trace.finish();
+        return trace;
+    }
+
+    /**
+     * Runs the algorithm, recording each step into {@code trace} as it goes. The trace may be
+     * streamed, in which case {@link AlgorithmTrace#log(String)} can pause this call until
+     * playback catches up, or abort it with a {@link java.util.concurrent.CancellationException}.
+     *
+     * @param graph snapshot to operate on
+     * @param start dense index of the starting node, or -1 when not provided
+     * @param goal  dense index of the goal node, or -1 when not provided
+     * @param trace trace {@link AlgorithmTrace#bind(com.graphvizfx.model.IndexedGraph) bound} to
+     *              {@code graph} to record into; it is not finished here
      */
-    List<VisualState> execute(GraphModel graph, GNode start, GNode goal);
+    void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace);
+
+    /**
+     * Runs the algorithm without recording any visuals and returns only its answer.
+     *
+     * @param graph snapshot to operate on
+     * @param start dense index of the starting node, or -1 when not provided
+     * @param goal  dense index of the goal node, or -1 when not provided
+     * @return distances, parent tree, visit order or tree edges, depending on the algorithm
+     * @throws IllegalArgumentException if a node the algorithm needs is missing
+     */
+    AlgorithmResult solve(CsrGraph graph, int start, int goal);
 
     /**
      * @return the human readable algorithm name
      */
     String getName();
 }
-
@@ -0,0 +1,100 @@
+package com.graphvizfx.algorithms;
+
+/**
+ * Min-priority queue over the dense node indices {@code 0..capacity-1} with a real decrease-key.
+ * <p>
+ * Each node is queued at most once, so the heap never holds more than one entry per node and
+ * nothing stale has to be skipped when polling. Priorities live in a {@code double[]} indexed by
+ * node, so comparing two entries is two array reads: nothing is boxed or looked up, and offering
+ * or polling does not allocate.
+ * <p>
+ * The {@linkplain Kind#isMonotone() monotone} kinds further require integer priorities that never
+ * drop below the last polled one, which Dijkstra's distances over non-negative integer weights
+ * satisfy, and in exchange poll without comparing priorities against each other.
+ */
+public interface IndexedHeap {
+
+    /**
+     * Heap implementations a run can choose from.
+     */
+    enum Kind {
+        /** Array-backed binary heap; the usual default. */
+        BINARY,
+        /** Array-backed 4-ary heap: shallower, so decrease-key moves fewer entries. */
+        FOUR_ARY,
+        /** Pairing heap: constant-time insert and decrease-key, amortised O(log n) poll. */
+        PAIRING,
+        /** Dial's bucket queue, one bucket per distance up to the largest weight ahead; monotone. */
+        DIAL,
+        /** Radix heap, 65 buckets by highest bit differing from the last poll; monotone. */
+        RADIX;
+
+        /**
+         * @return whether this kind only accepts non-negative integer priorities no lower than the
+         *         last polled one, and rejects others with an {@link IllegalArgumentException}
+         */
+        public boolean isMonotone() {
+            return this == DIAL || this == RADIX;
+        }
+
+        /**
+         * @return an empty heap of this kind for nodes {@code 0..capacity-1}
+         */
+        public IndexedHeap create(int capacity) {
+            switch (this) {
+                case FOUR_ARY:
+                    return new DaryHeap(capacity, 4);
+                case PAIRING:
+                    return new PairingHeap(capacity);
+                case DIAL:
+                    return new DialQueue(capacity);
+                case RADIX:
+                    return new RadixHeap(capacity);
+                default:
+                    return new DaryHeap(capacity, 2);
+            }
+        }
+    }
+
+    int size();
+
+    boolean isEmpty();
+
+    /**
+     * @return whether {@code node} is queued
+     */
+    boolean contains(int node);
+
+    /**
+     * @return priority {@code node} is queued with; undefined once it was polled
+     */
+    double priority(int node);
+
+    /**
+     * Queues {@code node} with {@code priority}, or lowers its priority if it is queued already.
+     *
+     * @return false, leaving the heap unchanged, when the node is queued with a priority that is
+     *         not higher
+     * @throws IndexOutOfBoundsException if {@code node} is outside the heap's capacity
+     */
+    boolean offer(int node, double priority);
+
+    /**
+     * @return the node {@link #poll()} would remove next, which stays queued
+     * @throws java.util.NoSuchElementException if the heap is empty
+     */
+    int peek();
+
+    /**
+     * Removes the node with the lowest priority; ties leave in no particular order.
+     *
+     * @return the removed node
+     * @throws java.util.NoSuchElementException if the heap is empty
+     */
+    int poll();
+
+    /**
+     * Removes every node.
+     */
+    void clear();
+}
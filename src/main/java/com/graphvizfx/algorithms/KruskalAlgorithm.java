@@ -1,9 +1,8 @@
 package com.graphvizfx.algorithms;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
 import java.util.*;
 
 /**
@@ -17,61 +16,98 @@ public class KruskalAlgorithm implements GraphAlgorithm {
     }
     
     @Override
-    public List<VisualState> execute(GraphModel graph, GNode start, GNode goal) {
-        List<VisualState> history = AlgorithmEngine.prepareTrace();
-        VisualState state = history.get(0);
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
         int step = 1;
 
-        List<GEdge> sorted = new ArrayList<>(graph.getEdges());
-        sorted.sort(Comparator.comparingInt(GEdge::getWeight));
+        int[] sorted = sortedByWeight(graph);
 
-        Map<String, String> parent = new HashMap<>();
-        for (GNode node : graph.getNodes()) {
-            parent.put(node.getId(), node.getId());
+        int[] parent = new int[graph.nodeCount()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
         }
 
-        AlgorithmEngine.log(history, state, "Kruskal", step++, "Sorted " + sorted.size() + " edges by weight");
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "Kruskal", step++,
+                () -> "Sorted " + sorted.length + " edges by weight");
 
-        for (GEdge edge : sorted) {
-            state = history.get(history.size() - 1);
-            state.getEdgeColors().put(edge.getId(), AlgorithmEngine.EDGE_HIGHLIGHT_COLOR);
-            AlgorithmEngine.log(history, state, "Kruskal", step++,
-                    String.format("Evaluating %s-%s (w=%d)", edge.getSource().getId(), edge.getTarget().getId(), edge.getWeight()));
+        for (int edge : sorted) {
+            int u = graph.edgeSource(edge);
+            int v = graph.edgeTarget(edge);
+            trace.setEdgeColor(edge, AlgorithmEngine.EDGE_HIGHLIGHT_COLOR);
+            AlgorithmEngine.log(trace, StepKind.DETAIL, "Kruskal", step++,
+                    () -> String.format("Evaluating %s-%s (w=%d)", graph.nodeId(u), graph.nodeId(v), graph.edgeWeight(edge)));
 
-            String rootU = find(parent, edge.getSource().getId());
-            String rootV = find(parent, edge.getTarget().getId());
+            int rootU = find(parent, u);
+            int rootV = find(parent, v);
 
-            state = history.get(history.size() - 1);
-            if (!rootU.equals(rootV)) {
-                parent.put(rootU, rootV);
-                state.getEdgeColors().put(edge.getId(), AlgorithmEngine.PATH_COLOR);
-                state.getNodeColors().put(edge.getSource().getId(), AlgorithmEngine.PATH_COLOR);
-                state.getNodeColors().put(edge.getTarget().getId(), AlgorithmEngine.PATH_COLOR);
-                AlgorithmEngine.log(history, state, "Kruskal", step++, "Accepted edge (no cycle).");
+            if (rootU != rootV) {
+                parent[rootU] = rootV;
+                trace.setEdgeColor(edge, AlgorithmEngine.PATH_COLOR);
+                trace.setNodeColor(u, AlgorithmEngine.PATH_COLOR);
+                trace.setNodeColor(v, AlgorithmEngine.PATH_COLOR);
+                AlgorithmEngine.log(trace, StepKind.EXPANSION, "Kruskal", step++, () -> "Accepted edge (no cycle).");
             } else {
-                state.getEdgeColors().put(edge.getId(), AlgorithmEngine.DISCARD_COLOR);
-                AlgorithmEngine.log(history, state, "Kruskal", step++, "Rejected edge (cycle detected).");
+                trace.setEdgeColor(edge, AlgorithmEngine.DISCARD_COLOR);
+                AlgorithmEngine.log(trace, StepKind.DETAIL, "Kruskal", step++, () -> "Rejected edge (cycle detected).");
             }
         }
 
-        AlgorithmEngine.log(history, history.get(history.size() - 1), "Kruskal", step, "MST construction complete.");
-        return history;
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "Kruskal", step, () -> "MST construction complete.");
+    }
+
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        int n = graph.nodeCount();
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        int[] treeEdges = new int[Math.max(n - 1, 0)];
+        int accepted = 0;
+
+        for (int edge : sortedByWeight(graph)) {
+            int rootU = find(parent, graph.edgeSource(edge));
+            int rootV = find(parent, graph.edgeTarget(edge));
+            if (rootU != rootV) {
+                parent[rootU] = rootV;
+                treeEdges[accepted++] = edge;
+                if (accepted == treeEdges.length) {
+                    break;
+                }
+            }
+        }
+        return new AlgorithmResult(getName(), null, null, null, null, Arrays.copyOf(treeEdges, accepted));
+    }
+
+    /**
+     * Sorts edge indices by weight, keeping insertion order among equal weights, by packing
+     * (weight, index) into longs so the sort runs on primitives.
+     */
+    private int[] sortedByWeight(CsrGraph graph) {
+        long[] keys = new long[graph.edgeCount()];
+        for (int e = 0; e < keys.length; e++) {
+            keys[e] = ((long) graph.edgeWeight(e) << 32) | e;
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
     }
     
-    private String find(Map<String, String> p, String i) {
+    private int find(int[] p, int i) {
         // Iterative path compression to avoid stack overflow
-        String root = i;
-        while (!p.get(root).equals(root)) {
-            root = p.get(root);
+        int root = i;
+        while (p[root] != root) {
+            root = p[root];
         }
         // Path compression
-        String current = i;
-        while (!p.get(current).equals(root)) {
-            String next = p.get(current);
-            p.put(current, root);
+        int current = i;
+        while (p[current] != root) {
+            int next = p[current];
+            p[current] = root;
             current = next;
         }
         return root;
     }
 }
-
@@ -0,0 +1,221 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.model.CsrGraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * ALT preprocessing for A*: exact shortest-path distances from, and on directed graphs also to, a
+ * few landmark nodes, the latter found by searching the {@link CsrGraph#reverse() reverse} graph. By the triangle inequality {@code d(L, t) - d(L, v)} and
+ * {@code d(v, L) - d(t, L)} never exceed {@code d(v, t)}, so the largest of these over all
+ * landmarks is a lower bound A* can use whatever the weights mean, unlike the straight line
+ * between canvas positions. The inequality needs non-negative weights: a negative edge makes the
+ * distances, and the bounds, meaningless, so such graphs get no table.
+ * <p>
+ * Landmarks are picked by farthest selection: the first is the node farthest from node 0 and each
+ * further one the node farthest from every landmark so far, which spreads them over the rim of the
+ * graph where they bound the most pairs tightly. Nodes no landmark reaches count as infinitely far,
+ * so every component gets one. Tables take 8 bytes per node and landmark, twice that when directed.
+ */
+public final class LandmarkTable {
+    /** Landmarks {@link #of(CsrGraph)} picks. */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    // Keyed by the live graph, or the snapshot itself when it has none, then by weight column
+    private static final Map<Object, Map<Integer, LandmarkTable>> CACHE = new WeakHashMap<>();
+
+    private final long version;
+    private final int column;
+    private final boolean weighted;
+    private final int nodeCount;
+    private final int[] landmarks;
+    /** {@code from[l][v]} is the distance from landmark {@code l} to {@code v}. */
+    private final double[][] from;
+    /** {@code to[l][v]} is the distance from {@code v} to landmark {@code l}; same as from if undirected. */
+    private final double[][] to;
+
+    private LandmarkTable(CsrGraph graph, int[] landmarks, double[][] from, double[][] to) {
+        this.version = graph.getVersion();
+        this.column = graph.weightColumn();
+        this.weighted = graph.isWeighted();
+        this.nodeCount = graph.nodeCount();
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Returns the table of {@link #DEFAULT_LANDMARKS} landmarks for {@code graph}, building it on
+     * first use. Tables are kept per live graph and weight column and reused by every snapshot of
+     * the same version, so repeated queries between edits pay for the preprocessing once, even
+     * when they alternate between columns.
+     *
+     * @throws IllegalArgumentException if some weight is negative
+     */
+    public static LandmarkTable of(CsrGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        Object key = graph.origin() != null ? graph.origin() : graph;
+        synchronized (CACHE) {
+            LandmarkTable cached = CACHE.getOrDefault(key, Map.of()).get(graph.weightColumn());
+            if (cached != null && cached.matches(graph)) {
+                return cached;
+            }
+        }
+        LandmarkTable table = build(graph, DEFAULT_LANDMARKS);
+        synchronized (CACHE) {
+            CACHE.computeIfAbsent(key, k -> new HashMap<>()).put(table.column, table);
+        }
+        return table;
+    }
+
+    /**
+     * Like {@link #of(CsrGraph)}, for searches that can steer without bounds.
+     *
+     * @return the table for {@code graph}, or null if some weight is negative
+     */
+    static LandmarkTable ofNonNegative(CsrGraph graph) {
+        return hasNegativeWeight(graph) ? null : of(graph);
+    }
+
+    /**
+     * Picks up to {@code count} landmarks and computes their distance tables, without caching.
+     * Fewer are picked when every node is already at distance 0 from one.
+     *
+     * @throws IllegalArgumentException if {@code count} is not positive or some weight is negative
+     */
+    public static LandmarkTable build(CsrGraph graph, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Landmark count must be positive: " + count);
+        }
+        if (hasNegativeWeight(graph)) {
+            throw new IllegalArgumentException("Landmark bounds need non-negative weights");
+        }
+        int n = graph.nodeCount();
+        CsrGraph backward = graph.reverse();
+        IndexedHeap queue = DijkstraAlgorithm.chooseHeap(graph).create(n);
+
+        count = Math.min(count, n);
+        int[] landmarks = new int[count];
+        double[][] from = new double[count][];
+        double[][] to = new double[count][];
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, INFINITY);
+
+        int picked = 0;
+        int next = n == 0 ? -1 : farthest(distances(graph, 0, queue), -1);
+        while (picked < count && next >= 0) {
+            landmarks[picked] = next;
+            from[picked] = distances(graph, next, queue);
+            to[picked] = backward == graph ? from[picked] : distances(backward, next, queue);
+            for (int node = 0; node < n; node++) {
+                nearest[node] = Math.min(nearest[node], from[picked][node]);
+            }
+            picked++;
+            next = farthest(nearest, 0);
+        }
+        return new LandmarkTable(graph, Arrays.copyOf(landmarks, picked), Arrays.copyOf(from, picked),
+                Arrays.copyOf(to, picked));
+    }
+
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * @return node index of landmark {@code i}
+     */
+    public int landmark(int i) {
+        return landmarks[i];
+    }
+
+    /**
+     * @return a lower bound on the distance from {@code node} to {@code target}, or infinity when
+     *         some landmark shows that {@code target} cannot be reached from {@code node}
+     */
+    public double lowerBound(int node, int target) {
+        double bound = 0;
+        for (int l = 0; l < landmarks.length; l++) {
+            double[] fromLandmark = from[l];
+            double landmarkToNode = fromLandmark[node];
+            if (landmarkToNode != INFINITY) {
+                double landmarkToTarget = fromLandmark[target];
+                if (landmarkToTarget == INFINITY) {
+                    // The landmark reaches the node but not the target, so the node cannot either
+                    return INFINITY;
+                }
+                bound = Math.max(bound, landmarkToTarget - landmarkToNode);
+            }
+            double[] toLandmark = to[l];
+            double targetToLandmark = toLandmark[target];
+            if (targetToLandmark != INFINITY) {
+                double nodeToLandmark = toLandmark[node];
+                if (nodeToLandmark == INFINITY) {
+                    return INFINITY;
+                }
+                bound = Math.max(bound, nodeToLandmark - targetToLandmark);
+            }
+        }
+        return bound;
+    }
+
+    private boolean matches(CsrGraph graph) {
+        return version == graph.getVersion() && column == graph.weightColumn() && weighted == graph.isWeighted()
+                && nodeCount == graph.nodeCount();
+    }
+
+    private static boolean hasNegativeWeight(CsrGraph graph) {
+        if (graph.isWeighted()) {
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                if (graph.edgeWeight(edge) < 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the first node with the largest distance above {@code floor}, or -1 when there is none
+     */
+    private static int farthest(double[] distances, double floor) {
+        int best = -1;
+        double bestDistance = floor;
+        for (int node = 0; node < distances.length; node++) {
+            if (distances[node] > bestDistance) {
+                best = node;
+                bestDistance = distances[node];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return shortest distances from {@code source} along the arcs of {@code graph}, infinite for
+     *         nodes it does not reach
+     */
+    private static double[] distances(CsrGraph graph, int source, IndexedHeap queue) {
+        double[] dist = new double[graph.nodeCount()];
+        Arrays.fill(dist, INFINITY);
+        dist[source] = 0;
+        queue.clear();
+        queue.offer(source, 0);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int arc = graph.arcStart(node); arc < graph.arcEnd(node); arc++) {
+                int target = graph.arcTarget(arc);
+                double candidate = dist[node] + graph.arcCost(arc);
+                if (candidate < dist[target]) {
+                    dist[target] = candidate;
+                    queue.offer(target, candidate);
+                }
+            }
+        }
+        return dist;
+    }
+}
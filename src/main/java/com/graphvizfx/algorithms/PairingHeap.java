@@ -0,0 +1,168 @@
+package com.graphvizfx.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Pairing heap as an {@link IndexedHeap}. The tree is kept in per-node link arrays instead of
+ * node objects: each node points to its leftmost child, its right sibling, and back to its left
+ * sibling or, for a leftmost child, its parent. Decrease-key cuts the node's subtree loose and
+ * links it with the root, so only polling does real work, using a two-pass merge of the root's
+ * children through a preallocated scratch array.
+ */
+final class PairingHeap implements IndexedHeap {
+    private static final int NONE = -1;
+
+    private final int[] child;
+    private final int[] sibling;
+    private final int[] previous;
+    private final double[] priorities;
+    private final boolean[] queued;
+    private final int[] pairs;
+    private int root = NONE;
+    private int size;
+
+    PairingHeap(int capacity) {
+        child = new int[capacity];
+        sibling = new int[capacity];
+        previous = new int[capacity];
+        priorities = new double[capacity];
+        queued = new boolean[capacity];
+        pairs = new int[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int node) {
+        return queued[node];
+    }
+
+    @Override
+    public double priority(int node) {
+        return priorities[node];
+    }
+
+    @Override
+    public boolean offer(int node, double priority) {
+        if (!queued[node]) {
+            queued[node] = true;
+            size++;
+            child[node] = NONE;
+            sibling[node] = NONE;
+            previous[node] = NONE;
+            priorities[node] = priority;
+            root = root == NONE ? node : link(root, node);
+            return true;
+        }
+        if (priority >= priorities[node]) {
+            return false;
+        }
+        priorities[node] = priority;
+        if (node != root) {
+            cut(node);
+            root = link(root, node);
+        }
+        return true;
+    }
+
+    @Override
+    public int peek() {
+        if (root == NONE) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return root;
+    }
+
+    @Override
+    public int poll() {
+        if (root == NONE) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int min = root;
+        queued[min] = false;
+        size--;
+
+        // First pass: link the children in pairs from left to right
+        int count = 0;
+        int next = child[min];
+        while (next != NONE) {
+            int a = next;
+            int b = sibling[a];
+            if (b == NONE) {
+                detach(a);
+                pairs[count++] = a;
+                break;
+            }
+            next = sibling[b];
+            detach(a);
+            detach(b);
+            pairs[count++] = link(a, b);
+        }
+        // Second pass: fold the pairs into one tree from right to left
+        int merged = count == 0 ? NONE : pairs[count - 1];
+        for (int i = count - 2; i >= 0; i--) {
+            merged = link(pairs[i], merged);
+        }
+        root = merged;
+        return min;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(queued, false);
+        root = NONE;
+        size = 0;
+    }
+
+    /**
+     * Makes the root with the higher priority the leftmost child of the other.
+     *
+     * @return the root of the linked tree
+     */
+    private int link(int a, int b) {
+        if (priorities[b] < priorities[a]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        int first = child[a];
+        sibling[b] = first;
+        if (first != NONE) {
+            previous[first] = b;
+        }
+        previous[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    /**
+     * Unlinks the subtree of {@code node} from its parent and siblings.
+     */
+    private void cut(int node) {
+        int before = previous[node];
+        int after = sibling[node];
+        if (child[before] == node) {
+            child[before] = after;
+        } else {
+            sibling[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        detach(node);
+    }
+
+    private void detach(int node) {
+        sibling[node] = NONE;
+        previous[node] = NONE;
+    }
+}
@@ -1,15 +1,37 @@
 package com.graphvizfx.algorithms;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.AlgorithmTrace.StepKind;
+import com.graphvizfx.model.CsrGraph;
 import java.util.*;
 
 /**
- * Prim's minimum spanning tree builder with clear edge and node highlighting.
+ * Prim's minimum spanning tree builder with clear edge and node highlighting. Nodes outside the
+ * tree are queued once, keyed by the weight of their lightest edge to it, rather than every
+ * crossing edge being pushed.
  */
 public class PrimAlgorithm implements GraphAlgorithm {
+
+    private final IndexedHeap.Kind heapKind;
+
+    public PrimAlgorithm() {
+        this(IndexedHeap.Kind.BINARY);
+    }
+
+    /**
+     * @param heapKind comparison heap to keep the nodes outside the tree in, keyed by their
+     *                 lightest link
+     * @throws IllegalArgumentException if the kind is monotone
+     */
+    public PrimAlgorithm(IndexedHeap.Kind heapKind) {
+        if (heapKind == null) {
+            throw new IllegalArgumentException("Heap kind cannot be null");
+        }
+        if (heapKind.isMonotone()) {
+            throw new IllegalArgumentException("Prim priorities are not monotone: " + heapKind);
+        }
+        this.heapKind = heapKind;
+    }
     
     @Override
     public String getName() {
@@ -17,63 +39,96 @@ public class PrimAlgorithm implements GraphAlgorithm {
     }
     
     @Override
-    public List<VisualState> execute(GraphModel graph, GNode start, GNode goal) {
-        List<VisualState> history = AlgorithmEngine.prepareTrace();
-        if (start == null) {
-            history.get(0).setLogLine("[Prim] Start node not provided." + System.lineSeparator());
-            return history;
+    public void record(CsrGraph graph, int start, int goal, AlgorithmTrace trace) {
+        if (start < 0) {
+            trace.setInitialLog("[Prim] Start node not provided." + System.lineSeparator());
+            return;
         }
 
-        VisualState state = history.get(0);
         int step = 1;
 
-        Set<String> mstNodes = new HashSet<>();
-        PriorityQueue<GEdge> queue = new PriorityQueue<>(Comparator.comparingInt(GEdge::getWeight));
+        int n = graph.nodeCount();
+        boolean[] mstNodes = new boolean[n];
+        int[] bestArc = AlgorithmEngine.unset(n);
+        IndexedHeap queue = heapKind.create(n);
 
-        mstNodes.add(start.getId());
-        state.getNodeColors().put(start.getId(), AlgorithmEngine.PATH_COLOR);
-        queue.addAll(adjacentEdges(graph, start));
-        AlgorithmEngine.log(history, state, "Prim", step++, "Seeded PQ with edges from " + start.getId());
+        mstNodes[start] = true;
+        trace.setNodeColor(start, AlgorithmEngine.PATH_COLOR);
+        for (int arc = graph.arcStart(start); arc < graph.arcEnd(start); arc++) {
+            offer(graph, queue, bestArc, mstNodes, arc);
+        }
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "Prim", step++,
+                () -> "Seeded PQ with neighbors of " + graph.nodeId(start));
 
         while (!queue.isEmpty()) {
-            state = history.get(history.size() - 1);
-            GEdge candidate = queue.poll();
-            GNode u = candidate.getSource();
-            GNode v = candidate.getTarget();
-
-            if (mstNodes.contains(u.getId()) && mstNodes.contains(v.getId())) {
-                continue;
-            }
-
-            GNode next = mstNodes.contains(u.getId()) ? v : u;
-            mstNodes.add(next.getId());
+            int next = queue.poll();
+            int candidate = graph.arcEdge(bestArc[next]);
+            int u = graph.edgeSource(candidate);
+            int v = graph.edgeTarget(candidate);
+            mstNodes[next] = true;
 
-            state.getEdgeColors().put(candidate.getId(), AlgorithmEngine.PATH_COLOR);
-            state.getNodeColors().put(next.getId(), AlgorithmEngine.PATH_COLOR);
-            AlgorithmEngine.log(history, state, "Prim", step++,
-                    String.format("Added %s via %s-%s (w=%d)", next.getId(), u.getId(), v.getId(), candidate.getWeight()));
+            trace.setEdgeColor(candidate, AlgorithmEngine.PATH_COLOR);
+            trace.setNodeColor(next, AlgorithmEngine.PATH_COLOR);
+            AlgorithmEngine.log(trace, StepKind.EXPANSION, "Prim", step++,
+                    () -> String.format("Added %s via %s-%s (w=%d)", graph.nodeId(next), graph.nodeId(u), graph.nodeId(v),
+                                  graph.edgeWeight(candidate)));
 
-            for (GEdge edge : adjacentEdges(graph, next)) {
-                if (!mstNodes.contains(edge.getSource().getId()) || !mstNodes.contains(edge.getTarget().getId())) {
-                    queue.add(edge);
-                    VisualState latest = history.get(history.size() - 1);
-                    latest.getEdgeColors().put(edge.getId(), AlgorithmEngine.EDGE_HIGHLIGHT_COLOR);
+            for (int arc = graph.arcStart(next); arc < graph.arcEnd(next); arc++) {
+                if (!mstNodes[graph.arcTarget(arc)]) {
+                    offer(graph, queue, bestArc, mstNodes, arc);
+                    trace.setEdgeColor(graph.arcEdge(arc), AlgorithmEngine.EDGE_HIGHLIGHT_COLOR);
                 }
             }
         }
 
-        AlgorithmEngine.log(history, history.get(history.size() - 1), "Prim", step, "MST construction complete.");
-        return history;
+        AlgorithmEngine.log(trace, StepKind.MILESTONE, "Prim", step, () -> "MST construction complete.");
     }
 
-    private List<GEdge> adjacentEdges(GraphModel graph, GNode node) {
-        List<GEdge> edges = new ArrayList<>();
-        for (GEdge edge : graph.getEdges()) {
-            if (edge.getSource() == node || edge.getTarget() == node) {
-                edges.add(edge);
+    @Override
+    public AlgorithmResult solve(CsrGraph graph, int start, int goal) {
+        AlgorithmEngine.requireNode(graph, start, "Start");
+        int n = graph.nodeCount();
+        boolean[] mstNodes = new boolean[n];
+        int[] bestArc = AlgorithmEngine.unset(n);
+        int[] parent = AlgorithmEngine.unset(n);
+        int[] parentEdge = AlgorithmEngine.unset(n);
+        int[] order = new int[n];
+        int joined = 0;
+        int[] treeEdges = new int[Math.max(n - 1, 0)];
+        IndexedHeap queue = heapKind.create(n);
+
+        mstNodes[start] = true;
+        order[joined++] = start;
+        for (int arc = graph.arcStart(start); arc < graph.arcEnd(start); arc++) {
+            offer(graph, queue, bestArc, mstNodes, arc);
+        }
+
+        while (!queue.isEmpty()) {
+            int next = queue.poll();
+            int candidate = graph.arcEdge(bestArc[next]);
+            int u = graph.edgeSource(candidate);
+            mstNodes[next] = true;
+            parent[next] = u == next ? graph.edgeTarget(candidate) : u;
+            parentEdge[next] = candidate;
+            treeEdges[joined - 1] = candidate;
+            order[joined++] = next;
+
+            for (int arc = graph.arcStart(next); arc < graph.arcEnd(next); arc++) {
+                offer(graph, queue, bestArc, mstNodes, arc);
             }
         }
-        return edges;
+        return new AlgorithmResult(getName(), Arrays.copyOf(order, joined), null, parent, parentEdge,
+                Arrays.copyOf(treeEdges, joined - 1));
     }
-}
 
+    /**
+     * Queues the node {@code arc} leads to, or lowers its key, when the arc is its lightest link
+     * to the tree so far.
+     */
+    private static void offer(CsrGraph graph, IndexedHeap queue, int[] bestArc, boolean[] mstNodes, int arc) {
+        int target = graph.arcTarget(arc);
+        if (!mstNodes[target] && queue.offer(target, graph.arcWeight(arc))) {
+            bestArc[target] = arc;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.graphvizfx.algorithms;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Radix heap as a monotone {@link IndexedHeap}. Bucket {@code b > 0} holds the priorities whose
+ * highest bit differing from the last polled one is bit {@code b - 1}, and bucket 0 those equal to
+ * it. When bucket 0 runs empty, the lowest non-empty bucket is scanned for its minimum, which
+ * becomes the new reference, and its nodes are filed again into strictly lower buckets. Each node
+ * therefore moves down at most 64 times, whatever the largest weight, which suits graphs whose
+ * weights are too spread out for {@link DialQueue}.
+ * <p>
+ * Buckets are intrusive doubly linked lists over per-node link arrays, so decrease-key is a
+ * constant-time move to a lower bucket.
+ */
+final class RadixHeap implements IndexedHeap {
+    private static final int NONE = -1;
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private final int[] next;
+    private final int[] previous;
+    private final byte[] bucketOf;
+    private final long[] keys;
+    private final boolean[] queued;
+    private final int[] heads = new int[BUCKETS];
+    private long last;
+    private int size;
+
+    RadixHeap(int capacity) {
+        next = new int[capacity];
+        previous = new int[capacity];
+        bucketOf = new byte[capacity];
+        keys = new long[capacity];
+        queued = new boolean[capacity];
+        Arrays.fill(heads, NONE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int node) {
+        return queued[node];
+    }
+
+    @Override
+    public double priority(int node) {
+        return keys[node];
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code priority} is not an integer or lies below the
+     *                                  last polled one
+     */
+    @Override
+    public boolean offer(int node, double priority) {
+        long key = key(priority, last);
+        if (queued[node]) {
+            if (key >= keys[node]) {
+                return false;
+            }
+            unlink(node);
+        } else {
+            queued[node] = true;
+            size++;
+        }
+        keys[node] = key;
+        link(node);
+        return true;
+    }
+
+    /**
+     * Refiles the lowest bucket if needed, as polling would.
+     */
+    @Override
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        if (heads[0] == NONE) {
+            int bucket = 1;
+            while (heads[bucket] == NONE) {
+                bucket++;
+            }
+            long min = Long.MAX_VALUE;
+            for (int node = heads[bucket]; node != NONE; node = next[node]) {
+                min = Math.min(min, keys[node]);
+            }
+            last = min;
+            int node = heads[bucket];
+            heads[bucket] = NONE;
+            while (node != NONE) {
+                int after = next[node];
+                link(node);
+                node = after;
+            }
+        }
+        return heads[0];
+    }
+
+    @Override
+    public int poll() {
+        int node = peek();
+        unlink(node);
+        queued[node] = false;
+        size--;
+        return node;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(queued, false);
+        last = 0;
+        size = 0;
+    }
+
+    private void link(int node) {
+        int bucket = BUCKETS - 1 - Long.numberOfLeadingZeros(keys[node] ^ last);
+        int first = heads[bucket];
+        next[node] = first;
+        previous[node] = NONE;
+        if (first != NONE) {
+            previous[first] = node;
+        }
+        heads[bucket] = node;
+        bucketOf[node] = (byte) bucket;
+    }
+
+    private void unlink(int node) {
+        int before = previous[node];
+        int after = next[node];
+        if (before == NONE) {
+            heads[bucketOf[node]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+
+    /**
+     * @return {@code priority} as the integer key of a monotone queue whose lowest allowed key is
+     *         {@code floor}
+     * @throws IllegalArgumentException if it is not an integer or lies below {@code floor}
+     */
+    static long key(double priority, long floor) {
+        long key = (long) priority;
+        if (key != priority || key < floor) {
+            throw new IllegalArgumentException("Monotone queue needs integer priorities of at least "
+                    + floor + ": " + priority);
+        }
+        return key;
+    }
+}
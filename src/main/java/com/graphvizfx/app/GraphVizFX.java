@@ -2,14 +2,22 @@ package com.graphvizfx.app;
 
 import com.graphvizfx.controller.GraphController;
 import com.graphvizfx.io.ImageExporter;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CompactState;
+import com.graphvizfx.model.CsrGraph;
 import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.IndexedGraph;
 import com.graphvizfx.view.GraphCanvas;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -23,6 +31,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +43,12 @@ public class GraphVizFX extends Application {
     // -------------------------------------------------------------------------
     // Fields
     // -------------------------------------------------------------------------
+    private static final String DETAIL_FULL = "Every step";
+    private static final String DETAIL_EXPANSIONS = "Expansions only";
+    private static final String DETAIL_SAMPLED = "Every 10th step";
+    private static final String DETAIL_MILESTONES = "Milestones only";
+    private static final int SAMPLE_INTERVAL = 10;
+
     private GraphController controller;
     private Stage primaryStage;
     private BorderPane root;
@@ -40,12 +56,19 @@ public class GraphVizFX extends Application {
     private GraphCanvas compareCanvas;
     private TextArea logArea;
     private Label statusLabel;
+    private ComboBox<String> costChoice;
+    private ComboBox<String> detailChoice;
     private Button btnPrev;
     private Button btnNext;
+    private Slider stepSlider;
+    private boolean syncingSlider;
     private int currentStep = 0;
     private boolean isComparisonMode = false;
-    private List<VisualState> tracePrimary = new ArrayList<>();
-    private List<VisualState> traceSecondary = new ArrayList<>();
+    private AlgorithmTrace tracePrimary;
+    private AlgorithmTrace traceSecondary;
+    private AlgorithmTrace shownLogTrace;
+    private int shownLogLength;
+    private CompletableFuture<AlgorithmTrace> storeRun;
 
     public static void main(String[] args) {
         launch(args);
@@ -66,6 +89,8 @@ public class GraphVizFX extends Application {
         root.setBottom(createLogPanel());
 
         Scene scene = new Scene(root, 1320, 820);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN), this::undo);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN), this::redo);
         stage.setTitle("GraphVizFX");
         stage.setScene(scene);
         stage.show();
@@ -84,6 +109,12 @@ public class GraphVizFX extends Application {
         Button btnResetView = new Button("Reset Visuals");
         btnResetView.setOnAction(e -> resetVisuals());
 
+        Button btnUndo = new Button("Undo");
+        btnUndo.setOnAction(e -> undo());
+
+        Button btnRedo = new Button("Redo");
+        btnRedo.setOnAction(e -> redo());
+
         Separator sep1 = new Separator();
 
         ComboBox<String> layoutBox = new ComboBox<>(FXCollections.observableArrayList("Force-Directed", "Circular", "Grid"));
@@ -113,7 +144,25 @@ public class GraphVizFX extends Application {
         Button btnImage = new Button("Export Image");
         btnImage.setOnAction(e -> exportImage());
 
-        return new ToolBar(btnNew, btnResetView, sep1, new Label("Layout:"), layoutBox, new Label("Mode:"), tDir, tWeight, sep2, btnImport, btnExport, btnImage);
+        Button btnSaveTrace = new Button("Save Trace");
+        btnSaveTrace.setOnAction(e -> saveTrace());
+
+        Button btnOpenTrace = new Button("Open Trace");
+        btnOpenTrace.setOnAction(e -> openTrace());
+
+        Separator sep3 = new Separator();
+
+        Button btnOpenStore = new Button("Open Store");
+        btnOpenStore.setOnAction(e -> openStore());
+
+        Button btnExportStore = new Button("Export Store");
+        btnExportStore.setOnAction(e -> exportStore());
+
+        Button btnOsmStore = new Button("OSM to Store");
+        btnOsmStore.setOnAction(e -> convertOSM());
+
+        return new ToolBar(btnNew, btnResetView, btnUndo, btnRedo, sep1, new Label("Layout:"), layoutBox, new Label("Mode:"), tDir, tWeight, sep2, btnImport, btnExport, btnImage, btnSaveTrace, btnOpenTrace,
+                sep3, btnOpenStore, btnExportStore, btnOsmStore);
     }
 
     private VBox createSidebar() {
@@ -125,10 +174,23 @@ public class GraphVizFX extends Application {
         Label title = new Label("Algorithm Console");
         title.setFont(Font.font("Segoe UI", javafx.scene.text.FontWeight.BOLD, 18));
 
-        ComboBox<String> algoChoice = new ComboBox<>(FXCollections.observableArrayList("BFS", "DFS", "Dijkstra", "A*", "Prim", "Kruskal"));
+        ComboBox<String> algoChoice = new ComboBox<>(FXCollections.observableArrayList("BFS", "DFS", "Dijkstra", "A*",
+                "A* (Landmarks)", "Bidirectional Dijkstra", "Bidirectional A*", "Contraction Hierarchy", "Delta-Stepping", "Prim", "Kruskal"));
         algoChoice.getSelectionModel().selectFirst();
         algoChoice.setMaxWidth(Double.MAX_VALUE);
 
+        // Weight column the weighted algorithms read, refreshed since importers may add columns
+        costChoice = new ComboBox<>(FXCollections.observableArrayList(GraphModel.DEFAULT_WEIGHT_COLUMN));
+        costChoice.getSelectionModel().selectFirst();
+        costChoice.setMaxWidth(Double.MAX_VALUE);
+        costChoice.setOnShowing(e -> refreshCostChoices());
+
+        // How much of each run is recorded; coarser levels keep long runs small and fast
+        detailChoice = new ComboBox<>(FXCollections.observableArrayList(
+                DETAIL_FULL, DETAIL_EXPANSIONS, DETAIL_SAMPLED, DETAIL_MILESTONES));
+        detailChoice.getSelectionModel().selectFirst();
+        detailChoice.setMaxWidth(Double.MAX_VALUE);
+
         HBox actionBtns = new HBox(10);
         Button btnRun = styledActionButton("Run Once", "#2b8a3e");
         Button btnCompare = styledActionButton("Compare", "#1f6f8b");
@@ -146,13 +208,23 @@ public class GraphVizFX extends Application {
         btnPrev.setOnAction(e -> step(-1));
         btnNext.setOnAction(e -> step(1));
 
-        VBox navBox = new VBox(10, btnPrev, btnNext);
+        // Scrubbing relies on the trace's keyframes, so any step is reachable without a replay
+        stepSlider = new Slider(0, 0, 0);
+        stepSlider.setBlockIncrement(1);
+        stepSlider.setDisable(true);
+        stepSlider.valueProperty().addListener((o, old, val) -> {
+            if (!syncingSlider) {
+                seek(val.intValue());
+            }
+        });
+
+        VBox navBox = new VBox(10, btnPrev, btnNext, stepSlider);
 
         Label helper = new Label("Navigate each algorithm frame.");
         helper.setWrapText(true);
         helper.setStyle("-fx-text-fill: #5c677d;");
 
-        box.getChildren().addAll(title, algoChoice, actionBtns, new Separator(), playback, navBox, helper);
+        box.getChildren().addAll(title, algoChoice, new Label("Cost:"), costChoice, new Label("Detail:"), detailChoice, actionBtns, new Separator(), playback, navBox, helper);
         return box;
     }
 
@@ -200,6 +272,7 @@ public class GraphVizFX extends Application {
     // -------------------------------------------------------------------------
 
     private void resetGraph() {
+        closeStore();
         controller.resetGraph();
         isComparisonMode = false;
         root.setCenter(mainCanvas);
@@ -210,8 +283,16 @@ public class GraphVizFX extends Application {
 
     private void resetVisuals() {
         currentStep = 0;
-        tracePrimary.clear();
-        traceSecondary.clear();
+        // Release the worker threads of runs that are still streaming
+        if (tracePrimary != null) {
+            tracePrimary.cancel();
+        }
+        if (traceSecondary != null) {
+            traceSecondary.cancel();
+        }
+        tracePrimary = null;
+        traceSecondary = null;
+        shownLogTrace = null;
         logArea.clear();
         mainCanvas.setCurrentState(null);
         mainCanvas.draw();
@@ -224,6 +305,10 @@ public class GraphVizFX extends Application {
     }
 
     private void runSingleAlgo(String algo) {
+        if (algo != null && controller.getStore() != null) {
+            runOnStore(algo);
+            return;
+        }
         if (algo == null || !validateAlgo(algo)) {
             return;
         }
@@ -238,24 +323,153 @@ public class GraphVizFX extends Application {
         compareCanvas = null;
         resetVisuals();
 
+        // The run streams from a snapshot, so the canvas stays editable meanwhile and the first
+        // steps show before the algorithm has finished
+        AlgorithmTrace trace;
+        try {
+            trace = controller.streamAlgorithm(algo, selectedCost(), selectedLevel(), selectedSampleInterval(),
+                    input.get().start(), input.get().goal());
+        } catch (IllegalArgumentException e) {
+            showAlgorithmError("Algorithm Error", e);
+            return;
+        }
+        tracePrimary = trace;
+        statusLabel.setText("Running " + algo + "...");
+        trace.completion().whenComplete((done, error) -> Platform.runLater(() -> {
+            if (trace != tracePrimary) {
+                return;
+            }
+            if (error != null) {
+                showAlgorithmError("Algorithm Error", error);
+            } else {
+                statusLabel.setText(algo + " completed. Steps: " + trace.size());
+            }
+            refreshNavigationButtons();
+        }));
+        currentStep = 0;
+        updateView();
+    }
+
+    /**
+     * A store runs from start to finish before it is shown, since it has no snapshot to stream
+     * from; its endpoints are typed in, as a store may have too many nodes to list.
+     */
+    private void runOnStore(String algo) {
+        CsrGraph store = controller.getStore();
+        if (store.nodeCount() == 0) {
+            showError("Validation", "Store is empty.");
+            return;
+        }
+        if ((algo.equals("Prim") || algo.equals("Kruskal")) && store.isDirected()) {
+            showError("Validation", algo + " requires an UNDIRECTED graph.");
+            return;
+        }
+
+        String start = null;
+        String goal = null;
+        if (!"Kruskal".equals(algo)) {
+            Optional<String> startId = enterNodeId("Select Start Node",
+                    "Enter the id of the starting node for " + algo + ":", store.nodeId(0));
+            if (startId.isEmpty()) {
+                return;
+            }
+            start = startId.get();
+            if (needsGoal(algo)) {
+                Optional<String> goalId = enterNodeId("Select Destination Node",
+                        "Enter the id of the destination node for " + algo + ":", store.nodeId(store.nodeCount() - 1));
+                if (goalId.isEmpty()) {
+                    return;
+                }
+                goal = goalId.get();
+            }
+        }
+
+        resetVisuals();
+        CompletableFuture<AlgorithmTrace> run;
         try {
-            tracePrimary = controller.executeAlgorithm(algo, input.get().start(), input.get().goal());
-            if (tracePrimary.isEmpty()) {
-                statusLabel.setText(algo + " failed: No steps generated.");
-                refreshNavigationButtons();
+            run = controller.executeOnStore(algo, selectedCost(), selectedLevel(), selectedSampleInterval(), start, goal);
+        } catch (IllegalArgumentException e) {
+            showAlgorithmError("Algorithm Error", e);
+            return;
+        }
+        storeRun = run;
+        statusLabel.setText("Running " + algo + " on the store...");
+        run.whenComplete((trace, error) -> Platform.runLater(() -> {
+            if (run != storeRun || controller.getStore() != store) {
+                return;
+            }
+            storeRun = null;
+            if (error != null) {
+                showAlgorithmError("Algorithm Error", error);
                 return;
             }
-            statusLabel.setText(algo + " completed. Steps: " + tracePrimary.size());
+            tracePrimary = trace;
             currentStep = 0;
             updateView();
-        } catch (IllegalArgumentException e) {
-            showError("Algorithm Error", e.getMessage());
-        } catch (Exception e) {
-            showError("Algorithm Error", "Unexpected error: " + e.getMessage());
+            statusLabel.setText(algo + " completed. Steps: " + trace.size());
+        }));
+    }
+
+    private Optional<String> enterNodeId(String title, String header, String suggestion) {
+        TextInputDialog dialog = new TextInputDialog(suggestion);
+        dialog.setTitle(title);
+        dialog.setHeaderText(header);
+        return dialog.showAndWait().map(String::trim).filter(id -> !id.isEmpty());
+    }
+
+    /**
+     * @return the open store, or else the editable graph
+     */
+    private IndexedGraph shownGraph() {
+        CsrGraph store = controller.getStore();
+        return store != null ? store : controller.getGraph();
+    }
+
+    private void refreshCostChoices() {
+        IndexedGraph graph = shownGraph();
+        String selected = costChoice.getValue();
+        List<String> names = new ArrayList<>();
+        for (int c = 0; c < graph.weightColumnCount(); c++) {
+            names.add(graph.weightColumnName(c));
+        }
+        costChoice.getItems().setAll(names);
+        costChoice.setValue(names.contains(selected) ? selected : GraphModel.DEFAULT_WEIGHT_COLUMN);
+    }
+
+    private String selectedCost() {
+        String cost = costChoice.getValue();
+        return cost == null || shownGraph().weightColumn(cost) < 0 ? GraphModel.DEFAULT_WEIGHT_COLUMN : cost;
+    }
+
+    private AlgorithmTrace.Level selectedLevel() {
+        String detail = detailChoice.getValue();
+        if (DETAIL_EXPANSIONS.equals(detail)) {
+            return AlgorithmTrace.Level.EXPANSIONS;
+        }
+        if (DETAIL_MILESTONES.equals(detail)) {
+            return AlgorithmTrace.Level.MILESTONES;
+        }
+        return AlgorithmTrace.Level.FULL;
+    }
+
+    private int selectedSampleInterval() {
+        return DETAIL_SAMPLED.equals(detailChoice.getValue()) ? SAMPLE_INTERVAL : 1;
+    }
+
+    private void showAlgorithmError(String title, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IllegalArgumentException) {
+            showError(title, cause.getMessage());
+        } else {
+            showError(title, "Unexpected error: " + cause.getMessage());
         }
     }
 
     private void runComparison(String algo1) {
+        if (controller.getStore() != null) {
+            showError("Comparison Error", "Comparison runs on the editable graph. Close the store with New Graph first.");
+            return;
+        }
         if (algo1 == null || !validateAlgo(algo1)) {
             return;
         }
@@ -264,7 +478,8 @@ public class GraphVizFX extends Application {
             return;
         }
 
-        ChoiceDialog<String> dialog = new ChoiceDialog<>("BFS", "BFS", "DFS", "Dijkstra", "A*", "Prim", "Kruskal");
+        ChoiceDialog<String> dialog = new ChoiceDialog<>("BFS", "BFS", "DFS", "Dijkstra", "A*",
+                "A* (Landmarks)", "Bidirectional Dijkstra", "Bidirectional A*", "Contraction Hierarchy", "Delta-Stepping", "Prim", "Kruskal");
         dialog.setTitle("Select Second Algorithm");
         dialog.setHeaderText("Compare " + algo1 + " with:");
         Optional<String> res = dialog.showAndWait();
@@ -292,24 +507,34 @@ public class GraphVizFX extends Application {
         root.setCenter(splitPane);
         resetVisuals();
 
+        // Both runs are snapshotted now, before any further edit can slip in between them
+        String cost = selectedCost();
         try {
-            tracePrimary = controller.executeAlgorithm(algo1, primaryInput.get().start(), primaryInput.get().goal());
-            traceSecondary = controller.executeAlgorithm(algo2, secondaryInput.get().start(), secondaryInput.get().goal());
-
-            if (tracePrimary.isEmpty() || traceSecondary.isEmpty()) {
-                showError("Comparison Error", "One or both algorithms failed to execute.");
-                refreshNavigationButtons();
-                return;
-            }
-
-            statusLabel.setText("Comparing " + algo1 + " vs " + algo2);
-            currentStep = 0;
-            updateView();
+            tracePrimary = controller.streamAlgorithm(algo1, cost, selectedLevel(), selectedSampleInterval(),
+                    primaryInput.get().start(), primaryInput.get().goal());
+            traceSecondary = controller.streamAlgorithm(algo2, cost, selectedLevel(), selectedSampleInterval(),
+                    secondaryInput.get().start(), secondaryInput.get().goal());
         } catch (IllegalArgumentException e) {
-            showError("Comparison Error", e.getMessage());
-        } catch (Exception e) {
-            showError("Comparison Error", "Unexpected error: " + e.getMessage());
+            // Stops the first run if only the second one was rejected
+            resetVisuals();
+            showAlgorithmError("Comparison Error", e);
+            return;
         }
+        AlgorithmTrace first = tracePrimary;
+        AlgorithmTrace second = traceSecondary;
+        statusLabel.setText("Comparing " + algo1 + " vs " + algo2);
+        CompletableFuture.allOf(first.completion(), second.completion())
+                .whenComplete((done, error) -> Platform.runLater(() -> {
+                    if (first != tracePrimary) {
+                        return;
+                    }
+                    if (error != null) {
+                        showAlgorithmError("Comparison Error", error);
+                    }
+                    refreshNavigationButtons();
+                }));
+        currentStep = 0;
+        updateView();
     }
 
     // -------------------------------------------------------------------------
@@ -354,15 +579,19 @@ public class GraphVizFX extends Application {
             return Optional.empty();
         }
 
-        if ("A*".equals(algorithm)) {
+        if (needsGoal(algorithm)) {
             Optional<GNode> goal = selectNode("Select Destination Node",
-                    "Choose the destination node for A*:", start.get().getId());
+                    "Choose the destination node for " + algorithm + ":", start.get().getId());
             return goal.map(g -> new AlgorithmInput(start.get(), g));
         }
 
         return Optional.of(new AlgorithmInput(start.get(), null));
     }
 
+    private static boolean needsGoal(String algorithm) {
+        return algorithm.startsWith("A*") || algorithm.startsWith("Bidirectional") || algorithm.equals("Contraction Hierarchy");
+    }
+
     private Optional<GNode> selectNode(String title, String header, String excludeId) {
         List<String> ids = controller.getGraph().getNodes().stream()
                 .map(GNode::getId)
@@ -385,49 +614,108 @@ public class GraphVizFX extends Application {
     // -------------------------------------------------------------------------
 
     private int getMaxSteps() {
-        return Math.max(tracePrimary.size(), traceSecondary.size());
+        return Math.max(stepCount(tracePrimary), stepCount(traceSecondary));
+    }
+
+    private static int stepCount(AlgorithmTrace trace) {
+        return trace == null ? 0 : trace.size();
     }
 
     private void step(int dir) {
-        int max = getMaxSteps();
-        if (max == 0) {
+        seek(currentStep + dir);
+    }
+
+    /**
+     * Shows {@code step}, clamped to the longer trace. Traces seek from their nearest keyframe,
+     * so a jump across the whole run costs about as much as a single step.
+     */
+    private void seek(int step) {
+        if (tracePrimary == null) {
             return;
         }
 
-        currentStep = Math.min(Math.max(currentStep + dir, 0), max - 1);
+        currentStep = Math.max(step, 0);
+        pull(tracePrimary);
+        pull(traceSecondary);
         updateView();
     }
 
+    /**
+     * Requests the current step from a streaming run, which keeps it recording a window ahead of
+     * playback; a step not recorded yet is shown once it arrives.
+     */
+    private void pull(AlgorithmTrace trace) {
+        if (trace == null || trace.isComplete()) {
+            return;
+        }
+        CompletableFuture<Void> ready = trace.awaitStep(currentStep);
+        if (!ready.isDone()) {
+            ready.whenComplete((done, error) -> Platform.runLater(() -> {
+                if (trace == tracePrimary || trace == traceSecondary) {
+                    updateView();
+                }
+            }));
+        }
+    }
+
+    private boolean tracesComplete() {
+        return (tracePrimary == null || tracePrimary.isComplete())
+                && (traceSecondary == null || traceSecondary.isComplete());
+    }
+
     private void updateView() {
-        StringBuilder logBuilder = new StringBuilder();
+        int max = getMaxSteps();
+        if (max > 0 && currentStep >= max && tracesComplete()) {
+            currentStep = max - 1;
+        }
 
-        if (!tracePrimary.isEmpty()) {
+        CharSequence primaryLog = "";
+        if (stepCount(tracePrimary) > 0) {
             int idx = Math.min(currentStep, tracePrimary.size() - 1);
-            VisualState state = tracePrimary.get(idx);
+            // The trace rebuilds this state from its deltas; it stays valid until the next step
+            CompactState state = tracePrimary.compactAt(idx);
             mainCanvas.setCurrentState(state);
-            if (state != null && state.getLogLine() != null) {
-                logBuilder.append(state.getLogLine());
-            }
+            primaryLog = state.getLog();
         }
         mainCanvas.draw();
 
-        if (isComparisonMode && !traceSecondary.isEmpty()) {
+        if (isComparisonMode && stepCount(traceSecondary) > 0) {
             int idx = Math.min(currentStep, traceSecondary.size() - 1);
-            VisualState state = traceSecondary.get(idx);
+            CompactState state = traceSecondary.compactAt(idx);
             compareCanvas.setCurrentState(state);
-            logBuilder.append("\n\n----------------\n\n");
-            if (state != null && state.getLogLine() != null) {
-                logBuilder.append(state.getLogLine());
-            }
             compareCanvas.draw();
+            StringBuilder logBuilder = new StringBuilder(primaryLog.length() + state.getLog().length() + 20);
+            logBuilder.append(primaryLog).append("\n\n----------------\n\n").append(state.getLog());
+            logArea.setText(logBuilder.toString());
+            shownLogTrace = null;
+        } else {
+            showLog(tracePrimary, primaryLog);
         }
 
-        logArea.setText(logBuilder.toString());
-        logArea.positionCaret(logArea.getText().length());
+        logArea.positionCaret(logArea.getLength());
         logArea.setScrollTop(Double.MAX_VALUE);
         refreshNavigationButtons();
     }
 
+    /**
+     * Shows {@code log} in the log area. When the area already holds the log of the same trace,
+     * only the lines between the two steps are appended or removed, since one is a prefix of
+     * the other.
+     */
+    private void showLog(AlgorithmTrace trace, CharSequence log) {
+        int shown = logArea.getLength();
+        // The text area drops carriage returns, after which offsets no longer line up
+        if (trace == null || trace != shownLogTrace || shown != shownLogLength) {
+            logArea.setText(log.toString());
+            shownLogTrace = trace;
+        } else if (log.length() > shown) {
+            logArea.appendText(log.subSequence(shown, log.length()).toString());
+        } else if (log.length() < shown) {
+            logArea.deleteText(log.length(), shown);
+        }
+        shownLogLength = log.length();
+    }
+
     private void refreshNavigationButtons() {
         if (btnPrev == null || btnNext == null) {
             return;
@@ -435,15 +723,47 @@ public class GraphVizFX extends Application {
         int max = getMaxSteps();
         boolean hasTrace = max > 0;
         btnPrev.setDisable(!hasTrace || currentStep == 0);
-        btnNext.setDisable(!hasTrace || currentStep >= max - 1);
+        btnNext.setDisable(!hasTrace || currentStep >= max - 1 && tracesComplete());
+
+        syncingSlider = true;
+        stepSlider.setMax(Math.max(max - 1, 0));
+        stepSlider.setValue(currentStep);
+        stepSlider.setDisable(!hasTrace);
+        syncingSlider = false;
     }
 
     // -------------------------------------------------------------------------
     // Layout & persistence
     // -------------------------------------------------------------------------
 
+    private void undo() {
+        if (storeIsOpen()) {
+            return;
+        }
+        if (controller.undo()) {
+            mainCanvas.clearSelection();
+            mainCanvas.draw();
+            statusLabel.setText("Undone.");
+        } else {
+            statusLabel.setText("Nothing to undo.");
+        }
+    }
+
+    private void redo() {
+        if (storeIsOpen()) {
+            return;
+        }
+        if (controller.redo()) {
+            mainCanvas.clearSelection();
+            mainCanvas.draw();
+            statusLabel.setText("Redone.");
+        } else {
+            statusLabel.setText("Nothing to redo.");
+        }
+    }
+
     private void applyLayout(String type) {
-        if (type == null) return;
+        if (type == null || storeIsOpen()) return;
         
         double width = mainCanvas.getWidth();
         double height = mainCanvas.getHeight();
@@ -496,6 +816,7 @@ public class GraphVizFX extends Application {
         File f = fc.showOpenDialog(primaryStage);
         if (f == null) return;
 
+        closeStore();
         try {
             controller.importJSON(f);
             mainCanvas.draw();
@@ -509,6 +830,166 @@ public class GraphVizFX extends Application {
         }
     }
 
+    private void saveTrace() {
+        AlgorithmTrace trace = tracePrimary;
+        if (trace == null) {
+            showError("Save Failed", "Run an algorithm first.");
+            return;
+        }
+
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Save Algorithm Trace");
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("Trace Files", "*.trace"));
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("All Files", "*.*"));
+        File f = fc.showSaveDialog(primaryStage);
+        if (f == null) return;
+
+        // A streamed run only records ahead of playback, so let it finish before writing
+        trace.awaitStep(Integer.MAX_VALUE);
+        statusLabel.setText("Finishing the run before saving...");
+        trace.completion().whenComplete((done, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                showAlgorithmError("Save Failed", error);
+                return;
+            }
+            try {
+                controller.saveTrace(trace, f);
+                statusLabel.setText("Trace saved successfully to: " + f.getName());
+            } catch (IOException e) {
+                showError("Save Failed", "Failed to write file: " + e.getMessage());
+            }
+        }));
+    }
+
+    private void openTrace() {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Open Algorithm Trace");
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("Trace Files", "*.trace"));
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("All Files", "*.*"));
+        File f = fc.showOpenDialog(primaryStage);
+        if (f == null) return;
+
+        AlgorithmTrace trace;
+        try {
+            trace = controller.openTrace(f);
+        } catch (IOException e) {
+            showError("Open Failed", "Failed to read trace: " + e.getMessage());
+            return;
+        }
+        closeStore();
+        isComparisonMode = false;
+        root.setCenter(mainCanvas);
+        compareCanvas = null;
+        resetVisuals();
+        tracePrimary = trace;
+        currentStep = 0;
+        updateView();
+        statusLabel.setText("Trace opened: " + f.getName() + ". Steps: " + trace.size());
+    }
+
+    private void exportStore() {
+        if (controller.getGraph().getNodes().isEmpty()) {
+            showError("Export Failed", "Cannot export empty graph.");
+            return;
+        }
+
+        FileChooser fc = storeChooser("Export Graph as Store");
+        File f = fc.showSaveDialog(primaryStage);
+        if (f == null) return;
+
+        try {
+            controller.exportStore(f);
+            statusLabel.setText("Store exported successfully to: " + f.getName());
+        } catch (IOException e) {
+            showError("Export Failed", "Failed to write file: " + e.getMessage());
+        }
+    }
+
+    private void openStore() {
+        FileChooser fc = storeChooser("Open Graph Store");
+        File f = fc.showOpenDialog(primaryStage);
+        if (f == null) return;
+
+        try {
+            showStore(controller.openStore(f), f);
+        } catch (IOException e) {
+            showError("Open Failed", "Failed to read store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Streams an OSM file into a store on a background thread and opens the store once written.
+     */
+    private void convertOSM() {
+        FileChooser in = new FileChooser();
+        in.setTitle("Convert OSM File to Store");
+        in.getExtensionFilters().add(new FileChooser.ExtensionFilter("OSM Files", "*.osm"));
+        in.getExtensionFilters().add(new FileChooser.ExtensionFilter("All Files", "*.*"));
+        File osm = in.showOpenDialog(primaryStage);
+        if (osm == null) return;
+        File f = storeChooser("Save Graph Store").showSaveDialog(primaryStage);
+        if (f == null) return;
+
+        statusLabel.setText("Converting " + osm.getName() + "...");
+        CompletableFuture.runAsync(() -> {
+            try {
+                controller.convertOSM(osm, f);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((done, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                statusLabel.setText("Conversion failed.");
+                showError("Import Failed", "Failed to convert file: " + cause.getMessage());
+                return;
+            }
+            try {
+                showStore(controller.openStore(f), f);
+            } catch (IOException e) {
+                showError("Open Failed", "Failed to read store: " + e.getMessage());
+            }
+        }));
+    }
+
+    private FileChooser storeChooser(String title) {
+        FileChooser fc = new FileChooser();
+        fc.setTitle(title);
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("Graph Stores", "*.gvxf"));
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("All Files", "*.*"));
+        return fc;
+    }
+
+    private void showStore(CsrGraph store, File f) {
+        isComparisonMode = false;
+        root.setCenter(mainCanvas);
+        compareCanvas = null;
+        storeRun = null;
+        mainCanvas.setDisplayedGraph(store);
+        resetVisuals();
+        statusLabel.setText(String.format("Store %s opened read-only: %d nodes, %d edges. New Graph returns to editing.",
+                f.getName(), store.nodeCount(), store.edgeCount()));
+    }
+
+    /**
+     * Goes back to showing the editable graph.
+     */
+    private void closeStore() {
+        if (controller.getStore() != null) {
+            controller.closeStore();
+            storeRun = null;
+            mainCanvas.setDisplayedGraph(null);
+        }
+    }
+
+    private boolean storeIsOpen() {
+        if (controller.getStore() == null) {
+            return false;
+        }
+        statusLabel.setText("The open store is read-only.");
+        return true;
+    }
+
     private void exportImage() {
         if (controller.getGraph().getNodes().isEmpty()) {
             showError("Export Failed", "Cannot export empty graph.");
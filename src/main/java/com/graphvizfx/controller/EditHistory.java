@@ -0,0 +1,214 @@
+package com.graphvizfx.controller;
+
+import com.graphvizfx.model.GraphChange;
+import com.graphvizfx.model.GraphListener;
+import com.graphvizfx.model.GraphModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Undo/redo stacks built from the {@link GraphChange}s a {@link GraphModel} publishes.
+ * <p>
+ * A step stores the changes themselves, which already carry the previous values, instead of a
+ * copy of the graph: undoing a drag costs one {@code NodeMoved}, undoing a layout one coordinate
+ * array. Undo applies the inverse of every change of a step in reverse order; the changes those
+ * inverse operations publish become the matching redo step, and vice versa.
+ * <p>
+ * Changes published between {@link #beginEdit()} and {@link #endEdit()} form a single step, and
+ * consecutive moves of the same node inside one step are merged. Clearing the graph drops the
+ * whole history; directed/weighted toggles are view settings and are not recorded, and neither is
+ * adding a weight column, whose values only matter once they are edited.
+ */
+public final class EditHistory implements GraphListener {
+    private static final int DEFAULT_LIMIT = 500;
+
+    private final GraphModel graph;
+    private final int limit;
+    private final ArrayDeque<GraphChange[]> undoSteps = new ArrayDeque<>();
+    private final ArrayDeque<GraphChange[]> redoSteps = new ArrayDeque<>();
+    private List<GraphChange> pending = new ArrayList<>();
+    private int depth;
+    private boolean replaying;
+    private boolean paused;
+
+    public EditHistory(GraphModel graph) {
+        this(graph, DEFAULT_LIMIT);
+    }
+
+    /**
+     * @param limit maximum number of undo steps kept; the oldest step is dropped beyond it
+     */
+    public EditHistory(GraphModel graph, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("History limit must be positive: " + limit);
+        }
+        this.graph = graph;
+        this.limit = limit;
+        graph.addListener(this);
+    }
+
+    @Override
+    public void graphChanged(GraphChange change) {
+        if (paused || change instanceof GraphChange.ModeChanged || change instanceof GraphChange.WeightColumnAdded) {
+            return;
+        }
+        if (change instanceof GraphChange.Cleared) {
+            clear();
+            return;
+        }
+        if (replaying || depth > 0) {
+            append(pending, change);
+            return;
+        }
+        redoSteps.clear();
+        push(undoSteps, new GraphChange[]{change});
+    }
+
+    /**
+     * Opens a compound edit; calls nest and only the outermost {@link #endEdit()} records a step.
+     */
+    public void beginEdit() {
+        depth++;
+    }
+
+    public void endEdit() {
+        if (depth == 0) {
+            throw new IllegalStateException("endEdit() without matching beginEdit()");
+        }
+        if (--depth == 0 && !pending.isEmpty()) {
+            redoSteps.clear();
+            push(undoSteps, pending.toArray(new GraphChange[0]));
+            pending = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Stops recording until {@link #resume()}, e.g. while an importer rebuilds the graph.
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+    }
+
+    public boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * @return whether a step was undone
+     */
+    public boolean undo() {
+        if (undoSteps.isEmpty() || depth > 0) {
+            return false;
+        }
+        push(redoSteps, revert(undoSteps.pop()));
+        return true;
+    }
+
+    /**
+     * @return whether a step was redone
+     */
+    public boolean redo() {
+        if (redoSteps.isEmpty() || depth > 0) {
+            return false;
+        }
+        push(undoSteps, revert(redoSteps.pop()));
+        return true;
+    }
+
+    public void clear() {
+        undoSteps.clear();
+        redoSteps.clear();
+        if (!replaying) {
+            pending = new ArrayList<>();
+        }
+    }
+
+    private GraphChange[] revert(GraphChange[] step) {
+        replaying = true;
+        try {
+            for (int i = step.length - 1; i >= 0; i--) {
+                invert(step[i]);
+            }
+            return pending.toArray(new GraphChange[0]);
+        } finally {
+            pending = new ArrayList<>();
+            replaying = false;
+        }
+    }
+
+    private void invert(GraphChange change) {
+        if (change instanceof GraphChange.NodeAdded c) {
+            graph.removeNode(c.node());
+        } else if (change instanceof GraphChange.NodeMoved c) {
+            graph.setNodePosition(c.node(), c.oldX(), c.oldY());
+        } else if (change instanceof GraphChange.NodesMoved c) {
+            double[] previous = c.previous();
+            double[] x = new double[previous.length / 2];
+            double[] y = new double[previous.length / 2];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = previous[2 * i];
+                y[i] = previous[2 * i + 1];
+            }
+            graph.setNodePositions(x, y);
+        } else if (change instanceof GraphChange.NodeRenamed c) {
+            graph.renameNode(c.node(), c.oldId());
+        } else if (change instanceof GraphChange.NodeRemoved c) {
+            graph.insertNode(c.node(), c.id(), c.x(), c.y());
+        } else if (change instanceof GraphChange.EdgeAdded c) {
+            graph.removeEdge(c.edge());
+        } else if (change instanceof GraphChange.EdgeReweighted c) {
+            graph.setEdgeWeight(c.edge(), c.oldWeight());
+        } else if (change instanceof GraphChange.EdgeReconnected c) {
+            graph.reconnectEdge(c.edge(), c.oldSource(), c.oldTarget());
+        } else if (change instanceof GraphChange.EdgeRemoved c) {
+            graph.insertEdge(c.edge(), c.source(), c.target(), c.weight(), c.otherWeights(),
+                    c.outPosition(), c.inPosition());
+        } else if (change instanceof GraphChange.EdgeCostChanged c) {
+            graph.setEdgeWeight(c.edge(), c.column(), c.oldWeight());
+        } else if (change instanceof GraphChange.WeightsReplaced c) {
+            graph.setEdgeWeights(c.column(), c.previous());
+        } else if (change instanceof GraphChange.BatchAdded c) {
+            // The batch sits at the end of both columns, so removal never swaps anything in
+            for (int e = c.firstEdge() + c.edgeCount() - 1; e >= c.firstEdge(); e--) {
+                graph.removeEdge(e);
+            }
+            for (int n = c.firstNode() + c.nodeCount() - 1; n >= c.firstNode(); n--) {
+                graph.removeNode(n);
+            }
+        } else {
+            throw new IllegalStateException("Cannot undo " + change);
+        }
+    }
+
+    private void push(ArrayDeque<GraphChange[]> steps, GraphChange[] step) {
+        if (step.length == 0) {
+            return;
+        }
+        steps.push(step);
+        if (steps.size() > limit) {
+            steps.removeLast();
+        }
+    }
+
+    private static void append(List<GraphChange> step, GraphChange change) {
+        int last = step.size() - 1;
+        if (change instanceof GraphChange.NodeMoved moved && last >= 0
+                && step.get(last) instanceof GraphChange.NodeMoved previous && previous.node() == moved.node()) {
+            // A drag publishes one move per mouse event; keep only where it started and ended
+            step.set(last, new GraphChange.NodeMoved(moved.version(), moved.node(),
+                    previous.oldX(), previous.oldY(), moved.x(), moved.y()));
+            return;
+        }
+        step.add(change);
+    }
+}
@@ -3,35 +3,80 @@ package com.graphvizfx.controller;
 import com.graphvizfx.algorithms.AlgorithmEngine;
 import com.graphvizfx.io.JSONExporter;
 import com.graphvizfx.io.JSONImporter;
+import com.graphvizfx.io.MappedGraphStore;
 import com.graphvizfx.io.OSMImporter;
+import com.graphvizfx.io.TraceFile;
 import com.graphvizfx.layout.CircularLayout;
 import com.graphvizfx.layout.ForceDirectedLayout;
 import com.graphvizfx.layout.GridLayout;
 import com.graphvizfx.layout.LayoutAlgorithm;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
 import com.graphvizfx.model.GEdge;
 import com.graphvizfx.model.GNode;
 import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.GraphSnapshot;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Coordinates user actions between the view and the {@link GraphModel}.
  */
 public class GraphController {
+    // A streamed run holds its thread while paused, so every run gets one
+    private static final ExecutorService STREAM_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "graph-algorithm-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Steps a streamed run records ahead of playback. */
+    private static final int STREAM_LOOKAHEAD = 256;
+    /** Heap a streamed trace may fill before spilling to disk; comparison mode holds two of them. */
+    private static final long TRACE_MEMORY_BUDGET = Runtime.getRuntime().maxMemory() / 8;
+
     private GraphModel graph;
+    private final EditHistory history;
     private int nodeCounter = 1;
+    private CsrGraph store;
 
     public GraphController() {
         this.graph = new GraphModel();
+        this.history = new EditHistory(graph);
     }
 
     public GraphModel getGraph() {
         return graph;
     }
 
+    public EditHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * @return the store opened with {@link #openStore(File)}, or null while the editable graph is shown
+     */
+    public CsrGraph getStore() {
+        return store;
+    }
+
+    /**
+     * @return whether there was an edit to undo
+     */
+    public boolean undo() {
+        return history.undo();
+    }
+
+    /**
+     * @return whether there was an edit to redo
+     */
+    public boolean redo() {
+        return history.redo();
+    }
+
     public void resetGraph() {
         graph.clear();
         nodeCounter = 1;
@@ -45,12 +90,17 @@ public class GraphController {
         if (graph.getNode(id) != null) {
             throw new IllegalArgumentException("Node with ID '" + id + "' already exists");
         }
-        graph.getNodes().add(new GNode(id, x, y));
+        graph.addNode(new GNode(id, x, y));
     }
 
     public void deleteNode(GNode node) {
-        graph.getNodes().remove(node);
-        graph.getEdges().removeIf(edge -> edge.getSource() == node || edge.getTarget() == node);
+        // Incident edges go with the node, so the whole cascade is one undo step
+        history.beginEdit();
+        try {
+            graph.removeNode(node);
+        } finally {
+            history.endEdit();
+        }
     }
 
     public void addEdge(GNode source, GNode target, int weight) {
@@ -63,11 +113,25 @@ public class GraphController {
         if (graph.hasEdge(source, target)) {
             throw new IllegalArgumentException("Edge already exists between " + source.getId() + " and " + target.getId());
         }
-        graph.getEdges().add(new GEdge(source, target, weight));
+        graph.addEdge(new GEdge(source, target, weight));
     }
 
     public void deleteEdge(GEdge edge) {
-        graph.getEdges().remove(edge);
+        graph.removeEdge(edge);
+    }
+
+    public void moveNode(GNode node, double x, double y) {
+        if (node == null || node.getIndex() < 0) {
+            throw new IllegalArgumentException("Node is not part of the graph");
+        }
+        graph.setNodePosition(node.getIndex(), x, y);
+    }
+
+    public void setEdgeWeight(GEdge edge, int weight) {
+        if (edge == null || edge.getIndex() < 0) {
+            throw new IllegalArgumentException("Edge is not part of the graph");
+        }
+        graph.setEdgeWeight(edge.getIndex(), weight);
     }
 
     public int getNextNodeId() {
@@ -75,15 +139,56 @@ public class GraphController {
     }
 
     /**
-     * Executes the requested algorithm and returns the full visual trace.
+     * Executes the requested algorithm on a snapshot of the current graph and returns the full
+     * visual trace.
      *
      * @param algo  algorithm identifier
      * @param start optional start node (ignored when not required)
      * @param goal  optional destination node (used by goal-driven algorithms)
-     * @return list of visual snapshots representing each step
+     * @return trace of the visual state after each step
+     */
+    public AlgorithmTrace executeAlgorithm(String algo, GNode start, GNode goal) {
+        return executeAlgorithm(algo, GraphModel.DEFAULT_WEIGHT_COLUMN, start, goal);
+    }
+
+    /**
+     * Like {@link #executeAlgorithm(String, GNode, GNode)}, with the weighted algorithms reading
+     * the named weight column instead of the primary one.
+     *
+     * @param weightColumn name of a column of {@link GraphModel#weightColumnName(int)}
+     */
+    public AlgorithmTrace executeAlgorithm(String algo, String weightColumn, GNode start, GNode goal) {
+        GraphSnapshot snapshot = graph.snapshot();
+        return AlgorithmEngine.execute(algo, snapshot, weightColumn, snapshot.indexOf(start), snapshot.indexOf(goal));
+    }
+
+    /**
+     * Snapshots the graph on the calling thread and streams the algorithm on a background thread.
+     * The returned trace grows as playback requests steps with {@link AlgorithmTrace#awaitStep(int)};
+     * cancel it once it is no longer shown so its thread is released. Past a share of the heap,
+     * its older steps are spilled to a temporary file.
+     *
+     * @param algo         algorithm identifier
+     * @param weightColumn name of a column of {@link GraphModel#weightColumnName(int)}
+     * @param start        optional start node (ignored when not required)
+     * @param goal         optional destination node (used by goal-driven algorithms)
+     * @return trace of the graph as it was when this was called, possibly still being recorded
      */
-    public List<VisualState> executeAlgorithm(String algo, GNode start, GNode goal) {
-        return AlgorithmEngine.execute(algo, graph, start, goal);
+    public AlgorithmTrace streamAlgorithm(String algo, String weightColumn, GNode start, GNode goal) {
+        return streamAlgorithm(algo, weightColumn, AlgorithmTrace.Level.FULL, 1, start, goal);
+    }
+
+    /**
+     * Like {@link #streamAlgorithm(String, String, GNode, GNode)}, keeping only the steps the
+     * recording level and sample interval select.
+     */
+    public AlgorithmTrace streamAlgorithm(String algo, String weightColumn, AlgorithmTrace.Level level,
+                                          int sampleInterval, GNode start, GNode goal) {
+        GraphSnapshot snapshot = graph.snapshot();
+        AlgorithmTrace trace = AlgorithmEngine.stream(algo, snapshot, weightColumn, snapshot.indexOf(start),
+                snapshot.indexOf(goal), level, sampleInterval, STREAM_LOOKAHEAD, STREAM_EXECUTOR);
+        trace.setMemoryBudget(TRACE_MEMORY_BUDGET);
+        return trace;
     }
 
     public void applyLayout(String layoutType, double width, double height) {
@@ -119,11 +224,101 @@ public class GraphController {
     }
 
     public void importJSON(File file) throws IOException {
-        JSONImporter.importGraph(graph, file);
+        history.pause();
+        try {
+            JSONImporter.importGraph(graph, file);
+        } finally {
+            history.resume();
+            history.clear();
+        }
+    }
+
+    /**
+     * Saves the steps {@code trace} has recorded so far.
+     */
+    public void saveTrace(AlgorithmTrace trace, File file) throws IOException {
+        TraceFile.write(trace, file);
+    }
+
+    /**
+     * Replays a saved trace onto a snapshot of the current graph, matching nodes and edges by id.
+     *
+     * @throws IOException if the file is not a trace or names nodes the graph no longer has
+     */
+    public AlgorithmTrace openTrace(File file) throws IOException {
+        return TraceFile.open(file, CsrGraph.of(graph));
     }
 
     public void importOSM(File file) throws IOException {
-        OSMImporter.importGraph(graph, file);
+        history.pause();
+        try {
+            OSMImporter.importGraph(graph, file);
+        } finally {
+            history.resume();
+            history.clear();
+        }
+    }
+
+    /**
+     * Writes the current graph as a memory-mappable store.
+     */
+    public void exportStore(File file) throws IOException {
+        MappedGraphStore.write(CsrGraph.of(graph), file);
+    }
+
+    /**
+     * Maps a store read-only without loading it onto the heap and shows it in place of the
+     * editable graph, which is kept as it was until {@link #closeStore()}.
+     */
+    public CsrGraph openStore(File file) throws IOException {
+        store = MappedGraphStore.open(file);
+        return store;
+    }
+
+    /**
+     * Streams an OSM file into a store without building a graph on the heap, so a map larger than
+     * the heap can then be {@link #openStore(File) opened}. Safe to call off the UI thread.
+     */
+    public void convertOSM(File osm, File file) throws IOException {
+        OSMImporter.importStore(osm, file);
+    }
+
+    public void closeStore() {
+        store = null;
+    }
+
+    /**
+     * Runs the algorithm on the open store on a background thread. The store has no id index, so
+     * the endpoints are found by a scan over its nodes.
+     *
+     * @param weightColumn name of a column of the store
+     * @param start        id of the start node, or null when not required
+     * @param goal         id of the destination node, or null when not required
+     * @return the finished trace
+     */
+    public CompletableFuture<AlgorithmTrace> executeOnStore(String algo, String weightColumn, AlgorithmTrace.Level level,
+                                                            int sampleInterval, String start, String goal) {
+        CsrGraph graph = store;
+        if (graph == null) {
+            throw new IllegalStateException("No store is open");
+        }
+        int column = graph.weightColumn(weightColumn);
+        if (column < 0) {
+            throw new IllegalArgumentException("Unknown weight column: " + weightColumn);
+        }
+        return CompletableFuture.supplyAsync(() -> AlgorithmEngine.execute(algo, graph.withWeights(column),
+                indexOf(graph, start), indexOf(graph, goal), level, sampleInterval), STREAM_EXECUTOR);
     }
-}
 
+    private static int indexOf(CsrGraph graph, String id) {
+        if (id == null) {
+            return -1;
+        }
+        for (int n = 0; n < graph.nodeCount(); n++) {
+            if (id.equals(graph.nodeId(n))) {
+                return n;
+            }
+        }
+        throw new IllegalArgumentException("Node " + id + " is not in the store");
+    }
+}
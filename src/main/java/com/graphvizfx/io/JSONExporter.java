@@ -1,8 +1,6 @@
 package com.graphvizfx.io;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
-import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.IndexedGraph;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -10,25 +8,24 @@ import java.io.IOException;
 
 public class JSONExporter {
     
-    public static void export(GraphModel graph, File file) throws IOException {
+    public static void export(IndexedGraph graph, File file) throws IOException {
         StringBuilder sb = new StringBuilder("{\n");
         sb.append("  \"directed\": ").append(graph.isDirected()).append(",\n");
         sb.append("  \"weighted\": ").append(graph.isWeighted()).append(",\n");
         sb.append("  \"nodes\": [\n");
-        for (int i = 0; i < graph.getNodes().size(); i++) {
-            GNode n = graph.getNodes().get(i);
-            sb.append(String.format("    {\"id\":\"%s\", \"x\":%.1f, \"y\":%.1f}", n.getId(), n.getX(), n.getY()));
-            if (i < graph.getNodes().size() - 1) {
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            sb.append(String.format("    {\"id\":\"%s\", \"x\":%.1f, \"y\":%.1f}",
+                    graph.nodeId(i), graph.nodeX(i), graph.nodeY(i)));
+            if (i < graph.nodeCount() - 1) {
                 sb.append(",");
             }
             sb.append("\n");
         }
         sb.append("  ],\n  \"edges\": [\n");
-        for (int i = 0; i < graph.getEdges().size(); i++) {
-            GEdge e = graph.getEdges().get(i);
+        for (int i = 0; i < graph.edgeCount(); i++) {
             sb.append(String.format("    {\"from\":\"%s\", \"to\":\"%s\", \"weight\":%d}", 
-                    e.getSource().getId(), e.getTarget().getId(), e.getWeight()));
-            if (i < graph.getEdges().size() - 1) {
+                    graph.nodeId(graph.edgeSource(i)), graph.nodeId(graph.edgeTarget(i)), graph.edgeWeight(i)));
+            if (i < graph.edgeCount() - 1) {
                 sb.append(",");
             }
             sb.append("\n");
@@ -1,7 +1,6 @@
 package com.graphvizfx.io;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
+import com.graphvizfx.model.GraphBuilder;
 import com.graphvizfx.model.GraphModel;
 
 import java.io.File;
@@ -43,6 +42,10 @@ public class JSONImporter {
                 graph.setWeighted(Boolean.parseBoolean(mWei.group(1)));
             }
             
+            // Stage everything in one batch; ids resolve through a hash, and parallel edges are
+            // kept since the file is an exact copy of a graph
+            GraphBuilder builder = graph.builder(estimate(content, "\"id\":"), estimate(content, "\"from\":"));
+            
             Pattern pNode = Pattern.compile("\\{\"id\":\"([^\"]+)\",\\s*\"x\":([0-9.]+),\\s*\"y\":([0-9.]+)\\}");
             Matcher mNode = pNode.matcher(content);
             int nodeCount = 0;
@@ -51,7 +54,7 @@ public class JSONImporter {
                     String id = mNode.group(1);
                     double x = Double.parseDouble(mNode.group(2));
                     double y = Double.parseDouble(mNode.group(3));
-                    graph.getNodes().add(new GNode(id, x, y));
+                    builder.addNode(id, x, y);
                     nodeCount++;
                 } catch (NumberFormatException e) {
                     throw new IOException("Invalid node coordinates at node " + nodeCount + ": " + e.getMessage());
@@ -65,21 +68,22 @@ public class JSONImporter {
                 try {
                     String fromId = mEdge.group(1);
                     String toId = mEdge.group(2);
-                    GNode u = graph.getNode(fromId);
-                    GNode v = graph.getNode(toId);
-                    if (u == null) {
+                    int u = builder.indexOf(fromId);
+                    int v = builder.indexOf(toId);
+                    if (u < 0) {
                         throw new IOException("Edge " + edgeCount + " references unknown node: " + fromId);
                     }
-                    if (v == null) {
+                    if (v < 0) {
                         throw new IOException("Edge " + edgeCount + " references unknown node: " + toId);
                     }
                     int weight = Integer.parseInt(mEdge.group(3));
-                    graph.getEdges().add(new GEdge(u, v, weight));
+                    builder.addParallelEdge(u, v, weight);
                     edgeCount++;
                 } catch (NumberFormatException e) {
                     throw new IOException("Invalid edge weight at edge " + edgeCount + ": " + e.getMessage());
                 }
             }
+            builder.commit();
         } catch (Exception e) {
             graph.clear(); // Rollback on error
             if (e instanceof IOException) {
@@ -88,5 +92,16 @@ public class JSONImporter {
             throw new IOException("Failed to parse JSON: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Counts occurrences of {@code key} to pre-size the batch.
+     */
+    private static int estimate(String content, String key) {
+        int count = 0;
+        for (int i = content.indexOf(key); i >= 0; i = content.indexOf(key, i + key.length())) {
+            count++;
+        }
+        return count;
+    }
 }
 
@@ -0,0 +1,870 @@
+package com.graphvizfx.io;
+
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GNode;
+import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.IndexedGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Binary graph store that is read back through {@link FileChannel#map}.
+ * <p>
+ * The file holds a 40-byte header followed by the CSR arrays, the edge columns, the coordinates,
+ * the UTF-8 node ids and any additional weight columns with their names, each section 8-byte
+ * aligned and little-endian. Arc weights are stored for the primary column only; a
+ * {@link CsrGraph#withWeights(int) view} on another column reads it through the arc's edge.
+ * <p>
+ * {@link #open(File)} maps every section read-only and returns a {@link CsrGraph} that reads
+ * straight from the mappings, so the operating system pages the graph in on demand, nothing is
+ * copied onto the heap, and several processes opening the same file share its pages.
+ * <p>
+ * {@link #write(CsrGraph, File)} copies a graph that is already indexed, while a {@link Builder}
+ * streams nodes and edges in from an importer and spills them to disk, so a store can be made
+ * from a graph that never fits on the heap at all.
+ */
+public final class MappedGraphStore {
+    private static final int MAGIC = 0x47565846; // "GVXF"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 40;
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FLAG_WEIGHTED = 2;
+
+    private MappedGraphStore() {
+    }
+
+    /**
+     * Writes {@code graph} in store format, replacing {@code file}.
+     */
+    public static void write(CsrGraph graph, File file) throws IOException {
+        if (graph == null || file == null) {
+            throw new IllegalArgumentException("Graph and file cannot be null");
+        }
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int arcs = n == 0 ? 0 : graph.arcEnd(n - 1);
+        int columns = graph.weightColumnCount();
+        if (graph.weightColumn() != 0) {
+            throw new IllegalArgumentException("Write the graph itself, not a view on weight column " + graph.weightColumn());
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             SectionWriter out = new SectionWriter(channel)) {
+            out.skip(HEADER_BYTES);
+            for (int u = 0; u < n; u++) {
+                out.putInt(graph.arcStart(u));
+            }
+            out.putInt(arcs);
+            out.align();
+            for (int a = 0; a < arcs; a++) {
+                out.putInt(graph.arcTarget(a));
+            }
+            out.align();
+            for (int a = 0; a < arcs; a++) {
+                out.putInt(graph.arcWeight(a));
+            }
+            out.align();
+            for (int a = 0; a < arcs; a++) {
+                out.putInt(graph.arcEdge(a));
+            }
+            out.align();
+            for (int e = 0; e < m; e++) {
+                out.putInt(graph.edgeSource(e));
+            }
+            out.align();
+            for (int e = 0; e < m; e++) {
+                out.putInt(graph.edgeTarget(e));
+            }
+            out.align();
+            for (int e = 0; e < m; e++) {
+                out.putInt(graph.edgeWeight(e));
+            }
+            out.align();
+            for (int u = 0; u < n; u++) {
+                out.putDouble(graph.nodeX(u));
+            }
+            for (int u = 0; u < n; u++) {
+                out.putDouble(graph.nodeY(u));
+            }
+            long idBytes = 0;
+            for (int u = 0; u < n; u++) {
+                out.putInt((int) idBytes);
+                idBytes += utf8(graph.nodeId(u)).length;
+                if (idBytes > Integer.MAX_VALUE) {
+                    throw new IOException("Node ids exceed 2 GB");
+                }
+            }
+            out.putInt((int) idBytes);
+            out.align();
+            for (int u = 0; u < n; u++) {
+                out.putBytes(utf8(graph.nodeId(u)));
+            }
+            out.align();
+            for (int c = 1; c < columns; c++) {
+                for (int e = 0; e < m; e++) {
+                    out.putInt(graph.edgeWeight(e, c));
+                }
+                out.align();
+            }
+            int nameBytes = 0;
+            for (int c = 0; c < columns; c++) {
+                out.putInt(nameBytes);
+                nameBytes += utf8(graph.weightColumnName(c)).length;
+            }
+            out.putInt(nameBytes);
+            out.align();
+            for (int c = 0; c < columns; c++) {
+                out.putBytes(utf8(graph.weightColumnName(c)));
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION)
+                    .putInt((graph.isDirected() ? FLAG_DIRECTED : 0) | (graph.isWeighted() ? FLAG_WEIGHTED : 0))
+                    .putInt(n).putInt(m).putInt(arcs).putLong(idBytes).putInt(columns).putInt(nameBytes).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Maps a store written by {@link #write(CsrGraph, File)}. The mappings stay valid after this
+     * returns and are released when the returned graph becomes unreachable.
+     */
+    public static CsrGraph open(File file) throws IOException {
+        if (file == null || !file.exists() || !file.canRead()) {
+            throw new IOException("File does not exist or cannot be read: " + file);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a graph store: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a graph store: " + file);
+            }
+            if (header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported graph store version " + header.getInt(4));
+            }
+            int flags = header.getInt(8);
+            int n = header.getInt(12);
+            int m = header.getInt(16);
+            int arcs = header.getInt(20);
+            long idBytes = header.getLong(24);
+            int columns = header.getInt(32);
+            int nameBytes = header.getInt(36);
+            if (columns < 1) {
+                throw new IOException("Corrupt graph store: " + columns + " weight columns");
+            }
+
+            SectionReader in = new SectionReader(channel, HEADER_BYTES);
+            IntBuffer offsets = in.ints(n + 1L);
+            IntBuffer targets = in.ints(arcs);
+            IntBuffer weights = in.ints(arcs);
+            IntBuffer arcEdges = in.ints(arcs);
+            IntBuffer edgeSources = in.ints(m);
+            IntBuffer edgeTargets = in.ints(m);
+            IntBuffer edgeWeights = in.ints(m);
+            DoubleBuffer x = in.doubles(n);
+            DoubleBuffer y = in.doubles(n);
+            IntBuffer idOffsets = in.ints(n + 1L);
+            ByteBuffer ids = in.bytes(idBytes);
+            IntBuffer[] edgeColumns = new IntBuffer[columns];
+            edgeColumns[0] = edgeWeights;
+            for (int c = 1; c < columns; c++) {
+                edgeColumns[c] = in.ints(m);
+            }
+            IntBuffer nameOffsets = in.ints(columns + 1L);
+            ByteBuffer names = in.bytes(nameBytes);
+            String[] columnNames = new String[columns];
+            for (int c = 0; c < columns; c++) {
+                byte[] bytes = new byte[nameOffsets.get(c + 1) - nameOffsets.get(c)];
+                names.get(nameOffsets.get(c), bytes);
+                columnNames[c] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new MappedCsrGraph((flags & FLAG_DIRECTED) != 0, (flags & FLAG_WEIGHTED) != 0, n, m,
+                    offsets, targets, weights, arcEdges, edgeSources, edgeTargets, edgeColumns, columnNames, 0,
+                    x, y, idOffsets, ids);
+        }
+    }
+
+    /**
+     * Starts streaming a graph into a store at {@code file}.
+     *
+     * @param columns names of the weight columns after the primary
+     *                {@link GraphModel#DEFAULT_WEIGHT_COLUMN}
+     */
+    public static Builder builder(File file, boolean directed, boolean weighted, String... columns) throws IOException {
+        if (file == null || columns == null) {
+            throw new IllegalArgumentException("File and column names cannot be null");
+        }
+        String[] names = new String[columns.length + 1];
+        names[0] = GraphModel.DEFAULT_WEIGHT_COLUMN;
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] == null) {
+                throw new IllegalArgumentException("Column names cannot be null");
+            }
+            names[c + 1] = columns[c];
+        }
+        return new Builder(file, directed, weighted, names);
+    }
+
+    private static byte[] utf8(String id) {
+        return id == null ? new byte[0] : id.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Streams a graph into a store without holding it on the heap.
+     * <p>
+     * Like {@link com.graphvizfx.model.GraphBuilder}, it hands out node indices as nodes are added
+     * and keeps only the first edge between a pair of endpoints; for undirected graphs {@code u-v}
+     * and {@code v-u} count as the same pair. Nodes and edges are appended to temporary files
+     * beside the store. {@link #commit()} drops the repeated pairs and sorts the arcs into CSR
+     * order in memory-mapped scratch files, then writes the store, with the arcs in the order
+     * {@link CsrGraph#of} gives them. {@link #close()} deletes the temporary files.
+     */
+    public static final class Builder implements AutoCloseable {
+        private final File file;
+        private final boolean directed;
+        private final boolean weighted;
+        private final String[] columnNames;
+        private final Path scratch;
+        private final List<Spill> spills = new ArrayList<>();
+
+        private final Spill xs;
+        private final Spill ys;
+        private final Spill idOffsets;
+        private final Spill ids;
+        private final Spill sources;
+        private final Spill targets;
+        private final Spill[] columns;
+        private int nodes;
+        private int edges;
+        private long idBytes;
+
+        // Coordinates mapped for nodeX/nodeY, remapped once nodes are added past them
+        private DoubleBuffer mappedX;
+        private DoubleBuffer mappedY;
+        private boolean committed;
+
+        private Builder(File file, boolean directed, boolean weighted, String[] columnNames) throws IOException {
+            this.file = file;
+            this.directed = directed;
+            this.weighted = weighted;
+            this.columnNames = columnNames;
+            Path parent = file.getAbsoluteFile().toPath().getParent();
+            this.scratch = parent != null ? parent : Path.of(".");
+            try {
+                xs = spill();
+                ys = spill();
+                idOffsets = spill();
+                ids = spill();
+                sources = spill();
+                targets = spill();
+                columns = new Spill[columnNames.length];
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c] = spill();
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Stages a node.
+         *
+         * @return the index the node will have in the store
+         */
+        public int addNode(String id, double x, double y) throws IOException {
+            checkOpen();
+            if (nodes == Integer.MAX_VALUE - 1) {
+                throw new IOException("A store holds at most " + (Integer.MAX_VALUE - 1) + " nodes");
+            }
+            byte[] bytes = utf8(id);
+            if (idBytes + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("Node ids exceed 2 GB");
+            }
+            idOffsets.out().putInt((int) idBytes);
+            ids.out().putBytes(bytes);
+            idBytes += bytes.length;
+            xs.out().putDouble(x);
+            ys.out().putDouble(y);
+            return nodes++;
+        }
+
+        public double nodeX(int node) throws IOException {
+            checkNode(node);
+            mapCoordinates(node);
+            return mappedX.get(node);
+        }
+
+        public double nodeY(int node) throws IOException {
+            checkNode(node);
+            mapCoordinates(node);
+            return mappedY.get(node);
+        }
+
+        private void mapCoordinates(int node) throws IOException {
+            if (mappedX == null || node >= mappedX.capacity()) {
+                mappedX = xs.map().asDoubleBuffer();
+                mappedY = ys.map().asDoubleBuffer();
+            }
+        }
+
+        /**
+         * Stages an edge. Whether it repeats a pair is only known at {@link #commit()}, which keeps
+         * the first edge of each pair.
+         *
+         * @param columnWeights one weight for each column named in
+         *                      {@link MappedGraphStore#builder(File, boolean, boolean, String...)}
+         */
+        public void addEdge(int source, int target, int weight, int... columnWeights) throws IOException {
+            checkOpen();
+            checkNode(source);
+            checkNode(target);
+            if (columnWeights.length != columns.length - 1) {
+                throw new IllegalArgumentException("Expected " + (columns.length - 1) + " column weights, got "
+                        + columnWeights.length);
+            }
+            if (edges == Integer.MAX_VALUE) {
+                throw new IOException("A store holds at most " + Integer.MAX_VALUE + " edges");
+            }
+            sources.out().putInt(source);
+            targets.out().putInt(target);
+            columns[0].out().putInt(weight);
+            for (int c = 1; c < columns.length; c++) {
+                columns[c].out().putInt(columnWeights[c - 1]);
+            }
+            edges++;
+        }
+
+        public int nodeCount() {
+            return nodes;
+        }
+
+        /**
+         * @return number of edges staged so far, repeated pairs included
+         */
+        public int stagedEdges() {
+            return edges;
+        }
+
+        /**
+         * Writes the store, replacing the file. The builder cannot be used afterwards.
+         */
+        public void commit() throws IOException {
+            checkOpen();
+            committed = true;
+            int n = nodes;
+            int staged = edges;
+            idOffsets.out().putInt((int) idBytes);
+            IntBuffer source = sources.map().asIntBuffer();
+            IntBuffer target = targets.map().asIntBuffer();
+
+            // Bucket the edges by their lower endpoint, in order, so the first edge of every pair
+            // is met first and a stamp per other endpoint finds the repeats
+            IntBuffer bucket = ints(n + 1L);
+            for (int e = 0; e < staged; e++) {
+                int key = key(source.get(e), target.get(e));
+                bucket.put(key + 1, bucket.get(key + 1) + 1);
+            }
+            for (int u = 0; u < n; u++) {
+                bucket.put(u + 1, bucket.get(u + 1) + bucket.get(u));
+            }
+            IntBuffer cursor = ints(n);
+            for (int u = 0; u < n; u++) {
+                cursor.put(u, bucket.get(u));
+            }
+            IntBuffer order = ints(staged);
+            for (int e = 0; e < staged; e++) {
+                int key = key(source.get(e), target.get(e));
+                order.put(cursor.get(key), e);
+                cursor.put(key, cursor.get(key) + 1);
+            }
+            IntBuffer seen = cursor;
+            for (int u = 0; u < n; u++) {
+                seen.put(u, -1);
+            }
+            IntBuffer edgeIds = ints(staged);
+            for (int u = 0; u < n; u++) {
+                for (int i = bucket.get(u); i < bucket.get(u + 1); i++) {
+                    int e = order.get(i);
+                    int other = source.get(e) + target.get(e) - u;
+                    if (seen.get(other) == u) {
+                        edgeIds.put(e, -1);
+                    } else {
+                        seen.put(other, u);
+                    }
+                }
+            }
+            int m = 0;
+            for (int e = 0; e < staged; e++) {
+                if (edgeIds.get(e) >= 0) {
+                    edgeIds.put(e, m++);
+                }
+            }
+            if (!directed && m > Integer.MAX_VALUE / 2) {
+                throw new IOException("A store holds at most " + Integer.MAX_VALUE + " arcs");
+            }
+
+            // Arcs leave their source in edge order, then for undirected graphs their target
+            IntBuffer offsets = ints(n + 1L);
+            for (int e = 0; e < staged; e++) {
+                if (edgeIds.get(e) >= 0) {
+                    offsets.put(source.get(e) + 1, offsets.get(source.get(e) + 1) + 1);
+                    if (!directed) {
+                        offsets.put(target.get(e) + 1, offsets.get(target.get(e) + 1) + 1);
+                    }
+                }
+            }
+            for (int u = 0; u < n; u++) {
+                offsets.put(u + 1, offsets.get(u + 1) + offsets.get(u));
+                cursor.put(u, offsets.get(u));
+            }
+            int arcs = offsets.get(n);
+            IntBuffer weight = columns[0].map().asIntBuffer();
+            IntBuffer arcTargets = ints(arcs);
+            IntBuffer arcWeights = ints(arcs);
+            IntBuffer arcEdges = ints(arcs);
+            for (int pass = 0; pass < (directed ? 1 : 2); pass++) {
+                IntBuffer from = pass == 0 ? source : target;
+                IntBuffer to = pass == 0 ? target : source;
+                for (int e = 0; e < staged; e++) {
+                    int id = edgeIds.get(e);
+                    if (id >= 0) {
+                        int u = from.get(e);
+                        int a = cursor.get(u);
+                        cursor.put(u, a + 1);
+                        arcTargets.put(a, to.get(e));
+                        arcWeights.put(a, weight.get(e));
+                        arcEdges.put(a, id);
+                    }
+                }
+            }
+
+            IntBuffer[] edgeColumns = new IntBuffer[columns.length];
+            edgeColumns[0] = compact(weight, edgeIds, m);
+            for (int c = 1; c < columns.length; c++) {
+                edgeColumns[c] = compact(columns[c].map().asIntBuffer(), edgeIds, m);
+            }
+            write(new MappedCsrGraph(directed, weighted, n, m, offsets, arcTargets, arcWeights, arcEdges,
+                    compact(source, edgeIds, m), compact(target, edgeIds, m), edgeColumns, columnNames, 0,
+                    xs.map().asDoubleBuffer(), ys.map().asDoubleBuffer(), idOffsets.map().asIntBuffer(), ids.map()), file);
+        }
+
+        private int key(int source, int target) {
+            return directed ? source : Math.min(source, target);
+        }
+
+        /**
+         * @return {@code values} without the dropped edges, or itself when none were dropped
+         */
+        private IntBuffer compact(IntBuffer values, IntBuffer edgeIds, int m) throws IOException {
+            if (m == values.capacity()) {
+                return values;
+            }
+            IntBuffer kept = ints(m);
+            for (int e = 0; e < values.capacity(); e++) {
+                int id = edgeIds.get(e);
+                if (id >= 0) {
+                    kept.put(id, values.get(e));
+                }
+            }
+            return kept;
+        }
+
+        /**
+         * @return a zeroed scratch array of {@code count} ints
+         */
+        private IntBuffer ints(long count) throws IOException {
+            return spill().allocate(count * Integer.BYTES).asIntBuffer();
+        }
+
+        private Spill spill() throws IOException {
+            Spill spill = new Spill(scratch);
+            spills.add(spill);
+            return spill;
+        }
+
+        private void checkOpen() {
+            if (committed) {
+                throw new IllegalStateException("Store builder already committed");
+            }
+        }
+
+        private void checkNode(int node) {
+            if (node < 0 || node >= nodes) {
+                throw new IllegalArgumentException("Node index " + node + " out of range [0, " + nodes + ")");
+            }
+        }
+
+        /**
+         * Deletes the temporary files; a store that was not committed is never written.
+         */
+        @Override
+        public void close() throws IOException {
+            committed = true;
+            mappedX = null;
+            mappedY = null;
+            IOException failure = null;
+            for (Spill spill : spills) {
+                try {
+                    spill.close();
+                } catch (IOException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            spills.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Temporary file beside a store, either appended to through {@link #out()} and then mapped
+     * read-only, or mapped for writing at a fixed size.
+     */
+    private static final class Spill implements AutoCloseable {
+        private final Path path;
+        private final FileChannel channel;
+        private SectionWriter out;
+
+        Spill(Path dir) throws IOException {
+            path = Files.createTempFile(dir, ".gvxf-", ".tmp");
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        SectionWriter out() {
+            if (out == null) {
+                out = new SectionWriter(channel);
+            }
+            return out;
+        }
+
+        /**
+         * @return everything appended so far
+         */
+        ByteBuffer map() throws IOException {
+            long size = 0;
+            if (out != null) {
+                out.flush();
+                size = out.position;
+            }
+            return map(FileChannel.MapMode.READ_ONLY, size);
+        }
+
+        ByteBuffer allocate(long bytes) throws IOException {
+            return map(FileChannel.MapMode.READ_WRITE, bytes);
+        }
+
+        private ByteBuffer map(FileChannel.MapMode mode, long bytes) throws IOException {
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IOException("Section of " + bytes + " bytes exceeds a single mapping");
+            }
+            return channel.map(mode, 0, bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            // A platform that keeps mapped files open deletes it once the mapping is released
+            if (!path.toFile().delete()) {
+                path.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Buffered sequential writer that keeps every section 8-byte aligned.
+     */
+    private static final class SectionWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void skip(int bytes) throws IOException {
+            for (int i = 0; i < bytes; i++) {
+                ensure(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+            position += Double.BYTES;
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                position += chunk;
+            }
+        }
+
+        void align() throws IOException {
+            skip((int) ((8 - (position & 7)) & 7));
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * Maps consecutive sections in the order {@link SectionWriter} produced them.
+     */
+    private static final class SectionReader {
+        private final FileChannel channel;
+        private long position;
+
+        SectionReader(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        IntBuffer ints(long count) throws IOException {
+            return map(count * Integer.BYTES).asIntBuffer();
+        }
+
+        DoubleBuffer doubles(long count) throws IOException {
+            return map(count * Double.BYTES).asDoubleBuffer();
+        }
+
+        ByteBuffer bytes(long count) throws IOException {
+            return map(count);
+        }
+
+        private ByteBuffer map(long bytes) throws IOException {
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IOException("Section of " + bytes + " bytes exceeds a single mapping");
+            }
+            if (position + bytes > channel.size()) {
+                throw new IOException("Truncated graph store");
+            }
+            ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+            position += (bytes + 7) & ~7L;
+            return section;
+        }
+    }
+
+    /**
+     * {@link CsrGraph} reading every accessor straight from the mapped sections.
+     */
+    private static final class MappedCsrGraph implements CsrGraph {
+        private final boolean directed;
+        private final boolean weighted;
+        private final int nodeCount;
+        private final int edgeCount;
+        private final IntBuffer offsets;
+        private final IntBuffer targets;
+        private final IntBuffer weights;
+        private final IntBuffer arcEdges;
+        private final IntBuffer edgeSources;
+        private final IntBuffer edgeTargets;
+        private final IntBuffer[] edgeColumns;
+        private final String[] columnNames;
+        private final int column;
+        private final DoubleBuffer x;
+        private final DoubleBuffer y;
+        private final IntBuffer idOffsets;
+        private final ByteBuffer ids;
+
+        MappedCsrGraph(boolean directed, boolean weighted, int nodeCount, int edgeCount,
+                       IntBuffer offsets, IntBuffer targets, IntBuffer weights, IntBuffer arcEdges,
+                       IntBuffer edgeSources, IntBuffer edgeTargets, IntBuffer[] edgeColumns,
+                       String[] columnNames, int column, DoubleBuffer x, DoubleBuffer y, IntBuffer idOffsets, ByteBuffer ids) {
+            this.directed = directed;
+            this.weighted = weighted;
+            this.nodeCount = nodeCount;
+            this.edgeCount = edgeCount;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.arcEdges = arcEdges;
+            this.edgeSources = edgeSources;
+            this.edgeTargets = edgeTargets;
+            this.edgeColumns = edgeColumns;
+            this.columnNames = columnNames;
+            this.column = column;
+            this.x = x;
+            this.y = y;
+            this.idOffsets = idOffsets;
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return directed;
+        }
+
+        @Override
+        public boolean isWeighted() {
+            return weighted;
+        }
+
+        @Override
+        public int nodeCount() {
+            return nodeCount;
+        }
+
+        @Override
+        public int edgeCount() {
+            return edgeCount;
+        }
+
+        /**
+         * The store has no live graph to check against, so a node matches by index and id.
+         */
+        @Override
+        public int indexOf(GNode node) {
+            if (node == null) {
+                return -1;
+            }
+            int index = node.getIndex();
+            return index >= 0 && index < nodeCount && Objects.equals(nodeId(index), node.getId()) ? index : -1;
+        }
+
+        @Override
+        public int arcStart(int node) {
+            return offsets.get(node);
+        }
+
+        @Override
+        public int arcEnd(int node) {
+            return offsets.get(node + 1);
+        }
+
+        @Override
+        public int arcTarget(int arc) {
+            return targets.get(arc);
+        }
+
+        @Override
+        public int arcWeight(int arc) {
+            return column == 0 ? weights.get(arc) : edgeColumns[column].get(arcEdges.get(arc));
+        }
+
+        @Override
+        public int arcEdge(int arc) {
+            return arcEdges.get(arc);
+        }
+
+        @Override
+        public int edgeSource(int edge) {
+            return edgeSources.get(edge);
+        }
+
+        @Override
+        public int edgeTarget(int edge) {
+            return edgeTargets.get(edge);
+        }
+
+        @Override
+        public int edgeWeight(int edge) {
+            return edgeColumns[column].get(edge);
+        }
+
+        @Override
+        public int weightColumn() {
+            return column;
+        }
+
+        @Override
+        public CsrGraph withWeights(int column) {
+            if (column < 0 || column >= edgeColumns.length) {
+                throw new IndexOutOfBoundsException("Weight column " + column + " out of range [0, " + edgeColumns.length + ")");
+            }
+            return column == this.column ? this : new MappedCsrGraph(directed, weighted, nodeCount, edgeCount,
+                    offsets, targets, weights, arcEdges, edgeSources, edgeTargets, edgeColumns, columnNames, column,
+                    x, y, idOffsets, ids);
+        }
+
+        /**
+         * A view on another weight column reads the same mappings, so traces move between them.
+         */
+        @Override
+        public boolean sharesIndicesWith(IndexedGraph graph) {
+            return graph instanceof MappedCsrGraph other && other.offsets == offsets;
+        }
+
+        @Override
+        public int weightColumnCount() {
+            return edgeColumns.length;
+        }
+
+        @Override
+        public String weightColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public int edgeWeight(int edge, int column) {
+            return edgeColumns[column].get(edge);
+        }
+
+        @Override
+        public String nodeId(int node) {
+            int start = idOffsets.get(node);
+            byte[] bytes = new byte[idOffsets.get(node + 1) - start];
+            ids.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public double nodeX(int node) {
+            return x.get(node);
+        }
+
+        @Override
+        public double nodeY(int node) {
+            return y.get(node);
+        }
+    }
+}
@@ -1,105 +1,297 @@
 package com.graphvizfx.io;
 
-import com.graphvizfx.model.GEdge;
-import com.graphvizfx.model.GNode;
+import com.graphvizfx.model.GraphBuilder;
 import com.graphvizfx.model.GraphModel;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class OSMImporter {
+
+    /** Name of the weight column holding travel time, derived from each way's {@code maxspeed}. */
+    public static final String TRAVEL_TIME_COLUMN = "travel_time";
+
+    /** Speed assumed for ways without a usable {@code maxspeed} tag, in km/h. */
+    private static final int DEFAULT_SPEED = 50;
+
+    private static final Pattern NODE_PATTERN = Pattern.compile("<node\\s+id=\"([^\"]+)\"\\s+lat=\"([^\"]+)\"\\s+lon=\"([^\"]+)\"");
+    private static final Pattern WAY_PATTERN = Pattern.compile("<way\\s+id=\"([^\"]+)\">");
+    private static final Pattern ND_PATTERN = Pattern.compile("<nd\\s+ref=\"([^\"]+)\"");
+    private static final Pattern SPEED_PATTERN = Pattern.compile("<tag\\s+k=\"maxspeed\"\\s+v=\"(\\d{1,4})");
     
     public static void importGraph(GraphModel graph, File file) throws IOException {
-        if (file == null || !file.exists() || !file.canRead()) {
-            throw new IOException("File does not exist or cannot be read: " + file);
-        }
+        checkReadable(file);
+        graph.clear();
         
-        String content;
         try {
-            content = new String(Files.readAllBytes(file.toPath()));
-        } catch (IOException e) {
-            throw new IOException("Failed to read file: " + e.getMessage(), e);
+            // Set the mode first so the builder treats a-b and b-a as the same road segment
+            graph.setDirected(false);
+            graph.setWeighted(true);
+            GraphSink sink = new GraphSink(graph.builder(0, 0));
+            parse(file, sink);
+            
+            sink.builder.commit();
+            int column = graph.addWeightColumn(TRAVEL_TIME_COLUMN);
+            graph.setEdgeWeights(column, Arrays.copyOf(sink.travelTimes, sink.builder.stagedEdges()));
+        } catch (Exception e) {
+            graph.clear(); // Rollback on error
+            if (e instanceof IOException) {
+                throw e;
+            }
+            throw new IOException("Failed to parse OSM file: " + e.getMessage(), e);
         }
-        
-        if (content == null || content.trim().isEmpty()) {
-            throw new IOException("File is empty or invalid");
+    }
+
+    /**
+     * Converts {@code file} into a {@link MappedGraphStore} at {@code store} with the same nodes,
+     * edges and {@link #TRAVEL_TIME_COLUMN} that {@link #importGraph} gives, streaming both files
+     * so that neither the markup nor the graph is held on the heap. Only the map from OSM node id
+     * to index stays in memory.
+     */
+    public static void importStore(File file, File store) throws IOException {
+        checkReadable(file);
+        if (store == null) {
+            throw new IOException("No store file given");
         }
         
-        graph.clear();
-        Map<String, GNode> nodeMap = new HashMap<>();
+        try (MappedGraphStore.Builder builder = MappedGraphStore.builder(store, false, true, TRAVEL_TIME_COLUMN)) {
+            parse(file, new Sink() {
+                @Override
+                public int addNode(String id, double x, double y) throws IOException {
+                    return builder.addNode(id, x, y);
+                }
+
+                @Override
+                public double nodeX(int node) throws IOException {
+                    return builder.nodeX(node);
+                }
+
+                @Override
+                public double nodeY(int node) throws IOException {
+                    return builder.nodeY(node);
+                }
+
+                @Override
+                public void addEdge(int source, int target, int length, int travelTime) throws IOException {
+                    builder.addEdge(source, target, length, travelTime);
+                }
+            });
+            builder.commit();
+        } catch (Exception e) {
+            if (e instanceof IOException) {
+                throw e;
+            }
+            throw new IOException("Failed to parse OSM file: " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkReadable(File file) throws IOException {
+        if (file == null || !file.exists() || !file.canRead()) {
+            throw new IOException("File does not exist or cannot be read: " + file);
+        }
+        try (Reader in = open(file)) {
+            int c;
+            do {
+                c = in.read();
+            } while (c >= 0 && Character.isWhitespace(c));
+            if (c < 0) {
+                throw new IOException("File is empty or invalid");
+            }
+        }
+    }
+
+    private static Reader open(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Receives the parsed nodes and road segments, in file order.
+     */
+    private interface Sink {
+        int addNode(String id, double x, double y) throws IOException;
+
+        double nodeX(int node) throws IOException;
+
+        double nodeY(int node) throws IOException;
+
+        /**
+         * Adds a segment; a repeat of a pair already added is dropped.
+         */
+        void addEdge(int source, int target, int length, int travelTime) throws IOException;
+    }
+
+    /**
+     * Stages into a {@link GraphBuilder}, keeping the travel time of each edge it accepts.
+     */
+    private static final class GraphSink implements Sink {
+        private final GraphBuilder builder;
+        private int[] travelTimes = new int[64];
+
+        GraphSink(GraphBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public int addNode(String id, double x, double y) {
+            return builder.addNode(id, x, y);
+        }
+
+        @Override
+        public double nodeX(int node) {
+            return builder.nodeX(node);
+        }
+
+        @Override
+        public double nodeY(int node) {
+            return builder.nodeY(node);
+        }
+
+        @Override
+        public void addEdge(int source, int target, int length, int travelTime) {
+            if (builder.addEdge(source, target, length)) {
+                int edges = builder.stagedEdges();
+                if (edges > travelTimes.length) {
+                    travelTimes = Arrays.copyOf(travelTimes, edges * 2);
+                }
+                travelTimes[edges - 1] = travelTime;
+            }
+        }
+    }
+
+    /**
+     * Reads {@code file} one tag at a time. Nodes must come before the ways that use them, as
+     * they do in files written by OSM tools.
+     */
+    private static void parse(File file, Sink sink) throws IOException {
+        Map<String, Integer> nodeMap = new HashMap<>();
         
-        try {
-            Pattern nodePattern = Pattern.compile("<node\\s+id=\"([^\"]+)\"\\s+lat=\"([^\"]+)\"\\s+lon=\"([^\"]+)\"");
-            Matcher nodeMatcher = nodePattern.matcher(content);
-            
-            int nodeCount = 0;
-            while (nodeMatcher.find()) {
-                try {
-                    String id = nodeMatcher.group(1);
-                    double lat = Double.parseDouble(nodeMatcher.group(2));
-                    double lon = Double.parseDouble(nodeMatcher.group(3));
-                    
-                    // Validate coordinates
-                    if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
-                        continue; // Skip invalid coordinates
+        try (Reader in = open(file)) {
+            TagReader tags = new TagReader(in);
+            StringBuilder body = new StringBuilder();
+            String tag;
+            while ((tag = tags.next()) != null) {
+                Matcher nodeMatcher = NODE_PATTERN.matcher(tag);
+                if (nodeMatcher.lookingAt()) {
+                    try {
+                        String id = nodeMatcher.group(1);
+                        double lat = Double.parseDouble(nodeMatcher.group(2));
+                        double lon = Double.parseDouble(nodeMatcher.group(3));
+                        
+                        // Validate coordinates
+                        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+                            continue; // Skip invalid coordinates
+                        }
+                        
+                        double x = (lon + 180) * 10;
+                        double y = (90 - lat) * 10;
+                        
+                        nodeMap.put(id, sink.addNode("N" + id, x, y));
+                    } catch (NumberFormatException e) {
+                        // Skip malformed node entries
                     }
-                    
-                    double x = (lon + 180) * 10;
-                    double y = (90 - lat) * 10;
-                    
-                    GNode node = new GNode("N" + id, x, y);
-                    nodeMap.put(id, node);
-                    graph.getNodes().add(node);
-                    nodeCount++;
-                } catch (NumberFormatException e) {
-                    // Skip malformed node entries
                     continue;
                 }
-            }
-            
-            if (nodeMap.isEmpty()) {
-                throw new IOException("No valid nodes found in OSM file");
-            }
-            
-            Pattern wayPattern = Pattern.compile("<way\\s+id=\"([^\"]+)\">(.*?)</way>", Pattern.DOTALL);
-            Matcher wayMatcher = wayPattern.matcher(content);
-            
-            int edgeCount = 0;
-            while (wayMatcher.find()) {
-                Pattern ndPattern = Pattern.compile("<nd\\s+ref=\"([^\"]+)\"");
-                Matcher ndMatcher = ndPattern.matcher(wayMatcher.group(2));
                 
-                GNode prev = null;
+                if (!WAY_PATTERN.matcher(tag).lookingAt()) {
+                    continue;
+                }
+                if (nodeMap.isEmpty()) {
+                    throw new IOException("No valid nodes found in OSM file");
+                }
+                body.setLength(0);
+                while ((tag = tags.next()) != null && !tag.startsWith("</way>")) {
+                    body.append(tag);
+                }
+                if (tag == null) {
+                    break; // Unterminated way
+                }
+                
+                Matcher speedMatcher = SPEED_PATTERN.matcher(body);
+                int speed = speedMatcher.find() ? Integer.parseInt(speedMatcher.group(1)) : DEFAULT_SPEED;
+                if (speed <= 0) {
+                    speed = DEFAULT_SPEED;
+                }
+                Matcher ndMatcher = ND_PATTERN.matcher(body);
+                
+                int prev = -1;
                 while (ndMatcher.find()) {
                     String refId = ndMatcher.group(1);
-                    GNode current = nodeMap.get(refId);
+                    int current = nodeMap.getOrDefault(refId, -1);
                     
                     // Only create edge if both nodes exist
-                    if (current != null && prev != null) {
-                        if (!graph.hasEdge(prev, current)) {
-                            int weight = (int) Math.hypot(prev.getX() - current.getX(), prev.getY() - current.getY());
-                            graph.getEdges().add(new GEdge(prev, current, weight));
-                            edgeCount++;
-                        }
+                    if (current >= 0 && prev >= 0) {
+                        int weight = (int) Math.hypot(sink.nodeX(prev) - sink.nodeX(current),
+                                sink.nodeY(prev) - sink.nodeY(current));
+                        // Length scaled by how much slower or faster than the default speed the way is
+                        sink.addEdge(prev, current, weight, (int) ((long) weight * DEFAULT_SPEED / speed));
                     }
                     prev = current;
                 }
             }
             
-            graph.setDirected(false);
-            graph.setWeighted(true);
-        } catch (Exception e) {
-            graph.clear(); // Rollback on error
-            if (e instanceof IOException) {
-                throw e;
+            if (nodeMap.isEmpty()) {
+                throw new IOException("No valid nodes found in OSM file");
             }
-            throw new IOException("Failed to parse OSM file: " + e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * Splits markup into tags, from {@code <} to the next {@code >}, skipping the text between
+     * them. Only the current tag is buffered.
+     */
+    private static final class TagReader {
+        private final Reader in;
+        private final char[] buffer = new char[1 << 16];
+        private final StringBuilder tag = new StringBuilder();
+        private int position;
+        private int limit;
+
+        TagReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * @return the next tag, cut short at the end of the input, or null when there is none
+         */
+        String next() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c >= 0 && c != '<');
+            if (c < 0) {
+                return null;
+            }
+            tag.setLength(0);
+            tag.append('<');
+            while ((c = read()) >= 0) {
+                tag.append((char) c);
+                if (c == '>') {
+                    break;
+                }
+            }
+            return tag.toString();
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.graphvizfx.io;
+
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.IndexedGraph;
+import javafx.scene.paint.Color;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Binary file holding a recorded {@link AlgorithmTrace}, so a run can be replayed without
+ * executing the algorithm again.
+ * <p>
+ * After a 32-byte header come the node and edge ids the trace is keyed by, then one record per
+ * step: its change count, each change as a tag byte, a varint key and its new value, and the
+ * UTF-8 length of the step's log line. The log follows as one UTF-8 section, which the line
+ * lengths cut back into steps. Colors are numbered in order of first use and defined inline the
+ * first time they appear; integral distances are stored as zigzag varints. Multi-byte fixed
+ * values are little-endian.
+ * <p>
+ * {@link #write(AlgorithmTrace, File)} streams the trace out step by step through a small
+ * buffer. {@link #open(File, IndexedGraph)} maps the file read-only and records its steps into a
+ * new trace, which is as fast to play as the original.
+ */
+public final class TraceFile {
+    private static final int MAGIC = 0x47565854; // "GVXT"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private static final byte NODE_COLOR = 0;
+    private static final byte EDGE_COLOR = 1;
+    private static final byte DISTANCE = 2;
+    private static final byte DISTANCE_INTEGER = 3;
+    private static final byte DISTANCE_MAX = 4;
+    private static final byte DISTANCE_NONE = 5;
+    /** Largest magnitude below which every integral double is exact as a long. */
+    private static final double EXACT_LONG = 1L << 53;
+
+    private TraceFile() {
+    }
+
+    /**
+     * Writes the steps {@code trace} has recorded so far, replacing {@code file}.
+     */
+    public static void write(AlgorithmTrace trace, File file) throws IOException {
+        if (trace == null || file == null) {
+            throw new IllegalArgumentException("Trace and file cannot be null");
+        }
+        int steps = trace.size();
+        int nodes = trace.nodeKeyCount();
+        int edges = trace.edgeKeyCount();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             VarintWriter out = new VarintWriter(channel)) {
+            out.skip(HEADER_BYTES);
+            for (int node = 0; node < nodes; node++) {
+                out.putString(trace.nodeId(node));
+            }
+            for (int edge = 0; edge < edges; edge++) {
+                out.putString(trace.edgeId(edge));
+            }
+
+            long stepsStart = out.position();
+            StepEncoder encoder = new StepEncoder();
+            for (int step = 0; step < steps; step++) {
+                encoder.count = 0;
+                encoder.buffer.clear();
+                trace.replayStep(step, encoder);
+                out.putVarint(encoder.count);
+                out.putBytes(encoder.buffer.array(), encoder.buffer.position());
+                out.putVarint(utf8(trace.lineAt(step)).length);
+            }
+            long logStart = out.position();
+            for (int step = 0; step < steps; step++) {
+                byte[] line = utf8(trace.lineAt(step));
+                out.putBytes(line, line.length);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(nodes).putInt(edges).putInt(steps)
+                    .putInt((int) (logStart - stepsStart)).putLong(out.position() - logStart).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #write(AlgorithmTrace, File)} and replays it into a finished
+     * trace. With a {@code graph}, the trace is {@link AlgorithmTrace#bind(IndexedGraph) bound}
+     * to it and nodes and edges are matched by id, so the file may come from an earlier version
+     * of the graph with other indices; without one the trace is keyed by the ids in the file.
+     *
+     * @throws IOException if the file is not a trace, or changes a node or edge {@code graph} lacks
+     */
+    public static AlgorithmTrace open(File file, IndexedGraph graph) throws IOException {
+        if (file == null || !file.exists() || !file.canRead()) {
+            throw new IOException("File does not exist or cannot be read: " + file);
+        }
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a trace file: " + file);
+            }
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Trace file of " + channel.size() + " bytes exceeds a single mapping");
+            }
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (in.getInt(0) != MAGIC) {
+            throw new IOException("Not a trace file: " + file);
+        }
+        if (in.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported trace file version " + in.getInt(4));
+        }
+        int nodes = in.getInt(8);
+        int edges = in.getInt(12);
+        int steps = in.getInt(16);
+        int stepBytes = in.getInt(20);
+        long logBytes = in.getLong(24);
+
+        try {
+            in.position(HEADER_BYTES);
+            String[] nodeIds = new String[nodes];
+            for (int node = 0; node < nodes; node++) {
+                nodeIds[node] = getString(in);
+            }
+            String[] edgeIds = new String[edges];
+            for (int edge = 0; edge < edges; edge++) {
+                edgeIds[edge] = getString(in);
+            }
+            if ((long) in.position() + stepBytes + logBytes != in.limit()) {
+                throw new IOException("Truncated trace file: " + file);
+            }
+
+            AlgorithmTrace trace = new AlgorithmTrace();
+            int[] nodeKeys = null;
+            int[] edgeKeys = null;
+            if (graph != null) {
+                trace.bind(graph);
+                nodeKeys = match(nodeIds, graph.nodeCount(), graph::nodeId);
+                edgeKeys = match(edgeIds, graph.edgeCount(), graph::edgeId);
+            }
+            ByteBuffer log = in.duplicate().position(in.position() + stepBytes);
+            List<Color> palette = new ArrayList<>();
+            palette.add(null);
+            for (int step = 0; step < steps; step++) {
+                for (int change = getVarint(in); change > 0; change--) {
+                    byte tag = in.get();
+                    int key = getVarint(in);
+                    switch (tag) {
+                        case NODE_COLOR -> {
+                            Color color = getColor(in, palette);
+                            if (nodeKeys != null) {
+                                trace.setNodeColor(graphKey(nodeKeys, nodeIds, key, "Node"), color);
+                            } else {
+                                trace.setNodeColor(nodeIds[key], color);
+                            }
+                        }
+                        case EDGE_COLOR -> {
+                            Color color = getColor(in, palette);
+                            if (edgeKeys != null) {
+                                trace.setEdgeColor(graphKey(edgeKeys, edgeIds, key, "Edge"), color);
+                            } else {
+                                trace.setEdgeColor(edgeIds[key], color);
+                            }
+                        }
+                        default -> {
+                            double distance = switch (tag) {
+                                case DISTANCE -> in.getDouble();
+                                case DISTANCE_INTEGER -> unzigzag(getVarlong(in));
+                                case DISTANCE_MAX -> Double.MAX_VALUE;
+                                case DISTANCE_NONE -> Double.NaN;
+                                default -> throw new IOException("Corrupt trace file: change tag " + tag);
+                            };
+                            if (nodeKeys != null) {
+                                trace.setDistance(graphKey(nodeKeys, nodeIds, key, "Node"), distance);
+                            } else {
+                                trace.setDistance(nodeIds[key], distance);
+                            }
+                        }
+                    }
+                }
+                byte[] line = new byte[getVarint(in)];
+                log.get(line);
+                String text = new String(line, StandardCharsets.UTF_8);
+                if (step == 0) {
+                    trace.setInitialLog(text);
+                } else {
+                    trace.log(text);
+                }
+            }
+            trace.finish();
+            return trace;
+        } catch (RuntimeException e) {
+            // Out-of-range keys and reads past the end all mean the file is damaged
+            throw new IOException("Corrupt trace file: " + file, e);
+        }
+    }
+
+    /**
+     * @return the graph index of each id, or -1 for ids the graph lacks, trying the same index
+     *         first since the file usually comes from the same graph
+     */
+    private static int[] match(String[] ids, int count, IntFunction<String> idOf) {
+        int[] keys = new int[ids.length];
+        Map<String, Integer> index = null;
+        for (int i = 0; i < ids.length; i++) {
+            if (i < count && ids[i].equals(idOf.apply(i))) {
+                keys[i] = i;
+                continue;
+            }
+            if (index == null) {
+                index = new HashMap<>();
+                for (int j = 0; j < count; j++) {
+                    index.put(idOf.apply(j), j);
+                }
+            }
+            keys[i] = index.getOrDefault(ids[i], -1);
+        }
+        return keys;
+    }
+
+    /**
+     * @return the graph index of file key {@code key}; ids nothing refers to may be missing
+     */
+    private static int graphKey(int[] keys, String[] ids, int key, String what) throws IOException {
+        int graphKey = keys[key];
+        if (graphKey < 0) {
+            throw new IOException(what + " " + ids[key] + " of the trace is not in the graph");
+        }
+        return graphKey;
+    }
+
+    private static Color getColor(ByteBuffer in, List<Color> palette) throws IOException {
+        int code = getVarint(in);
+        if (code == palette.size()) {
+            palette.add(new Color(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble()));
+        } else if (code > palette.size()) {
+            throw new IOException("Corrupt trace file: color " + code + " used before it is defined");
+        }
+        return palette.get(code);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[getVarint(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        long value = getVarlong(in);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Varint " + value + " out of int range");
+        }
+        return (int) value;
+    }
+
+    private static long getVarlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint longer than 10 bytes");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes the changes of one step into a growable buffer, since the record starts with their
+     * count; colors get their codes here, in order of first use across the whole file.
+     */
+    private static final class StepEncoder implements AlgorithmTrace.ChangeSink {
+        private final Map<Color, Integer> codes = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12).order(ByteOrder.LITTLE_ENDIAN);
+        int count;
+
+        @Override
+        public void nodeColor(int node, Color color) {
+            change(NODE_COLOR, node);
+            color(color);
+        }
+
+        @Override
+        public void edgeColor(int edge, Color color) {
+            change(EDGE_COLOR, edge);
+            color(color);
+        }
+
+        @Override
+        public void distance(int node, double distance) {
+            if (Double.isNaN(distance)) {
+                change(DISTANCE_NONE, node);
+            } else if (distance == Double.MAX_VALUE) {
+                change(DISTANCE_MAX, node);
+            } else if (distance == Math.rint(distance) && Math.abs(distance) < EXACT_LONG
+                    && (distance != 0 || 1 / distance > 0)) {
+                change(DISTANCE_INTEGER, node);
+                varint(zigzag((long) distance));
+            } else {
+                change(DISTANCE, node);
+                ensure(Double.BYTES);
+                buffer.putDouble(distance);
+            }
+        }
+
+        private void change(byte tag, int key) {
+            count++;
+            ensure(1);
+            buffer.put(tag);
+            varint(key);
+        }
+
+        private void color(Color color) {
+            if (color == null) {
+                varint(0);
+                return;
+            }
+            Integer code = codes.get(color);
+            if (code != null) {
+                varint(code);
+                return;
+            }
+            codes.put(color, codes.size() + 1);
+            varint(codes.size());
+            ensure(4 * Double.BYTES);
+            buffer.putDouble(color.getRed()).putDouble(color.getGreen()).putDouble(color.getBlue())
+                    .putDouble(color.getOpacity());
+        }
+
+        private void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                buffer = grown.put(buffer.flip());
+            }
+        }
+    }
+
+    /**
+     * Buffered sequential writer of varints and raw bytes.
+     */
+    private static final class VarintWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        private long position;
+
+        VarintWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return position;
+        }
+
+        void skip(int bytes) throws IOException {
+            putBytes(new byte[bytes], bytes);
+        }
+
+        void putVarint(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+                position++;
+            }
+            buffer.put((byte) value);
+            position++;
+        }
+
+        void putString(String text) throws IOException {
+            byte[] bytes = utf8(text);
+            putVarint(bytes.length);
+            putBytes(bytes, bytes.length);
+        }
+
+        void putBytes(byte[] bytes, int length) throws IOException {
+            for (int offset = 0; offset < length; ) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                position += chunk;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
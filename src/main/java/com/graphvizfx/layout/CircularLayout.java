@@ -1,7 +1,6 @@
 package com.graphvizfx.layout;
 
 import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.GNode;
 
 public class CircularLayout implements LayoutAlgorithm {
     
@@ -12,7 +11,8 @@ public class CircularLayout implements LayoutAlgorithm {
     
     @Override
     public void apply(GraphModel graph, double width, double height) {
-        if (graph.getNodes().isEmpty()) {
+        int n = graph.nodeCount();
+        if (n == 0) {
             return;
         }
         
@@ -20,12 +20,13 @@ public class CircularLayout implements LayoutAlgorithm {
         double cy = height / 2;
         double r = Math.min(width, height) / 2.5;
         
-        for (int i = 0; i < graph.getNodes().size(); i++) {
-            double ang = 2 * Math.PI * i / graph.getNodes().size();
-            GNode n = graph.getNodes().get(i);
-            n.setX(cx + r * Math.cos(ang));
-            n.setY(cy + r * Math.sin(ang));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            double ang = 2 * Math.PI * i / n;
+            x[i] = cx + r * Math.cos(ang);
+            y[i] = cy + r * Math.sin(ang);
         }
+        graph.setNodePositions(x, y);
     }
 }
-
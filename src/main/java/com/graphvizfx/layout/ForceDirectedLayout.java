@@ -1,11 +1,7 @@
 package com.graphvizfx.layout;
 
-import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.GEdge;
 import com.graphvizfx.model.GNode;
-
-import java.util.HashMap;
-import java.util.Map;
+import com.graphvizfx.model.GraphModel;
 
 public class ForceDirectedLayout implements LayoutAlgorithm {
     
@@ -16,7 +12,8 @@ public class ForceDirectedLayout implements LayoutAlgorithm {
     
     @Override
     public void apply(GraphModel graph, double width, double height) {
-        if (graph.getNodes().isEmpty()) {
+        int n = graph.nodeCount();
+        if (n == 0) {
             return;
         }
         
@@ -27,53 +24,70 @@ public class ForceDirectedLayout implements LayoutAlgorithm {
         
         int iterations = 150;
         double area = width * height;
-        double k = Math.sqrt(Math.max(1, area / graph.getNodes().size()));
+        double k = Math.sqrt(Math.max(1, area / n));
         double temp = Math.max(1, width / 10);
+        double margin = GNode.RADIUS + 5;
+        
+        // Work on local copies and publish the result as one bulk move
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int v = 0; v < n; v++) {
+            x[v] = graph.nodeX(v);
+            y[v] = graph.nodeY(v);
+        }
+        int m = graph.edgeCount();
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        for (int e = 0; e < m; e++) {
+            src[e] = graph.edgeSource(e);
+            dst[e] = graph.edgeTarget(e);
+        }
+        double[] dispX = new double[n];
+        double[] dispY = new double[n];
         
         for (int i = 0; i < iterations; i++) {
-            Map<GNode, Double> dispX = new HashMap<>();
-            Map<GNode, Double> dispY = new HashMap<>();
-            
-            for (GNode v : graph.getNodes()) {
-                dispX.put(v, 0.0);
-                dispY.put(v, 0.0);
-                for (GNode u : graph.getNodes()) {
+            for (int v = 0; v < n; v++) {
+                double fx = 0;
+                double fy = 0;
+                for (int u = 0; u < n; u++) {
                     if (v != u) {
-                        double dx = v.getX() - u.getX();
-                        double dy = v.getY() - u.getY();
+                        double dx = x[v] - x[u];
+                        double dy = y[v] - y[u];
                         double d = Math.max(1, Math.hypot(dx, dy));
                         double force = (k * k) / d;
-                        dispX.put(v, dispX.get(v) + (dx / d) * force);
-                        dispY.put(v, dispY.get(v) + (dy / d) * force);
+                        fx += (dx / d) * force;
+                        fy += (dy / d) * force;
                     }
                 }
+                dispX[v] = fx;
+                dispY[v] = fy;
             }
             
-            for (GEdge e : graph.getEdges()) {
-                double dx = e.getTarget().getX() - e.getSource().getX();
-                double dy = e.getTarget().getY() - e.getSource().getY();
+            for (int e = 0; e < m; e++) {
+                int s = src[e];
+                int t = dst[e];
+                double dx = x[t] - x[s];
+                double dy = y[t] - y[s];
                 double d = Math.max(1, Math.hypot(dx, dy));
                 double force = (d * d) / k;
                 double fx = (dx / d) * force;
                 double fy = (dy / d) * force;
-                dispX.put(e.getSource(), dispX.get(e.getSource()) + fx);
-                dispY.put(e.getSource(), dispY.get(e.getSource()) + fy);
-                dispX.put(e.getTarget(), dispX.get(e.getTarget()) - fx);
-                dispY.put(e.getTarget(), dispY.get(e.getTarget()) - fy);
+                dispX[s] += fx;
+                dispY[s] += fy;
+                dispX[t] -= fx;
+                dispY[t] -= fy;
             }
             
-            for (GNode v : graph.getNodes()) {
-                double dx = dispX.get(v);
-                double dy = dispY.get(v);
+            for (int v = 0; v < n; v++) {
+                double dx = dispX[v];
+                double dy = dispY[v];
                 double d = Math.max(1, Math.hypot(dx, dy));
                 double limit = Math.min(d, temp);
-                v.setX(v.getX() + (dx / d) * limit);
-                v.setY(v.getY() + (dy / d) * limit);
-                v.setX(Math.max(v.getRadius() + 5, Math.min(width - v.getRadius() - 5, v.getX())));
-                v.setY(Math.max(v.getRadius() + 5, Math.min(height - v.getRadius() - 5, v.getY())));
+                x[v] = Math.max(margin, Math.min(width - margin, x[v] + (dx / d) * limit));
+                y[v] = Math.max(margin, Math.min(height - margin, y[v] + (dy / d) * limit));
             }
             temp *= 0.95;
         }
+        graph.setNodePositions(x, y);
     }
 }
-
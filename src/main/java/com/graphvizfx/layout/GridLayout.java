@@ -1,7 +1,6 @@
 package com.graphvizfx.layout;
 
 import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.GNode;
 
 public class GridLayout implements LayoutAlgorithm {
     
@@ -12,20 +11,22 @@ public class GridLayout implements LayoutAlgorithm {
     
     @Override
     public void apply(GraphModel graph, double width, double height) {
-        if (graph.getNodes().isEmpty()) {
+        int n = graph.nodeCount();
+        if (n == 0) {
             return;
         }
         
-        int cols = (int) Math.ceil(Math.sqrt(graph.getNodes().size()));
+        int cols = (int) Math.ceil(Math.sqrt(n));
         double gap = 80;
         double startX = (width - cols * gap) / 2 + 40;
         double startY = 60;
         
-        for (int i = 0; i < graph.getNodes().size(); i++) {
-            GNode n = graph.getNodes().get(i);
-            n.setX(startX + (i % cols) * gap);
-            n.setY(startY + (i / cols) * gap);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = startX + (i % cols) * gap;
+            y[i] = startY + (i / cols) * gap;
         }
+        graph.setNodePositions(x, y);
     }
 }
-
@@ -0,0 +1,803 @@
+package com.graphvizfx.model;
+
+import javafx.scene.paint.Color;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Step-by-step record of an algorithm run, stored as per-step deltas.
+ * <p>
+ * Algorithms set node colors, edge colors and distances through this trace and close each step
+ * with {@link #log(String)}. Only the changes are kept, each with the value it replaced, so a
+ * trace costs O(changes) instead of O(steps × nodes). The state is rebuilt on demand by a
+ * playback cursor that applies deltas forwards or reverts them backwards, which makes moving
+ * to a neighbouring step O(changes in that step).
+ * <p>
+ * A trace {@link #bind(IndexedGraph) bound} to the graph an algorithm runs on is keyed by its
+ * dense node and edge indices, and colors are stored as codes into a small per-trace palette.
+ * Recording through the index setters then hashes nothing, and {@link #compactAt(int)} hands the
+ * cursor to renderers as a {@link CompactState} of plain arrays. Traces recorded by id number
+ * their ids in order of first use instead.
+ * <p>
+ * Long jumps are served by keyframes: a full copy of the state is kept whenever enough changes
+ * have been recorded since the previous one, and {@link #compactAt(int)} starts from the keyframe
+ * nearest to the target whenever that is cheaper than walking from the cursor. By default the
+ * interval adapts to the size of the state, so keyframes take at most as much memory as the
+ * deltas and any seek costs O(state size + interval) whatever the length of the trace.
+ * <p>
+ * Changes and keyframes live in segments that, past a {@link #setMemoryBudget(long) memory budget},
+ * are spilled oldest first to a temporary memory-mapped file, so a long run is bounded by disk
+ * space rather than by the heap.
+ * <p>
+ * The log is one append-only buffer per run. A step stores only the offset where its line ends,
+ * and {@link #logUpTo(int)} exposes the log up to a step as a view of that buffer, so the trace
+ * keeps O(log length) characters instead of one growing string per step.
+ * <p>
+ * A trace can be played while it is still being recorded. An algorithm streamed on a worker
+ * thread records into the trace, and with {@link #setLookahead(int)} it pauses in
+ * {@link #log(String)} once it is that many steps ahead of the furthest step requested through
+ * {@link #awaitStep(int)}; the trace is only complete after {@link #finish()}. All methods are
+ * safe to call from the recording and the playback thread at once.
+ * <p>
+ * Algorithms close their steps with {@link #log(StepKind, Supplier)}, tagging each with what it
+ * did. A {@link Level} and a sample interval decide which steps are kept; a dropped step formats
+ * no log line, and its changes carry over into the next kept step, where repeated changes to the
+ * same node or edge collapse into one.
+ * <p>
+ * As a {@link java.util.List}, element {@code i} is the state after step {@code i} as a
+ * {@link VisualState} keyed by id; step 0 is the state before the first logged step. Playback
+ * should prefer {@link #compactAt(int)}, which builds no maps.
+ */
+public final class AlgorithmTrace extends AbstractList<VisualState> implements RandomAccess {
+
+    /**
+     * Which algorithm steps a trace keeps.
+     */
+    public enum Level {
+        /** Every step, down to single relaxations and edge checks. */
+        FULL,
+        /** Node expansions, accepted tree edges and milestones. */
+        EXPANSIONS,
+        /** Only the start, the result and other milestones. */
+        MILESTONES
+    }
+
+    /**
+     * What an algorithm step did, from most to least significant.
+     */
+    public enum StepKind {
+        MILESTONE,
+        EXPANSION,
+        DETAIL
+    }
+
+    /**
+     * Receives the changes a step made, in recording order, keyed like the trace.
+     */
+    public interface ChangeSink {
+
+        void nodeColor(int node, Color color);
+
+        void edgeColor(int edge, Color color);
+
+        /**
+         * @param distance the new distance, or NaN when it was removed
+         */
+        void distance(int node, double distance);
+    }
+
+    private static final byte NODE_COLOR = 0;
+    private static final byte EDGE_COLOR = 1;
+    private static final byte DISTANCE = 2;
+    private static final int INITIAL_CAPACITY = 64;
+    /** Palette codes are unsigned bytes, and code 0 stands for no color. */
+    private static final int MAX_COLORS = 255;
+    /** Fewest changes between two keyframes when the interval adapts to the state size. */
+    static final int MIN_KEYFRAME_INTERVAL = 256;
+
+    // One entry per change, in recording order, and the keyframes; colors are stored as palette codes
+    private final TraceStore changes = new TraceStore();
+    private Color[] palette = new Color[8];
+    private int paletteSize = 1;
+
+    // Keys are the bound graph's indices, or ids numbered in order of first use without one
+    private IndexedGraph graph;
+    private int nodeKeys;
+    private int edgeKeys;
+    private final Map<String, Integer> nodeIndex = new HashMap<>();
+    private final Map<String, Integer> edgeIndex = new HashMap<>();
+    // Whether the id maps hold the bound graph's ids yet; they are filled on the first id lookup
+    private boolean nodeIndexFilled;
+    private boolean edgeIndexFilled;
+    private final List<String> nodeIds = new ArrayList<>();
+    private final List<String> edgeIds = new ArrayList<>();
+
+    // One entry per step: where its changes and its log line end
+    private int stepCount = 1;
+    private int[] stepEnds = new int[INITIAL_CAPACITY];
+    private int[] logEnds = new int[INITIAL_CAPACITY];
+    private final StringBuilder log = new StringBuilder();
+
+    // Keyframes are full states at increasing change indices; change 0 is the implicit empty one
+    private final int keyframeInterval;
+
+    // State after the latest change, which recording compares against
+    private CompactState head = new CompactState(null);
+
+    // Playback cursor, at change index applied
+    private CompactState cursor = new CompactState(null);
+    private int applied;
+
+    // Streaming: the recorder waits once it is lookahead steps past demand (0 never waits)
+    private int lookahead;
+    private int demand;
+    private boolean cancelled;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final CompletableFuture<AlgorithmTrace> completion = new CompletableFuture<>();
+
+    // Step filtering: admitted counts the steps the level let through, for sampling
+    private Level level = Level.FULL;
+    private int sampleInterval = 1;
+    private long admitted;
+    private boolean merging;
+    // One past the change index of each key's latest change, to merge repeats across dropped steps
+    private int[] nodeChangeAt = new int[0];
+    private int[] edgeChangeAt = new int[0];
+    private int[] distanceChangeAt = new int[0];
+
+    /**
+     * Creates a trace whose keyframe interval adapts to the size of the recorded state.
+     */
+    public AlgorithmTrace() {
+        this.keyframeInterval = 0;
+    }
+
+    /**
+     * Creates a trace that keeps a keyframe every {@code keyframeInterval} changes, rounded up to
+     * the next step boundary.
+     */
+    public AlgorithmTrace(int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive: " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    // -------------------------------------------------------------------------
+    // Recording
+    // -------------------------------------------------------------------------
+
+    /**
+     * Keys this trace by the dense node and edge indices of {@code graph}, the graph the algorithm
+     * runs on, so that the index setters can be used and {@link #compactAt(int)} uses the same
+     * indices. Ids passed to the other setters must then name nodes and edges of the graph.
+     *
+     * @throws IllegalStateException if anything has been recorded already
+     */
+    public synchronized void bind(IndexedGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph cannot be null");
+        }
+        if (nodeKeys + edgeKeys > 0 || changes.size() > 0) {
+            throw new IllegalStateException("Changes have already been recorded");
+        }
+        this.graph = graph;
+        nodeKeys = graph.nodeCount();
+        edgeKeys = graph.edgeCount();
+        head = new CompactState(graph);
+        cursor = new CompactState(graph);
+    }
+
+    public synchronized void setNodeColor(int node, Color color) {
+        record(NODE_COLOR, checkIndex("Node", node, nodeKeys), code(color));
+    }
+
+    public synchronized void setEdgeColor(int edge, Color color) {
+        record(EDGE_COLOR, checkIndex("Edge", edge, edgeKeys), code(color));
+    }
+
+    /**
+     * Shows {@code distance} on {@code node}; NaN removes it.
+     */
+    public synchronized void setDistance(int node, double distance) {
+        record(DISTANCE, checkIndex("Node", node, nodeKeys), distance);
+    }
+
+    public synchronized void setNodeColor(String node, Color color) {
+        record(NODE_COLOR, nodeKey(node), code(color));
+    }
+
+    public synchronized void setEdgeColor(String edge, Color color) {
+        record(EDGE_COLOR, edgeKey(edge), code(color));
+    }
+
+    public synchronized void setDistance(String node, double distance) {
+        record(DISTANCE, nodeKey(node), distance);
+    }
+
+    /**
+     * Sets which steps {@link #log(StepKind, Supplier)} keeps from now on.
+     */
+    public synchronized void setLevel(Level level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Level cannot be null");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Keeps only every {@code interval}-th of the steps the level lets through; milestones are
+     * always kept.
+     */
+    public synchronized void setSampleInterval(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + interval);
+        }
+        this.sampleInterval = interval;
+    }
+
+    /**
+     * Keeps at most about {@code bytes} of recorded changes and keyframes on the heap. Older ones
+     * past the budget move to a temporary memory-mapped file, which playback reads back
+     * transparently; the log, the step boundaries and the latest
+     * {@value TraceStore#SEGMENT_CHANGES} changes always stay on the heap. Without a budget nothing is spilled.
+     */
+    public synchronized void setMemoryBudget(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Memory budget cannot be negative: " + bytes);
+        }
+        changes.setBudget(bytes);
+    }
+
+    /**
+     * Closes a step of the given kind if the level and sample interval keep it, taking its log
+     * line from {@code line} only then. Otherwise the changes stay open and become part of the
+     * next kept step.
+     *
+     * @throws CancellationException if the trace was cancelled, to stop the recording algorithm
+     */
+    public void log(StepKind kind, Supplier<String> line) {
+        if (keeps(kind)) {
+            log(line.get());
+        }
+    }
+
+    private synchronized boolean keeps(StepKind kind) {
+        checkCancelled();
+        boolean keep = kind == StepKind.MILESTONE
+                || (level == Level.FULL || level == Level.EXPANSIONS && kind == StepKind.EXPANSION)
+                && ++admitted % sampleInterval == 0;
+        merging = !keep;
+        return keep;
+    }
+
+    /**
+     * Closes a step: the changes recorded since the previous step become part of it, and
+     * {@code line} is appended to the log. When a lookahead is set, this then waits until
+     * playback requests a step close enough to the new one.
+     *
+     * @throws CancellationException if the trace was cancelled, to stop the recording algorithm
+     */
+    public synchronized void log(String line) {
+        checkCancelled();
+        if (stepCount == stepEnds.length) {
+            int grown = stepCount * 2;
+            stepEnds = Arrays.copyOf(stepEnds, grown);
+            logEnds = Arrays.copyOf(logEnds, grown);
+        }
+        log.append(line);
+        stepEnds[stepCount] = changes.size();
+        logEnds[stepCount] = log.length();
+        stepCount++;
+        if (changes.size() - lastKeyframeChange() >= nextInterval()) {
+            changes.addKeyframe(changes.size(), head, nodeKeys, edgeKeys);
+        }
+        release(stepCount, false);
+        // Never pause at step 0, so playback always has a first frame to show
+        while (lookahead > 0 && !cancelled && stepCount - 1 > demand + lookahead) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+        checkCancelled();
+    }
+
+    /**
+     * Replaces the log of step 0, e.g. to explain why a run produced no further steps.
+     */
+    public synchronized void setInitialLog(String line) {
+        if (stepCount > 1) {
+            throw new IllegalStateException("Steps have already been logged");
+        }
+        log.setLength(0);
+        log.append(line);
+        logEnds[0] = log.length();
+    }
+
+    /**
+     * Marks the recording as complete; pending {@link #awaitStep(int)} calls for steps that will
+     * never exist complete now.
+     */
+    public synchronized void finish() {
+        release(Integer.MAX_VALUE, true);
+        completion.complete(this);
+    }
+
+    /**
+     * Ends the recording with {@code error}, which pending and future waits complete with.
+     */
+    public synchronized void fail(Throwable error) {
+        for (Waiter waiter : waiters) {
+            waiter.future().completeExceptionally(error);
+        }
+        waiters.clear();
+        completion.completeExceptionally(error);
+    }
+
+    /**
+     * Stops a streamed recording: the recorder's next {@link #log(String)} throws
+     * {@link CancellationException}. Steps recorded so far stay playable.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+        fail(new CancellationException("Trace recording cancelled"));
+    }
+
+    public synchronized boolean isComplete() {
+        return completion.isDone();
+    }
+
+    /**
+     * @return future completing with this trace once recording has finished, or exceptionally
+     *         when it failed or was cancelled
+     */
+    public CompletableFuture<AlgorithmTrace> completion() {
+        return completion;
+    }
+
+    // -------------------------------------------------------------------------
+    // Streaming
+    // -------------------------------------------------------------------------
+
+    /**
+     * Lets the recorder run at most {@code steps} steps ahead of the furthest step requested
+     * through {@link #awaitStep(int)}, so a streamed run only computes what playback is about to
+     * show. Without a lookahead recording never waits.
+     */
+    public synchronized void setLookahead(int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Lookahead must be positive: " + steps);
+        }
+        lookahead = steps;
+        notifyAll();
+    }
+
+    /**
+     * Requests {@code step} from the recorder.
+     *
+     * @return future completing once {@code step} has been recorded, or once recording has
+     *         finished without reaching it; it completes exceptionally if recording failed
+     */
+    public synchronized CompletableFuture<Void> awaitStep(int step) {
+        if (step < 0) {
+            throw new IndexOutOfBoundsException("Step " + step + " is negative");
+        }
+        if (step > demand) {
+            demand = step;
+            notifyAll();
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (completion.isCompletedExceptionally()) {
+            completion.whenComplete((trace, error) -> future.completeExceptionally(error));
+        } else if (step < stepCount || completion.isDone()) {
+            future.complete(null);
+        } else {
+            waiters.add(new Waiter(step, future));
+        }
+        return future;
+    }
+
+    private void release(int available, boolean all) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        waiters.removeIf(waiter -> {
+            if (all || waiter.step() < available) {
+                waiter.future().complete(null);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Trace recording cancelled");
+        }
+    }
+
+    private record Waiter(int step, CompletableFuture<Void> future) {}
+
+    // -------------------------------------------------------------------------
+    // Playback
+    // -------------------------------------------------------------------------
+
+    @Override
+    public synchronized int size() {
+        return stepCount;
+    }
+
+    /**
+     * @return a detached copy of the state after {@code step}, keyed by id
+     */
+    @Override
+    public synchronized VisualState get(int step) {
+        return stateAt(step);
+    }
+
+    /**
+     * Builds the state after {@code step} keyed by node and edge id. This costs O(nodes + edges)
+     * on top of the seek; playback should use {@link #compactAt(int)}.
+     */
+    public synchronized VisualState stateAt(int step) {
+        CompactState state = compactAt(step);
+        VisualState copy = new VisualState();
+        for (int node = 0; node < nodeKeys; node++) {
+            Color color = state.nodeColor(node);
+            if (color != null) {
+                copy.getNodeColors().put(nodeId(node), color);
+            }
+            double distance = state.distance(node);
+            if (!Double.isNaN(distance)) {
+                copy.getDistances().put(nodeId(node), distance);
+            }
+        }
+        for (int edge = 0; edge < edgeKeys; edge++) {
+            Color color = state.edgeColor(edge);
+            if (color != null) {
+                copy.getEdgeColors().put(edgeId(edge), color);
+            }
+        }
+        copy.setLog(state.getLog());
+        return copy;
+    }
+
+    /**
+     * Moves the cursor to {@code step} and returns it. The returned state is owned by the trace
+     * and changes on the next call; it must not be modified. Recording does not touch it, so it
+     * can be read while a streamed run continues.
+     * <p>
+     * Neighbouring steps cost the changes between them; a long jump restores the nearest keyframe
+     * and replays at most one keyframe interval, so scrubbing to any step takes bounded time.
+     */
+    public synchronized CompactState compactAt(int step) {
+        if (step < 0 || step >= stepCount) {
+            throw new IndexOutOfBoundsException("Step " + step + " out of range [0, " + stepCount + ")");
+        }
+        cursor.ensureNodes(nodeKeys);
+        cursor.ensureEdges(edgeKeys);
+        cursor.palette = palette;
+        moveTo(stepEnds[step]);
+        cursor.setLog(logUpTo(step));
+        return cursor;
+    }
+
+    /**
+     * @return the log as it read after {@code step}, as a view of the shared buffer; nothing is
+     *         copied until the view's {@code toString()} is called
+     */
+    public synchronized CharSequence logUpTo(int step) {
+        return new LogView(this, logEnd(step));
+    }
+
+    /**
+     * @return length of the log after {@code step}; the line the step added ends here
+     */
+    public synchronized int logEnd(int step) {
+        if (step < 0 || step >= stepCount) {
+            throw new IndexOutOfBoundsException("Step " + step + " out of range [0, " + stepCount + ")");
+        }
+        return logEnds[step];
+    }
+
+    /**
+     * @return the line {@code step} added to the log
+     */
+    public synchronized String lineAt(int step) {
+        return log.substring(step == 0 ? 0 : logEnds[step - 1], logEnd(step));
+    }
+
+    private void moveTo(int target) {
+        int direct = Math.abs(target - applied);
+        // Nearest keyframe at or before the target, and the one after it
+        int before = keyframeBefore(target);
+        int after = before + 1;
+        int viaBefore = before < 0 ? target : changes.keyframeSize(before) + target - changes.keyframeChange(before);
+        int viaAfter = after < changes.keyframeCount()
+                ? changes.keyframeSize(after) + changes.keyframeChange(after) - target : Integer.MAX_VALUE;
+        if (viaBefore < direct && viaBefore <= viaAfter) {
+            restore(before);
+        } else if (viaAfter < direct) {
+            restore(after);
+        }
+        while (applied < target) {
+            write(cursor, changes.kind(applied), changes.key(applied), changes.newValue(applied));
+            applied++;
+        }
+        while (applied > target) {
+            applied--;
+            write(cursor, changes.kind(applied), changes.key(applied), changes.oldValue(applied));
+        }
+    }
+
+    /**
+     * @return index of the last keyframe at or before {@code change}, or -1 for the implicit
+     *         empty one at change 0
+     */
+    private int keyframeBefore(int change) {
+        int lo = 0;
+        int hi = changes.keyframeCount() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (changes.keyframeChange(mid) <= change) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi;
+    }
+
+    private int lastKeyframeChange() {
+        int count = changes.keyframeCount();
+        return count == 0 ? 0 : changes.keyframeChange(count - 1);
+    }
+
+    private int nextInterval() {
+        if (keyframeInterval > 0) {
+            return keyframeInterval;
+        }
+        // Restoring copies one slot per node color, distance and edge color, so spread that over
+        // at least as many changes
+        return Math.max(MIN_KEYFRAME_INTERVAL, 2 * nodeKeys + edgeKeys);
+    }
+
+    /**
+     * Replaces the cursor's state with keyframe {@code k}, or with the empty state for -1.
+     */
+    private void restore(int k) {
+        cursor.clear();
+        if (k < 0) {
+            applied = 0;
+            return;
+        }
+        changes.restoreKeyframe(k, cursor);
+        applied = changes.keyframeChange(k);
+    }
+
+    synchronized int keyframeCount() {
+        return changes.keyframeCount();
+    }
+
+    synchronized long spilledBytes() {
+        return changes.spilledBytes();
+    }
+
+    /**
+     * @return number of node keys: the bound graph's node count, or the ids recorded so far
+     */
+    public synchronized int nodeKeyCount() {
+        return nodeKeys;
+    }
+
+    /**
+     * @return number of edge keys: the bound graph's edge count, or the ids recorded so far
+     */
+    public synchronized int edgeKeyCount() {
+        return edgeKeys;
+    }
+
+    public synchronized String nodeId(int node) {
+        checkIndex("Node", node, nodeKeys);
+        return graph != null ? graph.nodeId(node) : nodeIds.get(node);
+    }
+
+    public synchronized String edgeId(int edge) {
+        checkIndex("Edge", edge, edgeKeys);
+        return graph != null ? graph.edgeId(edge) : edgeIds.get(edge);
+    }
+
+    /**
+     * Feeds the changes {@code step} made to {@code sink}, e.g. to save the trace without
+     * rebuilding any state. Step 0 made none.
+     */
+    public synchronized void replayStep(int step, ChangeSink sink) {
+        if (step < 0 || step >= stepCount) {
+            throw new IndexOutOfBoundsException("Step " + step + " out of range [0, " + stepCount + ")");
+        }
+        int end = stepEnds[step];
+        for (int change = step == 0 ? 0 : stepEnds[step - 1]; change < end; change++) {
+            int key = changes.key(change);
+            double value = changes.newValue(change);
+            switch (changes.kind(change)) {
+                case NODE_COLOR -> sink.nodeColor(key, palette[(int) value]);
+                case EDGE_COLOR -> sink.edgeColor(key, palette[(int) value]);
+                default -> sink.distance(key, value);
+            }
+        }
+    }
+
+    private int nodeKey(String id) {
+        Integer key = nodeIndex.get(id);
+        if (key != null) {
+            return key;
+        }
+        if (graph != null) {
+            if (!nodeIndexFilled) {
+                for (int node = 0; node < nodeKeys; node++) {
+                    nodeIndex.put(graph.nodeId(node), node);
+                }
+                nodeIndexFilled = true;
+                key = nodeIndex.get(id);
+                if (key != null) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Node " + id + " is not in the bound graph");
+        }
+        nodeIndex.put(id, nodeKeys);
+        nodeIds.add(id);
+        head.ensureNodes(nodeKeys + 1);
+        return nodeKeys++;
+    }
+
+    private int edgeKey(String id) {
+        Integer key = edgeIndex.get(id);
+        if (key != null) {
+            return key;
+        }
+        if (graph != null) {
+            if (!edgeIndexFilled) {
+                for (int edge = 0; edge < edgeKeys; edge++) {
+                    edgeIndex.put(graph.edgeId(edge), edge);
+                }
+                edgeIndexFilled = true;
+                key = edgeIndex.get(id);
+                if (key != null) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Edge " + id + " is not in the bound graph");
+        }
+        edgeIndex.put(id, edgeKeys);
+        edgeIds.add(id);
+        head.ensureEdges(edgeKeys + 1);
+        return edgeKeys++;
+    }
+
+    private static int checkIndex(String what, int index, int count) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(what + " " + index + " out of range [0, " + count + ")");
+        }
+        return index;
+    }
+
+    /**
+     * @return palette code of {@code color}, adding it on first use; 0 for null
+     */
+    private int code(Color color) {
+        if (color == null) {
+            return 0;
+        }
+        for (int c = 1; c < paletteSize; c++) {
+            if (palette[c] == color || palette[c].equals(color)) {
+                return c;
+            }
+        }
+        if (paletteSize > MAX_COLORS) {
+            throw new IllegalArgumentException("A trace holds at most " + MAX_COLORS + " distinct colors");
+        }
+        if (paletteSize == palette.length) {
+            palette = Arrays.copyOf(palette, paletteSize * 2);
+        }
+        palette[paletteSize] = color;
+        return paletteSize++;
+    }
+
+    private static double read(CompactState state, byte kind, int key) {
+        return switch (kind) {
+            case NODE_COLOR -> state.nodeCodes[key] & 0xFF;
+            case EDGE_COLOR -> state.edgeCodes[key] & 0xFF;
+            default -> state.distances[key];
+        };
+    }
+
+    private static void write(CompactState state, byte kind, int key, double value) {
+        switch (kind) {
+            case NODE_COLOR -> state.nodeCodes[key] = (byte) value;
+            case EDGE_COLOR -> state.edgeCodes[key] = (byte) value;
+            default -> state.distances[key] = value;
+        }
+    }
+
+    /**
+     * Prefix of the append-only log buffer. Text before {@code length} never changes once
+     * written, so the view stays valid while the trace keeps growing; reads lock the trace since
+     * the recorder may be appending.
+     */
+    private record LogView(AlgorithmTrace trace, int length) implements CharSequence {
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + length + ")");
+            }
+            synchronized (trace) {
+                return trace.log.charAt(index);
+            }
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (end > length) {
+                throw new IndexOutOfBoundsException("End " + end + " out of range [0, " + length + "]");
+            }
+            synchronized (trace) {
+                return trace.log.substring(start, end);
+            }
+        }
+
+        @Override
+        public String toString() {
+            synchronized (trace) {
+                return trace.log.substring(0, length);
+            }
+        }
+    }
+
+    private void record(byte kind, int key, double value) {
+        double previous = read(head, kind, key);
+        write(head, kind, key, value);
+        // Stamped on every change, so that the first dropped step's changes, recorded before it
+        // was known to be dropped, are found when a later step folded into it repeats them
+        int[] changeAt = changeSlots(kind, key);
+        if (merging) {
+            // Dropped steps are folded into this one, so it may set the same key many times;
+            // keep the first change's old value and overwrite its new one
+            int latest = changeAt[key] - 1;
+            if (latest >= stepEnds[stepCount - 1]) {
+                changes.setNewValue(latest, value);
+                return;
+            }
+        }
+        changeAt[key] = changes.size() + 1;
+        changes.add(kind, key, previous, value);
+    }
+
+    private int[] changeSlots(byte kind, int key) {
+        int[] slots = kind == NODE_COLOR ? nodeChangeAt : kind == EDGE_COLOR ? edgeChangeAt : distanceChangeAt;
+        if (key < slots.length) {
+            return slots;
+        }
+        slots = Arrays.copyOf(slots, Math.max(key + 1, slots.length * 2));
+        switch (kind) {
+            case NODE_COLOR -> nodeChangeAt = slots;
+            case EDGE_COLOR -> edgeChangeAt = slots;
+            default -> distanceChangeAt = slots;
+        }
+        return slots;
+    }
+}
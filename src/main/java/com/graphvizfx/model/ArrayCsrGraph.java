@@ -0,0 +1,330 @@
+package com.graphvizfx.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link CsrGraph} whose arrays are private to it on the heap. Only the weight column in use is
+ * copied; {@link #withWeights(int)} copies another from the snapshot the first time it is selected.
+ */
+final class ArrayCsrGraph implements CsrGraph {
+    private final boolean directed;
+    private final boolean weighted;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] arcEdges;
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final int[] edgeWeights;
+    /** Weight columns copied so far, shared by every weight view of the snapshot; null until selected. */
+    private final int[][] columns;
+    private final GraphSnapshot snapshot;
+    private final String[] columnNames;
+    private final int column;
+    private final double[] x;
+    private final double[] y;
+    private final String[] nodeIds;
+    private final GraphModel origin;
+    private final long version;
+    private final BitMatrix neighbors;
+    private volatile CsrGraph reversed;
+
+    ArrayCsrGraph(GraphSnapshot graph) {
+        this.snapshot = graph;
+        this.origin = graph.origin();
+        this.version = graph.getVersion();
+        this.directed = graph.isDirected();
+        this.weighted = graph.isWeighted();
+
+        int n = graph.nodeCount();
+        x = new double[n];
+        y = new double[n];
+        nodeIds = new String[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = graph.nodeX(i);
+            y[i] = graph.nodeY(i);
+            nodeIds[i] = graph.nodeId(i);
+        }
+
+        int m = graph.edgeCount();
+        edgeSources = new int[m];
+        edgeTargets = new int[m];
+        for (int e = 0; e < m; e++) {
+            edgeSources[e] = graph.edgeSource(e);
+            edgeTargets[e] = graph.edgeTarget(e);
+        }
+        columnNames = new String[graph.weightColumnCount()];
+        for (int c = 0; c < columnNames.length; c++) {
+            columnNames[c] = graph.weightColumnName(c);
+        }
+        columns = new int[columnNames.length][];
+        column = 0;
+        edgeWeights = copyColumn(0);
+
+        offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[edgeSources[e] + 1]++;
+            if (!directed) {
+                offsets[edgeTargets[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int arcs = offsets[n];
+        targets = new int[arcs];
+        weights = new int[arcs];
+        arcEdges = new int[arcs];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            place(cursor, edgeSources[e], edgeTargets[e], e);
+        }
+        if (!directed) {
+            for (int e = 0; e < m; e++) {
+                place(cursor, edgeTargets[e], edgeSources[e], e);
+            }
+        }
+
+        if (BitMatrix.pays(n, arcs)) {
+            neighbors = new BitMatrix(n);
+            for (int u = 0; u < n; u++) {
+                for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                    neighbors.set(u, targets[a]);
+                }
+            }
+        } else {
+            neighbors = null;
+        }
+    }
+
+    private ArrayCsrGraph(ArrayCsrGraph base, int column) {
+        this.origin = base.origin;
+        this.version = base.version;
+        this.directed = base.directed;
+        this.weighted = base.weighted;
+        this.offsets = base.offsets;
+        this.targets = base.targets;
+        this.arcEdges = base.arcEdges;
+        this.edgeSources = base.edgeSources;
+        this.edgeTargets = base.edgeTargets;
+        this.x = base.x;
+        this.y = base.y;
+        this.nodeIds = base.nodeIds;
+        this.neighbors = base.neighbors;
+        this.snapshot = base.snapshot;
+        this.columns = base.columns;
+        this.columnNames = base.columnNames;
+        this.column = column;
+        this.edgeWeights = copyColumn(column);
+        this.weights = new int[arcEdges.length];
+        for (int a = 0; a < weights.length; a++) {
+            weights[a] = edgeWeights[arcEdges[a]];
+        }
+    }
+
+    /**
+     * @return weights of {@code column}, copied from the snapshot on first use
+     */
+    private int[] copyColumn(int column) {
+        synchronized (columns) {
+            int[] values = columns[column];
+            if (values == null) {
+                values = new int[edgeSources.length];
+                for (int e = 0; e < values.length; e++) {
+                    values[e] = snapshot.edgeWeight(e, column);
+                }
+                columns[column] = values;
+            }
+            return values;
+        }
+    }
+
+    private void place(int[] cursor, int from, int to, int edge) {
+        int arc = cursor[from]++;
+        targets[arc] = to;
+        weights[arc] = edgeWeights[edge];
+        arcEdges[arc] = edge;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeSources.length;
+    }
+
+    @Override
+    public int indexOf(GNode node) {
+        if (node == null || node.getGraph() != origin) {
+            return -1;
+        }
+        // The live graph may have renumbered the node since the snapshot was taken.
+        int index = node.getIndex();
+        return index < nodeIds.length && Objects.equals(nodeIds[index], node.getId()) ? index : -1;
+    }
+
+    /**
+     * Weight views of one snapshot share their indices, and so does the graph the snapshot was
+     * taken from until it is edited.
+     */
+    @Override
+    public boolean sharesIndicesWith(IndexedGraph graph) {
+        if (graph instanceof ArrayCsrGraph other) {
+            return other.nodeIds == nodeIds && other.edgeSources == edgeSources;
+        }
+        return graph != null && graph == origin && origin.getVersion() == version;
+    }
+
+    /**
+     * Built on first use and kept, since a snapshot never changes.
+     */
+    @Override
+    public CsrGraph reverse() {
+        CsrGraph result = reversed;
+        if (result == null) {
+            result = CsrGraph.super.reverse();
+            reversed = result;
+        }
+        return result;
+    }
+
+    @Override
+    public GraphModel origin() {
+        return origin;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public int arcStart(int node) {
+        return offsets[node];
+    }
+
+    @Override
+    public int arcEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    @Override
+    public int arcTarget(int arc) {
+        return targets[arc];
+    }
+
+    @Override
+    public int arcWeight(int arc) {
+        return weights[arc];
+    }
+
+    @Override
+    public int arcCost(int arc) {
+        return weighted ? weights[arc] : 1;
+    }
+
+    @Override
+    public int arcEdge(int arc) {
+        return arcEdges[arc];
+    }
+
+    @Override
+    public BitMatrix neighborMatrix() {
+        return neighbors;
+    }
+
+    /**
+     * O(1) on a dense directed graph. On an undirected one the matrix is symmetric, so it only
+     * rules pairs out before the orientation is checked on the arcs.
+     */
+    @Override
+    public boolean hasEdge(int u, int v) {
+        if (neighbors != null) {
+            if (!neighbors.get(u, v)) {
+                return false;
+            }
+            if (directed) {
+                return true;
+            }
+        }
+        return CsrGraph.super.hasEdge(u, v);
+    }
+
+    @Override
+    public int weightColumn() {
+        return column;
+    }
+
+    @Override
+    public CsrGraph withWeights(int column) {
+        if (column < 0 || column >= columns.length) {
+            throw new IndexOutOfBoundsException("Weight column " + column + " out of range [0, " + columns.length + ")");
+        }
+        return column == this.column ? this : new ArrayCsrGraph(this, column);
+    }
+
+    @Override
+    public int weightColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String weightColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public int edgeWeight(int edge, int column) {
+        return column == this.column ? edgeWeights[edge] : snapshot.edgeWeight(edge, column);
+    }
+
+    @Override
+    public int edgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    @Override
+    public int edgeWeight(int edge) {
+        return edgeWeights[edge];
+    }
+
+    @Override
+    public String edgeId(int edge) {
+        return nodeIds[edgeSources[edge]] + "->" + nodeIds[edgeTargets[edge]];
+    }
+
+    @Override
+    public String nodeId(int node) {
+        return nodeIds[node];
+    }
+
+    @Override
+    public double nodeX(int node) {
+        return x[node];
+    }
+
+    @Override
+    public double nodeY(int node) {
+        return y[node];
+    }
+}
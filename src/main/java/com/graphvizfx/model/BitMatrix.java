@@ -0,0 +1,122 @@
+package com.graphvizfx.model;
+
+import java.util.Arrays;
+
+/**
+ * Square adjacency matrix packed as one {@code long[]} bitset row per node.
+ * <p>
+ * Bit {@code (u, v)} is set when an edge {@code u -> v} exists, so edge and reverse-edge checks
+ * are a single word load, and a traversal can intersect a whole row with its unvisited set 64
+ * nodes at a time through {@link #word(int, int)}. Storage is {@code capacity² / 8} bytes, which
+ * only pays off on dense graphs; {@link #pays(int, long)} holds the density policy shared by
+ * {@link GraphModel} and {@link CsrGraph}.
+ */
+public final class BitMatrix {
+    /** Below this many nodes the adjacency lists are short enough that a matrix never helps. */
+    static final int MIN_NODES = 64;
+    /** Above this many nodes the matrix alone would take more than 32 MB. */
+    static final int MAX_NODES = 1 << 14;
+    /**
+     * Build a matrix once at least one in {@code ENTER_RATIO} node pairs is an edge. From about
+     * that density (16 edges per node at 1024 nodes) list scans cost twice a matrix lookup, see
+     * {@code DenseAdjacencyBenchmark}, while the matrix still takes less than half the memory of
+     * the edge columns.
+     */
+    static final int ENTER_RATIO = 64;
+    /** Drop it again below one in {@code EXIT_RATIO} pairs, so edits near the threshold do not thrash. */
+    static final int EXIT_RATIO = 256;
+
+    private int stride;
+    private long[] bits;
+
+    BitMatrix(int capacity) {
+        stride = words(Math.max(capacity, 1));
+        bits = new long[stride * stride * Long.SIZE];
+    }
+
+    /**
+     * @return whether a matrix is worth building for {@code nodes} nodes and {@code entries}
+     *         set bits
+     */
+    static boolean pays(int nodes, long entries) {
+        return nodes >= MIN_NODES && nodes <= MAX_NODES && entries * ENTER_RATIO >= (long) nodes * nodes;
+    }
+
+    /**
+     * @return whether an existing matrix should be dropped; the exit threshold is lower than
+     *         {@link #pays(int, long)} to give the switch some hysteresis
+     */
+    static boolean stale(int nodes, long entries) {
+        return nodes < MIN_NODES || nodes > MAX_NODES || entries * EXIT_RATIO < (long) nodes * nodes;
+    }
+
+    /**
+     * @return number of {@code long} words in each row; row {@code u} covers columns
+     *         {@code [0, 64 * wordsPerRow())}
+     */
+    public int wordsPerRow() {
+        return stride;
+    }
+
+    /**
+     * @return the {@code w}-th word of row {@code row}; bit {@code b} stands for column {@code 64 * w + b}
+     */
+    public long word(int row, int w) {
+        return bits[row * stride + w];
+    }
+
+    public boolean get(int row, int column) {
+        return (bits[row * stride + (column >>> 6)] & (1L << column)) != 0;
+    }
+
+    void set(int row, int column) {
+        bits[row * stride + (column >>> 6)] |= 1L << column;
+    }
+
+    void clear(int row, int column) {
+        bits[row * stride + (column >>> 6)] &= ~(1L << column);
+    }
+
+    /**
+     * Moves row and column {@code from} to {@code to} and clears {@code from}, mirroring how the
+     * graph moves its last node into a freed index.
+     */
+    void move(int from, int to) {
+        System.arraycopy(bits, from * stride, bits, to * stride, stride);
+        Arrays.fill(bits, from * stride, (from + 1) * stride, 0L);
+        int fromWord = from >>> 6;
+        int toWord = to >>> 6;
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        int rows = stride * Long.SIZE;
+        for (int r = 0, base = 0; r < rows; r++, base += stride) {
+            if ((bits[base + fromWord] & fromBit) != 0) {
+                bits[base + fromWord] &= ~fromBit;
+                bits[base + toWord] |= toBit;
+            } else {
+                bits[base + toWord] &= ~toBit;
+            }
+        }
+    }
+
+    /**
+     * Grows the matrix to hold at least {@code capacity} rows and columns, doubling so that
+     * adding nodes one by one stays amortized linear in the matrix size.
+     */
+    void ensureCapacity(int capacity) {
+        if (capacity <= stride * Long.SIZE) {
+            return;
+        }
+        int grown = words(Math.max(capacity, stride * Long.SIZE * 2));
+        long[] copy = new long[grown * grown * Long.SIZE];
+        for (int r = 0, rows = stride * Long.SIZE; r < rows; r++) {
+            System.arraycopy(bits, r * stride, copy, r * grown, stride);
+        }
+        stride = grown;
+        bits = copy;
+    }
+
+    private static int words(int columns) {
+        return (columns + Long.SIZE - 1) >>> 6;
+    }
+}
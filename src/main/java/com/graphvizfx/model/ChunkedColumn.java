@@ -0,0 +1,81 @@
+package com.graphvizfx.model;
+
+import java.util.Arrays;
+
+/**
+ * Growable column split into fixed-size chunks that are shared copy-on-write with
+ * {@link GraphSnapshot}s. Subclasses hold one primitive or object array per chunk and add typed
+ * {@code get}, {@code set} and {@code freeze}.
+ * <p>
+ * {@link #share()} hands out the current chunk directory in O(1) and starts a new epoch. The next
+ * write to a chunk from an older epoch copies just that chunk, and the first write after a freeze
+ * copies the directory, so a snapshot costs one chunk per touched region instead of a full copy.
+ *
+ * @param <C> chunk array type, such as {@code int[]}
+ */
+abstract class ChunkedColumn<C> {
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /** Chunk directory; read directly by subclasses, written only through {@link #writableChunk}. */
+    C[] chunks;
+    private int[] chunkEpochs;
+    private int epoch;
+    private boolean directoryShared;
+
+    /**
+     * @param writable false for a frozen column, which must never be written
+     */
+    ChunkedColumn(C[] chunks, boolean writable) {
+        this.chunks = chunks;
+        this.chunkEpochs = writable ? new int[chunks.length] : null;
+    }
+
+    /**
+     * @return a new zero-filled chunk of {@link #CHUNK_SIZE} entries
+     */
+    abstract C newChunk();
+
+    abstract C copy(C chunk);
+
+    /**
+     * Makes sure indices {@code [0, capacity)} are backed by chunks.
+     */
+    void ensureCapacity(int capacity) {
+        int needed = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (needed <= chunks.length) {
+            return;
+        }
+        int old = chunks.length;
+        chunks = Arrays.copyOf(chunks, needed);
+        chunkEpochs = Arrays.copyOf(chunkEpochs, needed);
+        directoryShared = false;
+        for (int c = old; c < needed; c++) {
+            chunks[c] = newChunk();
+            chunkEpochs[c] = epoch;
+        }
+    }
+
+    /**
+     * @return the current chunk directory, for a frozen column; later writes to this column copy
+     *         before touching it
+     */
+    C[] share() {
+        directoryShared = true;
+        epoch++;
+        return chunks;
+    }
+
+    C writableChunk(int chunk) {
+        if (directoryShared) {
+            chunks = chunks.clone();
+            directoryShared = false;
+        }
+        if (chunkEpochs[chunk] != epoch) {
+            chunks[chunk] = copy(chunks[chunk]);
+            chunkEpochs[chunk] = epoch;
+        }
+        return chunks[chunk];
+    }
+}
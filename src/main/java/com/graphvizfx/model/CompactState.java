@@ -0,0 +1,99 @@
+package com.graphvizfx.model;
+
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * Visual state as flat arrays indexed by dense node and edge index.
+ * <p>
+ * Each node and edge holds a one-byte palette code, 0 meaning uncolored, and each node a distance,
+ * NaN meaning none. Algorithms only use a handful of colors, so this costs a byte per edge and nine
+ * per node instead of a hash entry, a String key and a boxed value per colored element, and a
+ * renderer reads it with array lookups. {@link AlgorithmTrace#compactAt(int)} returns its playback
+ * cursor in this form.
+ */
+public final class CompactState {
+    private static final byte[] NO_CODES = new byte[0];
+    private static final double[] NO_DISTANCES = new double[0];
+
+    private final IndexedGraph graph;
+    Color[] palette = {null};
+    byte[] nodeCodes = NO_CODES;
+    byte[] edgeCodes = NO_CODES;
+    double[] distances = NO_DISTANCES;
+    private CharSequence log = "";
+
+    CompactState(IndexedGraph graph) {
+        this.graph = graph;
+        if (graph != null) {
+            ensureNodes(graph.nodeCount());
+            ensureEdges(graph.edgeCount());
+        }
+    }
+
+    /**
+     * @return the graph whose indices this state uses, or null when the trace was recorded by id
+     *         without one
+     */
+    public IndexedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * @return color of {@code node}, or null when it has none
+     */
+    public Color nodeColor(int node) {
+        return node < nodeCodes.length ? palette[nodeCodes[node] & 0xFF] : null;
+    }
+
+    /**
+     * @return color of {@code edge}, or null when it has none
+     */
+    public Color edgeColor(int edge) {
+        return edge < edgeCodes.length ? palette[edgeCodes[edge] & 0xFF] : null;
+    }
+
+    /**
+     * @return distance shown on {@code node}, or NaN when it has none
+     */
+    public double distance(int node) {
+        return node < distances.length ? distances[node] : Double.NaN;
+    }
+
+    /**
+     * @return the log up to this state, as a view of the trace's shared log buffer
+     */
+    public CharSequence getLog() {
+        return log;
+    }
+
+    void setLog(CharSequence log) {
+        this.log = log;
+    }
+
+    void ensureNodes(int count) {
+        if (count > nodeCodes.length) {
+            int size = nodeCodes.length;
+            int grown = Math.max(count, size * 2);
+            nodeCodes = Arrays.copyOf(nodeCodes, grown);
+            distances = Arrays.copyOf(distances, grown);
+            Arrays.fill(distances, size, grown, Double.NaN);
+        }
+    }
+
+    void ensureEdges(int count) {
+        if (count > edgeCodes.length) {
+            edgeCodes = Arrays.copyOf(edgeCodes, Math.max(count, edgeCodes.length * 2));
+        }
+    }
+
+    /**
+     * Clears every node and edge.
+     */
+    void clear() {
+        Arrays.fill(nodeCodes, (byte) 0);
+        Arrays.fill(edgeCodes, (byte) 0);
+        Arrays.fill(distances, Double.NaN);
+    }
+}
@@ -0,0 +1,124 @@
+package com.graphvizfx.model;
+
+/**
+ * Immutable compressed-sparse-row graph that the algorithms run on.
+ * <p>
+ * Nodes and edges keep the dense indices they have in the source graph. The arcs leaving node
+ * {@code u} occupy {@code [arcStart(u), arcEnd(u))}; undirected edges contribute one arc per
+ * direction, with a node's outgoing arcs listed before its incoming ones. Implementations either
+ * hold private heap arrays ({@link #of(GraphModel)}) or read a memory-mapped file, so algorithms
+ * can keep reading while the live model is being edited.
+ */
+public interface CsrGraph extends IndexedGraph {
+
+    /**
+     * Builds a snapshot of the current state of {@code graph} in time linear in its size.
+     */
+    static CsrGraph of(GraphModel graph) {
+        return new ArrayCsrGraph(graph.snapshot());
+    }
+
+    /**
+     * Builds the CSR form of {@code snapshot}; safe to call off the thread editing the graph.
+     */
+    static CsrGraph of(GraphSnapshot snapshot) {
+        return new ArrayCsrGraph(snapshot);
+    }
+
+    /**
+     * @return dense index of {@code node} in this graph, or -1 when it is null or absent
+     */
+    int indexOf(GNode node);
+
+    int arcStart(int node);
+
+    int arcEnd(int node);
+
+    int arcTarget(int arc);
+
+    int arcWeight(int arc);
+
+    /**
+     * @return the arc weight, or 1 when the graph is unweighted
+     */
+    default int arcCost(int arc) {
+        return isWeighted() ? arcWeight(arc) : 1;
+    }
+
+    /**
+     * @return index of the edge the arc was derived from
+     */
+    int arcEdge(int arc);
+
+    /**
+     * Packed neighbour rows for dense graphs: bit {@code (u, v)} is set when some arc of {@code u}
+     * leads to {@code v}, so traversals can expand a node 64 neighbours per word.
+     *
+     * @return the matrix, or null when the graph is too sparse for one to pay off
+     */
+    default BitMatrix neighborMatrix() {
+        return null;
+    }
+
+    /**
+     * @return whether {@code graph} numbers its nodes and edges exactly like this one, so state
+     *         recorded against one can be drawn on the other by index; by default only for this
+     *         graph itself
+     */
+    default boolean sharesIndicesWith(IndexedGraph graph) {
+        return graph == this;
+    }
+
+    /**
+     * Returns the graph with every arc turned around, for searches that walk backwards from a
+     * target: node {@code v}'s arcs lead to the sources of its incoming edges. Nodes and edges,
+     * including each edge's orientation, are unchanged. An undirected graph is its own reverse.
+     */
+    default CsrGraph reverse() {
+        return isDirected() ? new ReversedCsrGraph(this) : this;
+    }
+
+    /**
+     * @return the live graph this snapshot was taken from, or null when it was read from elsewhere
+     */
+    default GraphModel origin() {
+        return null;
+    }
+
+    /**
+     * @return {@link GraphModel#getVersion() version} of {@link #origin()} this snapshot shows, so
+     *         that data derived from it can be reused by later snapshots of the same version
+     */
+    default long getVersion() {
+        return 0;
+    }
+
+    /**
+     * @return the weight column {@link #arcWeight(int)} and {@link #edgeWeight(int)} read
+     */
+    default int weightColumn() {
+        return 0;
+    }
+
+    /**
+     * Returns a graph sharing this topology whose arc and edge weights come from {@code column},
+     * so every algorithm can run on, say, travel time instead of length. The view costs one
+     * arc-weight array at most; the topology arrays are not copied.
+     *
+     * @throws IndexOutOfBoundsException if the column does not exist
+     */
+    CsrGraph withWeights(int column);
+
+    /**
+     * Scans the arcs of {@code u}, so this costs O(degree).
+     */
+    @Override
+    default boolean hasEdge(int u, int v) {
+        for (int a = arcStart(u); a < arcEnd(u); a++) {
+            if (arcTarget(a) == v && edgeSource(arcEdge(a)) == u) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package com.graphvizfx.model;
+
+/**
+ * Growable double column, chunked and shared copy-on-write as described in {@link ChunkedColumn}.
+ */
+final class DoubleColumn extends ChunkedColumn<double[]> {
+    DoubleColumn() {
+        super(new double[0][], true);
+    }
+
+    private DoubleColumn(double[][] chunks) {
+        super(chunks, false);
+    }
+
+    double get(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    void set(int index, double value) {
+        writableChunk(index >>> CHUNK_SHIFT)[index & CHUNK_MASK] = value;
+    }
+
+    /**
+     * @return a read-only column sharing every current chunk; later writes to this column no
+     *         longer reach it
+     */
+    DoubleColumn freeze() {
+        return new DoubleColumn(share());
+    }
+
+    @Override
+    double[] newChunk() {
+        return new double[CHUNK_SIZE];
+    }
+
+    @Override
+    double[] copy(double[] chunk) {
+        return chunk.clone();
+    }
+}
@@ -1,46 +1,111 @@
 package com.graphvizfx.model;
 
+/**
+ * Edge handle. While the edge belongs to a {@link GraphModel} it is a view onto the graph's
+ * column storage at a dense index; before it is added (or after it is removed) it carries its
+ * own endpoints and weight. The id is derived from the endpoint ids on demand.
+ */
 public class GEdge {
-    private GNode source;
-    private GNode target;
-    private int weight;
-    private String id;
+    private GraphModel graph;
+    private int index = -1;
+    private Detached detached;
 
     public GEdge(GNode source, GNode target, int weight) {
-        this.source = source;
-        this.target = target;
-        this.weight = weight;
-        this.id = source.getId() + "->" + target.getId();
+        this.detached = new Detached(source, target, weight);
+    }
+
+    GEdge(GraphModel graph, int index) {
+        this.graph = graph;
+        this.index = index;
     }
 
     public GNode getSource() {
-        return source;
+        return graph != null ? graph.nodeAt(graph.edgeSource(index)) : detached.source;
     }
 
     public void setSource(GNode source) {
-        this.source = source;
-        this.id = source.getId() + "->" + target.getId();
+        if (graph != null) {
+            graph.setEdgeEndpoints(index, source, getTarget());
+        } else {
+            detached.source = source;
+        }
     }
 
     public GNode getTarget() {
-        return target;
+        return graph != null ? graph.nodeAt(graph.edgeTarget(index)) : detached.target;
     }
 
     public void setTarget(GNode target) {
-        this.target = target;
-        this.id = source.getId() + "->" + target.getId();
+        if (graph != null) {
+            graph.setEdgeEndpoints(index, getSource(), target);
+        } else {
+            detached.target = target;
+        }
+    }
+
+    /**
+     * @return the endpoint across this edge from {@code node}
+     */
+    public GNode getOpposite(GNode node) {
+        GNode source = getSource();
+        return node == source ? getTarget() : source;
     }
 
     public int getWeight() {
-        return weight;
+        return graph != null ? graph.edgeWeight(index) : detached.weight;
     }
 
     public void setWeight(int weight) {
-        this.weight = weight;
+        if (graph != null) {
+            graph.setEdgeWeight(index, weight);
+        } else {
+            detached.weight = weight;
+        }
     }
 
     public String getId() {
-        return id;
+        return graph != null ? graph.edgeId(index) : detached.source.getId() + "->" + detached.target.getId();
+    }
+
+    /**
+     * @return dense index of this edge in its graph, or -1 when it is not part of one
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    GraphModel getGraph() {
+        return graph;
     }
-}
 
+    void attach(GraphModel graph, int index) {
+        this.graph = graph;
+        this.index = index;
+        this.detached = null;
+    }
+
+    void moveTo(int index) {
+        this.index = index;
+    }
+
+    void detach() {
+        this.detached = new Detached(getSource(), getTarget(), getWeight());
+        this.graph = null;
+        this.index = -1;
+    }
+
+    /**
+     * Own storage for an edge that is not part of any graph.
+     */
+    private static final class Detached {
+        private GNode source;
+        private GNode target;
+        private int weight;
+
+        private Detached(GNode source, GNode target, int weight) {
+            this.source = source;
+            this.target = target;
+            this.weight = weight;
+        }
+    }
+}
@@ -1,43 +1,105 @@
 package com.graphvizfx.model;
 
+/**
+ * Node handle. While the node belongs to a {@link GraphModel} it is a view onto the graph's
+ * column storage at a dense index; before it is added (or after it is removed) it carries its
+ * own id and coordinates.
+ */
 public class GNode {
-    private String id;
-    private double x;
-    private double y;
-    private final double radius = 20.0;
+    public static final double RADIUS = 20.0;
+
+    private GraphModel graph;
+    private int index = -1;
+    private Detached detached;
 
     public GNode(String id, double x, double y) {
-        this.id = id;
-        this.x = x;
-        this.y = y;
+        this.detached = new Detached(id, x, y);
+    }
+
+    GNode(GraphModel graph, int index) {
+        this.graph = graph;
+        this.index = index;
     }
 
     public String getId() {
-        return id;
+        return graph != null ? graph.nodeId(index) : detached.id;
     }
 
     public void setId(String id) {
-        this.id = id;
+        if (graph != null) {
+            graph.renameNode(index, id);
+        } else {
+            detached.id = id;
+        }
     }
 
     public double getX() {
-        return x;
+        return graph != null ? graph.nodeX(index) : detached.x;
     }
 
     public void setX(double x) {
-        this.x = x;
+        if (graph != null) {
+            graph.setNodePosition(index, x, graph.nodeY(index));
+        } else {
+            detached.x = x;
+        }
     }
 
     public double getY() {
-        return y;
+        return graph != null ? graph.nodeY(index) : detached.y;
     }
 
     public void setY(double y) {
-        this.y = y;
+        if (graph != null) {
+            graph.setNodePosition(index, graph.nodeX(index), y);
+        } else {
+            detached.y = y;
+        }
     }
 
     public double getRadius() {
-        return radius;
+        return RADIUS;
     }
-}
 
+    /**
+     * @return dense index of this node in its graph, or -1 when it is not part of one
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    GraphModel getGraph() {
+        return graph;
+    }
+
+    void attach(GraphModel graph, int index) {
+        this.graph = graph;
+        this.index = index;
+        this.detached = null;
+    }
+
+    void moveTo(int index) {
+        this.index = index;
+    }
+
+    void detach() {
+        this.detached = new Detached(getId(), getX(), getY());
+        this.graph = null;
+        this.index = -1;
+    }
+
+    /**
+     * Own storage for a node that is not part of any graph.
+     */
+    private static final class Detached {
+        private String id;
+        private double x;
+        private double y;
+
+        private Detached(String id, double x, double y) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.graphvizfx.model;
+
+import java.util.Arrays;
+
+/**
+ * Stages a batch of nodes and edges and appends them to a {@link GraphModel} in one step.
+ * <p>
+ * Nodes and edges are collected in pre-sized primitive arrays, ids resolve through a private
+ * {@link IdIndex}, and duplicate edges are rejected with a hash set of packed endpoint pairs, so
+ * a batch is built in time linear in its size; {@link #addParallelEdge} skips that check. {@link #commit()} copies the batch into the graph
+ * with exactly sized adjacency lists and publishes a single {@link GraphChange.BatchAdded}.
+ * <p>
+ * Node indices handed out by the builder are the indices the nodes will have in the graph. The
+ * graph must not be edited between {@link GraphModel#builder(int, int)} and {@link #commit()}.
+ */
+public final class GraphBuilder {
+    private final GraphModel graph;
+    private final long baseVersion;
+    private final int baseNodes;
+    private final boolean directed;
+
+    private String[] ids;
+    private double[] xs;
+    private double[] ys;
+    private int nodes;
+    private final IdIndex index = new IdIndex();
+
+    private int[] sources;
+    private int[] targets;
+    private int[] weights;
+    private int edges;
+    private final LongSet pairs;
+
+    private boolean committed;
+
+    GraphBuilder(GraphModel graph, int expectedNodes, int expectedEdges) {
+        if (expectedNodes < 0 || expectedEdges < 0) {
+            throw new IllegalArgumentException("Expected sizes cannot be negative");
+        }
+        this.graph = graph;
+        this.baseVersion = graph.getVersion();
+        this.baseNodes = graph.nodeCount();
+        this.directed = graph.isDirected();
+        ids = new String[Math.max(expectedNodes, 16)];
+        xs = new double[ids.length];
+        ys = new double[ids.length];
+        sources = new int[Math.max(expectedEdges, 16)];
+        targets = new int[sources.length];
+        weights = new int[sources.length];
+        index.ensureCapacity(expectedNodes);
+        pairs = new LongSet(graph.edgeCount() + expectedEdges);
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            pairs.add(pair(graph.edgeSource(e), graph.edgeTarget(e)));
+        }
+    }
+
+    /**
+     * Stages a node.
+     *
+     * @return the index the node will have in the graph
+     */
+    public int addNode(String id, double x, double y) {
+        checkOpen();
+        if (nodes == ids.length) {
+            int grown = nodes + (nodes >> 1);
+            ids = Arrays.copyOf(ids, grown);
+            xs = Arrays.copyOf(xs, grown);
+            ys = Arrays.copyOf(ys, grown);
+        }
+        ids[nodes] = id;
+        xs[nodes] = x;
+        ys[nodes] = y;
+        index.putIfAbsent(id, nodes);
+        return baseNodes + nodes++;
+    }
+
+    /**
+     * @return index of the node with this id in the graph or in the batch, or -1 when absent
+     */
+    public int indexOf(String id) {
+        int existing = graph.indexOf(id);
+        if (existing >= 0) {
+            return existing;
+        }
+        int staged = index.get(id);
+        return staged < 0 ? -1 : baseNodes + staged;
+    }
+
+    public double nodeX(int node) {
+        checkNode(node);
+        return node < baseNodes ? graph.nodeX(node) : xs[node - baseNodes];
+    }
+
+    public double nodeY(int node) {
+        checkNode(node);
+        return node < baseNodes ? graph.nodeY(node) : ys[node - baseNodes];
+    }
+
+    /**
+     * Stages an edge unless the graph or the batch already has one between the same endpoints;
+     * for undirected graphs {@code u-v} and {@code v-u} count as the same pair.
+     *
+     * @return whether the edge was staged
+     */
+    public boolean addEdge(int source, int target, int weight) {
+        checkOpen();
+        checkNode(source);
+        checkNode(target);
+        if (!pairs.add(pair(source, target))) {
+            return false;
+        }
+        stageEdge(source, target, weight);
+        return true;
+    }
+
+    /**
+     * Stages an edge even if the graph or the batch already has one between the same endpoints,
+     * for loading files that may hold parallel edges. Later {@link #addEdge} calls still treat the
+     * pair as taken.
+     */
+    public void addParallelEdge(int source, int target, int weight) {
+        checkOpen();
+        checkNode(source);
+        checkNode(target);
+        pairs.add(pair(source, target));
+        stageEdge(source, target, weight);
+    }
+
+    private void stageEdge(int source, int target, int weight) {
+        if (edges == sources.length) {
+            int grown = edges + (edges >> 1);
+            sources = Arrays.copyOf(sources, grown);
+            targets = Arrays.copyOf(targets, grown);
+            weights = Arrays.copyOf(weights, grown);
+        }
+        sources[edges] = source;
+        targets[edges] = target;
+        weights[edges] = weight;
+        edges++;
+    }
+
+    public int nodeCount() {
+        return baseNodes + nodes;
+    }
+
+    /**
+     * @return number of edges staged so far
+     */
+    public int stagedEdges() {
+        return edges;
+    }
+
+    /**
+     * Appends the batch to the graph. The builder cannot be used afterwards.
+     *
+     * @throws IllegalStateException if the graph was edited since the builder was created
+     */
+    public void commit() {
+        checkOpen();
+        if (graph.getVersion() != baseVersion) {
+            throw new IllegalStateException("Graph changed while the batch was being built");
+        }
+        committed = true;
+        graph.appendBatch(ids, xs, ys, nodes, sources, targets, weights, edges);
+    }
+
+    private long pair(int source, int target) {
+        if (!directed && source > target) {
+            return ((long) target << 32) | source;
+        }
+        return ((long) source << 32) | target;
+    }
+
+    private void checkOpen() {
+        if (committed) {
+            throw new IllegalStateException("Batch already committed");
+        }
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= baseNodes + nodes) {
+            throw new IndexOutOfBoundsException("Node index " + node + " out of range [0, " + (baseNodes + nodes) + ")");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.graphvizfx.model;
+
+/**
+ * Fine-grained mutation published by {@link GraphModel}.
+ * <p>
+ * Every change carries the graph version it produced and enough of the previous state to be
+ * reverted. Indices refer to the graph as it was right after the change. Removals move the last
+ * element into the freed slot; {@code movedFrom} names that element's former index, or -1 when
+ * the removed element was already last.
+ */
+public interface GraphChange {
+
+    /**
+     * @return the graph version produced by this change
+     */
+    long version();
+
+    record NodeAdded(long version, int node, String id, double x, double y) implements GraphChange {}
+
+    record NodeMoved(long version, int node, double oldX, double oldY, double x, double y) implements GraphChange {}
+
+    /**
+     * Bulk position update, e.g. a layout. {@code previous} holds the old coordinates interleaved
+     * as {@code x0, y0, x1, y1, ...}.
+     */
+    record NodesMoved(long version, double[] previous) implements GraphChange {}
+
+    record NodeRenamed(long version, int node, String oldId, String id) implements GraphChange {}
+
+    record NodeRemoved(long version, int node, String id, double x, double y, int movedFrom) implements GraphChange {}
+
+    record EdgeAdded(long version, int edge, int source, int target, int weight) implements GraphChange {}
+
+    record EdgeReweighted(long version, int edge, int oldWeight, int weight) implements GraphChange {}
+
+    record EdgeReconnected(long version, int edge, int oldSource, int oldTarget, int source, int target)
+            implements GraphChange {}
+
+    /**
+     * {@code otherWeights} holds the values of weight columns 1..n-1, or null when the graph has
+     * only the primary column. {@code outPosition} and {@code inPosition} are where the edge sat in
+     * its source's outgoing and its target's incoming list.
+     */
+    record EdgeRemoved(long version, int edge, int source, int target, int weight, int movedFrom, int[] otherWeights,
+                       int outPosition, int inPosition) implements GraphChange {}
+
+    /**
+     * Change to a weight column other than the primary one.
+     */
+    record EdgeCostChanged(long version, int edge, int column, int oldWeight, int weight) implements GraphChange {}
+
+    /**
+     * Bulk update of one weight column; {@code previous} holds the old value of every edge.
+     */
+    record WeightsReplaced(long version, int column, int[] previous) implements GraphChange {}
+
+    record WeightColumnAdded(long version, int column, String name) implements GraphChange {}
+
+    /**
+     * Nodes {@code [firstNode, firstNode + nodeCount)} and edges {@code [firstEdge, firstEdge + edgeCount)}
+     * were appended at once by a {@link GraphBuilder}.
+     */
+    record BatchAdded(long version, int firstNode, int nodeCount, int firstEdge, int edgeCount)
+            implements GraphChange {}
+
+    record ModeChanged(long version, boolean oldDirected, boolean oldWeighted, boolean directed, boolean weighted)
+            implements GraphChange {}
+
+    record Cleared(long version) implements GraphChange {}
+}
@@ -0,0 +1,10 @@
+package com.graphvizfx.model;
+
+/**
+ * Receives every {@link GraphChange} applied to a {@link GraphModel}, in order.
+ */
+@FunctionalInterface
+public interface GraphListener {
+
+    void graphChanged(GraphChange change);
+}
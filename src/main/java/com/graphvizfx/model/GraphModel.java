@@ -1,35 +1,775 @@
 package com.graphvizfx.model;
 
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class GraphModel {
-    private List<GNode> nodes = new ArrayList<>();
-    private List<GEdge> edges = new ArrayList<>();
+/**
+ * Graph container backed by column storage.
+ * <p>
+ * Nodes and edges are numbered densely from 0. Ids, coordinates, endpoints and weights live in
+ * parallel chunked columns that {@link #snapshot()} shares copy-on-write, adjacency is kept as per-node {@code int[]} lists of edge indices,
+ * and ids are resolved through an open-addressing {@link IdIndex}. {@link GNode} and
+ * {@link GEdge} objects are views that are only materialized when asked for, so bulk imports and
+ * index-based readers never allocate per-element objects.
+ * <p>
+ * Indices are stable while elements are added. Removing an element moves the last element of
+ * the same kind into the freed slot, so exactly one other index changes; views follow the move.
+ * <p>
+ * Every mutation bumps a monotonically increasing {@link #getVersion() version} and is published
+ * as a {@link GraphChange} to registered {@link GraphListener}s and to a bounded journal, so
+ * caches can catch up incrementally via {@link #changesSince(long)}.
+ */
+public class GraphModel implements IndexedGraph {
+    /** Name of the primary weight column, the one {@link GEdge#getWeight()} reads. */
+    public static final String DEFAULT_WEIGHT_COLUMN = "weight";
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int JOURNAL_CAPACITY = 4096;
+
+    private int nodeCount;
+    private StringColumn nodeIds = new StringColumn();
+    private DoubleColumn xs = new DoubleColumn();
+    private DoubleColumn ys = new DoubleColumn();
+    private int[][] outEdges = new int[INITIAL_CAPACITY][];
+    private int[] outDegree = new int[INITIAL_CAPACITY];
+    private int[][] inEdges = new int[INITIAL_CAPACITY][];
+    private int[] inDegree = new int[INITIAL_CAPACITY];
+    private GNode[] nodeViews = new GNode[INITIAL_CAPACITY];
+    private final IdIndex idIndex = new IdIndex();
+    // Nodes added under an id another node already had; while positive, removing the indexed
+    // node of an id looks for a survivor to take over
+    private int shadowedIds;
+
+    private int edgeCount;
+    private IntColumn edgeSources = new IntColumn();
+    private IntColumn edgeTargets = new IntColumn();
+    private IntColumn edgeWeights = new IntColumn();
+    private String[] weightNames = {DEFAULT_WEIGHT_COLUMN};
+    private IntColumn[] extraWeights = new IntColumn[0];
+    private GEdge[] edgeViews = new GEdge[INITIAL_CAPACITY];
+    private AdjacencyMode adjacencyMode = AdjacencyMode.AUTO;
+    private BitMatrix adjacency;
+
+    private final List<GNode> nodes = new NodeList();
+    private final List<GEdge> edges = new EdgeList();
     private boolean isDirected = false;
     private boolean isWeighted = false;
 
+    /**
+     * How {@link #hasEdge(int, int)} finds edges. The adjacency lists are always kept; a dense
+     * graph additionally carries a {@link BitMatrix}.
+     */
+    public enum AdjacencyMode {
+        /** Build the matrix once the graph gets dense enough and drop it when it thins out. */
+        AUTO,
+        /** Adjacency lists only. */
+        SPARSE,
+        /** Always keep the matrix, whatever the density. */
+        DENSE
+    }
+
+    private long version;
+    private final ArrayDeque<GraphChange> journal = new ArrayDeque<>();
+    private final List<GraphListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return the number of mutations applied to this graph so far
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void addListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GraphListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the changes applied after {@code sinceVersion}, oldest first.
+     *
+     * @return the changes, or null when the journal no longer reaches back that far and the
+     *         caller has to rebuild from the current state
+     */
+    public List<GraphChange> changesSince(long sinceVersion) {
+        if (sinceVersion >= version) {
+            return Collections.emptyList();
+        }
+        if (journal.isEmpty() || journal.peekFirst().version() > sinceVersion + 1) {
+            return null;
+        }
+        List<GraphChange> result = new ArrayList<>((int) (version - sinceVersion));
+        for (GraphChange change : journal) {
+            if (change.version() > sinceVersion) {
+                result.add(change);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts a bulk batch that is appended in one step by {@link GraphBuilder#commit()}.
+     *
+     * @param expectedNodes number of nodes the batch is pre-sized for
+     * @param expectedEdges number of edges the batch is pre-sized for
+     */
+    public GraphBuilder builder(int expectedNodes, int expectedEdges) {
+        return new GraphBuilder(this, expectedNodes, expectedEdges);
+    }
+
+    /**
+     * Captures the current state in O(1). The snapshot shares storage with this graph and is
+     * never affected by later edits, which copy only the chunks they touch.
+     * <p>
+     * Must be called from the thread that mutates the graph; the returned snapshot can then be
+     * read from any thread.
+     */
+    public GraphSnapshot snapshot() {
+        IntColumn[] weights = new IntColumn[weightNames.length];
+        weights[0] = edgeWeights.freeze();
+        for (int c = 1; c < weights.length; c++) {
+            weights[c] = extraWeights[c - 1].freeze();
+        }
+        return new GraphSnapshot(this, version, isDirected, isWeighted,
+                nodeCount, nodeIds.freeze(), xs.freeze(), ys.freeze(),
+                edgeCount, edgeSources.freeze(), edgeTargets.freeze(), weightNames.clone(), weights);
+    }
+
     public void clear() {
-        nodes.clear();
-        edges.clear();
+        for (int e = 0; e < edgeCount; e++) {
+            if (edgeViews[e] != null) {
+                edgeViews[e].detach();
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            if (nodeViews[i] != null) {
+                nodeViews[i].detach();
+            }
+        }
+        nodeCount = 0;
+        nodeIds = new StringColumn();
+        xs = new DoubleColumn();
+        ys = new DoubleColumn();
+        outEdges = new int[INITIAL_CAPACITY][];
+        outDegree = new int[INITIAL_CAPACITY];
+        inEdges = new int[INITIAL_CAPACITY][];
+        inDegree = new int[INITIAL_CAPACITY];
+        nodeViews = new GNode[INITIAL_CAPACITY];
+        idIndex.clear();
+        shadowedIds = 0;
+
+        edgeCount = 0;
+        edgeSources = new IntColumn();
+        edgeTargets = new IntColumn();
+        edgeWeights = new IntColumn();
+        weightNames = new String[]{DEFAULT_WEIGHT_COLUMN};
+        extraWeights = new IntColumn[0];
+        edgeViews = new GEdge[INITIAL_CAPACITY];
+        adjacency = null;
+        updateAdjacency();
+        publish(new GraphChange.Cleared(++version));
+    }
+
+    // -------------------------------------------------------------------------
+    // Node columns
+    // -------------------------------------------------------------------------
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Appends a node without materializing a {@link GNode} view.
+     *
+     * @return the dense index of the new node
+     */
+    public int addNode(String id, double x, double y) {
+        return insertNode(nodeCount, id, x, y);
+    }
+
+    /**
+     * Inserts a node at {@code index}, moving the node currently there to the end. This is the
+     * exact inverse of {@link #removeNode(int)} and is what undo uses to restore a node.
+     *
+     * @return {@code index}
+     */
+    public int insertNode(int index, String id, double x, double y) {
+        if (index < 0 || index > nodeCount) {
+            throw new IndexOutOfBoundsException("Node index " + index + " out of range [0, " + nodeCount + "]");
+        }
+        ensureNodeCapacity(nodeCount + 1);
+        int last = nodeCount++;
+        if (index != last) {
+            moveNode(index, last);
+        }
+        nodeIds.set(index, id);
+        xs.set(index, x);
+        ys.set(index, y);
+        outEdges[index] = null;
+        outDegree[index] = 0;
+        inEdges[index] = null;
+        inDegree[index] = 0;
+        nodeViews[index] = null;
+        index(id, index);
+        updateAdjacency();
+        publish(new GraphChange.NodeAdded(++version, index, id, x, y));
+        return index;
+    }
+
+    /**
+     * Adds a detached node; the object becomes the graph's view of the new index.
+     */
+    public void addNode(GNode node) {
+        attachNode(node);
+    }
+
+    /**
+     * @return dense index of the node with this id, or -1 when absent
+     */
+    public int indexOf(String id) {
+        return idIndex.get(id);
     }
 
     public GNode getNode(String id) {
-        return nodes.stream()
-                .filter(n -> n.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+        int index = idIndex.get(id);
+        return index < 0 ? null : nodeAt(index);
+    }
+
+    /**
+     * @return the view for the node at {@code index}, creating it on first access
+     */
+    public GNode nodeAt(int index) {
+        checkNode(index);
+        GNode view = nodeViews[index];
+        if (view == null) {
+            view = new GNode(this, index);
+            nodeViews[index] = view;
+        }
+        return view;
+    }
+
+    public String nodeId(int index) {
+        checkNode(index);
+        return nodeIds.get(index);
+    }
+
+    public double nodeX(int index) {
+        checkNode(index);
+        return xs.get(index);
+    }
+
+    public double nodeY(int index) {
+        checkNode(index);
+        return ys.get(index);
+    }
+
+    public void setNodePosition(int index, double x, double y) {
+        checkNode(index);
+        double oldX = xs.get(index);
+        double oldY = ys.get(index);
+        if (oldX == x && oldY == y) {
+            return;
+        }
+        xs.set(index, x);
+        ys.set(index, y);
+        publish(new GraphChange.NodeMoved(++version, index, oldX, oldY, x, y));
+    }
+
+    /**
+     * Replaces every node position at once, publishing a single {@link GraphChange.NodesMoved}.
+     *
+     * @param x new x coordinates, one per node index
+     * @param y new y coordinates, one per node index
+     */
+    public void setNodePositions(double[] x, double[] y) {
+        if (x.length != nodeCount || y.length != nodeCount) {
+            throw new IllegalArgumentException("Expected " + nodeCount + " coordinates, got " + x.length + "/" + y.length);
+        }
+        double[] previous = new double[nodeCount * 2];
+        for (int i = 0; i < nodeCount; i++) {
+            previous[2 * i] = xs.get(i);
+            previous[2 * i + 1] = ys.get(i);
+            xs.set(i, x[i]);
+            ys.set(i, y[i]);
+        }
+        publish(new GraphChange.NodesMoved(++version, previous));
+    }
+
+    public void renameNode(int index, String id) {
+        checkNode(index);
+        String oldId = nodeIds.get(index);
+        idIndex.remove(oldId, index);
+        nodeIds.set(index, id);
+        index(id, index);
+        reindex(oldId);
+        publish(new GraphChange.NodeRenamed(++version, index, oldId, id));
+    }
+
+    /**
+     * Removes the node together with every edge touching it.
+     */
+    public void removeNode(GNode node) {
+        if (node != null && node.getGraph() == this) {
+            removeNode(node.getIndex());
+        }
+    }
+
+    /**
+     * Removes the node at {@code index} and its incident edges; the last node takes its index.
+     */
+    public void removeNode(int index) {
+        checkNode(index);
+        while (outDegree[index] > 0) {
+            removeEdge(outEdges[index][outDegree[index] - 1]);
+        }
+        while (inDegree[index] > 0) {
+            removeEdge(inEdges[index][inDegree[index] - 1]);
+        }
+        if (nodeViews[index] != null) {
+            nodeViews[index].detach();
+        }
+        String id = nodeIds.get(index);
+        double x = xs.get(index);
+        double y = ys.get(index);
+        idIndex.remove(id, index);
+
+        int last = --nodeCount;
+        if (index != last) {
+            moveNode(last, index);
+        }
+        nodeIds.set(last, null);
+        outEdges[last] = null;
+        inEdges[last] = null;
+        nodeViews[last] = null;
+        reindex(id);
+        updateAdjacency();
+        publish(new GraphChange.NodeRemoved(++version, index, id, x, y, index != last ? last : -1));
+    }
+
+    public int outDegree(int node) {
+        checkNode(node);
+        return outDegree[node];
+    }
+
+    /**
+     * @return index of the {@code k}-th edge leaving {@code node}, in insertion order
+     */
+    public int outEdge(int node, int k) {
+        return outEdges[node][k];
+    }
+
+    public int inDegree(int node) {
+        checkNode(node);
+        return inDegree[node];
+    }
+
+    /**
+     * @return index of the {@code k}-th edge entering {@code node}, in insertion order
+     */
+    public int inEdge(int node, int k) {
+        return inEdges[node][k];
+    }
+
+    // -------------------------------------------------------------------------
+    // Edge columns
+    // -------------------------------------------------------------------------
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Appends an edge between two existing node indices without materializing a {@link GEdge} view.
+     *
+     * @return the dense index of the new edge
+     */
+    public int addEdge(int source, int target, int weight) {
+        return insertEdge(edgeCount, source, target, weight);
+    }
+
+    /**
+     * Inserts an edge at {@code index}, moving the edge currently there to the end. The edge is
+     * appended to its endpoints' adjacency lists; undo restores its old place with
+     * {@link #insertEdge(int, int, int, int, int[], int, int)}.
+     *
+     * @return {@code index}
+     */
+    public int insertEdge(int index, int source, int target, int weight) {
+        return insertEdge(index, source, target, weight, null);
+    }
+
+    /**
+     * Like {@link #insertEdge(int, int, int, int)}, restoring the additional weight columns too.
+     *
+     * @param otherWeights values for weight columns 1..n-1, or null to start them at {@code weight}
+     */
+    public int insertEdge(int index, int source, int target, int weight, int[] otherWeights) {
+        return insertEdge(index, source, target, weight, otherWeights, -1, -1);
+    }
+
+    /**
+     * Like {@link #insertEdge(int, int, int, int, int[])}, placing the edge at the given positions of
+     * its endpoints' adjacency lists. With the positions of a {@link GraphChange.EdgeRemoved} this is
+     * the exact inverse of {@link #removeEdge(int)}, so traversal order is as before the removal.
+     *
+     * @param outPosition position in the source's outgoing list, or -1 to append
+     * @param inPosition position in the target's incoming list, or -1 to append
+     */
+    public int insertEdge(int index, int source, int target, int weight, int[] otherWeights,
+                          int outPosition, int inPosition) {
+        checkNode(source);
+        checkNode(target);
+        if (index < 0 || index > edgeCount) {
+            throw new IndexOutOfBoundsException("Edge index " + index + " out of range [0, " + edgeCount + "]");
+        }
+        ensureEdgeCapacity(edgeCount + 1);
+        int last = edgeCount++;
+        if (index != last) {
+            moveEdge(index, last);
+        }
+        edgeViews[index] = null;
+        edgeSources.set(index, source);
+        edgeTargets.set(index, target);
+        edgeWeights.set(index, weight);
+        for (int c = 0; c < extraWeights.length; c++) {
+            extraWeights[c].set(index, otherWeights != null && c < otherWeights.length ? otherWeights[c] : weight);
+        }
+        link(outEdges, outDegree, source, index, outPosition);
+        link(inEdges, inDegree, target, index, inPosition);
+        if (adjacency != null) {
+            adjacency.set(source, target);
+        }
+        updateAdjacency();
+        publish(new GraphChange.EdgeAdded(++version, index, source, target, weight));
+        return index;
+    }
+
+    /**
+     * Adds a detached edge; the object becomes the graph's view of the new index. Endpoints that
+     * are not part of any graph yet are added along with it.
+     */
+    public void addEdge(GEdge edge) {
+        if (edge.getGraph() != null) {
+            throw new IllegalArgumentException("Edge " + edge.getId() + " already belongs to a graph");
+        }
+        int source = resolve(edge.getSource());
+        int target = resolve(edge.getTarget());
+        int index = addEdge(source, target, edge.getWeight());
+        edgeViews[index] = edge;
+        edge.attach(this, index);
+    }
+
+    /**
+     * @return the view for the edge at {@code index}, creating it on first access
+     */
+    public GEdge edgeAt(int index) {
+        checkEdge(index);
+        GEdge view = edgeViews[index];
+        if (view == null) {
+            view = new GEdge(this, index);
+            edgeViews[index] = view;
+        }
+        return view;
+    }
+
+    public int edgeSource(int index) {
+        checkEdge(index);
+        return edgeSources.get(index);
+    }
+
+    public int edgeTarget(int index) {
+        checkEdge(index);
+        return edgeTargets.get(index);
+    }
+
+    public int edgeWeight(int index) {
+        checkEdge(index);
+        return edgeWeights.get(index);
+    }
+
+    public void setEdgeWeight(int index, int weight) {
+        checkEdge(index);
+        int oldWeight = edgeWeights.get(index);
+        if (oldWeight == weight) {
+            return;
+        }
+        edgeWeights.set(index, weight);
+        publish(new GraphChange.EdgeReweighted(++version, index, oldWeight, weight));
+    }
+
+    // -------------------------------------------------------------------------
+    // Weight columns
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return number of weight columns; column 0 is the primary {@link #DEFAULT_WEIGHT_COLUMN}
+     */
+    public int weightColumnCount() {
+        return weightNames.length;
+    }
+
+    public String weightColumnName(int column) {
+        return weightNames[column];
+    }
+
+    /**
+     * Adds a weight column, e.g. travel time next to length. Every existing edge starts with its
+     * primary weight; fill the column with {@link #setEdgeWeights(int, int[])}.
+     *
+     * @return index of the new column
+     */
+    public int addWeightColumn(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Weight column name cannot be null or empty");
+        }
+        if (weightColumn(name) >= 0) {
+            throw new IllegalArgumentException("Weight column '" + name + "' already exists");
+        }
+        IntColumn column = new IntColumn();
+        column.ensureCapacity(Math.max(edgeCount, 1));
+        for (int e = 0; e < edgeCount; e++) {
+            column.set(e, edgeWeights.get(e));
+        }
+        extraWeights = Arrays.copyOf(extraWeights, extraWeights.length + 1);
+        extraWeights[extraWeights.length - 1] = column;
+        weightNames = Arrays.copyOf(weightNames, weightNames.length + 1);
+        weightNames[weightNames.length - 1] = name;
+        publish(new GraphChange.WeightColumnAdded(++version, weightNames.length - 1, name));
+        return weightNames.length - 1;
+    }
+
+    public int edgeWeight(int index, int column) {
+        checkEdge(index);
+        checkWeightColumn(column);
+        return column == 0 ? edgeWeights.get(index) : extraWeights[column - 1].get(index);
+    }
+
+    public void setEdgeWeight(int index, int column, int weight) {
+        if (column == 0) {
+            setEdgeWeight(index, weight);
+            return;
+        }
+        checkEdge(index);
+        checkWeightColumn(column);
+        IntColumn values = extraWeights[column - 1];
+        int oldWeight = values.get(index);
+        if (oldWeight != weight) {
+            values.set(index, weight);
+            publish(new GraphChange.EdgeCostChanged(++version, index, column, oldWeight, weight));
+        }
+    }
+
+    /**
+     * Replaces a whole weight column at once, publishing a single {@link GraphChange.WeightsReplaced}.
+     *
+     * @param weights new values, one per edge index
+     */
+    public void setEdgeWeights(int column, int[] weights) {
+        checkWeightColumn(column);
+        if (weights.length != edgeCount) {
+            throw new IllegalArgumentException("Expected " + edgeCount + " weights, got " + weights.length);
+        }
+        IntColumn values = column == 0 ? edgeWeights : extraWeights[column - 1];
+        int[] previous = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            previous[e] = values.get(e);
+            values.set(e, weights[e]);
+        }
+        publish(new GraphChange.WeightsReplaced(++version, column, previous));
+    }
+
+    /**
+     * @return the {@code source->target} id of the edge, built from the endpoint ids
+     */
+    public String edgeId(int index) {
+        checkEdge(index);
+        return nodeIds.get(edgeSources.get(index)) + "->" + nodeIds.get(edgeTargets.get(index));
+    }
+
+    void setEdgeEndpoints(int index, GNode source, GNode target) {
+        checkEdge(index);
+        int newSource = resolve(source);
+        int newTarget = resolve(target);
+        reconnectEdge(index, newSource, newTarget);
+    }
+
+    /**
+     * Points the edge at {@code index} to new endpoint indices.
+     */
+    public void reconnectEdge(int index, int source, int target) {
+        checkEdge(index);
+        checkNode(source);
+        checkNode(target);
+        int oldSource = edgeSources.get(index);
+        int oldTarget = edgeTargets.get(index);
+        unlink(outEdges, outDegree, oldSource, index);
+        unlink(inEdges, inDegree, oldTarget, index);
+        unmark(oldSource, oldTarget);
+        edgeSources.set(index, source);
+        edgeTargets.set(index, target);
+        link(outEdges, outDegree, source, index);
+        link(inEdges, inDegree, target, index);
+        if (adjacency != null) {
+            adjacency.set(source, target);
+        }
+        publish(new GraphChange.EdgeReconnected(++version, index, oldSource, oldTarget, source, target));
+    }
+
+    public void removeEdge(GEdge edge) {
+        if (edge != null && edge.getGraph() == this) {
+            removeEdge(edge.getIndex());
+        }
+    }
+
+    /**
+     * Removes the edge at {@code index}; the last edge takes its index.
+     */
+    public void removeEdge(int index) {
+        checkEdge(index);
+        if (edgeViews[index] != null) {
+            edgeViews[index].detach();
+        }
+        int source = edgeSources.get(index);
+        int target = edgeTargets.get(index);
+        int weight = edgeWeights.get(index);
+        int[] otherWeights = null;
+        if (extraWeights.length > 0) {
+            otherWeights = new int[extraWeights.length];
+            for (int c = 0; c < otherWeights.length; c++) {
+                otherWeights[c] = extraWeights[c].get(index);
+            }
+        }
+        int outPosition = unlink(outEdges, outDegree, source, index);
+        int inPosition = unlink(inEdges, inDegree, target, index);
+        unmark(source, target);
+
+        int last = --edgeCount;
+        if (index != last) {
+            moveEdge(last, index);
+        }
+        edgeViews[last] = null;
+        updateAdjacency();
+        publish(new GraphChange.EdgeRemoved(++version, index, source, target, weight, index != last ? last : -1, otherWeights,
+                outPosition, inPosition));
     }
 
     public boolean hasEdge(GNode u, GNode v) {
-        return edges.stream()
-                .anyMatch(e -> e.getSource() == u && e.getTarget() == v);
+        if (u == null || v == null || u.getGraph() != this || v.getGraph() != this) {
+            return false;
+        }
+        return hasEdge(u.getIndex(), v.getIndex());
+    }
+
+    /**
+     * @return whether an edge {@code u -> v} exists; O(1) on a dense graph, otherwise a scan of
+     *         the shorter adjacency list
+     */
+    public boolean hasEdge(int u, int v) {
+        checkNode(u);
+        checkNode(v);
+        if (adjacency != null) {
+            return adjacency.get(u, v);
+        }
+        return scanEdge(u, v);
+    }
+
+    public AdjacencyMode getAdjacencyMode() {
+        return adjacencyMode;
+    }
+
+    /**
+     * Chooses between the adjacency representations; {@link AdjacencyMode#AUTO} is the default.
+     */
+    public void setAdjacencyMode(AdjacencyMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Adjacency mode cannot be null");
+        }
+        adjacencyMode = mode;
+        updateAdjacency();
+    }
+
+    /**
+     * @return whether edge lookups currently go through a {@link BitMatrix}
+     */
+    public boolean isDenseAdjacency() {
+        return adjacency != null;
+    }
+
+    private boolean scanEdge(int u, int v) {
+        if (outDegree[u] <= inDegree[v]) {
+            int[] list = outEdges[u];
+            for (int k = 0; k < outDegree[u]; k++) {
+                if (edgeTargets.get(list[k]) == v) {
+                    return true;
+                }
+            }
+        } else {
+            int[] list = inEdges[v];
+            for (int k = 0; k < inDegree[v]; k++) {
+                if (edgeSources.get(list[k]) == u) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Object views
+    // -------------------------------------------------------------------------
+
+    /**
+     * @return edges whose source is {@code node}, in insertion order
+     */
+    public List<GEdge> getOutgoingEdges(GNode node) {
+        List<GEdge> result = new ArrayList<>();
+        if (node != null && node.getGraph() == this) {
+            appendEdges(result, outEdges[node.getIndex()], outDegree[node.getIndex()]);
+        }
+        return result;
+    }
+
+    /**
+     * @return edges whose target is {@code node}, in insertion order
+     */
+    public List<GEdge> getIncomingEdges(GNode node) {
+        List<GEdge> result = new ArrayList<>();
+        if (node != null && node.getGraph() == this) {
+            appendEdges(result, inEdges[node.getIndex()], inDegree[node.getIndex()]);
+        }
+        return result;
+    }
+
+    /**
+     * Edges a traversal may follow from {@code node}: outgoing edges for directed graphs,
+     * outgoing followed by incoming edges for undirected ones. Use
+     * {@link GEdge#getOpposite(GNode)} to resolve the neighbor.
+     */
+    public List<GEdge> getIncidentEdges(GNode node) {
+        List<GEdge> result = getOutgoingEdges(node);
+        if (!isDirected && node != null && node.getGraph() == this) {
+            appendEdges(result, inEdges[node.getIndex()], inDegree[node.getIndex()]);
+        }
+        return result;
     }
 
+    /**
+     * @return live list of node views; iterating it materializes every view
+     */
     public List<GNode> getNodes() {
         return nodes;
     }
 
+    /**
+     * @return live list of edge views; iterating it materializes every view
+     */
     public List<GEdge> getEdges() {
         return edges;
     }
@@ -39,7 +779,10 @@ public class GraphModel {
     }
 
     public void setDirected(boolean directed) {
-        isDirected = directed;
+        if (isDirected != directed) {
+            isDirected = directed;
+            publish(new GraphChange.ModeChanged(++version, !directed, isWeighted, directed, isWeighted));
+        }
     }
 
     public boolean isWeighted() {
@@ -47,7 +790,422 @@ public class GraphModel {
     }
 
     public void setWeighted(boolean weighted) {
-        isWeighted = weighted;
+        if (isWeighted != weighted) {
+            isWeighted = weighted;
+            publish(new GraphChange.ModeChanged(++version, isDirected, !weighted, isDirected, weighted));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    void appendBatch(String[] ids, double[] x, double[] y, int nodes,
+                     int[] sources, int[] targets, int[] weights, int edges) {
+        int firstNode = nodeCount;
+        ensureNodeCapacity(nodeCount + nodes);
+        idIndex.ensureCapacity(nodeCount + nodes);
+        for (int i = 0; i < nodes; i++) {
+            int index = firstNode + i;
+            nodeIds.set(index, ids[i]);
+            xs.set(index, x[i]);
+            ys.set(index, y[i]);
+            outEdges[index] = null;
+            outDegree[index] = 0;
+            inEdges[index] = null;
+            inDegree[index] = 0;
+            nodeViews[index] = null;
+            index(ids[i], index);
+        }
+        nodeCount += nodes;
+
+        int firstEdge = edgeCount;
+        ensureEdgeCapacity(edgeCount + edges);
+        int[] extraOut = new int[nodeCount];
+        int[] extraIn = new int[nodeCount];
+        for (int e = 0; e < edges; e++) {
+            extraOut[sources[e]]++;
+            extraIn[targets[e]]++;
+        }
+        // Size every touched adjacency list once instead of doubling it edge by edge
+        for (int e = 0; e < edges; e++) {
+            reserve(outEdges, outDegree, sources[e], extraOut[sources[e]]);
+            extraOut[sources[e]] = 0;
+            reserve(inEdges, inDegree, targets[e], extraIn[targets[e]]);
+            extraIn[targets[e]] = 0;
+        }
+        for (int e = 0; e < edges; e++) {
+            int index = firstEdge + e;
+            edgeSources.set(index, sources[e]);
+            edgeTargets.set(index, targets[e]);
+            edgeWeights.set(index, weights[e]);
+            for (IntColumn column : extraWeights) {
+                column.set(index, weights[e]);
+            }
+            edgeViews[index] = null;
+            link(outEdges, outDegree, sources[e], index);
+            link(inEdges, inDegree, targets[e], index);
+        }
+        edgeCount += edges;
+        if (adjacency != null) {
+            for (int e = 0; e < edges; e++) {
+                adjacency.set(sources[e], targets[e]);
+            }
+        }
+        updateAdjacency();
+        publish(new GraphChange.BatchAdded(++version, firstNode, nodes, firstEdge, edges));
+    }
+
+    private void publish(GraphChange change) {
+        if (journal.size() == JOURNAL_CAPACITY) {
+            journal.pollFirst();
+        }
+        journal.addLast(change);
+        for (GraphListener listener : listeners) {
+            listener.graphChanged(change);
+        }
+    }
+
+    private int attachNode(GNode node) {
+        if (node.getGraph() != null) {
+            throw new IllegalArgumentException("Node " + node.getId() + " already belongs to a graph");
+        }
+        int index = addNode(node.getId(), node.getX(), node.getY());
+        nodeViews[index] = node;
+        node.attach(this, index);
+        return index;
+    }
+
+    private int resolve(GNode node) {
+        if (node == null) {
+            throw new IllegalArgumentException("Edge endpoints cannot be null");
+        }
+        if (node.getGraph() == this) {
+            return node.getIndex();
+        }
+        return attachNode(node);
+    }
+
+    private void appendEdges(List<GEdge> result, int[] list, int degree) {
+        for (int k = 0; k < degree; k++) {
+            result.add(edgeAt(list[k]));
+        }
+    }
+
+    private void index(String id, int index) {
+        if (!idIndex.putIfAbsent(id, index)) {
+            shadowedIds++;
+        }
+    }
+
+    /**
+     * Points {@code id} at the lowest-indexed node still carrying it once the node it named has
+     * been removed or renamed, so {@link #getNode(String)} keeps finding shadowed duplicates.
+     */
+    private void reindex(String id) {
+        if (shadowedIds == 0 || id == null || idIndex.get(id) >= 0) {
+            return;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (id.equals(nodeIds.get(node))) {
+                idIndex.putIfAbsent(id, node);
+                shadowedIds--;
+                return;
+            }
+        }
     }
-}
 
+    private void moveNode(int from, int to) {
+        nodeIds.set(to, nodeIds.get(from));
+        xs.set(to, xs.get(from));
+        ys.set(to, ys.get(from));
+        outEdges[to] = outEdges[from];
+        outDegree[to] = outDegree[from];
+        inEdges[to] = inEdges[from];
+        inDegree[to] = inDegree[from];
+        nodeViews[to] = nodeViews[from];
+        if (nodeViews[to] != null) {
+            nodeViews[to].moveTo(to);
+        }
+        for (int k = 0; k < outDegree[to]; k++) {
+            edgeSources.set(outEdges[to][k], to);
+        }
+        for (int k = 0; k < inDegree[to]; k++) {
+            edgeTargets.set(inEdges[to][k], to);
+        }
+        idIndex.replace(nodeIds.get(to), from, to);
+        if (adjacency != null) {
+            adjacency.move(from, to);
+        }
+    }
+
+    /**
+     * Clears the matrix bit of a removed {@code u -> v} edge unless a parallel edge keeps it set.
+     */
+    private void unmark(int u, int v) {
+        if (adjacency != null && !scanEdge(u, v)) {
+            adjacency.clear(u, v);
+        }
+    }
+
+    /**
+     * Builds or drops the {@link BitMatrix} according to the mode and the current density.
+     */
+    private void updateAdjacency() {
+        boolean dense = switch (adjacencyMode) {
+            case SPARSE -> false;
+            case DENSE -> true;
+            case AUTO -> adjacency == null ? BitMatrix.pays(nodeCount, edgeCount) : !BitMatrix.stale(nodeCount, edgeCount);
+        };
+        if (!dense) {
+            adjacency = null;
+        } else if (adjacency == null) {
+            adjacency = new BitMatrix(nodeCount);
+            for (int e = 0; e < edgeCount; e++) {
+                adjacency.set(edgeSources.get(e), edgeTargets.get(e));
+            }
+        } else {
+            adjacency.ensureCapacity(nodeCount);
+        }
+    }
+
+    private void moveEdge(int from, int to) {
+        edgeSources.set(to, edgeSources.get(from));
+        edgeTargets.set(to, edgeTargets.get(from));
+        edgeWeights.set(to, edgeWeights.get(from));
+        for (IntColumn column : extraWeights) {
+            column.set(to, column.get(from));
+        }
+        edgeViews[to] = edgeViews[from];
+        if (edgeViews[to] != null) {
+            edgeViews[to].moveTo(to);
+        }
+        relabel(outEdges[edgeSources.get(to)], outDegree[edgeSources.get(to)], from, to);
+        relabel(inEdges[edgeTargets.get(to)], inDegree[edgeTargets.get(to)], from, to);
+    }
+
+    private static void link(int[][] lists, int[] degree, int node, int edge) {
+        link(lists, degree, node, edge, -1);
+    }
+
+    /**
+     * Inserts {@code edge} at {@code position} of the node's list, or appends it when the
+     * position is -1 or past the end.
+     */
+    private static void link(int[][] lists, int[] degree, int node, int edge, int position) {
+        int[] list = lists[node];
+        int d = degree[node];
+        if (list == null) {
+            list = new int[2];
+            lists[node] = list;
+        } else if (d == list.length) {
+            list = Arrays.copyOf(list, d * 2);
+            lists[node] = list;
+        }
+        if (position < 0 || position >= d) {
+            list[d] = edge;
+        } else {
+            System.arraycopy(list, position, list, position + 1, d - position);
+            list[position] = edge;
+        }
+        degree[node] = d + 1;
+    }
+
+    private static void reserve(int[][] lists, int[] degree, int node, int extra) {
+        if (extra == 0) {
+            return;
+        }
+        int needed = degree[node] + extra;
+        int[] list = lists[node];
+        if (list == null) {
+            lists[node] = new int[needed];
+        } else if (list.length < needed) {
+            lists[node] = Arrays.copyOf(list, needed);
+        }
+    }
+
+    /**
+     * @return position {@code edge} had in the node's list, or -1 if it was not there
+     */
+    private static int unlink(int[][] lists, int[] degree, int node, int edge) {
+        int[] list = lists[node];
+        int d = degree[node];
+        for (int k = d - 1; k >= 0; k--) {
+            if (list[k] == edge) {
+                System.arraycopy(list, k + 1, list, k, d - k - 1);
+                degree[node] = d - 1;
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private static void relabel(int[] list, int degree, int from, int to) {
+        for (int k = degree - 1; k >= 0; k--) {
+            if (list[k] == from) {
+                list[k] = to;
+                return;
+            }
+        }
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (adjacency != null) {
+            adjacency.ensureCapacity(capacity);
+        }
+        nodeIds.ensureCapacity(capacity);
+        xs.ensureCapacity(capacity);
+        ys.ensureCapacity(capacity);
+        if (capacity <= outEdges.length) {
+            return;
+        }
+        int grown = Math.max(capacity, outEdges.length + (outEdges.length >> 1));
+        outEdges = Arrays.copyOf(outEdges, grown);
+        outDegree = Arrays.copyOf(outDegree, grown);
+        inEdges = Arrays.copyOf(inEdges, grown);
+        inDegree = Arrays.copyOf(inDegree, grown);
+        nodeViews = Arrays.copyOf(nodeViews, grown);
+    }
+
+    private void ensureEdgeCapacity(int capacity) {
+        edgeSources.ensureCapacity(capacity);
+        edgeTargets.ensureCapacity(capacity);
+        edgeWeights.ensureCapacity(capacity);
+        for (IntColumn column : extraWeights) {
+            column.ensureCapacity(capacity);
+        }
+        if (capacity <= edgeViews.length) {
+            return;
+        }
+        int grown = Math.max(capacity, edgeViews.length + (edgeViews.length >> 1));
+        edgeViews = Arrays.copyOf(edgeViews, grown);
+    }
+
+    private void checkNode(int index) {
+        if (index < 0 || index >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node index " + index + " out of range [0, " + nodeCount + ")");
+        }
+    }
+
+    private void checkEdge(int index) {
+        if (index < 0 || index >= edgeCount) {
+            throw new IndexOutOfBoundsException("Edge index " + index + " out of range [0, " + edgeCount + ")");
+        }
+    }
+
+    private void checkWeightColumn(int column) {
+        if (column < 0 || column >= weightNames.length) {
+            throw new IndexOutOfBoundsException("Weight column " + column + " out of range [0, " + weightNames.length + ")");
+        }
+    }
+
+    /**
+     * List facade over the node columns. Removal follows the graph's move-last-into-hole rule.
+     */
+    private final class NodeList extends AbstractList<GNode> {
+        @Override
+        public GNode get(int index) {
+            return nodeAt(index);
+        }
+
+        @Override
+        public int size() {
+            return nodeCount;
+        }
+
+        @Override
+        public void add(int index, GNode node) {
+            if (index != nodeCount) {
+                throw new UnsupportedOperationException("Nodes can only be appended");
+            }
+            attachNode(node);
+        }
+
+        @Override
+        public GNode remove(int index) {
+            GNode removed = nodeAt(index);
+            removeNode(index);
+            return removed;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (o instanceof GNode && ((GNode) o).getGraph() == GraphModel.this) {
+                removeNode(((GNode) o).getIndex());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return o instanceof GNode && ((GNode) o).getGraph() == GraphModel.this ? ((GNode) o).getIndex() : -1;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public void clear() {
+            GraphModel.this.clear();
+        }
+    }
+
+    /**
+     * List facade over the edge columns. Removal follows the graph's move-last-into-hole rule.
+     */
+    private final class EdgeList extends AbstractList<GEdge> {
+        @Override
+        public GEdge get(int index) {
+            return edgeAt(index);
+        }
+
+        @Override
+        public int size() {
+            return edgeCount;
+        }
+
+        @Override
+        public void add(int index, GEdge edge) {
+            if (index != edgeCount) {
+                throw new UnsupportedOperationException("Edges can only be appended");
+            }
+            addEdge(edge);
+        }
+
+        @Override
+        public GEdge remove(int index) {
+            GEdge removed = edgeAt(index);
+            removeEdge(index);
+            return removed;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (o instanceof GEdge && ((GEdge) o).getGraph() == GraphModel.this) {
+                removeEdge(((GEdge) o).getIndex());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return o instanceof GEdge && ((GEdge) o).getGraph() == GraphModel.this ? ((GEdge) o).getIndex() : -1;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public void clear() {
+            while (edgeCount > 0) {
+                removeEdge(edgeCount - 1);
+            }
+        }
+    }
+}
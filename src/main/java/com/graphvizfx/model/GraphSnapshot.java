@@ -0,0 +1,151 @@
+package com.graphvizfx.model;
+
+import java.util.Objects;
+
+/**
+ * Read-only view of a {@link GraphModel} frozen at one version.
+ * <p>
+ * Taking a snapshot is O(1): the node and edge columns are shared with the live graph, which
+ * copies a chunk only when it next writes to it. A snapshot is therefore cheap enough to take
+ * before every background algorithm or layout run, and safe to read from any thread while the
+ * user keeps editing the live model.
+ */
+public final class GraphSnapshot {
+    private final GraphModel origin;
+    private final long version;
+    private final boolean directed;
+    private final boolean weighted;
+    private final int nodeCount;
+    private final StringColumn nodeIds;
+    private final DoubleColumn xs;
+    private final DoubleColumn ys;
+    private final int edgeCount;
+    private final IntColumn edgeSources;
+    private final IntColumn edgeTargets;
+    private final String[] weightNames;
+    private final IntColumn[] weights;
+
+    GraphSnapshot(GraphModel origin, long version, boolean directed, boolean weighted,
+                  int nodeCount, StringColumn nodeIds, DoubleColumn xs, DoubleColumn ys,
+                  int edgeCount, IntColumn edgeSources, IntColumn edgeTargets,
+                  String[] weightNames, IntColumn[] weights) {
+        this.origin = origin;
+        this.version = version;
+        this.directed = directed;
+        this.weighted = weighted;
+        this.nodeCount = nodeCount;
+        this.nodeIds = nodeIds;
+        this.xs = xs;
+        this.ys = ys;
+        this.edgeCount = edgeCount;
+        this.edgeSources = edgeSources;
+        this.edgeTargets = edgeTargets;
+        this.weightNames = weightNames;
+        this.weights = weights;
+    }
+
+    /**
+     * @return the {@link GraphModel#getVersion() version} of the graph when the snapshot was taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return dense index of {@code node} in this snapshot, or -1 when it is null or absent
+     */
+    public int indexOf(GNode node) {
+        if (node == null || node.getGraph() != origin) {
+            return -1;
+        }
+        // The live graph may have renumbered the node since the snapshot was taken.
+        int index = node.getIndex();
+        return index < nodeCount && Objects.equals(nodeIds.get(index), node.getId()) ? index : -1;
+    }
+
+    public String nodeId(int node) {
+        checkNode(node);
+        return nodeIds.get(node);
+    }
+
+    public double nodeX(int node) {
+        checkNode(node);
+        return xs.get(node);
+    }
+
+    public double nodeY(int node) {
+        checkNode(node);
+        return ys.get(node);
+    }
+
+    public int edgeSource(int edge) {
+        checkEdge(edge);
+        return edgeSources.get(edge);
+    }
+
+    public int edgeTarget(int edge) {
+        checkEdge(edge);
+        return edgeTargets.get(edge);
+    }
+
+    public int edgeWeight(int edge) {
+        return edgeWeight(edge, 0);
+    }
+
+    public int weightColumnCount() {
+        return weightNames.length;
+    }
+
+    public String weightColumnName(int column) {
+        return weightNames[column];
+    }
+
+    /**
+     * @return index of the weight column with this name, or -1 when absent
+     */
+    public int weightColumn(String name) {
+        for (int c = 0; c < weightNames.length; c++) {
+            if (weightNames[c].equals(name)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    public int edgeWeight(int edge, int column) {
+        checkEdge(edge);
+        return weights[column].get(edge);
+    }
+
+    GraphModel origin() {
+        return origin;
+    }
+
+    private void checkNode(int index) {
+        if (index < 0 || index >= nodeCount) {
+            throw new IndexOutOfBoundsException("Node index " + index + " out of range [0, " + nodeCount + ")");
+        }
+    }
+
+    private void checkEdge(int index) {
+        if (index < 0 || index >= edgeCount) {
+            throw new IndexOutOfBoundsException("Edge index " + index + " out of range [0, " + edgeCount + ")");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.graphvizfx.model;
+
+/**
+ * Open-addressing map from node id to dense node index.
+ * <p>
+ * Keys and values live in two parallel arrays kept at most half full, so an entry costs two
+ * array slots instead of a {@code HashMap.Node} plus a boxed {@code Integer}. Removal uses
+ * backward-shift deletion, which keeps probe chains intact without tombstones.
+ */
+final class IdIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return the index stored for {@code key}, or -1 when absent
+     */
+    int get(String key) {
+        if (key == null) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            String candidate = keys[slot];
+            if (candidate == null) {
+                return -1;
+            }
+            if (candidate.equals(key)) {
+                return values[slot];
+            }
+        }
+    }
+
+    /**
+     * Stores {@code key -> value} unless the key is already mapped; the first node with a given id wins.
+     *
+     * @return false if {@code key} was already mapped
+     */
+    boolean putIfAbsent(String key, int value) {
+        if (key == null) {
+            return true;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            String candidate = keys[slot];
+            if (candidate == null) {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                return true;
+            }
+            if (candidate.equals(key)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes {@code key} if it currently maps to {@code value}.
+     */
+    void remove(String key, int value) {
+        int slot = find(key, value);
+        if (slot < 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            boolean reachable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (reachable) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        size--;
+    }
+
+    /**
+     * Re-points {@code key} from {@code oldValue} to {@code newValue} after a node changed index.
+     */
+    void replace(String key, int oldValue, int newValue) {
+        int slot = find(key, oldValue);
+        if (slot >= 0) {
+            values[slot] = newValue;
+        }
+    }
+
+    /**
+     * Pre-sizes the table so {@code entries} keys fit without rehashing.
+     */
+    void ensureCapacity(int entries) {
+        int capacity = keys.length;
+        while (capacity < entries * 2L) {
+            capacity <<= 1;
+        }
+        if (capacity != keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    void clear() {
+        keys = new String[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    private int find(String key, int value) {
+        if (key == null) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            String candidate = keys[slot];
+            if (candidate == null) {
+                return -1;
+            }
+            if (candidate.equals(key)) {
+                return values[slot] == value ? slot : -1;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                putIfAbsent(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(String key, int mask) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
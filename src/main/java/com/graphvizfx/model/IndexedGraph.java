@@ -0,0 +1,77 @@
+package com.graphvizfx.model;
+
+/**
+ * Read accessors over a graph whose nodes and edges are numbered densely from 0.
+ * <p>
+ * Implemented by the editable {@link GraphModel} and by every {@link CsrGraph}, whether its
+ * arrays live on the heap or in a memory-mapped file, so renderers and exporters can read any of
+ * them without materializing {@link GNode}/{@link GEdge} objects.
+ */
+public interface IndexedGraph {
+
+    boolean isDirected();
+
+    boolean isWeighted();
+
+    int nodeCount();
+
+    int edgeCount();
+
+    String nodeId(int node);
+
+    double nodeX(int node);
+
+    double nodeY(int node);
+
+    int edgeSource(int edge);
+
+    int edgeTarget(int edge);
+
+    int edgeWeight(int edge);
+
+    /**
+     * @return number of weight columns; column 0 is the one {@link #edgeWeight(int)} reads
+     *         unless a {@link CsrGraph#withWeights(int) view} selected another
+     */
+    default int weightColumnCount() {
+        return 1;
+    }
+
+    default String weightColumnName(int column) {
+        if (column != 0) {
+            throw new IndexOutOfBoundsException("Weight column " + column + " out of range [0, 1)");
+        }
+        return GraphModel.DEFAULT_WEIGHT_COLUMN;
+    }
+
+    /**
+     * @return index of the weight column with this name, or -1 when absent
+     */
+    default int weightColumn(String name) {
+        for (int c = 0; c < weightColumnCount(); c++) {
+            if (weightColumnName(c).equals(name)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    default int edgeWeight(int edge, int column) {
+        if (column != 0) {
+            throw new IndexOutOfBoundsException("Weight column " + column + " out of range [0, 1)");
+        }
+        return edgeWeight(edge);
+    }
+
+    /**
+     * @return whether an edge {@code u -> v} exists, in that orientation
+     */
+    boolean hasEdge(int u, int v);
+
+    /**
+     * @return the {@code source->target} id of the edge, built from the endpoint ids
+     */
+    default String edgeId(int edge) {
+        return nodeId(edgeSource(edge)) + "->" + nodeId(edgeTarget(edge));
+    }
+}
@@ -0,0 +1,40 @@
+package com.graphvizfx.model;
+
+/**
+ * Growable int column, chunked and shared copy-on-write as described in {@link ChunkedColumn}.
+ */
+final class IntColumn extends ChunkedColumn<int[]> {
+    IntColumn() {
+        super(new int[0][], true);
+    }
+
+    private IntColumn(int[][] chunks) {
+        super(chunks, false);
+    }
+
+    int get(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    void set(int index, int value) {
+        writableChunk(index >>> CHUNK_SHIFT)[index & CHUNK_MASK] = value;
+    }
+
+    /**
+     * @return a read-only column sharing every current chunk; later writes to this column no
+     *         longer reach it
+     */
+    IntColumn freeze() {
+        return new IntColumn(share());
+    }
+
+    @Override
+    int[] newChunk() {
+        return new int[CHUNK_SIZE];
+    }
+
+    @Override
+    int[] copy(int[] chunk) {
+        return chunk.clone();
+    }
+}
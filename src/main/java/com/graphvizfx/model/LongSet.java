@@ -0,0 +1,80 @@
+package com.graphvizfx.model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-negative {@code long} keys, used to detect duplicate endpoint pairs.
+ * <p>
+ * Keys live in a single {@code long[]} kept at most half full, with -1 marking free slots, so a
+ * million pairs cost 16 MB instead of a boxed {@code HashSet<Long>}.
+ */
+final class LongSet {
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int size;
+
+    LongSet(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2L) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @return true when {@code key} was not present yet
+     */
+    boolean add(long key) {
+        if ((size + 1) * 2L > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == EMPTY) {
+                keys[slot] = key;
+                size++;
+                return true;
+            }
+            if (candidate == key) {
+                return false;
+            }
+        }
+    }
+
+    boolean contains(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == EMPTY) {
+                return false;
+            }
+            if (candidate == key) {
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (long key : old) {
+            if (key != EMPTY) {
+                add(key);
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
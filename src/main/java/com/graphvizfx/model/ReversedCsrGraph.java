@@ -0,0 +1,178 @@
+package com.graphvizfx.model;
+
+import java.util.Arrays;
+
+/**
+ * {@link CsrGraph#reverse() Reverse} of a directed graph: the same nodes and edges, with each
+ * node's arcs being its incoming edges, so a backward search walks them like a forward one. Only
+ * the arc arrays are built; everything else reads the base graph.
+ */
+final class ReversedCsrGraph implements CsrGraph {
+    private final CsrGraph base;
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] weights;
+    private final int[] arcEdges;
+
+    ReversedCsrGraph(CsrGraph base) {
+        this.base = base;
+        int n = base.nodeCount();
+        offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int a = base.arcStart(u); a < base.arcEnd(u); a++) {
+                offsets[base.arcTarget(a) + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        sources = new int[offsets[n]];
+        weights = new int[offsets[n]];
+        arcEdges = new int[offsets[n]];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int a = base.arcStart(u); a < base.arcEnd(u); a++) {
+                int arc = cursor[base.arcTarget(a)]++;
+                sources[arc] = u;
+                weights[arc] = base.arcWeight(a);
+                arcEdges[arc] = base.arcEdge(a);
+            }
+        }
+    }
+
+    @Override
+    public CsrGraph reverse() {
+        return base;
+    }
+
+    @Override
+    public int arcStart(int node) {
+        return offsets[node];
+    }
+
+    @Override
+    public int arcEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * @return the node the reversed arc leads back to, i.e. the source of its edge
+     */
+    @Override
+    public int arcTarget(int arc) {
+        return sources[arc];
+    }
+
+    @Override
+    public int arcWeight(int arc) {
+        return weights[arc];
+    }
+
+    @Override
+    public int arcEdge(int arc) {
+        return arcEdges[arc];
+    }
+
+    @Override
+    public int indexOf(GNode node) {
+        return base.indexOf(node);
+    }
+
+    @Override
+    public boolean sharesIndicesWith(IndexedGraph graph) {
+        return graph == this || base.sharesIndicesWith(graph);
+    }
+
+    @Override
+    public GraphModel origin() {
+        return base.origin();
+    }
+
+    @Override
+    public long getVersion() {
+        return base.getVersion();
+    }
+
+    @Override
+    public int weightColumn() {
+        return base.weightColumn();
+    }
+
+    @Override
+    public CsrGraph withWeights(int column) {
+        return base.withWeights(column).reverse();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return base.isDirected();
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return base.isWeighted();
+    }
+
+    @Override
+    public int nodeCount() {
+        return base.nodeCount();
+    }
+
+    @Override
+    public int edgeCount() {
+        return base.edgeCount();
+    }
+
+    @Override
+    public String nodeId(int node) {
+        return base.nodeId(node);
+    }
+
+    @Override
+    public double nodeX(int node) {
+        return base.nodeX(node);
+    }
+
+    @Override
+    public double nodeY(int node) {
+        return base.nodeY(node);
+    }
+
+    @Override
+    public int edgeSource(int edge) {
+        return base.edgeSource(edge);
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return base.edgeTarget(edge);
+    }
+
+    @Override
+    public int edgeWeight(int edge) {
+        return base.edgeWeight(edge);
+    }
+
+    @Override
+    public int weightColumnCount() {
+        return base.weightColumnCount();
+    }
+
+    @Override
+    public String weightColumnName(int column) {
+        return base.weightColumnName(column);
+    }
+
+    @Override
+    public int edgeWeight(int edge, int column) {
+        return base.edgeWeight(edge, column);
+    }
+
+    /**
+     * Edges keep their orientation; only the arcs are reversed.
+     */
+    @Override
+    public boolean hasEdge(int u, int v) {
+        return base.hasEdge(u, v);
+    }
+}
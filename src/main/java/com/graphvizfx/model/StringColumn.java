@@ -0,0 +1,40 @@
+package com.graphvizfx.model;
+
+/**
+ * Growable String column, chunked and shared copy-on-write as described in {@link ChunkedColumn}.
+ */
+final class StringColumn extends ChunkedColumn<String[]> {
+    StringColumn() {
+        super(new String[0][], true);
+    }
+
+    private StringColumn(String[][] chunks) {
+        super(chunks, false);
+    }
+
+    String get(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    void set(int index, String value) {
+        writableChunk(index >>> CHUNK_SHIFT)[index & CHUNK_MASK] = value;
+    }
+
+    /**
+     * @return a read-only column sharing every current chunk; later writes to this column no
+     *         longer reach it
+     */
+    StringColumn freeze() {
+        return new StringColumn(share());
+    }
+
+    @Override
+    String[] newChunk() {
+        return new String[CHUNK_SIZE];
+    }
+
+    @Override
+    String[] copy(String[] chunk) {
+        return chunk.clone();
+    }
+}
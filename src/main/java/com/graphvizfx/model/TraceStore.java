@@ -0,0 +1,348 @@
+package com.graphvizfx.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Delta and keyframe storage of an {@link AlgorithmTrace}, kept within a heap budget.
+ * <p>
+ * Changes are stored column by column in segments of {@link #SEGMENT_CHANGES} entries. Once the
+ * full segments and the keyframes take more than the budget, the oldest of them are written to a
+ * temporary file and replaced by read-write mappings of it, so playback keeps reading them by
+ * index while the operating system decides which pages stay in memory. The segment still being
+ * filled always stays on the heap. The file is deleted when the store becomes unreachable.
+ */
+final class TraceStore {
+    static final int SEGMENT_SHIFT = 15;
+    static final int SEGMENT_CHANGES = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_CHANGES - 1;
+    /** Heap bytes per change: kind, key, old and new value. */
+    static final int CHANGE_BYTES = 1 + Integer.BYTES + 2 * Double.BYTES;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private int size;
+    private Segment[] segments = {new Segment(INITIAL_CAPACITY)};
+    private int spilledSegments;
+
+    private int keyframeCount;
+    private int[] keyframeChanges = new int[8];
+    private Keyframe[] keyframes = new Keyframe[8];
+    private int spilledKeyframes;
+
+    private long budget = Long.MAX_VALUE;
+    private long heapBytes;
+    private Spill spill;
+
+    int size() {
+        return size;
+    }
+
+    byte kind(int change) {
+        Segment segment = segments[change >>> SEGMENT_SHIFT];
+        int i = change & SEGMENT_MASK;
+        return segment.kinds != null ? segment.kinds[i] : segment.mappedKinds.get(i);
+    }
+
+    int key(int change) {
+        Segment segment = segments[change >>> SEGMENT_SHIFT];
+        int i = change & SEGMENT_MASK;
+        return segment.keys != null ? segment.keys[i] : segment.mappedKeys.get(i);
+    }
+
+    double oldValue(int change) {
+        Segment segment = segments[change >>> SEGMENT_SHIFT];
+        int i = change & SEGMENT_MASK;
+        return segment.oldValues != null ? segment.oldValues[i] : segment.mappedOldValues.get(i);
+    }
+
+    double newValue(int change) {
+        Segment segment = segments[change >>> SEGMENT_SHIFT];
+        int i = change & SEGMENT_MASK;
+        return segment.newValues != null ? segment.newValues[i] : segment.mappedNewValues.get(i);
+    }
+
+    /**
+     * Overwrites the new value of a recorded change; spilled segments are written through their
+     * mapping.
+     */
+    void setNewValue(int change, double value) {
+        Segment segment = segments[change >>> SEGMENT_SHIFT];
+        int i = change & SEGMENT_MASK;
+        if (segment.newValues != null) {
+            segment.newValues[i] = value;
+        } else {
+            segment.mappedNewValues.put(i, value);
+        }
+    }
+
+    void add(byte kind, int key, double oldValue, double newValue) {
+        int s = size >>> SEGMENT_SHIFT;
+        int i = size & SEGMENT_MASK;
+        if (s == segments.length) {
+            segments = Arrays.copyOf(segments, s * 2);
+        }
+        if (segments[s] == null) {
+            segments[s] = new Segment(SEGMENT_CHANGES);
+        }
+        Segment segment = segments[s];
+        if (i == segment.kinds.length) {
+            segment.grow();
+        }
+        segment.kinds[i] = kind;
+        segment.keys[i] = key;
+        segment.oldValues[i] = oldValue;
+        segment.newValues[i] = newValue;
+        size++;
+        if ((size & SEGMENT_MASK) == 0) {
+            // The segment is full now and may be spilled
+            heapBytes += (long) SEGMENT_CHANGES * CHANGE_BYTES;
+            enforceBudget();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Keyframes
+    // -------------------------------------------------------------------------
+
+    int keyframeCount() {
+        return keyframeCount;
+    }
+
+    int keyframeChange(int k) {
+        return keyframeChanges[k];
+    }
+
+    /**
+     * @return slots keyframe {@code k} restores, which is what restoring it costs
+     */
+    int keyframeSize(int k) {
+        return 2 * keyframes[k].nodes + keyframes[k].edges;
+    }
+
+    /**
+     * Stores the first {@code nodes} nodes and {@code edges} edges of {@code state} as the
+     * keyframe at {@code change}.
+     */
+    void addKeyframe(int change, CompactState state, int nodes, int edges) {
+        if (keyframeCount == keyframes.length) {
+            keyframeChanges = Arrays.copyOf(keyframeChanges, keyframeCount * 2);
+            keyframes = Arrays.copyOf(keyframes, keyframeCount * 2);
+        }
+        Keyframe frame = new Keyframe(nodes, edges);
+        frame.nodeCodes = Arrays.copyOf(state.nodeCodes, nodes);
+        frame.edgeCodes = Arrays.copyOf(state.edgeCodes, edges);
+        frame.distances = Arrays.copyOf(state.distances, nodes);
+        keyframeChanges[keyframeCount] = change;
+        keyframes[keyframeCount++] = frame;
+        heapBytes += frame.bytes();
+        enforceBudget();
+    }
+
+    /**
+     * Copies keyframe {@code k} into {@code state}, which must be large enough to hold it.
+     */
+    void restoreKeyframe(int k, CompactState state) {
+        Keyframe frame = keyframes[k];
+        if (frame.nodeCodes != null) {
+            System.arraycopy(frame.nodeCodes, 0, state.nodeCodes, 0, frame.nodes);
+            System.arraycopy(frame.edgeCodes, 0, state.edgeCodes, 0, frame.edges);
+            System.arraycopy(frame.distances, 0, state.distances, 0, frame.nodes);
+        } else {
+            frame.mappedDistances.get(0, state.distances, 0, frame.nodes);
+            frame.mappedCodes.get(0, state.nodeCodes, 0, frame.nodes);
+            frame.mappedCodes.get(frame.nodes, state.edgeCodes, 0, frame.edges);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Budget
+    // -------------------------------------------------------------------------
+
+    /**
+     * Keeps at most about {@code bytes} of full segments and keyframes on the heap, spilling the
+     * oldest ones to disk right away if they already take more.
+     */
+    void setBudget(long bytes) {
+        budget = bytes;
+        enforceBudget();
+    }
+
+    long heapBytes() {
+        return heapBytes;
+    }
+
+    long spilledBytes() {
+        return spill == null ? 0 : spill.length;
+    }
+
+    private void enforceBudget() {
+        // Full segments are those before the one being filled
+        int full = size >>> SEGMENT_SHIFT;
+        while (heapBytes > budget) {
+            boolean segmentLeft = spilledSegments < full;
+            boolean keyframeLeft = spilledKeyframes < keyframeCount;
+            if (!segmentLeft && !keyframeLeft) {
+                return;
+            }
+            // Spill whichever of the two holds the older changes
+            if (segmentLeft && (!keyframeLeft
+                    || (long) spilledSegments << SEGMENT_SHIFT <= keyframeChanges[spilledKeyframes])) {
+                spillSegment(segments[spilledSegments++]);
+            } else {
+                spillKeyframe(keyframes[spilledKeyframes++]);
+            }
+        }
+    }
+
+    private void spillSegment(Segment segment) {
+        int n = SEGMENT_CHANGES;
+        ByteBuffer kinds = spill().map(n);
+        kinds.put(0, segment.kinds);
+        IntBuffer keys = spill().map((long) n * Integer.BYTES).asIntBuffer();
+        keys.put(0, segment.keys);
+        DoubleBuffer oldValues = spill().map((long) n * Double.BYTES).asDoubleBuffer();
+        oldValues.put(0, segment.oldValues);
+        DoubleBuffer newValues = spill().map((long) n * Double.BYTES).asDoubleBuffer();
+        newValues.put(0, segment.newValues);
+        segment.mappedKinds = kinds;
+        segment.mappedKeys = keys;
+        segment.mappedOldValues = oldValues;
+        segment.mappedNewValues = newValues;
+        segment.kinds = null;
+        segment.keys = null;
+        segment.oldValues = null;
+        segment.newValues = null;
+        heapBytes -= (long) n * CHANGE_BYTES;
+    }
+
+    private void spillKeyframe(Keyframe frame) {
+        DoubleBuffer distances = spill().map((long) frame.nodes * Double.BYTES).asDoubleBuffer();
+        distances.put(0, frame.distances);
+        ByteBuffer codes = spill().map(frame.nodes + frame.edges);
+        codes.put(0, frame.nodeCodes);
+        codes.put(frame.nodes, frame.edgeCodes);
+        frame.mappedDistances = distances;
+        frame.mappedCodes = codes;
+        heapBytes -= frame.bytes();
+        frame.nodeCodes = null;
+        frame.edgeCodes = null;
+        frame.distances = null;
+    }
+
+    private Spill spill() {
+        if (spill == null) {
+            try {
+                spill = new Spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create trace spill file", e);
+            }
+            CLEANER.register(this, spill);
+        }
+        return spill;
+    }
+
+    /**
+     * Change columns of one segment, on the heap until spilled and then in mapped sections.
+     */
+    private static final class Segment {
+        byte[] kinds;
+        int[] keys;
+        double[] oldValues;
+        double[] newValues;
+        ByteBuffer mappedKinds;
+        IntBuffer mappedKeys;
+        DoubleBuffer mappedOldValues;
+        DoubleBuffer mappedNewValues;
+
+        Segment(int capacity) {
+            kinds = new byte[capacity];
+            keys = new int[capacity];
+            oldValues = new double[capacity];
+            newValues = new double[capacity];
+        }
+
+        /**
+         * Doubles the first segment, which starts small so that short traces stay small.
+         */
+        void grow() {
+            int grown = Math.min(kinds.length * 2, SEGMENT_CHANGES);
+            kinds = Arrays.copyOf(kinds, grown);
+            keys = Arrays.copyOf(keys, grown);
+            oldValues = Arrays.copyOf(oldValues, grown);
+            newValues = Arrays.copyOf(newValues, grown);
+        }
+    }
+
+    /**
+     * Full state at one change index, as copies of the head's arrays up to the keys known then.
+     */
+    private static final class Keyframe {
+        final int nodes;
+        final int edges;
+        byte[] nodeCodes;
+        byte[] edgeCodes;
+        double[] distances;
+        // Once spilled: node codes followed by edge codes, and the distances
+        ByteBuffer mappedCodes;
+        DoubleBuffer mappedDistances;
+
+        Keyframe(int nodes, int edges) {
+            this.nodes = nodes;
+            this.edges = edges;
+        }
+
+        long bytes() {
+            return (long) nodes * (1 + Double.BYTES) + edges;
+        }
+    }
+
+    /**
+     * Temporary file that spilled sections are appended to, opened to be deleted on close. Where
+     * the platform allows it the file is unlinked right away, so nothing is left behind even if
+     * the process dies; its space is released once the channel and the last mapping are gone.
+     */
+    private static final class Spill implements Runnable {
+        private final FileChannel channel;
+        private long length;
+
+        Spill() throws IOException {
+            Path file = Files.createTempFile("graphvizfx-trace", ".bin");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        /**
+         * Maps the next {@code bytes} bytes of the file, growing it, and keeps sections 8-byte aligned.
+         */
+        ByteBuffer map(long bytes) {
+            try {
+                ByteBuffer section = channel.map(FileChannel.MapMode.READ_WRITE, length, bytes)
+                        .order(ByteOrder.nativeOrder());
+                length += (bytes + 7) & ~7L;
+                return section;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot spill trace to disk", e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+}
@@ -8,14 +8,14 @@ public class VisualState {
     private Map<String, Color> nodeColors = new HashMap<>();
     private Map<String, Color> edgeColors = new HashMap<>();
     private Map<String, Double> distances = new HashMap<>();
-    private String logLine = "";
+    private CharSequence log = "";
 
     public VisualState copy() {
         VisualState copy = new VisualState();
         copy.nodeColors.putAll(this.nodeColors);
         copy.edgeColors.putAll(this.edgeColors);
         copy.distances.putAll(this.distances);
-        copy.logLine = this.logLine;
+        copy.log = this.log;
         return copy;
     }
 
@@ -32,11 +32,23 @@ public class VisualState {
     }
 
     public String getLogLine() {
-        return logLine;
+        return log == null ? null : log.toString();
     }
 
     public void setLogLine(String logLine) {
-        this.logLine = logLine;
+        this.log = logLine;
+    }
+
+    /**
+     * @return the log without converting it to a String; for a state taken from an
+     *         {@link AlgorithmTrace} this is a view of the trace's shared log buffer
+     */
+    public CharSequence getLog() {
+        return log;
+    }
+
+    void setLog(CharSequence log) {
+        this.log = log;
     }
 }
 
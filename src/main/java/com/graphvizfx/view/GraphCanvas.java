@@ -1,10 +1,12 @@
 package com.graphvizfx.view;
 
 import com.graphvizfx.controller.GraphController;
+import com.graphvizfx.model.CompactState;
+import com.graphvizfx.model.CsrGraph;
 import com.graphvizfx.model.GEdge;
 import com.graphvizfx.model.GNode;
 import com.graphvizfx.model.GraphModel;
-import com.graphvizfx.model.VisualState;
+import com.graphvizfx.model.IndexedGraph;
 import com.graphvizfx.utils.MathUtils;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -13,6 +15,9 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Canvas component for rendering and interacting with graphs.
  * Handles node/edge drawing, mouse interactions, and visual state updates.
@@ -24,7 +29,15 @@ public class GraphCanvas extends Pane {
     private Canvas canvas;
     private GraphController controller;
     private boolean interactive;
-    private VisualState currentState;
+    private CompactState currentState;
+    private IndexedGraph displayedGraph;
+
+    // Drawn index -> index in the state's graph, or null while the two agree
+    private int[] nodeRemap;
+    private int[] edgeRemap;
+    private IndexedGraph remapSource;
+    private IndexedGraph remapTarget;
+    private long remapVersion;
 
     private GNode selectedNode = null;
     private GNode edgeStart = null;
@@ -49,6 +62,9 @@ public class GraphCanvas extends Pane {
 
     private void setupEvents() {
         canvas.setOnMousePressed(e -> {
+            if (displayedGraph != null) {
+                return;
+            }
             GraphModel graph = controller.getGraph();
             GNode hit = hitTest(e.getX(), e.getY(), graph);
 
@@ -72,7 +88,7 @@ public class GraphCanvas extends Pane {
                         javafx.scene.control.TextInputDialog td = new javafx.scene.control.TextInputDialog("" + edgeHit.getWeight());
                         td.showAndWait().ifPresent(s -> {
                             try {
-                                edgeHit.setWeight(Integer.parseInt(s));
+                                controller.setEdgeWeight(edgeHit, Integer.parseInt(s));
                                 draw();
                             } catch (Exception x) {
                                 // Ignore invalid values
@@ -90,6 +106,8 @@ public class GraphCanvas extends Pane {
                     selectedNode = hit;
                     edgeStart = hit;
                     dragging = true;
+                    // Every move until release collapses into one undo step
+                    controller.getHistory().beginEdit();
                 } else {
                     if (edgeStart != hit) {
                         if (!graph.hasEdge(edgeStart, hit)) {
@@ -125,19 +143,33 @@ public class GraphCanvas extends Pane {
                 double margin = NODE_MARGIN;
                 double maxX = Math.max(margin, getWidth() - margin);
                 double maxY = Math.max(margin, getHeight() - margin);
-                selectedNode.setX(Math.max(margin, Math.min(maxX, e.getX())));
-                selectedNode.setY(Math.max(margin, Math.min(maxY, e.getY())));
+                controller.moveNode(selectedNode,
+                        Math.max(margin, Math.min(maxX, e.getX())),
+                        Math.max(margin, Math.min(maxY, e.getY())));
                 draw();
             }
         });
 
-        canvas.setOnMouseReleased(e -> dragging = false);
+        canvas.setOnMouseReleased(e -> {
+            if (dragging) {
+                dragging = false;
+                controller.getHistory().endEdit();
+            }
+        });
+    }
+
+    /**
+     * Forgets the pending edge start and selection, e.g. after undo removed the node.
+     */
+    public void clearSelection() {
+        selectedNode = null;
+        edgeStart = null;
     }
 
     private GNode hitTest(double x, double y, GraphModel graph) {
-        for (GNode n : graph.getNodes()) {
-            if (Math.hypot(n.getX() - x, n.getY() - y) <= n.getRadius()) {
-                return n;
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            if (Math.hypot(graph.nodeX(i) - x, graph.nodeY(i) - y) <= GNode.RADIUS) {
+                return graph.nodeAt(i);
             }
         }
         return null;
@@ -145,15 +177,17 @@ public class GraphCanvas extends Pane {
 
     private GEdge hitTestEdge(double x, double y, GraphModel graph) {
         double minDist = Double.MAX_VALUE;
-        GEdge closestEdge = null;
+        int closestEdge = -1;
         
-        for (GEdge e : graph.getEdges()) {
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            int source = graph.edgeSource(e);
+            int target = graph.edgeTarget(e);
+            double sx = graph.nodeX(source), sy = graph.nodeY(source);
+            double tx = graph.nodeX(target), ty = graph.nodeY(target);
             double d;
             
             // For curved edges (bidirectional directed), check distance to curve
-            if (graph.isDirected() && graph.hasEdge(e.getTarget(), e.getSource())) {
-                double sx = e.getSource().getX(), sy = e.getSource().getY();
-                double tx = e.getTarget().getX(), ty = e.getTarget().getY();
+            if (graph.isDirected() && graph.hasEdge(target, source)) {
                 double mx = (sx + tx) / 2;
                 double my = (sy + ty) / 2;
                 double dx = tx - sx, dy = ty - sy;
@@ -172,8 +206,7 @@ public class GraphCanvas extends Pane {
                     d = MathUtils.ptSegDist(sx, sy, tx, ty, x, y);
                 }
             } else {
-                d = MathUtils.ptSegDist(e.getSource().getX(), e.getSource().getY(),
-                        e.getTarget().getX(), e.getTarget().getY(), x, y);
+                d = MathUtils.ptSegDist(sx, sy, tx, ty, x, y);
             }
             
             if (d < EDGE_HIT_THRESHOLD && d < minDist) {
@@ -181,7 +214,7 @@ public class GraphCanvas extends Pane {
                 closestEdge = e;
             }
         }
-        return closestEdge;
+        return closestEdge < 0 ? null : graph.edgeAt(closestEdge);
     }
 
     public void draw() {
@@ -212,30 +245,56 @@ public class GraphCanvas extends Pane {
             gc.strokeLine(0, i, w, i);
         }
 
-        GraphModel graph = controller.getGraph();
-        for (GEdge e : graph.getEdges()) {
-            drawEdge(gc, e, graph);
+        IndexedGraph graph = displayedGraph != null ? displayedGraph : controller.getGraph();
+        if (currentState != null) {
+            syncIndices(graph);
+        }
+        // A store can be far larger than the view, so only what may reach it is drawn
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (mayShow(graph, graph.edgeSource(e), graph.edgeTarget(e), w, h)) {
+                drawEdge(gc, e, graph);
+            }
         }
-        for (GNode n : graph.getNodes()) {
-            drawNode(gc, n);
+        for (int n = 0; n < graph.nodeCount(); n++) {
+            if (mayShow(graph, n, n, w, h)) {
+                drawNode(gc, n, graph);
+            }
         }
     }
 
-    private void drawEdge(GraphicsContext gc, GEdge e, GraphModel graph) {
+    /**
+     * @return false when the nodes lie past the same side of the view, with room for curved edges
+     *         and node labels
+     */
+    private static boolean mayShow(IndexedGraph graph, int u, int v, double w, double h) {
+        double margin = GNode.RADIUS + 2 * NODE_MARGIN;
+        double ux = graph.nodeX(u), uy = graph.nodeY(u);
+        double vx = graph.nodeX(v), vy = graph.nodeY(v);
+        return !(ux < -margin && vx < -margin || ux > w + margin && vx > w + margin
+                || uy < -margin && vy < -margin || uy > h + margin && vy > h + margin);
+    }
+
+    private void drawEdge(GraphicsContext gc, int e, IndexedGraph graph) {
         Color c = Color.GRAY;
         double width = 1.5;
 
-        if (currentState != null && currentState.getEdgeColors().containsKey(e.getId())) {
-            c = currentState.getEdgeColors().get(e.getId());
-            width = 3.0;
+        if (currentState != null) {
+            int index = edgeRemap == null ? e : edgeRemap[e];
+            Color highlight = index < 0 ? null : currentState.edgeColor(index);
+            if (highlight != null) {
+                c = highlight;
+                width = 3.0;
+            }
         }
 
         gc.setStroke(c);
         gc.setLineWidth(width);
 
-        double sx = e.getSource().getX(), sy = e.getSource().getY();
-        double tx = e.getTarget().getX(), ty = e.getTarget().getY();
-        boolean reverseExists = graph.hasEdge(e.getTarget(), e.getSource());
+        int source = graph.edgeSource(e);
+        int target = graph.edgeTarget(e);
+        double sx = graph.nodeX(source), sy = graph.nodeY(source);
+        double tx = graph.nodeX(target), ty = graph.nodeY(target);
+        boolean reverseExists = graph.hasEdge(target, source);
 
         if (graph.isDirected() && reverseExists) {
             double mx = (sx + tx) / 2;
@@ -255,7 +314,7 @@ public class GraphCanvas extends Pane {
             gc.stroke();
             drawArrow(gc, mx + nx, my + ny, tx, ty, c);
             if (graph.isWeighted()) {
-                drawWeight(gc, mx + nx, my + ny, e.getWeight());
+                drawWeight(gc, mx + nx, my + ny, graph.edgeWeight(e));
             }
         } else {
             gc.strokeLine(sx, sy, tx, ty);
@@ -263,7 +322,7 @@ public class GraphCanvas extends Pane {
                 drawArrow(gc, sx, sy, tx, ty, c);
             }
             if (graph.isWeighted()) {
-                drawWeight(gc, (sx + tx) / 2, (sy + ty) / 2, e.getWeight());
+                drawWeight(gc, (sx + tx) / 2, (sy + ty) / 2, graph.edgeWeight(e));
             }
         }
     }
@@ -305,43 +364,102 @@ public class GraphCanvas extends Pane {
         gc.fillText("" + w, x, y + 4);
     }
 
-    private void drawNode(GraphicsContext gc, GNode n) {
+    private void drawNode(GraphicsContext gc, int n, IndexedGraph graph) {
+        String id = graph.nodeId(n);
+        double x = graph.nodeX(n);
+        double y = graph.nodeY(n);
+        double r = GNode.RADIUS;
+
+        int index = currentState == null ? -1 : nodeRemap == null ? n : nodeRemap[n];
         Color fill = Color.WHITE;
-        if (currentState != null && currentState.getNodeColors().containsKey(n.getId())) {
-            fill = currentState.getNodeColors().get(n.getId());
-        } else if (n == edgeStart) {
+        Color highlight = index < 0 ? null : currentState.nodeColor(index);
+        if (highlight != null) {
+            fill = highlight;
+        } else if (edgeStart != null && edgeStart.getIndex() == n) {
             fill = Color.LIGHTGREEN;
         }
 
         gc.setFill(Color.rgb(0, 0, 0, 0.1));
-        gc.fillOval(n.getX() - n.getRadius() + 3, n.getY() - n.getRadius() + 3, n.getRadius() * 2, n.getRadius() * 2);
+        gc.fillOval(x - r + 3, y - r + 3, r * 2, r * 2);
 
         gc.setFill(fill);
         gc.setStroke(Color.BLACK);
         gc.setLineWidth(1.5);
-        gc.fillOval(n.getX() - n.getRadius(), n.getY() - n.getRadius(), n.getRadius() * 2, n.getRadius() * 2);
-        gc.strokeOval(n.getX() - n.getRadius(), n.getY() - n.getRadius(), n.getRadius() * 2, n.getRadius() * 2);
+        gc.fillOval(x - r, y - r, r * 2, r * 2);
+        gc.strokeOval(x - r, y - r, r * 2, r * 2);
 
         gc.setFill(Color.BLACK);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setFont(Font.font("Segoe UI", javafx.scene.text.FontWeight.BOLD, 12));
-        gc.fillText(n.getId(), n.getX(), n.getY() + 4);
+        gc.fillText(id, x, y + 4);
 
-        if (currentState != null && currentState.getDistances().containsKey(n.getId())) {
-            double d = currentState.getDistances().get(n.getId());
+        double d = index < 0 ? Double.NaN : currentState.distance(index);
+        if (!Double.isNaN(d)) {
             String t = (d == Double.MAX_VALUE) ? "∞" : String.format("%.0f", d);
             gc.setFill(Color.RED);
             gc.setFont(Font.font(11));
-            gc.fillText(t, n.getX(), n.getY() - 24);
+            gc.fillText(t, x, y - 24);
+        }
+    }
+
+    /**
+     * Renders {@code graph} instead of the controller's editable graph, e.g. a memory-mapped
+     * store; editing is disabled until this is reset to null.
+     */
+    public void setDisplayedGraph(IndexedGraph graph) {
+        this.displayedGraph = graph;
+        clearSelection();
+        if (dragging) {
+            dragging = false;
+            controller.getHistory().endEdit();
         }
     }
 
-    public void setCurrentState(VisualState state) {
+    /**
+     * Colors nodes and edges from {@code state}, a trace's playback cursor, or clears them for null.
+     */
+    public void setCurrentState(CompactState state) {
         this.currentState = state;
     }
 
-    public VisualState getCurrentState() {
+    public CompactState getCurrentState() {
         return currentState;
     }
+
+    /**
+     * Points drawn indices at the state's. They agree unless the graph was edited after the run
+     * took its snapshot; then nodes and edges are matched by id, once per edit.
+     */
+    private void syncIndices(IndexedGraph graph) {
+        IndexedGraph source = currentState.graph();
+        long version = graph instanceof GraphModel model ? model.getVersion() : -1;
+        if (source == remapSource && graph == remapTarget && version == remapVersion) {
+            return;
+        }
+        remapSource = source;
+        remapTarget = graph;
+        remapVersion = version;
+        if (source == null || source instanceof CsrGraph csr && csr.sharesIndicesWith(graph)) {
+            nodeRemap = null;
+            edgeRemap = null;
+            return;
+        }
+        Map<String, Integer> nodes = new HashMap<>();
+        for (int n = 0; n < source.nodeCount(); n++) {
+            nodes.put(source.nodeId(n), n);
+        }
+        nodeRemap = new int[graph.nodeCount()];
+        for (int n = 0; n < nodeRemap.length; n++) {
+            nodeRemap[n] = nodes.getOrDefault(graph.nodeId(n), -1);
+        }
+        Map<String, Integer> edges = new HashMap<>();
+        for (int e = 0; e < source.edgeCount(); e++) {
+            edges.put(source.edgeId(e), e);
+        }
+        edgeRemap = new int[graph.edgeCount()];
+        for (int e = 0; e < edgeRemap.length; e++) {
+            edgeRemap[e] = edges.getOrDefault(graph.edgeId(e), -1);
+        }
+    }
 }
 
@@ -2,8 +2,11 @@ package com.graphvizfx;
 
 import com.graphvizfx.model.GEdge;
 import com.graphvizfx.model.GNode;
+import com.graphvizfx.model.GraphBuilder;
 import com.graphvizfx.model.GraphModel;
 
+import java.util.Random;
+
 /**
  * Utility helpers to build small graphs for deterministic algorithm tests.
  */
@@ -16,9 +19,11 @@ public final class TestGraphFactory {
         graph.setDirected(directed);
         graph.setWeighted(weighted);
         double offset = 10.0;
+        GraphBuilder builder = graph.builder(nodeIds.length, 0);
         for (int i = 0; i < nodeIds.length; i++) {
-            graph.getNodes().add(new GNode(nodeIds[i], offset * i, offset * i));
+            builder.addNode(nodeIds[i], offset * i, offset * i);
         }
+        builder.commit();
         return graph;
     }
 
@@ -29,7 +34,47 @@ public final class TestGraphFactory {
             throw new IllegalArgumentException("Missing node for edge: " + fromId + "->" + toId);
         }
         GEdge edge = new GEdge(from, to, weight);
-        graph.getEdges().add(edge);
+        graph.addEdge(edge);
         return edge;
     }
+
+    /**
+     * Builds a weighted graph of nodes "N0", "N1", ... joined by up to {@code edges} edges between
+     * random pairs, with weights drawn from {@code minWeight} to {@code maxWeight} inclusive.
+     * Pairs already joined are drawn again, up to a bound, so tiny graphs may end up with fewer.
+     */
+    public static GraphModel randomGraph(Random random, boolean directed, int nodes, int edges,
+                                         int minWeight, int maxWeight) {
+        return randomGraph(random, directed, false, nodes, edges, minWeight, maxWeight);
+    }
+
+    /**
+     * Like {@link #randomGraph(Random, boolean, int, int, int, int)}, with the nodes first joined
+     * into a chain in index order so that the graph is connected; the chain counts towards
+     * {@code edges}.
+     */
+    public static GraphModel randomConnectedGraph(Random random, boolean directed, int nodes, int edges,
+                                                  int minWeight, int maxWeight) {
+        return randomGraph(random, directed, true, nodes, edges, minWeight, maxWeight);
+    }
+
+    private static GraphModel randomGraph(Random random, boolean directed, boolean chain, int nodes, int edges,
+                                          int minWeight, int maxWeight) {
+        GraphModel graph = new GraphModel();
+        graph.setDirected(directed);
+        graph.setWeighted(true);
+        GraphBuilder builder = graph.builder(nodes, edges);
+        for (int i = 0; i < nodes; i++) {
+            builder.addNode("N" + i, 0, 0);
+        }
+        int range = maxWeight - minWeight + 1;
+        for (int i = 1; chain && i < nodes; i++) {
+            builder.addEdge(i - 1, i, minWeight + random.nextInt(range));
+        }
+        for (long draws = 0; builder.stagedEdges() < edges && draws < 10L * edges; draws++) {
+            builder.addEdge(random.nextInt(nodes), random.nextInt(nodes), minWeight + random.nextInt(range));
+        }
+        builder.commit();
+        return graph;
+    }
 }
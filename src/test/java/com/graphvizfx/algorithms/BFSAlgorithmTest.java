@@ -1,8 +1,11 @@
 package com.graphvizfx.algorithms;
 
 import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
 import com.graphvizfx.model.GNode;
 import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.GraphSnapshot;
 import com.graphvizfx.model.VisualState;
 import org.junit.jupiter.api.Test;
 
@@ -39,6 +42,69 @@ class BFSAlgorithmTest {
         assertTrue(history.get(0).getLogLine().contains("Start node not provided"));
     }
 
+    @Test
+    void denseGraphExpandsThroughNeighborMatrix() {
+        // A complete undirected graph is dense enough for the bitset path; every node is found
+        // once and discovery edges keep their original orientation.
+        int n = 80;
+        GraphModel graph = new GraphModel();
+        for (int i = 0; i < n; i++) {
+            graph.addNode("N" + i, i, i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                graph.addEdge(j, i, 1);
+            }
+        }
+        CsrGraph csr = CsrGraph.of(graph);
+        assertNotNull(csr.neighborMatrix());
+
+        List<VisualState> history = new BFSAlgorithm().execute(csr, 0, -1);
+        List<String> visitingOrder = extractVisits(history);
+
+        assertEquals(n, visitingOrder.size());
+        assertEquals(n, visitingOrder.stream().distinct().count());
+        assertTrue(history.get(history.size() - 1).getEdgeColors().containsKey("N1->N0"));
+    }
+
+    @Test
+    void streamedRunRecordsTheSameSteps() throws Exception {
+        // Streaming only changes when steps are recorded, not what they contain.
+        GraphModel graph = TestGraphFactory.createGraph(false, false, "A", "B", "C", "D");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+        TestGraphFactory.connect(graph, "A", "C", 1);
+        TestGraphFactory.connect(graph, "B", "D", 1);
+        GraphSnapshot snapshot = graph.snapshot();
+
+        AlgorithmTrace streamed = AlgorithmEngine.stream("BFS", snapshot, GraphModel.DEFAULT_WEIGHT_COLUMN, 0, -1,
+                AlgorithmTrace.Level.FULL, 1, Integer.MAX_VALUE, Runnable::run);
+        AlgorithmTrace eager = AlgorithmEngine.execute("BFS", snapshot, 0, -1);
+
+        assertSame(streamed, streamed.completion().get());
+        assertEquals(eager.size(), streamed.size());
+        assertEquals(eager.stateAt(eager.size() - 1).getLogLine(), streamed.stateAt(streamed.size() - 1).getLogLine());
+        assertThrows(IllegalArgumentException.class, () -> AlgorithmEngine.stream("BFS", snapshot, "missing", 0, -1,
+                AlgorithmTrace.Level.FULL, 1, 1, Runnable::run));
+    }
+
+    @Test
+    void headlessRunReturnsVisitOrderAndHopTree() {
+        // The headless result agrees with the traced visit order and links each node to its discoverer.
+        GraphModel graph = TestGraphFactory.createGraph(false, false, "A", "B", "C", "D");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+        TestGraphFactory.connect(graph, "A", "C", 1);
+        TestGraphFactory.connect(graph, "B", "D", 1);
+        CsrGraph csr = CsrGraph.of(graph);
+
+        AlgorithmResult result = AlgorithmEngine.solve("BFS", csr, 0, -1);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, result.order());
+        assertEquals(2.0, result.distances()[3]);
+        assertArrayEquals(new int[]{0, 1, 3}, result.pathTo(3));
+        assertEquals(2, result.parentEdge()[3]);
+        assertThrows(IllegalArgumentException.class, () -> AlgorithmEngine.solve("BFS", csr, -1, -1));
+    }
+
     private List<String> extractVisits(List<VisualState> history) {
         String log = history.get(history.size() - 1).getLogLine();
         return log.lines()
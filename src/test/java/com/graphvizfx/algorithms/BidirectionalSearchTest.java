@@ -0,0 +1,131 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.VisualState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalSearchTest {
+
+    @Test
+    void findsTheSameDistancesAsDijkstra() {
+        // Directed queries walk the reverse arcs backward; each path must add up to the reported distance.
+        for (boolean directed : new boolean[]{true, false}) {
+            CsrGraph graph = CsrGraph.of(TestGraphFactory.randomGraph(new Random(11), directed, 400, 1200, 1, 50));
+            Random random = new Random(4);
+            for (int query = 0; query < 40; query++) {
+                int start = random.nextInt(graph.nodeCount());
+                int goal = random.nextInt(graph.nodeCount());
+                double expected = AlgorithmEngine.solve("Dijkstra", graph, start, -1).distances()[goal];
+                for (String algo : new String[]{"Bidirectional Dijkstra", "Bidirectional A*"}) {
+                    AlgorithmResult result = AlgorithmEngine.solve(algo, graph, start, goal);
+                    String label = algo + " " + start + "->" + goal + (directed ? " directed" : "");
+                    assertEquals(expected, result.distances()[goal], label);
+                    if (expected != Double.POSITIVE_INFINITY) {
+                        assertEquals(expected, pathCost(graph, result.pathTo(goal)), label);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void settlesFewerNodesThanOneSidedSearch() {
+        // Two searches meeting halfway cover about half the area of one reaching across the grid.
+        CsrGraph graph = CsrGraph.of(grid(100));
+        int start = 50 * 100 + 30;
+        int goal = 50 * 100 + 70;
+        int[] dijkstraOrder = AlgorithmEngine.solve("Dijkstra", graph, start, -1).order();
+        int oneSided = 0;
+        while (dijkstraOrder[oneSided] != goal) {
+            oneSided++;
+        }
+
+        int bidirectional = AlgorithmEngine.solve("Bidirectional Dijkstra", graph, start, goal).order().length;
+        int steered = AlgorithmEngine.solve("Bidirectional A*", graph, start, goal).order().length;
+        assertTrue(bidirectional < oneSided * 0.6, bidirectional + " settled vs " + oneSided + " one-sided");
+        assertTrue(steered < bidirectional, steered + " settled with landmarks vs " + bidirectional);
+    }
+
+    @Test
+    void traceShowsBothFrontiersMeeting() {
+        // The backward search colours its own nodes and the path through the meeting node ends the trace.
+        GraphModel graph = TestGraphFactory.createGraph(true, true, "A", "B", "C", "D", "E");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+        TestGraphFactory.connect(graph, "B", "C", 1);
+        TestGraphFactory.connect(graph, "C", "D", 1);
+        TestGraphFactory.connect(graph, "D", "E", 1);
+        TestGraphFactory.connect(graph, "A", "E", 9);
+
+        AlgorithmTrace trace = AlgorithmEngine.execute("Bidirectional Dijkstra", CsrGraph.of(graph), 0, 4);
+        VisualState last = trace.stateAt(trace.size() - 1);
+
+        assertTrue(last.getLog().toString().contains("Frontiers met at"));
+        assertTrue(last.getLogLine().contains("Path of length 4.00"), last.getLogLine());
+        assertEquals(AlgorithmEngine.PATH_COLOR, last.getNodeColors().get("C"));
+        assertEquals(AlgorithmEngine.GOAL_COLOR, last.getNodeColors().get("E"));
+        boolean backward = false;
+        for (int step = 0; step < trace.size(); step++) {
+            backward |= trace.stateAt(step).getNodeColors().containsValue(AlgorithmEngine.BACKWARD_VISITED_COLOR);
+        }
+        assertTrue(backward);
+    }
+
+    @Test
+    void negativeWeightsFallBackToPlainBidirectionalSearch() {
+        // Without a landmark table the steered search must finish just like Bidirectional Dijkstra.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", -1);
+        TestGraphFactory.connect(graph, "B", "C", 3);
+        CsrGraph csr = CsrGraph.of(graph);
+
+        AlgorithmResult plain = AlgorithmEngine.solve("Bidirectional Dijkstra", csr, 0, 2);
+        AlgorithmResult steered = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> AlgorithmEngine.solve("Bidirectional A*", csr, 0, 2));
+        assertEquals(plain.distances()[2], steered.distances()[2]);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> AlgorithmEngine.execute("Bidirectional A*", csr, 0, 2));
+    }
+
+    private static double pathCost(CsrGraph graph, int[] path) {
+        double cost = 0;
+        for (int i = 1; i < path.length; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int arc = graph.arcStart(path[i - 1]); arc < graph.arcEnd(path[i - 1]); arc++) {
+                if (graph.arcTarget(arc) == path[i]) {
+                    best = Math.min(best, graph.arcCost(arc));
+                }
+            }
+            cost += best;
+        }
+        return cost;
+    }
+
+    private static GraphModel grid(int side) {
+        GraphModel graph = new GraphModel();
+        GraphBuilder builder = graph.builder(side * side, 2 * side * side);
+        for (int i = 0; i < side * side; i++) {
+            builder.addNode("N" + i, 0, 0);
+        }
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int node = row * side + col;
+                if (col + 1 < side) {
+                    builder.addEdge(node, node + 1, 1);
+                }
+                if (row + 1 < side) {
+                    builder.addEdge(node, node + side, 1);
+                }
+            }
+        }
+        builder.commit();
+        return graph;
+    }
+}
@@ -0,0 +1,152 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.VisualState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    @Test
+    void queriesMatchDijkstraAndUnpackToRealEdges() {
+        // Unpacked paths must run over graph edges only and add up to Dijkstra's distance.
+        for (boolean directed : new boolean[]{true, false}) {
+            CsrGraph graph = CsrGraph.of(TestGraphFactory.randomGraph(new Random(21), directed, 500, 1500, 1, 50));
+            Random random = new Random(6);
+            for (int query = 0; query < 60; query++) {
+                int start = random.nextInt(graph.nodeCount());
+                int goal = random.nextInt(graph.nodeCount());
+                double expected = AlgorithmEngine.solve("Dijkstra", graph, start, -1).distances()[goal];
+                AlgorithmResult result = AlgorithmEngine.solve("Contraction Hierarchy", graph, start, goal);
+
+                String label = start + "->" + goal + (directed ? " directed" : "");
+                assertEquals(expected, result.distances()[goal], label);
+                if (expected != Double.POSITIVE_INFINITY) {
+                    int[] path = result.pathTo(goal);
+                    assertEquals(start, path[0], label);
+                    int cost = 0;
+                    for (int i = 1; i < path.length; i++) {
+                        int edge = result.parentEdge()[path[i]];
+                        assertTrue(graph.edgeSource(edge) == path[i - 1] || !directed && graph.edgeTarget(edge) == path[i - 1], label);
+                        cost += graph.edgeWeight(edge);
+                    }
+                    assertEquals(expected, cost, label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void gridsNeedFewShortcuts() {
+        // Contracting by shortcuts per removed arc keeps a road-like grid under two shortcuts per node each way.
+        CsrGraph graph = CsrGraph.of(grid(30, new Random(24)));
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+
+        assertTrue(hierarchy.shortcutCount() <= 4 * graph.nodeCount(), hierarchy.shortcutCount() + " shortcuts");
+        Random random = new Random(9);
+        for (int query = 0; query < 20; query++) {
+            int start = random.nextInt(graph.nodeCount());
+            int goal = random.nextInt(graph.nodeCount());
+            assertEquals(AlgorithmEngine.solve("Dijkstra", graph, start, -1).distances()[goal],
+                    AlgorithmEngine.solve("Contraction Hierarchy", graph, start, goal).distances()[goal]);
+        }
+    }
+
+    @Test
+    void savedHierarchiesLoadOnlyForTheirGraph(@TempDir Path dir) throws IOException {
+        // A loaded hierarchy answers like the built one and takes the cache; other graphs are refused.
+        CsrGraph graph = CsrGraph.of(TestGraphFactory.randomGraph(new Random(22), true, 300, 900, 1, 50));
+        ContractionHierarchy built = ContractionHierarchy.build(graph);
+        File file = dir.resolve("roads.gvxh").toFile();
+        built.write(file);
+
+        ContractionHierarchy loaded = ContractionHierarchy.read(file, graph);
+        assertSame(loaded, ContractionHierarchy.of(graph));
+        assertEquals(built.shortcutCount(), loaded.shortcutCount());
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            assertEquals(built.rank(node), loaded.rank(node));
+        }
+        Random random = new Random(8);
+        for (int query = 0; query < 20; query++) {
+            int start = random.nextInt(graph.nodeCount());
+            int goal = random.nextInt(graph.nodeCount());
+            assertEquals(AlgorithmEngine.solve("Dijkstra", graph, start, -1).distances()[goal],
+                    AlgorithmEngine.solve("Contraction Hierarchy", graph, start, goal).distances()[goal]);
+        }
+
+        CsrGraph other = CsrGraph.of(TestGraphFactory.randomGraph(new Random(23), true, 300, 900, 1, 50));
+        assertThrows(IOException.class, () -> ContractionHierarchy.read(file, other));
+        assertThrows(IOException.class, () -> ContractionHierarchy.read(file, graph.withWeights(0).reverse()));
+    }
+
+    @Test
+    void hierarchiesAreCachedPerWeightColumn() {
+        // Queries alternating between columns reuse both hierarchies; an edit builds a new one.
+        GraphModel model = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(model, "A", "B", 2);
+        TestGraphFactory.connect(model, "B", "C", 3);
+        model.addWeightColumn("toll");
+
+        ContractionHierarchy first = ContractionHierarchy.of(CsrGraph.of(model));
+        ContractionHierarchy toll = ContractionHierarchy.of(CsrGraph.of(model).withWeights(1));
+        assertNotSame(first, toll);
+        assertSame(first, ContractionHierarchy.of(CsrGraph.of(model)));
+        assertSame(toll, ContractionHierarchy.of(CsrGraph.of(model).withWeights(1)));
+
+        TestGraphFactory.connect(model, "A", "C", 1);
+        assertNotSame(first, ContractionHierarchy.of(CsrGraph.of(model)));
+    }
+
+    @Test
+    void traceUnpacksShortcutsOntoThePath() {
+        // Ties go to the lower index, so B, D and F are contracted first and the query crosses shortcuts.
+        String[] line = {"A", "B", "C", "D", "E", "F", "G"};
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "B", "D", "F", "A", "C", "E", "G");
+        for (int i = 1; i < line.length; i++) {
+            TestGraphFactory.connect(graph, line[i - 1], line[i], i);
+        }
+        CsrGraph csr = CsrGraph.of(graph);
+
+        AlgorithmTrace trace = AlgorithmEngine.execute("Contraction Hierarchy", csr, 3, 6);
+        VisualState last = trace.stateAt(trace.size() - 1);
+
+        assertTrue(last.getLog().toString().contains("Unpacked shortcut"));
+        assertTrue(last.getLogLine().contains("Path of length 21.00"), last.getLogLine());
+        assertEquals(AlgorithmEngine.PATH_COLOR, last.getEdgeColors().get("C->D"));
+        assertEquals(AlgorithmEngine.GOAL_COLOR, last.getNodeColors().get("G"));
+        assertEquals(21.0, last.getDistances().get("G"));
+    }
+
+    private static GraphModel grid(int side, Random random) {
+        GraphModel graph = new GraphModel();
+        graph.setWeighted(true);
+        GraphBuilder builder = graph.builder(side * side, 2 * side * side);
+        for (int i = 0; i < side * side; i++) {
+            builder.addNode("N" + i, 0, 0);
+        }
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int node = row * side + col;
+                if (col + 1 < side) {
+                    builder.addEdge(node, node + 1, 1 + random.nextInt(100));
+                }
+                if (row + 1 < side) {
+                    builder.addEdge(node, node + side, 1 + random.nextInt(100));
+                }
+            }
+        }
+        builder.commit();
+        return graph;
+    }
+}
@@ -1,6 +1,7 @@
 package com.graphvizfx.algorithms;
 
 import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.CsrGraph;
 import com.graphvizfx.model.GNode;
 import com.graphvizfx.model.GraphModel;
 import com.graphvizfx.model.VisualState;
@@ -28,6 +29,20 @@ class DFSAlgorithmTest {
         assertEquals(List.of("A", "B", "D", "C"), visitingOrder);
     }
 
+    @Test
+    void headlessRunVisitsInTheSameOrder() {
+        // Skipping the trace must not change which branch is explored first.
+        GraphModel graph = TestGraphFactory.createGraph(false, false, "A", "B", "C", "D");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+        TestGraphFactory.connect(graph, "A", "C", 1);
+        TestGraphFactory.connect(graph, "B", "D", 1);
+
+        AlgorithmResult result = new DFSAlgorithm().solve(CsrGraph.of(graph), 0, -1);
+
+        assertArrayEquals(new int[]{0, 1, 3, 2}, result.order());
+        assertArrayEquals(new int[]{-1, 0, 0, 1}, result.parent());
+    }
+
     private List<String> extractVisits(List<VisualState> history) {
         String log = history.get(history.size() - 1).getLogLine();
         return log.lines()
@@ -0,0 +1,105 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.VisualState;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaSteppingAlgorithmTest {
+
+    @Test
+    void matchesDijkstraOnRandomGraphs() {
+        // Every bucket width, zero-cost arcs included, must give Dijkstra's distances and a parent tree that adds up.
+        Random random = new Random(25);
+        for (int trial = 0; trial < 30; trial++) {
+            boolean directed = random.nextBoolean();
+            int nodes = 1 + random.nextInt(300);
+            int maxWeight = random.nextBoolean() ? 3 : 1000;
+            CsrGraph graph = CsrGraph.of(TestGraphFactory.randomGraph(random, directed, nodes, random.nextInt(nodes * 4 + 1), 0, maxWeight));
+            int start = random.nextInt(nodes);
+            double[] expected = AlgorithmEngine.solve("Dijkstra", graph, start, -1).distances();
+            for (DeltaSteppingAlgorithm algorithm : new DeltaSteppingAlgorithm[]{new DeltaSteppingAlgorithm(),
+                    new DeltaSteppingAlgorithm(1), new DeltaSteppingAlgorithm(1 + random.nextInt(maxWeight)),
+                    new DeltaSteppingAlgorithm(Integer.MAX_VALUE)}) {
+                AlgorithmResult result = algorithm.solve(graph, start, -1);
+                assertArrayEquals(expected, result.distances(), "trial " + trial);
+                assertParentTree(graph, start, result);
+            }
+        }
+    }
+
+    @Test
+    void parallelRoundsMatchDijkstraOnALargeGraph() {
+        // Frontiers of thousands of nodes are split across the pool; unit costs make each round a BFS level.
+        Random random = new Random(7);
+        for (int maxWeight : new int[]{0, 50}) {
+            GraphModel model = TestGraphFactory.randomGraph(random, true, 20000, 120000, 0, maxWeight);
+            model.setWeighted(maxWeight > 0);
+            CsrGraph graph = CsrGraph.of(model);
+            AlgorithmResult expected = AlgorithmEngine.solve("Dijkstra", graph, 0, -1);
+            AlgorithmResult result = AlgorithmEngine.solve("Delta-Stepping", graph, 0, -1);
+
+            assertArrayEquals(expected.distances(), result.distances());
+            assertEquals(expected.order().length, result.order().length);
+            assertParentTree(graph, 0, result);
+        }
+    }
+
+    @Test
+    void rejectsNegativeWeightsAndNonPositiveDelta() {
+        // Buckets only move forward, so a negative arc could lower a node after it was settled.
+        GraphModel graph = TestGraphFactory.createGraph(true, true, "A", "B");
+        TestGraphFactory.connect(graph, "A", "B", -1);
+
+        assertThrows(IllegalArgumentException.class, () -> AlgorithmEngine.solve("Delta-Stepping", CsrGraph.of(graph), 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingAlgorithm(0));
+    }
+
+    @Test
+    void traceShowsBucketsAndHeavyArcs() {
+        // With a width of 2 both arcs out of A are heavy; B's later bucket then beats the direct arc to C.
+        GraphModel graph = TestGraphFactory.createGraph(true, true, "A", "B", "C", "D");
+        TestGraphFactory.connect(graph, "A", "B", 3);
+        TestGraphFactory.connect(graph, "B", "C", 1);
+        TestGraphFactory.connect(graph, "A", "C", 5);
+        TestGraphFactory.connect(graph, "C", "D", 1);
+
+        AlgorithmTrace trace = new DeltaSteppingAlgorithm(2).execute(CsrGraph.of(graph), 0, -1);
+        VisualState last = trace.stateAt(trace.size() - 1);
+        String log = last.getLog().toString();
+
+        assertTrue(log.contains("Bucket [0, 2)"), log);
+        assertTrue(log.contains("Relaxed heavy arc A→C (∞ → 5)"), log);
+        assertTrue(log.contains("Relaxed light arc B→C (5 → 4)"), log);
+        assertTrue(last.getLogLine().contains("Finished shortest paths"), last.getLogLine());
+        assertEquals(4.0, last.getDistances().get("C"));
+        assertEquals(5.0, last.getDistances().get("D"));
+        assertEquals(AlgorithmEngine.VISITED_COLOR, last.getNodeColors().get("D"));
+    }
+
+    /**
+     * Checks that following parents from every reached node ends at the start over arcs whose
+     * costs add up to the node's distance.
+     */
+    private static void assertParentTree(CsrGraph graph, int start, AlgorithmResult result) {
+        double[] distances = result.distances();
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            if (node == start || distances[node] == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            int parent = result.parent()[node];
+            int edge = result.parentEdge()[node];
+            assertTrue(parent >= 0, "no parent for " + node);
+            double cost = graph.isWeighted() ? graph.edgeWeight(edge) : 1;
+            assertTrue(graph.edgeSource(edge) == parent || graph.edgeTarget(edge) == parent, "edge of " + node);
+            assertEquals(distances[node], distances[parent] + cost, "parent of " + node);
+            assertTrue(result.pathTo(node).length > 0, "path to " + node);
+        }
+    }
+}
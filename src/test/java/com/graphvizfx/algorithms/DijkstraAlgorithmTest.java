@@ -1,6 +1,9 @@
 package com.graphvizfx.algorithms;
 
 import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GEdge;
 import com.graphvizfx.model.GraphModel;
 import com.graphvizfx.model.VisualState;
 import org.junit.jupiter.api.Test;
@@ -64,4 +67,74 @@ class DijkstraAlgorithmTest {
         assertEquals(1, history.size());
         assertTrue(history.get(0).getLogLine().contains("Start node not provided"));
     }
+
+    @Test
+    void usesTheSelectedWeightColumn() {
+        // The direct road is shorter but slower, so travel time prefers the detour.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 2);
+        TestGraphFactory.connect(graph, "B", "C", 2);
+        TestGraphFactory.connect(graph, "A", "C", 3);
+        int time = graph.addWeightColumn("time");
+        graph.setEdgeWeights(time, new int[]{1, 1, 10});
+
+        List<VisualState> byLength = AlgorithmEngine.execute("Dijkstra", graph.snapshot(), GraphModel.DEFAULT_WEIGHT_COLUMN, 0, -1);
+        List<VisualState> byTime = AlgorithmEngine.execute("Dijkstra", graph.snapshot(), "time", 0, -1);
+
+        assertEquals(3.0, byLength.get(byLength.size() - 1).getDistances().get("C"));
+        assertEquals(2.0, byTime.get(byTime.size() - 1).getDistances().get("C"));
+        assertThrows(IllegalArgumentException.class,
+                () -> AlgorithmEngine.execute("Dijkstra", graph.snapshot(), "toll", 0, -1));
+    }
+
+    @Test
+    void headlessRunMatchesTracedDistances() {
+        // Unreached nodes are infinite in the result instead of the trace's display value.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 2);
+        TestGraphFactory.connect(graph, "A", "C", 5);
+        TestGraphFactory.connect(graph, "B", "C", 1);
+        graph.getNodes().add(new com.graphvizfx.model.GNode("D", 0, 0));
+
+        AlgorithmResult result = AlgorithmEngine.solve("Dijkstra", graph.snapshot(), GraphModel.DEFAULT_WEIGHT_COLUMN, 0, -1);
+
+        assertArrayEquals(new double[]{0, 2, 3, Double.POSITIVE_INFINITY}, result.distances());
+        assertArrayEquals(new int[]{0, 1, 2}, result.pathTo(2));
+        assertEquals(0, result.pathTo(3).length);
+        assertArrayEquals(new int[]{0, 1, 2}, result.order());
+    }
+
+    @Test
+    void expansionLevelKeepsSettlesButEndsInTheSameState() {
+        // Relaxations are folded into the settle steps, so the final distances do not change.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 2);
+        TestGraphFactory.connect(graph, "A", "C", 5);
+        TestGraphFactory.connect(graph, "B", "C", 1);
+        CsrGraph csr = CsrGraph.of(graph);
+
+        AlgorithmTrace full = AlgorithmEngine.execute("Dijkstra", csr, 0, -1);
+        AlgorithmTrace expansions = AlgorithmEngine.execute("Dijkstra", csr, 0, -1, AlgorithmTrace.Level.EXPANSIONS, 1);
+
+        assertEquals(6, expansions.size());
+        assertTrue(expansions.size() < full.size());
+        assertEquals(full.stateAt(full.size() - 1).getDistances(), expansions.stateAt(expansions.size() - 1).getDistances());
+        assertFalse(expansions.stateAt(expansions.size() - 1).getLogLine().contains("Relaxed"));
+    }
+
+    @Test
+    void picksTheQueueFromTheLargestWeight() {
+        // Unit and small costs go to Dial's buckets, large ones to a radix heap, negative ones to a binary heap.
+        GraphModel graph = TestGraphFactory.createGraph(false, false, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+        GEdge edge = TestGraphFactory.connect(graph, "B", "C", 0);
+        assertEquals(IndexedHeap.Kind.DIAL, DijkstraAlgorithm.chooseHeap(CsrGraph.of(graph)));
+
+        graph.setWeighted(true);
+        assertEquals(IndexedHeap.Kind.DIAL, DijkstraAlgorithm.chooseHeap(CsrGraph.of(graph)));
+        edge.setWeight(DijkstraAlgorithm.DIAL_MAX_COST + 1);
+        assertEquals(IndexedHeap.Kind.RADIX, DijkstraAlgorithm.chooseHeap(CsrGraph.of(graph)));
+        edge.setWeight(-1);
+        assertEquals(IndexedHeap.Kind.BINARY, DijkstraAlgorithm.chooseHeap(CsrGraph.of(graph)));
+    }
 }
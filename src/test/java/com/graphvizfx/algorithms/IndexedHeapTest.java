@@ -0,0 +1,103 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.CsrGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedHeapTest {
+
+    @Test
+    void everyKindPollsInPriorityOrderAfterDecreases() {
+        // Random offers, decreases and polls are checked against a linear scan of the queued nodes;
+        // monotone kinds only get priorities from the last polled one up.
+        for (IndexedHeap.Kind kind : IndexedHeap.Kind.values()) {
+            int n = 200;
+            IndexedHeap heap = kind.create(n);
+            double[] expected = new double[n];
+            boolean[] queued = new boolean[n];
+            int size = 0;
+            double floor = 0;
+            Random random = new Random(kind.ordinal());
+
+            for (int op = 0; op < 20_000; op++) {
+                if (size > 0 && random.nextInt(3) == 0) {
+                    int node = heap.poll();
+                    assertTrue(queued[node], kind + " polled a node twice");
+                    for (int other = 0; other < n; other++) {
+                        assertFalse(queued[other] && expected[other] < expected[node], kind + " polled out of order");
+                    }
+                    queued[node] = false;
+                    size--;
+                    floor = kind.isMonotone() ? expected[node] : 0;
+                } else {
+                    int node = random.nextInt(n);
+                    double priority = floor + random.nextInt(1000);
+                    boolean lowers = !queued[node] || priority < expected[node];
+                    assertEquals(lowers, heap.offer(node, priority), kind + " offer result");
+                    if (lowers) {
+                        size += queued[node] ? 0 : 1;
+                        queued[node] = true;
+                        expected[node] = priority;
+                    }
+                }
+                assertEquals(size, heap.size(), kind + " size");
+            }
+
+            heap.clear();
+            assertTrue(heap.isEmpty());
+            assertFalse(heap.contains(0));
+            assertThrows(NoSuchElementException.class, heap::poll);
+        }
+    }
+
+    @Test
+    void monotoneKindsRejectFractionalOrFallingPriorities() {
+        // Dial and radix queues file nodes by integer distance, so anything else is refused.
+        for (IndexedHeap.Kind kind : new IndexedHeap.Kind[]{IndexedHeap.Kind.DIAL, IndexedHeap.Kind.RADIX}) {
+            IndexedHeap heap = kind.create(3);
+            heap.offer(0, 5);
+            heap.offer(1, 7);
+            assertEquals(0, heap.poll());
+            assertThrows(IllegalArgumentException.class, () -> heap.offer(2, 4));
+            assertThrows(IllegalArgumentException.class, () -> heap.offer(2, 6.5));
+            assertTrue(heap.offer(1, 5));
+            assertEquals(1, heap.poll());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new AStarAlgorithm(IndexedHeap.Kind.DIAL));
+        assertThrows(IllegalArgumentException.class, () -> new PrimAlgorithm(IndexedHeap.Kind.RADIX));
+    }
+
+    @Test
+    void heapKindsAgreeOnPathsAndTreeWeight() {
+        // Ties may settle in another order, but distances and spanning tree weight cannot change.
+        // The graph's largest weight is past the Dial limit, so plain Dijkstra picks a radix heap.
+        CsrGraph graph = CsrGraph.of(TestGraphFactory.randomConnectedGraph(new Random(5), false, 400, 1600, 0, 4999));
+        int goal = graph.nodeCount() - 1;
+        AlgorithmResult dijkstra = AlgorithmEngine.solve("Dijkstra", graph, 0, -1);
+        AlgorithmResult astar = AlgorithmEngine.solve("A*", graph, 0, goal);
+        long tree = treeWeight(graph, AlgorithmEngine.solve("Kruskal", graph, 0, -1));
+
+        for (IndexedHeap.Kind kind : IndexedHeap.Kind.values()) {
+            assertArrayEquals(dijkstra.distances(), AlgorithmEngine.solve("Dijkstra", graph, 0, -1, kind).distances());
+            if (kind.isMonotone()) {
+                continue;
+            }
+            assertEquals(astar.distances()[goal], AlgorithmEngine.solve("A*", graph, 0, goal, kind).distances()[goal]);
+            assertEquals(tree, treeWeight(graph, AlgorithmEngine.solve("Prim", graph, 0, -1, kind)));
+        }
+        assertEquals(dijkstra.distances()[goal], astar.distances()[goal]);
+    }
+
+    private static long treeWeight(CsrGraph graph, AlgorithmResult result) {
+        long weight = 0;
+        for (int edge : result.treeEdges()) {
+            weight += graph.edgeWeight(edge);
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,110 @@
+package com.graphvizfx.algorithms;
+
+import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LandmarkTableTest {
+
+    @Test
+    void boundsNeverExceedTheDistanceOnDirectedGraphs() {
+        // Every bound stays below the true distance, and infinite bounds only for unreachable targets.
+        CsrGraph graph = CsrGraph.of(TestGraphFactory.randomConnectedGraph(new Random(9), true, 300, 900, 1, 100));
+        LandmarkTable table = LandmarkTable.build(graph, 6);
+        assertEquals(6, table.landmarkCount());
+
+        Random random = new Random(2);
+        for (int query = 0; query < 30; query++) {
+            int source = random.nextInt(graph.nodeCount());
+            double[] exact = AlgorithmEngine.solve("Dijkstra", graph, source, -1).distances();
+            for (int target = 0; target < graph.nodeCount(); target++) {
+                assertTrue(table.lowerBound(source, target) <= exact[target], "bound " + source + "->" + target);
+            }
+            int goal = random.nextInt(graph.nodeCount());
+            assertEquals(exact[goal], AlgorithmEngine.solve("A* (Landmarks)", graph, source, goal).distances()[goal]);
+        }
+    }
+
+    @Test
+    void landmarksExpandFewerNodesThanBlindSearch() {
+        // Positions say nothing about these weights, so only the landmark bound can steer the search.
+        CsrGraph graph = CsrGraph.of(TestGraphFactory.randomConnectedGraph(new Random(9), false, 2000, 6000, 1, 100));
+        int goal = graph.nodeCount() - 1;
+        AlgorithmResult blind = new AStarAlgorithm(IndexedHeap.Kind.BINARY, AStarAlgorithm.Heuristic.STRAIGHT_LINE)
+                .solve(graph, 0, goal);
+        AlgorithmResult alt = AlgorithmEngine.solve("A* (Landmarks)", graph, 0, goal);
+
+        assertEquals(blind.distances()[goal], alt.distances()[goal]);
+        // Plain A* keeps the straight line, so a one-off query never pays for a table
+        assertEquals(blind.order().length, AlgorithmEngine.solve("A*", graph, 0, goal).order().length);
+        assertTrue(alt.order().length < blind.order().length,
+                alt.order().length + " expansions with landmarks, " + blind.order().length + " without");
+    }
+
+    @Test
+    void unreachableGoalsAreRuledOutWithoutExpandingTheComponent() {
+        // A landmark beside the goal reaches it but none of the start's nodes, so nothing is queued.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "Y", "Z");
+        TestGraphFactory.connect(graph, "Y", "Z", 1);
+        for (int i = 0; i < 50; i++) {
+            graph.addNode("N" + i, 0, 0);
+            if (i > 0) {
+                graph.addEdge(graph.indexOf("N" + (i - 1)), graph.indexOf("N" + i), 1);
+            }
+        }
+        CsrGraph csr = CsrGraph.of(graph);
+        int start = csr.indexOf(graph.getNode("N0"));
+        int goal = csr.indexOf(graph.getNode("Z"));
+
+        AlgorithmResult result = AlgorithmEngine.solve("A* (Landmarks)", csr, start, goal);
+        assertFalse(result.reached(goal));
+        assertTrue(result.order().length <= 1, result.order().length + " expansions");
+        AlgorithmTrace trace = AlgorithmEngine.execute("A* (Landmarks)", csr, start, goal);
+        assertTrue(trace.stateAt(trace.size() - 1).getLogLine().contains("Goal unreachable"));
+    }
+
+    @Test
+    void tablesAreCachedPerGraphVersionAndColumn() {
+        // Snapshots of the same version share one table per column, kept side by side; an edit builds a new one.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 2);
+        TestGraphFactory.connect(graph, "B", "C", 3);
+        graph.addWeightColumn("toll");
+
+        LandmarkTable first = LandmarkTable.of(CsrGraph.of(graph));
+        assertSame(first, LandmarkTable.of(CsrGraph.of(graph)));
+        LandmarkTable toll = LandmarkTable.of(CsrGraph.of(graph).withWeights(1));
+        assertNotSame(first, toll);
+        assertSame(first, LandmarkTable.of(CsrGraph.of(graph)));
+        assertSame(toll, LandmarkTable.of(CsrGraph.of(graph).withWeights(1)));
+
+        TestGraphFactory.connect(graph, "A", "C", 1);
+        LandmarkTable edited = LandmarkTable.of(CsrGraph.of(graph));
+        assertNotSame(first, edited);
+        assertEquals(1.0, edited.lowerBound(0, 2), 1e-9);
+    }
+
+    @Test
+    void negativeWeightsGetNoTableAndAStarFallsBack() {
+        // An undirected negative edge is a negative cycle, so the table is refused and A* steers by position.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", -1);
+        TestGraphFactory.connect(graph, "B", "C", 3);
+        CsrGraph csr = CsrGraph.of(graph);
+
+        assertThrows(IllegalArgumentException.class, () -> LandmarkTable.of(csr));
+        assertThrows(IllegalArgumentException.class, () -> LandmarkTable.build(csr, 2));
+        assertNull(LandmarkTable.ofNonNegative(csr));
+        AlgorithmResult result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> AlgorithmEngine.solve("A* (Landmarks)", csr, 0, 2));
+        assertTrue(result.reached(2));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> AlgorithmEngine.execute("A* (Landmarks)", csr, 0, 2));
+    }
+}
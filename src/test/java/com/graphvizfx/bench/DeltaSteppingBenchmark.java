@@ -0,0 +1,110 @@
+package com.graphvizfx.bench;
+
+import com.graphvizfx.algorithms.AlgorithmEngine;
+import com.graphvizfx.algorithms.DeltaSteppingAlgorithm;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Times a full single-source search with {@link DeltaSteppingAlgorithm} on fork-join pools of 1, 2,
+ * 4 and so on up to every available core, against sequential Dijkstra on the same CSR snapshot: a
+ * {@code side x side} grid with weights from 1 to 100, a million nodes by default.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.graphvizfx.bench.DeltaSteppingBenchmark [side]}.
+ * Parallel streams started inside a pool's task run in that pool, so each search is submitted to
+ * a pool of the size measured. Times are the best of {@link #ROUNDS} runs; speedup is against
+ * delta-stepping on one thread.
+ */
+public final class DeltaSteppingBenchmark {
+    private static final int ROUNDS = 5;
+
+    private DeltaSteppingBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        CsrGraph graph = CsrGraph.of(weightedGrid(side));
+        int start = side / 2 * side + side / 2;
+        System.out.printf("Grid %dx%d: %d nodes, %d edges, %d cores%n", side, side, graph.nodeCount(),
+                graph.edgeCount(), Runtime.getRuntime().availableProcessors());
+
+        double[] expected = AlgorithmEngine.solve("Dijkstra", graph, start, -1).distances();
+        double dijkstra = best(() -> AlgorithmEngine.solve("Dijkstra", graph, start, -1));
+        System.out.printf("%-16s %10.2f ms%n", "Dijkstra", dijkstra);
+
+        DeltaSteppingAlgorithm algorithm = new DeltaSteppingAlgorithm();
+        double single = 0;
+        for (int threads : poolSizes()) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                double[] actual = pool.submit(() -> algorithm.solve(graph, start, -1).distances()).get();
+                if (!Arrays.equals(expected, actual)) {
+                    throw new IllegalStateException("Delta-stepping distances differ from Dijkstra's on " + threads + " threads");
+                }
+                double time = best(() -> pool.submit(() -> algorithm.solve(graph, start, -1)).join());
+                single = threads == 1 ? time : single;
+                System.out.printf("%-16s %10.2f ms %6.2fx (%.2fx Dijkstra)%n", "delta, " + threads + " thr",
+                        time, single / time, dijkstra / time);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return 1, 2, 4 and so on, ending with the number of available cores
+     */
+    private static int[] poolSizes() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] sizes = new int[0];
+        for (int threads = 1; threads < cores; threads *= 2) {
+            sizes = Arrays.copyOf(sizes, sizes.length + 1);
+            sizes[sizes.length - 1] = threads;
+        }
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        sizes[sizes.length - 1] = cores;
+        return sizes;
+    }
+
+    private static GraphModel weightedGrid(int side) {
+        GraphModel graph = new GraphModel();
+        graph.setWeighted(true);
+        GraphBuilder builder = graph.builder(side * side, 2 * side * side);
+        Random random = new Random(25);
+        for (int i = 0; i < side * side; i++) {
+            builder.addNode("N" + i, 0, 0);
+        }
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                int node = row * side + col;
+                if (col + 1 < side) {
+                    builder.addEdge(node, node + 1, 1 + random.nextInt(100));
+                }
+                if (row + 1 < side) {
+                    builder.addEdge(node, node + side, 1 + random.nextInt(100));
+                }
+            }
+        }
+        builder.commit();
+        return graph;
+    }
+
+    /**
+     * @return milliseconds of the fastest of {@link #ROUNDS} runs
+     */
+    private static double best(Runnable run) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+}
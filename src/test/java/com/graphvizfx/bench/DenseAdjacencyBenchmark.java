@@ -0,0 +1,100 @@
+package com.graphvizfx.bench;
+
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+
+import java.util.Random;
+
+/**
+ * Compares edge lookups on adjacency lists against the bitset matrix across densities, to show
+ * where {@link GraphModel.AdjacencyMode#AUTO} should switch.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.graphvizfx.bench.DenseAdjacencyBenchmark [nodes]}.
+ * The "lookup" columns time random {@code hasEdge} queries; the "frame" columns time what the
+ * canvas does per frame on a directed graph, one reverse-edge check per edge.
+ */
+public final class DenseAdjacencyBenchmark {
+    private static final int QUERIES = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    private DenseAdjacencyBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        System.out.printf("%d nodes, %d random lookups per round%n", nodes, QUERIES);
+        System.out.printf("%-9s %9s %8s | %13s %13s | %13s %13s%n", "density", "edges", "degree",
+                "lookup sparse", "lookup dense", "frame sparse", "frame dense");
+
+        for (int inverse = 1024; inverse >= 2; inverse /= 2) {
+            long edges = (long) nodes * nodes / inverse;
+            GraphModel sparse = build(nodes, edges, GraphModel.AdjacencyMode.SPARSE);
+            GraphModel dense = build(nodes, edges, GraphModel.AdjacencyMode.DENSE);
+            System.out.printf("1/%-7d %9d %8.1f | %10.1f ns %10.1f ns | %10.2f ms %10.2f ms%n",
+                    inverse, sparse.edgeCount(), (double) sparse.edgeCount() / nodes,
+                    lookups(sparse), lookups(dense), frame(sparse), frame(dense));
+        }
+    }
+
+    private static GraphModel build(int nodes, long edges, GraphModel.AdjacencyMode mode) {
+        GraphModel graph = new GraphModel();
+        graph.setDirected(true);
+        graph.setAdjacencyMode(mode);
+        GraphBuilder builder = graph.builder(nodes, (int) edges);
+        for (int i = 0; i < nodes; i++) {
+            builder.addNode("N" + i, i, i);
+        }
+        Random random = new Random(7);
+        for (long staged = 0; staged < edges; ) {
+            if (builder.addEdge(random.nextInt(nodes), random.nextInt(nodes), 1)) {
+                staged++;
+            }
+        }
+        builder.commit();
+        return graph;
+    }
+
+    /**
+     * @return nanoseconds per {@code hasEdge} query, best of {@link #ROUNDS}
+     */
+    private static double lookups(GraphModel graph) {
+        int n = graph.nodeCount();
+        double best = Double.MAX_VALUE;
+        int hits = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            Random random = new Random(round);
+            long start = System.nanoTime();
+            for (int q = 0; q < QUERIES; q++) {
+                if (graph.hasEdge(random.nextInt(n), random.nextInt(n))) {
+                    hits++;
+                }
+            }
+            best = Math.min(best, (double) (System.nanoTime() - start) / QUERIES);
+        }
+        if (hits < 0) {
+            throw new IllegalStateException();
+        }
+        return best;
+    }
+
+    /**
+     * @return milliseconds for one reverse-edge check per edge, best of {@link #ROUNDS}
+     */
+    private static double frame(GraphModel graph) {
+        double best = Double.MAX_VALUE;
+        int reverse = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                if (graph.hasEdge(graph.edgeTarget(e), graph.edgeSource(e))) {
+                    reverse++;
+                }
+            }
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        if (reverse < 0) {
+            throw new IllegalStateException();
+        }
+        return best;
+    }
+}
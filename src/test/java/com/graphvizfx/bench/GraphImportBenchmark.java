@@ -0,0 +1,66 @@
+package com.graphvizfx.bench;
+
+import com.graphvizfx.io.JSONExporter;
+import com.graphvizfx.io.JSONImporter;
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Times a JSON round trip of a grid graph with about {@code 2 * side^2} edges.
+ * <p>
+ * Run with {@code java -Xmx4g -cp target/classes:target/test-classes com.graphvizfx.bench.GraphImportBenchmark [side]};
+ * the default side of 1000 gives one million nodes and two million edges.
+ */
+public final class GraphImportBenchmark {
+    private GraphImportBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        File file = File.createTempFile("graphvizfx-import", ".json");
+        file.deleteOnExit();
+
+        long start = System.nanoTime();
+        GraphModel source = buildGrid(side);
+        System.out.printf("build   %,d nodes, %,d edges in %d ms%n",
+                source.nodeCount(), source.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        JSONExporter.export(source, file);
+        System.out.printf("export  %,d bytes in %d ms%n", file.length(), (System.nanoTime() - start) / 1_000_000);
+        source = null;
+
+        GraphModel imported = new GraphModel();
+        start = System.nanoTime();
+        JSONImporter.importGraph(imported, file);
+        System.out.printf("import  %,d nodes, %,d edges in %d ms%n",
+                imported.nodeCount(), imported.edgeCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    static GraphModel buildGrid(int side) {
+        GraphModel graph = new GraphModel();
+        graph.setWeighted(true);
+        GraphBuilder builder = graph.builder(side * side, 2 * side * (side - 1));
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                builder.addNode("N" + (r * side + c), c * 10.0, r * 10.0);
+            }
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = r * side + c;
+                if (c + 1 < side) {
+                    builder.addEdge(u, u + 1, 10);
+                }
+                if (r + 1 < side) {
+                    builder.addEdge(u, u + side, 10);
+                }
+            }
+        }
+        builder.commit();
+        return graph;
+    }
+}
@@ -0,0 +1,97 @@
+package com.graphvizfx.bench;
+
+import com.graphvizfx.model.GEdge;
+import com.graphvizfx.model.GNode;
+import com.graphvizfx.model.GraphModel;
+
+/**
+ * Measures retained heap per node for a road-like grid graph (about two edges per node).
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.graphvizfx.bench.GraphMemoryBenchmark [side]}.
+ * The "index" row builds the graph through the index-based API so no views exist; the "views"
+ * row builds it from {@link GNode}/{@link GEdge} objects, which then stay materialized.
+ */
+public final class GraphMemoryBenchmark {
+    private GraphMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int nodes = side * side;
+        System.out.printf("Grid %dx%d: %d nodes, %d edges%n", side, side, nodes, 2 * side * (side - 1));
+
+        report("index", nodes, measure(() -> buildIndexed(side)));
+        report("views", nodes, measure(() -> buildWithViews(side)));
+    }
+
+    static GraphModel buildIndexed(int side) {
+        GraphModel graph = new GraphModel();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                graph.addNode("N" + (r * side + c), c * 10.0, r * 10.0);
+            }
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = r * side + c;
+                if (c + 1 < side) {
+                    graph.addEdge(u, u + 1, 10);
+                }
+                if (r + 1 < side) {
+                    graph.addEdge(u, u + side, 10);
+                }
+            }
+        }
+        return graph;
+    }
+
+    static GraphModel buildWithViews(int side) {
+        GraphModel graph = new GraphModel();
+        GNode[] nodes = new GNode[side * side];
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                nodes[r * side + c] = new GNode("N" + (r * side + c), c * 10.0, r * 10.0);
+                graph.addNode(nodes[r * side + c]);
+            }
+        }
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = r * side + c;
+                if (c + 1 < side) {
+                    graph.addEdge(new GEdge(nodes[u], nodes[u + 1], 10));
+                }
+                if (r + 1 < side) {
+                    graph.addEdge(new GEdge(nodes[u], nodes[u + side], 10));
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static long measure(java.util.function.Supplier<GraphModel> builder) {
+        long before = usedHeap();
+        GraphModel graph = builder.get();
+        long after = usedHeap();
+        if (graph.getNodes().isEmpty()) {
+            throw new IllegalStateException("empty graph");
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void report(String label, int nodes, long bytes) {
+        System.out.printf("%-6s %,12d bytes  %8.1f bytes/node%n", label, bytes, (double) bytes / nodes);
+    }
+}
@@ -0,0 +1,99 @@
+package com.graphvizfx.bench;
+
+import com.graphvizfx.algorithms.AlgorithmEngine;
+import com.graphvizfx.algorithms.AlgorithmResult;
+import com.graphvizfx.model.AlgorithmTrace.Level;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+
+import java.util.Random;
+
+/**
+ * Compares the tracing path of every algorithm, at each recording level, against its headless
+ * {@code solve} on a weighted road-like grid, to show what the animation costs when only part of
+ * it or only the answer is needed.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.graphvizfx.bench.HeadlessExecutionBenchmark [side]}.
+ * Times are the best of {@link #ROUNDS} runs on the same CSR snapshot.
+ */
+public final class HeadlessExecutionBenchmark {
+    private static final int ROUNDS = 5;
+    private static final String[] ALGORITHMS = {"BFS", "DFS", "Dijkstra", "A*", "Prim", "Kruskal"};
+
+    private HeadlessExecutionBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 150;
+        CsrGraph graph = CsrGraph.of(build(side));
+        int goal = graph.nodeCount() - 1;
+        System.out.printf("Grid %dx%d: %d nodes, %d edges%n", side, side, graph.nodeCount(), graph.edgeCount());
+        System.out.printf("%-9s %8s %12s %12s %12s %12s %12s%n", "algorithm", "steps", "full",
+                "expansions", "every 10th", "milestones", "headless");
+
+        for (String algo : ALGORITHMS) {
+            int[] steps = new int[1];
+            double full = best(() -> steps[0] = AlgorithmEngine.execute(algo, graph, 0, goal).size());
+            double expansions = best(() -> AlgorithmEngine.execute(algo, graph, 0, goal, Level.EXPANSIONS, 1));
+            double sampled = best(() -> AlgorithmEngine.execute(algo, graph, 0, goal, Level.FULL, 10));
+            double milestones = best(() -> AlgorithmEngine.execute(algo, graph, 0, goal, Level.MILESTONES, 1));
+            double headless = best(() -> AlgorithmEngine.solve(algo, graph, 0, goal));
+            System.out.printf("%-9s %8d %9.2f ms %9.2f ms %9.2f ms %9.2f ms %9.2f ms%n", algo, steps[0], full,
+                    expansions, sampled, milestones, headless);
+        }
+
+        // Both spanning trees must weigh the same, whichever edges they picked among equal weights
+        long prim = treeWeight(graph, AlgorithmEngine.solve("Prim", graph, 0, -1));
+        long kruskal = treeWeight(graph, AlgorithmEngine.solve("Kruskal", graph, 0, -1));
+        if (prim != kruskal) {
+            throw new IllegalStateException("Prim tree weighs " + prim + ", Kruskal tree " + kruskal);
+        }
+    }
+
+    private static GraphModel build(int side) {
+        GraphModel graph = new GraphModel();
+        graph.setWeighted(true);
+        GraphBuilder builder = graph.builder(side * side, 2 * side * (side - 1));
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                builder.addNode("N" + (r * side + c), c * 10.0, r * 10.0);
+            }
+        }
+        Random random = new Random(11);
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = r * side + c;
+                if (c + 1 < side) {
+                    builder.addEdge(u, u + 1, 10 + random.nextInt(20));
+                }
+                if (r + 1 < side) {
+                    builder.addEdge(u, u + side, 10 + random.nextInt(20));
+                }
+            }
+        }
+        builder.commit();
+        return graph;
+    }
+
+    /**
+     * @return milliseconds of the fastest of {@link #ROUNDS} runs
+     */
+    private static double best(Runnable run) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static long treeWeight(CsrGraph graph, AlgorithmResult result) {
+        long weight = 0;
+        for (int edge : result.treeEdges()) {
+            weight += graph.edgeWeight(edge);
+        }
+        return weight;
+    }
+}
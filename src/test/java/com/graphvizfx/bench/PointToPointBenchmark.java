@@ -0,0 +1,80 @@
+package com.graphvizfx.bench;
+
+import com.graphvizfx.algorithms.AlgorithmEngine;
+import com.graphvizfx.algorithms.AlgorithmResult;
+import com.graphvizfx.algorithms.ContractionHierarchy;
+import com.graphvizfx.algorithms.LandmarkTable;
+import com.graphvizfx.io.OSMImporter;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compares point-to-point queries on the street grid of {@link RoadGraphQueueBenchmark}: Dijkstra
+ * stopped at the goal, A* by straight line and by landmarks, both bidirectional searches and the
+ * contraction hierarchy, by settled nodes and time per query.
+ * Dijkstra always runs to completion, so its settled count is where the goal shows up in its
+ * settle order and its time covers the whole search.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.graphvizfx.bench.PointToPointBenchmark [side] [queries]}.
+ * The landmark table and the hierarchy are built once before timing, as they would be cached for
+ * the graph version.
+ */
+public final class PointToPointBenchmark {
+    private static final String[] SEARCHES = {"Dijkstra", "A*", "A* (Landmarks)", "Bidirectional Dijkstra",
+            "Bidirectional A*", "Contraction Hierarchy"};
+
+    private PointToPointBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        File file = File.createTempFile("graphvizfx-roads", ".osm");
+        file.deleteOnExit();
+        RoadGraphQueueBenchmark.writeStreetGrid(file, side);
+
+        GraphModel model = new GraphModel();
+        OSMImporter.importGraph(model, file);
+        CsrGraph graph = CsrGraph.of(model);
+        long build = System.nanoTime();
+        LandmarkTable.of(graph);
+        long contract = System.nanoTime();
+        ContractionHierarchy hierarchy = ContractionHierarchy.of(graph);
+        long done = System.nanoTime();
+        System.out.printf("Imported %d nodes, %d edges; landmarks in %.0f ms, hierarchy in %.0f ms (%d shortcuts)%n",
+                graph.nodeCount(), graph.edgeCount(), (contract - build) / 1e6, (done - contract) / 1e6,
+                hierarchy.shortcutCount());
+        System.out.printf("%-24s %14s %12s%n", "search", "settled/query", "ms/query");
+
+        for (String search : SEARCHES) {
+            Random random = new Random(5);
+            long settled = 0;
+            long nanos = 0;
+            for (int query = 0; query < queries; query++) {
+                int start = random.nextInt(graph.nodeCount());
+                int goal = random.nextInt(graph.nodeCount());
+                long begin = System.nanoTime();
+                AlgorithmResult result = AlgorithmEngine.solve(search, graph, start, search.equals("Dijkstra") ? -1 : goal);
+                nanos += System.nanoTime() - begin;
+                settled += search.equals("Dijkstra") ? settledBefore(result.order(), goal) : result.order().length;
+            }
+            System.out.printf("%-24s %14d %12.2f%n", search, settled / queries, nanos / 1e6 / queries);
+        }
+    }
+
+    /**
+     * @return number of nodes settled up to and including {@code goal}
+     */
+    private static int settledBefore(int[] order, int goal) {
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] == goal) {
+                return i + 1;
+            }
+        }
+        return order.length;
+    }
+}
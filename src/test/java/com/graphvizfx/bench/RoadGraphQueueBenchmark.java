@@ -0,0 +1,105 @@
+package com.graphvizfx.bench;
+
+import com.graphvizfx.algorithms.AlgorithmEngine;
+import com.graphvizfx.algorithms.IndexedHeap;
+import com.graphvizfx.io.OSMImporter;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times headless Dijkstra with every queue on what {@link OSMImporter} makes of a synthetic road
+ * network: a jittered street grid whose ways carry assorted {@code maxspeed} tags, imported from an
+ * OSM file written for the run. Both the length and the travel time column are measured, against
+ * the binary heap and against the queue Dijkstra picks by itself.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes com.graphvizfx.bench.RoadGraphQueueBenchmark [side]}.
+ * Times are the best of {@link #ROUNDS} runs from the same start node on the same CSR snapshot.
+ */
+public final class RoadGraphQueueBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int[] SPEEDS = {30, 50, 50, 70, 90, 120};
+
+    private RoadGraphQueueBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        File file = File.createTempFile("graphvizfx-roads", ".osm");
+        file.deleteOnExit();
+        writeStreetGrid(file, side);
+
+        GraphModel model = new GraphModel();
+        OSMImporter.importGraph(model, file);
+        CsrGraph lengths = CsrGraph.of(model);
+        CsrGraph travelTimes = lengths.withWeights(model.snapshot().weightColumn(OSMImporter.TRAVEL_TIME_COLUMN));
+        System.out.printf("Imported %d nodes, %d edges%n", lengths.nodeCount(), lengths.edgeCount());
+        System.out.printf("%-12s %12s %12s%n", "queue", "length", "travel time");
+
+        double[] expected = AlgorithmEngine.solve("Dijkstra", lengths, 0, -1, IndexedHeap.Kind.BINARY).distances();
+        for (IndexedHeap.Kind kind : IndexedHeap.Kind.values()) {
+            check(expected, AlgorithmEngine.solve("Dijkstra", lengths, 0, -1, kind).distances(), kind.name());
+            double length = best(() -> AlgorithmEngine.solve("Dijkstra", lengths, 0, -1, kind));
+            double time = best(() -> AlgorithmEngine.solve("Dijkstra", travelTimes, 0, -1, kind));
+            System.out.printf("%-12s %9.2f ms %9.2f ms%n", kind, length, time);
+        }
+        check(expected, AlgorithmEngine.solve("Dijkstra", lengths, 0, -1).distances(), "automatic");
+        double length = best(() -> AlgorithmEngine.solve("Dijkstra", lengths, 0, -1));
+        double time = best(() -> AlgorithmEngine.solve("Dijkstra", travelTimes, 0, -1));
+        System.out.printf("%-12s %9.2f ms %9.2f ms%n", "automatic", length, time);
+    }
+
+    /**
+     * Writes a {@code side x side} grid of nodes about 0.4 degrees apart, joined by one way per
+     * row and per column, each with a speed limit drawn from {@link #SPEEDS}.
+     */
+    static void writeStreetGrid(File file, int side) throws IOException {
+        Random random = new Random(3);
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("<osm>");
+            for (int r = 0; r < side; r++) {
+                for (int c = 0; c < side; c++) {
+                    double lat = 80 - r * 0.4 + random.nextDouble() * 0.2;
+                    double lon = -170 + c * 0.4 + random.nextDouble() * 0.2;
+                    out.printf("<node id=\"%d\" lat=\"%.5f\" lon=\"%.5f\"/>%n", r * side + c, lat, lon);
+                }
+            }
+            int way = 0;
+            for (int line = 0; line < side; line++) {
+                for (int axis = 0; axis < 2; axis++) {
+                    out.printf("<way id=\"%d\">%n", way++);
+                    for (int i = 0; i < side; i++) {
+                        int node = axis == 0 ? line * side + i : i * side + line;
+                        out.printf("<nd ref=\"%d\"/>%n", node);
+                    }
+                    out.printf("<tag k=\"maxspeed\" v=\"%d\"/>%n</way>%n", SPEEDS[random.nextInt(SPEEDS.length)]);
+                }
+            }
+            out.println("</osm>");
+        }
+    }
+
+    private static void check(double[] expected, double[] actual, String queue) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException(queue + " distances differ from the binary heap's");
+        }
+    }
+
+    /**
+     * @return milliseconds of the fastest of {@link #ROUNDS} runs
+     */
+    private static double best(Runnable run) {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+}
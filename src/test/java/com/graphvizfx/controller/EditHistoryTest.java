@@ -0,0 +1,154 @@
+package com.graphvizfx.controller;
+
+import com.graphvizfx.model.GNode;
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EditHistoryTest {
+
+    @Test
+    void undoingNodeDeletionRestoresNodeEdgesAndIndices() {
+        // The cascade is one step and undo puts every index back where it was.
+        GraphController controller = new GraphController();
+        GraphModel graph = controller.getGraph();
+        controller.addNode("A", 0, 0);
+        controller.addNode("B", 10, 0);
+        controller.addNode("C", 20, 0);
+        controller.addEdge(graph.getNode("A"), graph.getNode("B"), 3);
+        controller.addEdge(graph.getNode("C"), graph.getNode("A"), 5);
+
+        controller.deleteNode(graph.getNode("A"));
+        assertEquals(2, graph.nodeCount());
+        assertEquals(0, graph.edgeCount());
+
+        assertTrue(controller.undo());
+        assertEquals("A", graph.nodeId(0));
+        assertEquals("C", graph.nodeId(2));
+        assertEquals(2, graph.edgeCount());
+        assertTrue(graph.hasEdge(graph.getNode("A"), graph.getNode("B")));
+        assertTrue(graph.hasEdge(graph.getNode("C"), graph.getNode("A")));
+
+        assertTrue(controller.redo());
+        assertNull(graph.getNode("A"));
+        assertEquals(0, graph.edgeCount());
+    }
+
+    @Test
+    void undoingEdgeDeletionRestoresAdjacencyOrder() {
+        // The edge goes back to its old place in both lists, so traversals visit neighbours as before.
+        GraphController controller = new GraphController();
+        GraphModel graph = controller.getGraph();
+        controller.addNode("A", 0, 0);
+        controller.addNode("B", 10, 0);
+        controller.addNode("C", 20, 0);
+        controller.addNode("D", 30, 0);
+        controller.addEdge(graph.getNode("A"), graph.getNode("B"), 1);
+        controller.addEdge(graph.getNode("A"), graph.getNode("C"), 1);
+        controller.addEdge(graph.getNode("A"), graph.getNode("D"), 1);
+        controller.addEdge(graph.getNode("C"), graph.getNode("D"), 1);
+        int a = graph.indexOf("A");
+        int d = graph.indexOf("D");
+        int[] outBefore = {graph.outEdge(a, 0), graph.outEdge(a, 1), graph.outEdge(a, 2)};
+        int[] inBefore = {graph.inEdge(d, 0), graph.inEdge(d, 1)};
+
+        controller.deleteEdge(graph.edgeAt(graph.outEdge(a, 1)));
+        controller.deleteEdge(graph.edgeAt(graph.inEdge(d, 0)));
+        assertTrue(controller.undo());
+        assertTrue(controller.undo());
+
+        assertArrayEquals(outBefore, new int[]{graph.outEdge(a, 0), graph.outEdge(a, 1), graph.outEdge(a, 2)});
+        assertArrayEquals(inBefore, new int[]{graph.inEdge(d, 0), graph.inEdge(d, 1)});
+    }
+
+    @Test
+    void dragCollapsesIntoSingleMove() {
+        // Moves inside one compound edit keep only the start and end position.
+        GraphController controller = new GraphController();
+        controller.addNode("A", 0, 0);
+        GNode a = controller.getGraph().getNode("A");
+
+        controller.getHistory().beginEdit();
+        for (int i = 1; i <= 100; i++) {
+            controller.moveNode(a, i, i);
+        }
+        controller.getHistory().endEdit();
+
+        assertTrue(controller.undo());
+        assertEquals(0, a.getX());
+        assertTrue(controller.undo());
+        assertEquals(0, controller.getGraph().nodeCount());
+        assertFalse(controller.undo());
+    }
+
+    @Test
+    void layoutUndoAndRedoSwapCoordinateArrays() {
+        // A layout is a single step that can be replayed in both directions.
+        GraphController controller = new GraphController();
+        controller.addNode("A", 1, 1);
+        controller.addNode("B", 2, 2);
+        controller.applyLayout("Grid", 400, 400);
+        double laidOutX = controller.getGraph().nodeX(1);
+
+        controller.undo();
+        assertEquals(2, controller.getGraph().nodeX(1));
+        controller.redo();
+        assertEquals(laidOutX, controller.getGraph().nodeX(1));
+    }
+
+    @Test
+    void newEditDropsRedoAndClearDropsEverything() {
+        // Branching off discards redo; resetting the graph discards the whole history.
+        GraphController controller = new GraphController();
+        controller.addNode("A", 0, 0);
+        controller.undo();
+        assertTrue(controller.getHistory().canRedo());
+
+        controller.addNode("B", 0, 0);
+        assertFalse(controller.getHistory().canRedo());
+
+        controller.resetGraph();
+        assertFalse(controller.getHistory().canUndo());
+    }
+
+    @Test
+    void batchIsUndoneAsOneStep() {
+        // Builder commits undo by trimming the appended range.
+        GraphController controller = new GraphController();
+        controller.addNode("A", 0, 0);
+        GraphBuilder builder = controller.getGraph().builder(2, 1);
+        int b = builder.addNode("B", 0, 0);
+        builder.addEdge(0, b, 1);
+        builder.commit();
+
+        assertTrue(controller.undo());
+        assertEquals(1, controller.getGraph().nodeCount());
+        assertEquals(0, controller.getGraph().edgeCount());
+        assertTrue(controller.redo());
+        assertEquals(2, controller.getGraph().nodeCount());
+        assertEquals(1, controller.getGraph().edgeCount());
+    }
+
+    @Test
+    void undoRestoresEveryWeightColumn() {
+        // A re-inserted edge gets its extra costs back, and column rewrites undo in one step.
+        GraphController controller = new GraphController();
+        GraphModel graph = controller.getGraph();
+        int a = graph.addNode("A", 0, 0);
+        int b = graph.addNode("B", 0, 0);
+        graph.addEdge(a, b, 5);
+        int time = graph.addWeightColumn("time");
+        graph.setEdgeWeight(0, time, 50);
+        graph.setEdgeWeights(time, new int[]{70});
+        graph.removeEdge(0);
+
+        assertTrue(controller.undo());
+        assertEquals(70, graph.edgeWeight(0, time));
+        assertTrue(controller.undo());
+        assertEquals(50, graph.edgeWeight(0, time));
+        assertTrue(controller.undo());
+        assertEquals(5, graph.edgeWeight(0, time));
+    }
+}
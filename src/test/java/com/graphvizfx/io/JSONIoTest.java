@@ -42,6 +42,28 @@ class JSONIoTest {
         assertEquals(3.0, restored.getNode("A").getY());
     }
 
+    @Test
+    void roundTripKeepsParallelAndOppositeEdges(@TempDir Path tempDir) throws Exception {
+        // Exported files are exact copies, so the importer must not deduplicate endpoint pairs.
+        GraphModel original = TestGraphFactory.createGraph(false, true, "A", "B");
+        int a = original.indexOf("A");
+        int b = original.indexOf("B");
+        original.addEdge(a, b, 2);
+        original.addEdge(b, a, 5);
+        original.addEdge(a, b, 3);
+
+        File file = tempDir.resolve("parallel.json").toFile();
+        JSONExporter.export(original, file);
+        GraphModel restored = new GraphModel();
+        JSONImporter.importGraph(restored, file);
+
+        assertEquals(3, restored.edgeCount());
+        for (int e = 0; e < 3; e++) {
+            assertEquals(original.edgeId(e), restored.edgeId(e));
+            assertEquals(original.edgeWeight(e), restored.edgeWeight(e));
+        }
+    }
+
     @Test
     void importFailsOnEmptyFile(@TempDir Path tempDir) throws IOException {
         // Importing an empty file should signal invalid input instead of mutating the graph.
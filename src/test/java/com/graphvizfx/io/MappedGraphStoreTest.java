@@ -0,0 +1,194 @@
+package com.graphvizfx.io;
+
+import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.algorithms.AlgorithmEngine;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphBuilder;
+import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.VisualState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedGraphStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mappedStoreMatchesHeapSnapshot() throws IOException {
+        // Every accessor reads back what the heap CSR held, ids included.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "Časlav", "D");
+        TestGraphFactory.connect(graph, "A", "B", 4);
+        TestGraphFactory.connect(graph, "B", "Časlav", 2);
+        TestGraphFactory.connect(graph, "A", "D", 9);
+        CsrGraph heap = CsrGraph.of(graph);
+        File file = tempDir.resolve("graph.store").toFile();
+
+        MappedGraphStore.write(heap, file);
+        CsrGraph mapped = MappedGraphStore.open(file);
+
+        assertEquals(heap.isDirected(), mapped.isDirected());
+        assertEquals(heap.isWeighted(), mapped.isWeighted());
+        assertEquals(heap.nodeCount(), mapped.nodeCount());
+        assertEquals(heap.edgeCount(), mapped.edgeCount());
+        for (int u = 0; u < heap.nodeCount(); u++) {
+            assertEquals(heap.nodeId(u), mapped.nodeId(u));
+            assertEquals(heap.nodeX(u), mapped.nodeX(u));
+            assertEquals(heap.arcStart(u), mapped.arcStart(u));
+            assertEquals(heap.arcEnd(u), mapped.arcEnd(u));
+            for (int a = heap.arcStart(u); a < heap.arcEnd(u); a++) {
+                assertEquals(heap.arcTarget(a), mapped.arcTarget(a));
+                assertEquals(heap.arcEdge(a), mapped.arcEdge(a));
+            }
+        }
+        assertEquals("B->Časlav", mapped.edgeId(1));
+        assertEquals(2, mapped.indexOf(graph.getNode("Časlav")));
+        assertTrue(mapped.hasEdge(0, 3));
+        assertFalse(mapped.hasEdge(3, 0));
+    }
+
+    @Test
+    void algorithmsRunOnMappedStore() throws IOException {
+        // The engine only needs CsrGraph accessors, so a mapped graph gives the same trace.
+        GraphModel graph = TestGraphFactory.createGraph(true, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+        TestGraphFactory.connect(graph, "B", "C", 1);
+        TestGraphFactory.connect(graph, "A", "C", 5);
+        File file = tempDir.resolve("graph.store").toFile();
+        MappedGraphStore.write(CsrGraph.of(graph), file);
+
+        List<VisualState> heap = AlgorithmEngine.execute("Dijkstra", CsrGraph.of(graph), 0, 2);
+        List<VisualState> mapped = AlgorithmEngine.execute("Dijkstra", MappedGraphStore.open(file), 0, 2);
+
+        assertEquals(heap.size(), mapped.size());
+        assertEquals(heap.get(heap.size() - 1).getLogLine(), mapped.get(mapped.size() - 1).getLogLine());
+        assertEquals(heap.get(heap.size() - 1).getDistances(), mapped.get(mapped.size() - 1).getDistances());
+    }
+
+    @Test
+    void rejectsFilesThatAreNotStores() throws IOException {
+        // A JSON export is not mistaken for a store.
+        File file = tempDir.resolve("graph.json").toFile();
+        Files.writeString(file.toPath(), "{\"directed\": false, \"weighted\": false, \"nodes\": [], \"edges\": []}");
+
+        assertThrows(IOException.class, () -> MappedGraphStore.open(file));
+    }
+
+    @Test
+    void weightColumnsRoundTrip() throws IOException {
+        // Extra columns and their names are stored, and views re-derive arc weights from them.
+        GraphModel graph = TestGraphFactory.createGraph(true, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 4);
+        TestGraphFactory.connect(graph, "B", "C", 6);
+        int time = graph.addWeightColumn("travel_time");
+        graph.setEdgeWeights(time, new int[]{40, 15});
+        File file = tempDir.resolve("columns.store").toFile();
+
+        MappedGraphStore.write(CsrGraph.of(graph), file);
+        CsrGraph mapped = MappedGraphStore.open(file);
+        CsrGraph byTime = mapped.withWeights(mapped.weightColumn("travel_time"));
+
+        assertEquals(2, mapped.weightColumnCount());
+        assertEquals(GraphModel.DEFAULT_WEIGHT_COLUMN, mapped.weightColumnName(0));
+        assertEquals(4, mapped.arcWeight(mapped.arcStart(0)));
+        assertEquals(40, byTime.arcWeight(byTime.arcStart(0)));
+        assertEquals(15, byTime.edgeWeight(1));
+        assertEquals(6, byTime.edgeWeight(1, 0));
+    }
+
+    @Test
+    void streamedStoreMatchesWrittenStore() throws IOException {
+        // The builder keeps the first edge of each pair and lays arcs out as CsrGraph.of does.
+        int[][] edges = {{0, 1, 4, 40}, {2, 1, 2, 20}, {1, 0, 7, 70}, {3, 0, 9, 90}, {1, 2, 5, 50}, {2, 3, 1, 10}};
+        GraphModel graph = new GraphModel();
+        graph.setWeighted(true);
+        GraphBuilder staged = graph.builder(4, edges.length);
+        File streamed = tempDir.resolve("streamed.store").toFile();
+        try (MappedGraphStore.Builder builder = MappedGraphStore.builder(streamed, false, true, "travel_time")) {
+            for (int u = 0; u < 4; u++) {
+                staged.addNode("N" + u, u * 10, u * 20);
+                assertEquals(u, builder.addNode("N" + u, u * 10, u * 20));
+            }
+            assertEquals(20, builder.nodeY(1));
+            int[] times = new int[edges.length];
+            int kept = 0;
+            for (int[] edge : edges) {
+                if (staged.addEdge(edge[0], edge[1], edge[2])) {
+                    times[kept++] = edge[3];
+                }
+                builder.addEdge(edge[0], edge[1], edge[2], edge[3]);
+            }
+            staged.commit();
+            graph.setEdgeWeights(graph.addWeightColumn("travel_time"), Arrays.copyOf(times, kept));
+            builder.commit();
+        }
+        File written = tempDir.resolve("written.store").toFile();
+        MappedGraphStore.write(CsrGraph.of(graph), written);
+
+        assertEquals(4, MappedGraphStore.open(streamed).edgeCount());
+        assertArrayEquals(Files.readAllBytes(written.toPath()), Files.readAllBytes(streamed.toPath()));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(2, files.count(), "temporary files are deleted");
+        }
+    }
+
+    @Test
+    void osmStoreMatchesImportedGraph() throws IOException {
+        // Streaming an OSM file into a store gives the graph importGraph builds, travel times included.
+        File osm = tempDir.resolve("map.osm").toFile();
+        Files.writeString(osm.toPath(), String.join("\n",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+                "<osm version=\"0.6\">",
+                "  <node id=\"1\" lat=\"50.0000\" lon=\"14.0000\"/>",
+                "  <node id=\"2\" lat=\"50.0100\" lon=\"14.0000\"/>",
+                "  <node id=\"3\" lat=\"50.0100\" lon=\"14.0200\"/>",
+                "  <node id=\"4\" lat=\"95.0000\" lon=\"14.0000\"/>",
+                "  <node id=\"5\" lat=\"50.0300\" lon=\"14.0200\"/>",
+                "  <way id=\"10\">",
+                "    <nd ref=\"1\"/>", "    <nd ref=\"2\"/>", "    <nd ref=\"3\"/>",
+                "    <tag k=\"maxspeed\" v=\"25\"/>",
+                "  </way>",
+                "  <way id=\"11\">",
+                "    <nd ref=\"3\"/>", "    <nd ref=\"2\"/>", "    <nd ref=\"4\"/>", "    <nd ref=\"5\"/>",
+                "  </way>",
+                "  <way id=\"12\"><nd ref=\"3\"/><nd ref=\"5\"/></way>",
+                "</osm>"));
+        GraphModel graph = new GraphModel();
+        OSMImporter.importGraph(graph, osm);
+        File written = tempDir.resolve("written.store").toFile();
+        MappedGraphStore.write(CsrGraph.of(graph), written);
+        File streamed = tempDir.resolve("streamed.store").toFile();
+
+        OSMImporter.importStore(osm, streamed);
+
+        CsrGraph store = MappedGraphStore.open(streamed);
+        assertEquals(4, store.nodeCount());
+        assertEquals(3, store.edgeCount());
+        assertEquals(2 * store.edgeWeight(0), store.edgeWeight(0, store.weightColumn(OSMImporter.TRAVEL_TIME_COLUMN)));
+        assertArrayEquals(Files.readAllBytes(written.toPath()), Files.readAllBytes(streamed.toPath()));
+    }
+
+    @Test
+    void weightViewsShareIndices() throws IOException {
+        // A trace recorded on one column's view is drawn on the store by index.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B");
+        TestGraphFactory.connect(graph, "A", "B", 3);
+        graph.addWeightColumn("travel_time");
+        File file = tempDir.resolve("views.store").toFile();
+        MappedGraphStore.write(CsrGraph.of(graph), file);
+
+        CsrGraph store = MappedGraphStore.open(file);
+
+        assertTrue(store.withWeights(1).sharesIndicesWith(store));
+        assertFalse(MappedGraphStore.open(file).sharesIndicesWith(store));
+    }
+}
@@ -0,0 +1,97 @@
+package com.graphvizfx.io;
+
+import com.graphvizfx.TestGraphFactory;
+import com.graphvizfx.algorithms.AlgorithmEngine;
+import com.graphvizfx.model.AlgorithmTrace;
+import com.graphvizfx.model.CsrGraph;
+import com.graphvizfx.model.GraphModel;
+import com.graphvizfx.model.VisualState;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void savedRunReplaysEveryStep() throws IOException {
+        // Colors, distances and log lines of every step come back, bound to the graph again.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "Časlav", "D");
+        TestGraphFactory.connect(graph, "A", "B", 4);
+        TestGraphFactory.connect(graph, "B", "Časlav", 2);
+        TestGraphFactory.connect(graph, "A", "D", 9);
+        CsrGraph snapshot = CsrGraph.of(graph);
+        AlgorithmTrace original = AlgorithmEngine.execute("Dijkstra", snapshot, 0, 2);
+        File file = tempDir.resolve("run.trace").toFile();
+
+        TraceFile.write(original, file);
+        AlgorithmTrace bound = TraceFile.open(file, snapshot);
+        AlgorithmTrace byId = TraceFile.open(file, null);
+
+        assertTrue(bound.isComplete());
+        assertEquals(original.size(), bound.size());
+        for (int step = 0; step < original.size(); step++) {
+            VisualState expected = original.stateAt(step);
+            assertEquals(expected.getNodeColors(), bound.stateAt(step).getNodeColors());
+            assertEquals(expected.getEdgeColors(), bound.stateAt(step).getEdgeColors());
+            assertEquals(expected.getDistances(), bound.stateAt(step).getDistances());
+            assertEquals(expected.getLogLine(), bound.stateAt(step).getLogLine());
+            assertEquals(expected.getDistances(), byId.stateAt(step).getDistances());
+        }
+        assertSame(snapshot, bound.compactAt(0).graph());
+    }
+
+    @Test
+    void matchesIdsWhenTheGraphWasRenumbered() throws IOException {
+        // Removing a node moves the last one into its index; the saved ids still find it.
+        GraphModel graph = TestGraphFactory.createGraph(true, false, "A", "B", "C", "D");
+        TestGraphFactory.connect(graph, "C", "D", 1);
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.bind(CsrGraph.of(graph));
+        trace.setNodeColor(3, Color.RED);
+        trace.setEdgeColor(0, Color.BLUE);
+        trace.setDistance(3, 0.5);
+        trace.log("one\n");
+        File file = tempDir.resolve("run.trace").toFile();
+        TraceFile.write(trace, file);
+
+        graph.removeNode(graph.getNode("A"));
+        CsrGraph edited = CsrGraph.of(graph);
+        AlgorithmTrace replayed = TraceFile.open(file, edited);
+
+        int d = edited.indexOf(graph.getNode("D"));
+        assertNotEquals(3, d);
+        assertEquals(Color.RED, replayed.compactAt(1).nodeColor(d));
+        assertEquals(Color.BLUE, replayed.compactAt(1).edgeColor(0));
+        assertEquals(0.5, replayed.compactAt(1).distance(d));
+
+        graph.removeNode(graph.getNode("D"));
+        assertThrows(IOException.class, () -> TraceFile.open(file, CsrGraph.of(graph)));
+    }
+
+    @Test
+    void rejectsFilesThatAreNotTraces() throws IOException {
+        // A graph store has another magic number, and a cut-off trace is reported as truncated.
+        GraphModel graph = TestGraphFactory.createGraph(false, false, "A", "B");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+        File store = tempDir.resolve("graph.store").toFile();
+        MappedGraphStore.write(CsrGraph.of(graph), store);
+        File trace = tempDir.resolve("run.trace").toFile();
+        TraceFile.write(AlgorithmEngine.execute("BFS", CsrGraph.of(graph), 0, -1), trace);
+        byte[] bytes = Files.readAllBytes(trace.toPath());
+        Files.write(trace.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> TraceFile.open(store, null));
+        assertThrows(IOException.class, () -> TraceFile.open(trace, null));
+    }
+}
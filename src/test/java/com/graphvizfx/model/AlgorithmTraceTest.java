@@ -0,0 +1,307 @@
+package com.graphvizfx.model;
+
+import com.graphvizfx.TestGraphFactory;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlgorithmTraceTest {
+
+    @Test
+    void seekingRebuildsEveryStepInBothDirections() {
+        // Deltas replay forwards and revert backwards to the exact recorded states.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.setNodeColor("A", Color.RED);
+        trace.setDistance("A", 0);
+        trace.log("one\n");
+        trace.setNodeColor("A", Color.BLUE);
+        trace.setEdgeColor("A->B", Color.GREEN);
+        trace.setDistance("B", 4);
+        trace.log("two\n");
+        trace.setDistance("B", 3);
+        trace.log("three\n");
+
+        assertEquals(4, trace.size());
+        assertEquals(3.0, trace.stateAt(3).getDistances().get("B"));
+        assertEquals(Color.RED, trace.stateAt(1).getNodeColors().get("A"));
+        assertFalse(trace.stateAt(1).getEdgeColors().containsKey("A->B"));
+        assertNull(trace.stateAt(1).getDistances().get("B"));
+        assertEquals("one\n", trace.stateAt(1).getLogLine());
+        assertTrue(trace.stateAt(0).getNodeColors().isEmpty());
+        assertEquals(4.0, trace.stateAt(2).getDistances().get("B"));
+        assertEquals(Color.BLUE, trace.stateAt(2).getNodeColors().get("A"));
+        assertEquals("one\ntwo\nthree\n", trace.stateAt(3).getLogLine());
+        assertEquals("two\n", trace.lineAt(2));
+    }
+
+    @Test
+    void listElementsAreDetachedCopies() {
+        // Holding on to an element must not see later seeks.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.setNodeColor("A", Color.RED);
+        trace.log("one\n");
+        trace.setNodeColor("A", Color.BLUE);
+        trace.log("two\n");
+
+        VisualState first = trace.get(1);
+        trace.stateAt(2);
+
+        assertEquals(Color.RED, first.getNodeColors().get("A"));
+        assertEquals(Color.BLUE, trace.get(trace.size() - 1).getNodeColors().get("A"));
+    }
+
+    @Test
+    void recordingAfterSeekingContinuesFromTheLatestStep() {
+        // Recording moves the cursor back to the head before applying new changes.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.setInitialLog("start\n");
+        trace.setDistance("A", 1);
+        trace.log("one\n");
+        trace.stateAt(0);
+        trace.setDistance("B", 2);
+        trace.log("two\n");
+
+        VisualState last = trace.stateAt(2);
+        assertEquals(1.0, last.getDistances().get("A"));
+        assertEquals(2.0, last.getDistances().get("B"));
+        assertEquals("start\none\ntwo\n", last.getLogLine());
+        assertThrows(IllegalStateException.class, () -> trace.setInitialLog("late\n"));
+    }
+
+    @Test
+    void logViewsShareOneBuffer() {
+        // A view taken early keeps reading its prefix while later steps append to the buffer.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.log("one\n");
+        CharSequence early = trace.logUpTo(1);
+        trace.log("two\n");
+
+        assertEquals(4, early.length());
+        assertEquals("one\n", early.toString());
+        assertEquals("one\ntwo\n", trace.logUpTo(2).toString());
+        assertEquals(8, trace.logEnd(2));
+        assertEquals("two\n", trace.lineAt(2));
+        assertEquals('t', trace.stateAt(2).getLog().charAt(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> early.charAt(4));
+    }
+
+    @Test
+    void keyframeSeeksMatchStepByStepReplay() {
+        // Jumping through keyframes must rebuild the same states as walking one step at a time.
+        AlgorithmTrace keyed = new AlgorithmTrace(5);
+        AlgorithmTrace plain = new AlgorithmTrace(Integer.MAX_VALUE);
+        Random random = new Random(3);
+        for (int step = 0; step < 500; step++) {
+            for (int change = random.nextInt(4); change >= 0; change--) {
+                String node = "N" + random.nextInt(30);
+                Color color = random.nextBoolean() ? Color.RED : Color.BLUE;
+                double distance = random.nextInt(100);
+                keyed.setNodeColor(node, color);
+                plain.setNodeColor(node, color);
+                keyed.setDistance(node, distance);
+                plain.setDistance(node, distance);
+            }
+            keyed.log("step\n");
+            plain.log("step\n");
+        }
+
+        assertTrue(keyed.keyframeCount() > 100);
+        assertEquals(0, plain.keyframeCount());
+        for (int i = 0; i < 2000; i++) {
+            int step = random.nextInt(keyed.size());
+            VisualState expected = plain.stateAt(step);
+            VisualState actual = keyed.stateAt(step);
+            assertEquals(expected.getNodeColors(), actual.getNodeColors());
+            assertEquals(expected.getDistances(), actual.getDistances());
+        }
+    }
+
+    @Test
+    void adaptiveIntervalKeepsKeyframesSparse() {
+        // With the default interval a keyframe is never smaller than the changes it spans.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        for (int step = 0; step < 10_000; step++) {
+            trace.setDistance("N" + step % 50, step);
+            trace.log("");
+        }
+
+        assertEquals(10_000 / AlgorithmTrace.MIN_KEYFRAME_INTERVAL, trace.keyframeCount());
+        assertEquals(9_999.0, trace.stateAt(10_000).getDistances().get("N49"));
+        assertEquals(5_000.0, trace.stateAt(5_001).getDistances().get("N0"));
+        assertThrows(IllegalArgumentException.class, () -> new AlgorithmTrace(0));
+    }
+
+    @Test
+    void streamedRecordingStaysWithinLookaheadOfPlayback() throws Exception {
+        // The recorder pauses a window ahead of the furthest requested step and stops when cancelled.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.setLookahead(10);
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread recorder = new Thread(() -> {
+            try {
+                for (int step = 0; step < 1_000; step++) {
+                    trace.setDistance("A", step);
+                    trace.log(step + "\n");
+                }
+            } catch (Throwable e) {
+                outcome.set(e);
+            }
+        });
+        recorder.start();
+
+        awaitPause(recorder);
+        assertEquals(12, trace.size());
+        trace.awaitStep(500).get(10, TimeUnit.SECONDS);
+        awaitPause(recorder);
+        assertEquals(512, trace.size());
+        assertEquals(499.0, trace.stateAt(500).getDistances().get("A"));
+
+        trace.cancel();
+        recorder.join(10_000);
+        assertInstanceOf(CancellationException.class, outcome.get());
+        assertTrue(trace.completion().isCompletedExceptionally());
+        assertEquals("510\n", trace.lineAt(511));
+    }
+
+    @Test
+    void droppedStepsMergeIntoTheNextKeptStep() {
+        // Only milestones survive; the changes in between collapse into them without formatting their lines.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.setLevel(AlgorithmTrace.Level.MILESTONES);
+        trace.log(AlgorithmTrace.StepKind.MILESTONE, () -> "start\n");
+        for (int step = 0; step < 100; step++) {
+            trace.setNodeColor("A", step % 2 == 0 ? Color.RED : Color.BLUE);
+            trace.setDistance("A", step);
+            trace.log(AlgorithmTrace.StepKind.DETAIL, () -> fail("dropped step was formatted"));
+        }
+        trace.log(AlgorithmTrace.StepKind.MILESTONE, () -> "done\n");
+
+        assertEquals(3, trace.size());
+        assertEquals(Color.BLUE, trace.stateAt(2).getNodeColors().get("A"));
+        assertEquals(99.0, trace.stateAt(2).getDistances().get("A"));
+        assertTrue(trace.stateAt(1).getDistances().isEmpty());
+        assertEquals("start\ndone\n", trace.stateAt(2).getLogLine());
+        int[] changes = new int[1];
+        trace.replayStep(2, new AlgorithmTrace.ChangeSink() {
+            @Override
+            public void nodeColor(int node, Color color) {
+                changes[0]++;
+            }
+
+            @Override
+            public void edgeColor(int edge, Color color) {
+                changes[0]++;
+            }
+
+            @Override
+            public void distance(int node, double distance) {
+                changes[0]++;
+            }
+        });
+        assertEquals(2, changes[0], "one change per key, the first dropped step's included");
+    }
+
+    @Test
+    void sampleIntervalKeepsEveryNthAdmittedStep() {
+        // Expansions are sampled, details dropped, milestones always kept.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.setLevel(AlgorithmTrace.Level.EXPANSIONS);
+        trace.setSampleInterval(3);
+        for (int step = 1; step <= 9; step++) {
+            trace.log(AlgorithmTrace.StepKind.EXPANSION, () -> "e\n");
+            trace.log(AlgorithmTrace.StepKind.DETAIL, () -> "d\n");
+        }
+        trace.log(AlgorithmTrace.StepKind.MILESTONE, () -> "m\n");
+
+        assertEquals("e\ne\ne\nm\n", trace.stateAt(trace.size() - 1).getLogLine());
+        assertThrows(IllegalArgumentException.class, () -> trace.setSampleInterval(0));
+    }
+
+    @Test
+    void boundTraceKeysStateByGraphIndex() {
+        // Index setters and id setters land in the same dense slots, which the compact cursor reads back.
+        GraphModel model = TestGraphFactory.createGraph(false, false, "A", "B", "C");
+        TestGraphFactory.connect(model, "A", "B", 1);
+        TestGraphFactory.connect(model, "B", "C", 1);
+        CsrGraph graph = CsrGraph.of(model);
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.bind(graph);
+        trace.setNodeColor(2, Color.RED);
+        trace.setEdgeColor(1, Color.BLUE);
+        trace.setDistance("B", 5);
+        trace.log("one\n");
+        trace.setNodeColor("C", null);
+        trace.log("two\n");
+
+        CompactState state = trace.compactAt(1);
+        assertSame(graph, state.graph());
+        assertEquals(Color.RED, state.nodeColor(2));
+        assertNull(state.nodeColor(0));
+        assertEquals(Color.BLUE, state.edgeColor(1));
+        assertEquals(5.0, state.distance(1));
+        assertTrue(Double.isNaN(state.distance(0)));
+        assertEquals(Color.BLUE, trace.stateAt(1).getEdgeColors().get("B->C"));
+        assertNull(trace.compactAt(2).nodeColor(2));
+        assertEquals("one\ntwo\n", trace.compactAt(2).getLog().toString());
+        assertTrue(graph.sharesIndicesWith(model));
+        assertThrows(IndexOutOfBoundsException.class, () -> trace.setNodeColor(3, Color.RED));
+        assertThrows(IllegalArgumentException.class, () -> trace.setNodeColor("Z", Color.RED));
+        assertThrows(IllegalStateException.class, () -> trace.bind(graph));
+
+        // An edit renumbers the live graph, so its indices no longer match the snapshot's
+        model.removeNode(model.getNode("A"));
+        assertFalse(graph.sharesIndicesWith(model));
+    }
+
+    @Test
+    void unknownIdsOnAnEmptyBoundGraphAreRejected() {
+        // With nothing to index, the lookup must still end in the documented exception.
+        AlgorithmTrace trace = new AlgorithmTrace();
+        trace.bind(CsrGraph.of(new GraphModel()));
+
+        assertThrows(IllegalArgumentException.class, () -> trace.setNodeColor("A", Color.RED));
+        assertThrows(IllegalArgumentException.class, () -> trace.setEdgeColor("A->B", Color.RED));
+        assertThrows(IllegalArgumentException.class, () -> trace.setDistance("A", 1));
+    }
+
+    @Test
+    void spilledSegmentsReplayLikeHeapOnes() {
+        // With no heap budget every full segment and keyframe is read back from the spill file.
+        AlgorithmTrace spilled = new AlgorithmTrace(5_000);
+        AlgorithmTrace heap = new AlgorithmTrace(5_000);
+        spilled.setMemoryBudget(0);
+        Random random = new Random(5);
+        for (int step = 0; step < 3_000; step++) {
+            for (int change = 0; change < 30; change++) {
+                String node = "N" + random.nextInt(1_000);
+                double distance = random.nextInt(100);
+                spilled.setDistance(node, distance);
+                heap.setDistance(node, distance);
+            }
+            spilled.log("");
+            heap.log("");
+        }
+
+        assertTrue(spilled.spilledBytes() >= 2L * TraceStore.SEGMENT_CHANGES * TraceStore.CHANGE_BYTES);
+        assertEquals(0, heap.spilledBytes());
+        for (int i = 0; i < 200; i++) {
+            int step = random.nextInt(heap.size());
+            assertEquals(heap.stateAt(step).getDistances(), spilled.stateAt(step).getDistances());
+        }
+        assertThrows(IllegalArgumentException.class, () -> spilled.setMemoryBudget(-1));
+    }
+
+    private static void awaitPause(Thread recorder) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (recorder.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, recorder.getState());
+    }
+}
@@ -0,0 +1,100 @@
+package com.graphvizfx.model;
+
+import com.graphvizfx.TestGraphFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrGraphTest {
+
+    @Test
+    void undirectedEdgesProduceArcsInBothDirections() {
+        // Each undirected edge is visible from both endpoints, outgoing arcs first.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 4);
+        TestGraphFactory.connect(graph, "C", "B", 2);
+
+        CsrGraph csr = CsrGraph.of(graph);
+        int b = csr.indexOf(graph.getNode("B"));
+
+        assertEquals(3, csr.nodeCount());
+        assertEquals(2, csr.edgeCount());
+        assertEquals(2, csr.arcEnd(b) - csr.arcStart(b));
+        assertEquals("A", csr.nodeId(csr.arcTarget(csr.arcStart(b))));
+        assertEquals(4, csr.arcWeight(csr.arcStart(b)));
+        assertEquals("C->B", csr.edgeId(csr.arcEdge(csr.arcStart(b) + 1)));
+    }
+
+    @Test
+    void directedSnapshotKeepsOnlyForwardArcsAndUnitCostsWhenUnweighted() {
+        // Directed graphs expose outgoing arcs only; unweighted graphs cost 1 per arc.
+        GraphModel graph = TestGraphFactory.createGraph(true, false, "A", "B");
+        TestGraphFactory.connect(graph, "A", "B", 9);
+
+        CsrGraph csr = CsrGraph.of(graph);
+        int a = csr.indexOf(graph.getNode("A"));
+        int b = csr.indexOf(graph.getNode("B"));
+
+        assertEquals(1, csr.arcEnd(a) - csr.arcStart(a));
+        assertEquals(0, csr.arcEnd(b) - csr.arcStart(b));
+        assertEquals(1, csr.arcCost(csr.arcStart(a)));
+        assertEquals(-1, csr.indexOf(null));
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterEdits() {
+        // Edits to the live model after the snapshot must not leak into it.
+        GraphModel graph = TestGraphFactory.createGraph(false, true, "A", "B");
+        TestGraphFactory.connect(graph, "A", "B", 1);
+
+        CsrGraph csr = CsrGraph.of(graph);
+        graph.getNode("A").setX(99);
+        graph.removeNode(graph.getNode("B"));
+
+        assertEquals(0.0, csr.nodeX(0));
+        assertEquals(2, csr.nodeCount());
+        assertEquals(1, csr.edgeCount());
+    }
+
+    @Test
+    void otherWeightColumnsComeFromTheSnapshotWhenSelected() {
+        // Columns are copied lazily, but a column selected after an edit still has the snapshot's weights.
+        GraphModel graph = TestGraphFactory.createGraph(true, true, "A", "B");
+        TestGraphFactory.connect(graph, "A", "B", 4);
+        int toll = graph.addWeightColumn("toll");
+        graph.setEdgeWeight(0, toll, 7);
+
+        CsrGraph csr = CsrGraph.of(graph);
+        graph.setEdgeWeight(0, toll, 30);
+        CsrGraph byToll = csr.withWeights(toll);
+
+        assertEquals(7, csr.edgeWeight(0, toll));
+        assertEquals(7, byToll.arcWeight(byToll.arcStart(0)));
+        assertEquals(4, byToll.edgeWeight(0, 0));
+        assertEquals(30, CsrGraph.of(graph).withWeights(toll).edgeWeight(0));
+    }
+
+    @Test
+    void reverseTurnsDirectedArcsAroundAndKeepsUndirectedGraphs() {
+        // The reverse graph lists incoming arcs with their edge and weight; undirected graphs are their own reverse.
+        GraphModel graph = TestGraphFactory.createGraph(true, true, "A", "B", "C");
+        TestGraphFactory.connect(graph, "A", "B", 4);
+        TestGraphFactory.connect(graph, "C", "B", 2);
+
+        CsrGraph csr = CsrGraph.of(graph);
+        CsrGraph reverse = csr.reverse();
+        int b = csr.indexOf(graph.getNode("B"));
+
+        assertSame(reverse, csr.reverse());
+        assertSame(csr, reverse.reverse());
+        assertEquals(2, reverse.arcEnd(b) - reverse.arcStart(b));
+        assertEquals(0, reverse.arcEnd(0) - reverse.arcStart(0));
+        assertEquals("A", reverse.nodeId(reverse.arcTarget(reverse.arcStart(b))));
+        assertEquals(4, reverse.arcWeight(reverse.arcStart(b)));
+        assertEquals("C->B", reverse.edgeId(reverse.arcEdge(reverse.arcStart(b) + 1)));
+
+        graph.setDirected(false);
+        CsrGraph undirected = CsrGraph.of(graph);
+        assertSame(undirected, undirected.reverse());
+    }
+}
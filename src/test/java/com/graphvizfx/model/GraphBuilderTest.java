@@ -0,0 +1,99 @@
+package com.graphvizfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphBuilderTest {
+
+    @Test
+    void commitAppendsBatchAsSingleChange() {
+        // Nodes resolve by id before commit and the whole batch is one event.
+        GraphModel graph = new GraphModel();
+        graph.addNode("A", 0, 0);
+        List<GraphChange> seen = new ArrayList<>();
+        graph.addListener(seen::add);
+
+        GraphBuilder builder = graph.builder(2, 2);
+        int b = builder.addNode("B", 1, 1);
+        int c = builder.addNode("C", 2, 2);
+        assertTrue(builder.addEdge(builder.indexOf("A"), b, 5));
+        assertTrue(builder.addEdge(b, c, 7));
+        builder.commit();
+
+        assertEquals(List.of(new GraphChange.BatchAdded(graph.getVersion(), 1, 2, 0, 2)), seen);
+        assertEquals(3, graph.nodeCount());
+        assertEquals(c, graph.indexOf("C"));
+        assertTrue(graph.hasEdge(0, b));
+        assertEquals(1, graph.outDegree(b));
+        assertEquals(1, graph.inDegree(b));
+        assertEquals(7, graph.edgeWeight(1));
+    }
+
+    @Test
+    void duplicatePairsAreRejectedAgainstGraphAndBatch() {
+        // Undirected graphs treat both orientations as one pair; existing edges count too.
+        GraphModel graph = new GraphModel();
+        int a = graph.addNode("A", 0, 0);
+        int b = graph.addNode("B", 0, 0);
+        graph.addEdge(a, b, 1);
+
+        GraphBuilder builder = graph.builder(0, 0);
+        int c = builder.addNode("C", 0, 0);
+        assertFalse(builder.addEdge(b, a, 1));
+        assertTrue(builder.addEdge(a, c, 1));
+        assertFalse(builder.addEdge(c, a, 1));
+        builder.commit();
+
+        assertEquals(2, graph.edgeCount());
+    }
+
+    @Test
+    void largeBatchMatchesIncrementalBuild() {
+        // Pre-sized adjacency must agree with edge-by-edge insertion.
+        int n = 3000;
+        GraphModel bulk = new GraphModel();
+        bulk.setDirected(true);
+        GraphModel incremental = new GraphModel();
+        incremental.setDirected(true);
+        GraphBuilder builder = bulk.builder(n, 0);
+        for (int i = 0; i < n; i++) {
+            builder.addNode("N" + i, i, -i);
+            incremental.addNode("N" + i, i, -i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int k = 1; k <= 3; k++) {
+                int j = (i * 7 + k * 13) % n;
+                builder.addEdge(i, j, k);
+                if (!incremental.hasEdge(i, j)) {
+                    incremental.addEdge(i, j, k);
+                }
+            }
+        }
+        builder.commit();
+
+        assertEquals(incremental.edgeCount(), bulk.edgeCount());
+        for (int i = 0; i < n; i++) {
+            assertEquals(incremental.outDegree(i), bulk.outDegree(i));
+            assertEquals(incremental.inDegree(i), bulk.inDegree(i));
+            for (int k = 0; k < bulk.outDegree(i); k++) {
+                assertEquals(incremental.edgeTarget(incremental.outEdge(i, k)), bulk.edgeTarget(bulk.outEdge(i, k)));
+            }
+        }
+        assertEquals(n - 1, bulk.indexOf("N" + (n - 1)));
+    }
+
+    @Test
+    void editingTheGraphInvalidatesTheBuilder() {
+        // Staged indices assume nothing moved in between.
+        GraphModel graph = new GraphModel();
+        GraphBuilder builder = graph.builder(1, 0);
+        builder.addNode("A", 0, 0);
+        graph.addNode("B", 0, 0);
+
+        assertThrows(IllegalStateException.class, builder::commit);
+    }
+}
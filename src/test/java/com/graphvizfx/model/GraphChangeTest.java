@@ -0,0 +1,99 @@
+package com.graphvizfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphChangeTest {
+
+    @Test
+    void everyMutationBumpsVersionAndNotifiesListeners() {
+        // Each mutator publishes exactly one change carrying the new version.
+        GraphModel graph = new GraphModel();
+        List<GraphChange> seen = new ArrayList<>();
+        graph.addListener(seen::add);
+
+        int a = graph.addNode("A", 0, 0);
+        int b = graph.addNode("B", 10, 0);
+        int e = graph.addEdge(a, b, 3);
+        graph.setNodePosition(a, 5, 5);
+        graph.setEdgeWeight(e, 7);
+        graph.renameNode(b, "C");
+        graph.setDirected(true);
+
+        assertEquals(7, graph.getVersion());
+        assertEquals(7, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(i + 1, seen.get(i).version());
+        }
+        assertEquals(new GraphChange.EdgeReweighted(5, e, 3, 7), seen.get(4));
+        assertEquals(new GraphChange.NodeRenamed(6, b, "B", "C"), seen.get(5));
+    }
+
+    @Test
+    void noOpSettersDoNotPublish() {
+        // Writing the current value leaves the version untouched.
+        GraphModel graph = new GraphModel();
+        int a = graph.addNode("A", 1, 2);
+        long version = graph.getVersion();
+
+        graph.setNodePosition(a, 1, 2);
+        graph.setDirected(false);
+        graph.setWeighted(false);
+
+        assertEquals(version, graph.getVersion());
+    }
+
+    @Test
+    void removeNodeReportsCascadedEdgesAndSwap() {
+        // Incident edges are removed first, then the node with the index that filled its slot.
+        GraphModel graph = new GraphModel();
+        int a = graph.addNode("A", 0, 0);
+        int b = graph.addNode("B", 0, 0);
+        graph.addNode("C", 0, 0);
+        graph.addEdge(a, b, 4);
+        long before = graph.getVersion();
+
+        graph.removeNode(a);
+
+        List<GraphChange> changes = graph.changesSince(before);
+        assertEquals(2, changes.size());
+        assertEquals(new GraphChange.EdgeRemoved(before + 1, 0, a, b, 4, -1, null, 0, 0), changes.get(0));
+        assertEquals(new GraphChange.NodeRemoved(before + 2, a, "A", 0, 0, 2), changes.get(1));
+    }
+
+    @Test
+    void changesSinceReturnsNullOnceJournalIsTruncated() {
+        // The journal is bounded; callers that fall too far behind must rebuild.
+        GraphModel graph = new GraphModel();
+        int a = graph.addNode("A", 0, 0);
+        for (int i = 1; i <= 5000; i++) {
+            graph.setNodePosition(a, i, i);
+        }
+
+        assertNull(graph.changesSince(0));
+        assertEquals(1, graph.changesSince(graph.getVersion() - 1).size());
+        assertTrue(graph.changesSince(graph.getVersion()).isEmpty());
+    }
+
+    @Test
+    void bulkPositionUpdatePublishesSingleChange() {
+        // Layouts replace all coordinates in one change that keeps the old ones.
+        GraphModel graph = new GraphModel();
+        graph.addNode("A", 1, 2);
+        graph.addNode("B", 3, 4);
+        long before = graph.getVersion();
+
+        graph.setNodePositions(new double[]{10, 30}, new double[]{20, 40});
+
+        List<GraphChange> changes = graph.changesSince(before);
+        assertEquals(1, changes.size());
+        GraphChange.NodesMoved moved = (GraphChange.NodesMoved) changes.get(0);
+        assertArrayEquals(new double[]{1, 2, 3, 4}, moved.previous());
+        assertEquals(30, graph.nodeX(1));
+        assertThrows(IllegalArgumentException.class, () -> graph.setNodePositions(new double[1], new double[1]));
+    }
+}
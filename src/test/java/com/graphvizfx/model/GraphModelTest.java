@@ -2,6 +2,8 @@ package com.graphvizfx.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class GraphModelTest {
@@ -51,4 +53,252 @@ class GraphModelTest {
         assertTrue(graph.getNodes().isEmpty());
         assertTrue(graph.getEdges().isEmpty());
     }
+
+    @Test
+    void adjacencyFollowsDirectionAndEdgeRemoval() {
+        // Incident edges honour direction and drop out of the adjacency when removed.
+        GraphModel graph = new GraphModel();
+        GNode a = new GNode("A", 0, 0);
+        GNode b = new GNode("B", 0, 0);
+        GNode c = new GNode("C", 0, 0);
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        GEdge ab = new GEdge(a, b, 1);
+        GEdge cb = new GEdge(c, b, 1);
+        graph.addEdge(ab);
+        graph.addEdge(cb);
+
+        graph.setDirected(true);
+        assertEquals(List.of(ab), graph.getIncidentEdges(a));
+        assertTrue(graph.getIncidentEdges(b).isEmpty());
+        assertEquals(List.of(ab, cb), graph.getIncomingEdges(b));
+
+        graph.setDirected(false);
+        assertEquals(List.of(ab, cb), graph.getIncidentEdges(b));
+
+        graph.removeEdge(ab);
+        assertEquals(List.of(cb), graph.getIncidentEdges(b));
+        assertFalse(graph.hasEdge(a, b));
+    }
+
+    @Test
+    void removeNodeDropsIncidentEdgesAndIndexEntry() {
+        // Removing a node should cascade to its edges and free its id.
+        GraphModel graph = new GraphModel();
+        GNode a = new GNode("A", 0, 0);
+        GNode b = new GNode("B", 0, 0);
+        GNode c = new GNode("C", 0, 0);
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        GEdge bc = new GEdge(b, c, 1);
+        graph.addEdge(new GEdge(a, b, 1));
+        graph.addEdge(bc);
+
+        graph.removeNode(a);
+
+        assertNull(graph.getNode("A"));
+        assertEquals(List.of(bc), graph.getEdges());
+        assertTrue(graph.getIncomingEdges(b).isEmpty());
+    }
+
+    @Test
+    void indexTracksRenamesAndEndpointChanges() {
+        // Mutating a node id or edge endpoint in place keeps lookups consistent.
+        GraphModel graph = new GraphModel();
+        GNode a = new GNode("A", 0, 0);
+        GNode b = new GNode("B", 0, 0);
+        GNode c = new GNode("C", 0, 0);
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        GEdge edge = new GEdge(a, b, 1);
+        graph.addEdge(edge);
+
+        a.setId("Z");
+        edge.setTarget(c);
+
+        assertNull(graph.getNode("A"));
+        assertSame(a, graph.getNode("Z"));
+        assertTrue(graph.hasEdge(a, c));
+        assertFalse(graph.hasEdge(a, b));
+    }
+
+    @Test
+    void sharedIdsStayFindableAfterTheIndexedNodeGoes() {
+        // The first node with an id is the one found; removing or renaming it hands the id to the next.
+        GraphModel graph = new GraphModel();
+        GNode first = new GNode("A", 0, 0);
+        GNode second = new GNode("A", 1, 0);
+        GNode third = new GNode("A", 2, 0);
+        graph.addNode(first);
+        graph.addNode(second);
+        graph.addNode(third);
+
+        assertSame(first, graph.getNode("A"));
+        graph.removeNode(first);
+        GNode survivor = graph.getNode("A");
+        assertTrue(survivor == second || survivor == third);
+        survivor.setId("B");
+        assertSame(survivor, graph.getNode("B"));
+        GNode last = survivor == second ? third : second;
+        assertSame(last, graph.getNode("A"));
+        graph.removeNode(last);
+        assertNull(graph.getNode("A"));
+    }
+
+    @Test
+    void indexApiBuildsGraphWithoutViews() {
+        // Index-based construction resolves ids and edges through the columns directly.
+        GraphModel graph = new GraphModel();
+        int a = graph.addNode("A", 1, 2);
+        int b = graph.addNode("B", 3, 4);
+        int e = graph.addEdge(a, b, 7);
+
+        assertEquals(2, graph.nodeCount());
+        assertEquals(1, graph.edgeCount());
+        assertEquals(b, graph.indexOf("B"));
+        assertEquals("A->B", graph.edgeId(e));
+        assertTrue(graph.hasEdge(a, b));
+        assertSame(graph.nodeAt(a), graph.getNode("A"));
+        assertSame(graph.nodeAt(a), graph.edgeAt(e).getSource());
+    }
+
+    @Test
+    void removalMovesLastElementAndKeepsViewsInSync() {
+        // Deleting from the middle relabels only the last element, and its view follows.
+        GraphModel graph = new GraphModel();
+        GNode a = new GNode("A", 0, 0);
+        GNode b = new GNode("B", 0, 0);
+        GNode c = new GNode("C", 5, 6);
+        graph.addNode(a);
+        graph.addNode(b);
+        graph.addNode(c);
+        GEdge ca = new GEdge(c, a, 3);
+        graph.addEdge(new GEdge(b, a, 1));
+        graph.addEdge(ca);
+
+        graph.removeNode(b);
+
+        assertEquals(-1, b.getIndex());
+        assertEquals("B", b.getId());
+        assertEquals(1, c.getIndex());
+        assertEquals(1, graph.indexOf("C"));
+        assertEquals(0, ca.getIndex());
+        assertSame(c, ca.getSource());
+        assertEquals(5.0, graph.nodeX(1));
+        assertTrue(graph.hasEdge(c, a));
+    }
+
+    @Test
+    void viewsWriteThroughToColumns() {
+        // Mutating an attached view updates the stored coordinates and weight.
+        GraphModel graph = new GraphModel();
+        GNode a = new GNode("A", 0, 0);
+        GNode b = new GNode("B", 0, 0);
+        GEdge edge = new GEdge(a, b, 1);
+        graph.addEdge(edge);
+
+        a.setX(12);
+        a.setY(8);
+        edge.setWeight(4);
+
+        assertEquals(2, graph.nodeCount());
+        assertEquals(12.0, graph.nodeX(a.getIndex()));
+        assertEquals(8.0, graph.nodeY(a.getIndex()));
+        assertEquals(4, graph.edgeWeight(edge.getIndex()));
+    }
+
+    @Test
+    void weightColumnsFollowEdgeIndices() {
+        // New columns start at the primary weight and move with swap-removal.
+        GraphModel graph = new GraphModel();
+        int a = graph.addNode("A", 0, 0);
+        int b = graph.addNode("B", 0, 0);
+        int c = graph.addNode("C", 0, 0);
+        graph.addEdge(a, b, 3);
+        graph.addEdge(b, c, 4);
+
+        int time = graph.addWeightColumn("time");
+        assertEquals(4, graph.edgeWeight(1, time));
+        graph.setEdgeWeights(time, new int[]{30, 40});
+        int added = graph.addEdge(a, c, 9);
+        graph.removeEdge(0);
+
+        assertEquals(2, graph.weightColumnCount());
+        assertEquals(time, graph.weightColumn("time"));
+        assertEquals(-1, graph.weightColumn("toll"));
+        assertEquals(9, graph.edgeWeight(0, time));
+        assertEquals(9, graph.edgeWeight(0));
+        assertEquals(40, graph.edgeWeight(1, time));
+        assertEquals(2, added);
+        assertThrows(IllegalArgumentException.class, () -> graph.addWeightColumn("time"));
+        assertThrows(IndexOutOfBoundsException.class, () -> graph.edgeWeight(0, 2));
+    }
+
+    @Test
+    void denseAdjacencyAgreesWithListsThroughEdits() {
+        // Removals, reconnections and parallel edges keep the matrix equal to the list scan.
+        GraphModel dense = new GraphModel();
+        dense.setDirected(true);
+        dense.setAdjacencyMode(GraphModel.AdjacencyMode.DENSE);
+        GraphModel sparse = new GraphModel();
+        sparse.setDirected(true);
+        sparse.setAdjacencyMode(GraphModel.AdjacencyMode.SPARSE);
+        for (GraphModel graph : List.of(dense, sparse)) {
+            for (int i = 0; i < 100; i++) {
+                graph.addNode("N" + i, 0, 0);
+            }
+            for (int i = 0; i < 100; i++) {
+                graph.addEdge(i, (i * 7 + 3) % 100, 1);
+                graph.addEdge(i, (i * 11 + 5) % 100, 1);
+            }
+            graph.addEdge(4, 31, 1);
+            graph.addEdge(4, 31, 1);
+            graph.removeEdge(graph.edgeCount() - 1);
+            graph.reconnectEdge(10, 99, 0);
+            graph.removeNode(42);
+            graph.removeNode(7);
+            graph.insertNode(7, "M", 0, 0);
+        }
+
+        assertTrue(dense.isDenseAdjacency());
+        assertFalse(sparse.isDenseAdjacency());
+        assertTrue(dense.hasEdge(4, 31));
+        for (int u = 0; u < dense.nodeCount(); u++) {
+            for (int v = 0; v < dense.nodeCount(); v++) {
+                assertEquals(sparse.hasEdge(u, v), dense.hasEdge(u, v), u + "->" + v);
+            }
+        }
+    }
+
+    @Test
+    void autoModeSwitchesWithDensity() {
+        // The matrix appears once enough pairs are edges and goes away when the graph thins out.
+        GraphModel graph = new GraphModel();
+        graph.setDirected(true);
+        for (int i = 0; i < 64; i++) {
+            graph.addNode("N" + i, 0, 0);
+        }
+        for (int i = 0; i < 32; i++) {
+            graph.addEdge(i, i + 1, 1);
+        }
+        assertFalse(graph.isDenseAdjacency());
+
+        for (int i = 32; i < 64; i++) {
+            graph.addEdge(i, (i + 1) % 64, 1);
+        }
+        assertTrue(graph.isDenseAdjacency());
+        assertTrue(graph.hasEdge(63, 0));
+
+        while (graph.edgeCount() > 16) {
+            graph.removeEdge(0);
+        }
+        assertTrue(graph.isDenseAdjacency());
+        while (graph.edgeCount() > 8) {
+            graph.removeEdge(0);
+        }
+        assertFalse(graph.isDenseAdjacency());
+    }
 }
@@ -0,0 +1,72 @@
+package com.graphvizfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotTest {
+
+    @Test
+    void snapshotIsIsolatedFromLaterEdits() {
+        // Edits after the snapshot, including swap-removals, never show through.
+        GraphModel graph = new GraphModel();
+        int a = graph.addNode("A", 1, 2);
+        int b = graph.addNode("B", 3, 4);
+        graph.addNode("C", 5, 6);
+        graph.addEdge(a, b, 7);
+        GraphSnapshot snapshot = graph.snapshot();
+
+        graph.setNodePosition(a, 100, 200);
+        graph.setEdgeWeight(0, 9);
+        graph.removeNode(a);
+        graph.addNode("D", 0, 0);
+
+        assertEquals(3, snapshot.nodeCount());
+        assertEquals(1, snapshot.edgeCount());
+        assertEquals("A", snapshot.nodeId(0));
+        assertEquals(1, snapshot.nodeX(0));
+        assertEquals(7, snapshot.edgeWeight(0));
+        assertEquals(1, snapshot.edgeTarget(0));
+        assertEquals("C", graph.nodeId(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.nodeId(3));
+    }
+
+    @Test
+    void snapshotsAcrossManyChunksSeeTheirOwnVersion() {
+        // Large graphs share untouched chunks while each snapshot keeps its own values.
+        GraphModel graph = new GraphModel();
+        int n = 5000;
+        for (int i = 0; i < n; i++) {
+            graph.addNode("N" + i, i, 0);
+        }
+        GraphSnapshot first = graph.snapshot();
+        graph.setNodePosition(n - 1, -1, 0);
+        GraphSnapshot second = graph.snapshot();
+        graph.setNodePosition(0, -1, 0);
+
+        assertEquals(n - 1, first.nodeX(n - 1));
+        assertEquals(-1, second.nodeX(n - 1));
+        assertEquals(0, second.nodeX(0));
+        assertEquals(-1, graph.nodeX(0));
+        assertEquals(first.getVersion() + 1, second.getVersion());
+    }
+
+    @Test
+    void csrBuiltFromSnapshotMapsNodesOfTheLiveGraph() {
+        // Views of the live graph resolve to snapshot indices while their id still matches.
+        GraphModel graph = new GraphModel();
+        graph.setDirected(true);
+        GNode a = new GNode("A", 0, 0);
+        GNode b = new GNode("B", 0, 0);
+        graph.addEdge(new GEdge(a, b, 3));
+        GraphSnapshot snapshot = graph.snapshot();
+        graph.clear();
+
+        CsrGraph csr = CsrGraph.of(snapshot);
+
+        assertEquals(2, csr.nodeCount());
+        assertEquals("A->B", csr.edgeId(0));
+        assertTrue(csr.isDirected());
+        assertEquals(-1, snapshot.indexOf(a));
+    }
+}
@@ -0,0 +1,50 @@
+package com.graphvizfx.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdIndexTest {
+
+    @Test
+    void matchesHashMapUnderRandomInsertsAndRemovals() {
+        // Backward-shift deletion must keep every remaining key reachable.
+        IdIndex index = new IdIndex();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            String key = "N" + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                index.putIfAbsent(key, i);
+                expected.putIfAbsent(key, i);
+            } else if (expected.containsKey(key)) {
+                index.remove(key, expected.remove(key));
+            }
+        }
+
+        for (int k = 0; k < 2_000; k++) {
+            String key = "N" + k;
+            assertEquals(expected.getOrDefault(key, -1), index.get(key), key);
+        }
+    }
+
+    @Test
+    void removeAndReplaceOnlyAffectMatchingValue() {
+        // Stale values must not evict or re-point a key owned by another index.
+        IdIndex index = new IdIndex();
+        index.putIfAbsent("A", 0);
+
+        index.remove("A", 5);
+        index.replace("A", 5, 9);
+        assertEquals(0, index.get("A"));
+
+        index.replace("A", 0, 3);
+        assertEquals(3, index.get("A"));
+        assertEquals(-1, index.get(null));
+    }
+}